@@ -0,0 +1,61 @@
+package uk.gov.di.ipv.cri.fraud.api.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import uk.gov.di.ipv.cri.common.library.domain.personidentity.PersonIdentity;
+import uk.gov.di.ipv.cri.fraud.api.gateway.IdentityVerificationRequestMapper;
+import uk.gov.di.ipv.cri.fraud.api.gateway.dto.request.IdentityVerificationRequest;
+import uk.gov.di.ipv.cri.fraud.api.gateway.dto.request.PEPRequest;
+import uk.gov.di.ipv.cri.fraud.api.util.TestDataCreator;
+import uk.gov.di.ipv.cri.fraud.library.util.JsonCodecRegistry;
+
+@State(Scope.Benchmark)
+public class FraudCheckRequestBenchmark {
+
+    private static final String TENANT_ID = "00000000-0000-0000-0000-000000000000";
+
+    private IdentityVerificationRequestMapper requestMapper;
+    private ObjectMapper objectMapper;
+    private JsonCodecRegistry jsonCodecRegistry;
+
+    private PersonIdentity personIdentity;
+    private IdentityVerificationRequest identityVerificationRequest;
+
+    @Setup
+    public void setUp() {
+        requestMapper = new IdentityVerificationRequestMapper();
+        objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+        jsonCodecRegistry =
+                new JsonCodecRegistry(objectMapper).register(IdentityVerificationRequest.class);
+
+        // Address chain of three addresses
+        personIdentity = TestDataCreator.createTestPersonIdentityMultipleAddresses(3, 0, 0, false);
+        identityVerificationRequest = requestMapper.mapPersonIdentity(personIdentity, TENANT_ID);
+    }
+
+    @Benchmark
+    public IdentityVerificationRequest mapPersonIdentity() {
+        return requestMapper.mapPersonIdentity(personIdentity, TENANT_ID);
+    }
+
+    @Benchmark
+    public PEPRequest mapPEPPersonIdentity() {
+        return requestMapper.mapPEPPersonIdentity(personIdentity, TENANT_ID);
+    }
+
+    @Benchmark
+    public String serialiseIdentityVerificationRequest() throws JsonProcessingException {
+        return objectMapper.writeValueAsString(identityVerificationRequest);
+    }
+
+    @Benchmark
+    public String serialiseIdentityVerificationRequestWithCodecRegistry()
+            throws JsonProcessingException {
+        return jsonCodecRegistry.writeValueAsString(identityVerificationRequest);
+    }
+}
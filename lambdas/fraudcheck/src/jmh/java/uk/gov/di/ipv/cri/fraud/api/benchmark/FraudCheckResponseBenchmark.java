@@ -0,0 +1,124 @@
+package uk.gov.di.ipv.cri.fraud.api.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import uk.gov.di.ipv.cri.fraud.api.domain.ValidationResult;
+import uk.gov.di.ipv.cri.fraud.api.domain.check.FraudCheckResult;
+import uk.gov.di.ipv.cri.fraud.api.gateway.IdentityVerificationResponseMapper;
+import uk.gov.di.ipv.cri.fraud.api.gateway.IdentityVerificationResponseReader;
+import uk.gov.di.ipv.cri.fraud.api.gateway.dto.response.IdentityVerificationResponse;
+import uk.gov.di.ipv.cri.fraud.api.gateway.dto.response.PEPResponse;
+import uk.gov.di.ipv.cri.fraud.api.gateway.dto.response.ResponseType;
+import uk.gov.di.ipv.cri.fraud.api.service.ContraIndicatorMapper;
+import uk.gov.di.ipv.cri.fraud.api.service.IdentityVerificationInfoResponseValidator;
+import uk.gov.di.ipv.cri.fraud.api.util.TestDataCreator;
+import uk.gov.di.ipv.cri.fraud.library.util.JsonCodecRegistry;
+
+import java.io.IOException;
+import java.util.List;
+
+@State(Scope.Benchmark)
+public class FraudCheckResponseBenchmark {
+
+    private static final String CI_MAPPING =
+            "u101:A01||u131,u134:N01||u135,u145,u161:P01||u147:P02||u148,u149:T02||u171:A02";
+    // Typical set of fraud codes, includes one code with no mapping
+    private static final String[] THIRD_PARTY_FRAUD_CODES = {"u101", "u134", "u161", "u999"};
+
+    private ObjectMapper objectMapper;
+    private JsonCodecRegistry jsonCodecRegistry;
+    private IdentityVerificationResponseReader responseReader;
+    private IdentityVerificationResponseMapper responseMapper;
+    private IdentityVerificationInfoResponseValidator infoResponseValidator;
+    private ContraIndicatorMapper contraIndicatorMapper;
+
+    private IdentityVerificationResponse identityVerificationResponse;
+    private String identityVerificationResponseJson;
+    private String pepResponseJson;
+
+    @Setup
+    public void setUp() throws JsonProcessingException {
+        objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+        jsonCodecRegistry =
+                new JsonCodecRegistry(objectMapper)
+                        .register(IdentityVerificationResponse.class, PEPResponse.class);
+        responseReader = new IdentityVerificationResponseReader();
+        responseMapper = new IdentityVerificationResponseMapper(new NoOpEventProbe(), objectMapper);
+        infoResponseValidator = new IdentityVerificationInfoResponseValidator();
+        contraIndicatorMapper = new ContraIndicatorMapper(CI_MAPPING, new NoOpEventProbe());
+
+        identityVerificationResponse =
+                TestDataCreator.createTestVerificationResponse(ResponseType.INFO);
+
+        PEPResponse pepResponse = TestDataCreator.createTestPEPResponse(ResponseType.INFO);
+
+        identityVerificationResponseJson =
+                objectMapper.writeValueAsString(identityVerificationResponse);
+        pepResponseJson = objectMapper.writeValueAsString(pepResponse);
+    }
+
+    @Benchmark
+    public IdentityVerificationResponse deserialiseIdentityVerificationResponse()
+            throws JsonProcessingException {
+        return objectMapper.readValue(
+                identityVerificationResponseJson, IdentityVerificationResponse.class);
+    }
+
+    @Benchmark
+    public IdentityVerificationResponse deserialiseIdentityVerificationResponseWithCodecRegistry()
+            throws JsonProcessingException {
+        return jsonCodecRegistry.readValue(
+                identityVerificationResponseJson, IdentityVerificationResponse.class);
+    }
+
+    // The streaming reader the gateways use, against the full DTO reads above
+    @Benchmark
+    public IdentityVerificationResponse readIdentityVerificationResponseWithStreamingReader()
+            throws IOException {
+        return responseReader.readIdentityVerificationResponse(identityVerificationResponseJson);
+    }
+
+    @Benchmark
+    public PEPResponse deserialisePEPResponse() throws JsonProcessingException {
+        return objectMapper.readValue(pepResponseJson, PEPResponse.class);
+    }
+
+    @Benchmark
+    public PEPResponse readPEPResponseWithStreamingReader() throws IOException {
+        return responseReader.readPEPResponse(pepResponseJson);
+    }
+
+    // Response body to FraudCheckResult on each path
+    @Benchmark
+    public FraudCheckResult deserialiseAndMapFraudResponse() throws JsonProcessingException {
+        return responseMapper.mapFraudResponse(
+                objectMapper.readValue(
+                        identityVerificationResponseJson, IdentityVerificationResponse.class));
+    }
+
+    @Benchmark
+    public FraudCheckResult readAndMapFraudResponseWithStreamingReader() throws IOException {
+        return responseMapper.mapFraudResponse(
+                responseReader.readIdentityVerificationResponse(identityVerificationResponseJson));
+    }
+
+    @Benchmark
+    public FraudCheckResult mapFraudResponse() {
+        return responseMapper.mapFraudResponse(identityVerificationResponse);
+    }
+
+    @Benchmark
+    public ValidationResult<List<String>> validateIdentityVerificationResponse() {
+        return infoResponseValidator.validate(identityVerificationResponse);
+    }
+
+    @Benchmark
+    public String[] mapThirdPartyFraudCodes() {
+        return contraIndicatorMapper.mapThirdPartyFraudCodes(THIRD_PARTY_FRAUD_CODES);
+    }
+}
@@ -0,0 +1,17 @@
+package uk.gov.di.ipv.cri.fraud.api.benchmark;
+
+import uk.gov.di.ipv.cri.common.library.util.EventProbe;
+
+/** Keeps metric output out of the benchmark measurements. */
+public class NoOpEventProbe extends EventProbe {
+
+    @Override
+    public EventProbe counterMetric(String key) {
+        return this;
+    }
+
+    @Override
+    public EventProbe counterMetric(String key, double value) {
+        return this;
+    }
+}
@@ -42,6 +42,12 @@ public class IdentityVerificationResponseMapper {
     public static final String IV_INFO_RESPONSE_VALIDATION_FAILED_MSG =
             "Identity Verification Info Response failed validation.";
 
+    public static final List<String> ACTIVITY_HISTORY_DATA_COUNT_NAMES =
+            List.of(
+                    "IDandLocDataAtCL_StartDateOldestPrim",
+                    "IDandLocDataAtCL_StartDateOldestSec",
+                    "LocDataOnlyAtCLoc_StartDateOldestPrim");
+
     private final EventProbe eventProbe;
 
     private final IdentityVerificationResponseLogger identityVerificationResponseLogger;
@@ -158,11 +164,6 @@ public class IdentityVerificationResponseMapper {
 
             List<String> fraudCodes = new ArrayList<>();
 
-            List<String> recordHistoryfields =
-                    List.of(
-                            "IDandLocDataAtCL_StartDateOldestPrim",
-                            "IDandLocDataAtCL_StartDateOldestSec",
-                            "LocDataOnlyAtCLoc_StartDateOldestPrim");
             Map<String, Integer> activityHistoryRecords = new HashMap<>();
             Integer oldestDateInMonths = null;
 
@@ -178,7 +179,10 @@ public class IdentityVerificationResponseMapper {
                 if (null != dataCounts) {
                     activityHistoryRecords =
                             dataCounts.stream()
-                                    .filter(x -> recordHistoryfields.contains(x.getName()))
+                                    .filter(
+                                            x ->
+                                                    ACTIVITY_HISTORY_DATA_COUNT_NAMES.contains(
+                                                            x.getName()))
                                     .collect(
                                             Collectors.toMap(
                                                     DataCount::getName, DataCount::getValue));
@@ -0,0 +1,391 @@
+package uk.gov.di.ipv.cri.fraud.api.gateway;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import uk.gov.di.ipv.cri.fraud.api.gateway.dto.response.ClientResponsePayload;
+import uk.gov.di.ipv.cri.fraud.api.gateway.dto.response.DataCount;
+import uk.gov.di.ipv.cri.fraud.api.gateway.dto.response.DecisionElement;
+import uk.gov.di.ipv.cri.fraud.api.gateway.dto.response.IdentityVerificationResponse;
+import uk.gov.di.ipv.cri.fraud.api.gateway.dto.response.OrchestrationDecision;
+import uk.gov.di.ipv.cri.fraud.api.gateway.dto.response.OverallResponse;
+import uk.gov.di.ipv.cri.fraud.api.gateway.dto.response.PEPResponse;
+import uk.gov.di.ipv.cri.fraud.api.gateway.dto.response.ResponseHeader;
+import uk.gov.di.ipv.cri.fraud.api.gateway.dto.response.ResponseType;
+import uk.gov.di.ipv.cri.fraud.api.gateway.dto.response.Rule;
+import uk.gov.di.ipv.cri.fraud.api.gateway.dto.response.WarningsErrors;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static uk.gov.di.ipv.cri.fraud.api.gateway.IdentityVerificationResponseMapper.ACTIVITY_HISTORY_DATA_COUNT_NAMES;
+
+/**
+ * Reads CrossCore responses in a single streaming pass. Only the fields used by response
+ * validation, mapping and logging are populated, the rest of the response (matches, scores,
+ * otherData, unused dataCounts) is skipped without being materialised.
+ *
+ * <p>Null and missing fields are handled as the ObjectMapper would, so the response validator sees
+ * the same values on either path.
+ */
+public class IdentityVerificationResponseReader {
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    @FunctionalInterface
+    private interface ElementReader<T> {
+        T read(JsonParser parser) throws IOException;
+    }
+
+    public IdentityVerificationResponse readIdentityVerificationResponse(String json)
+            throws IOException {
+        return readResponse(json, new IdentityVerificationResponse());
+    }
+
+    public PEPResponse readPEPResponse(String json) throws IOException {
+        return readResponse(json, new PEPResponse());
+    }
+
+    private <T extends IdentityVerificationResponse> T readResponse(String json, T response)
+            throws IOException {
+        try (JsonParser parser = JSON_FACTORY.createParser(json)) {
+            JsonToken token = parser.nextToken();
+
+            if (token == JsonToken.VALUE_NULL) {
+                return null;
+            }
+
+            expectStartObject(parser, "response");
+
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String fieldName = parser.currentName();
+                parser.nextToken();
+
+                switch (fieldName) {
+                    case "responseHeader" -> response.setResponseHeader(readResponseHeader(parser));
+                    case "clientResponsePayload" -> response.setClientResponsePayload(
+                            readClientResponsePayload(parser));
+                    default -> parser.skipChildren();
+                }
+            }
+
+            return response;
+        }
+    }
+
+    private ResponseHeader readResponseHeader(JsonParser parser) throws IOException {
+        if (parser.currentToken() == JsonToken.VALUE_NULL) {
+            return null;
+        }
+        expectStartObject(parser, "responseHeader");
+
+        ResponseHeader responseHeader = new ResponseHeader();
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String fieldName = parser.currentName();
+            parser.nextToken();
+
+            switch (fieldName) {
+                case "requestType" -> responseHeader.setRequestType(readString(parser));
+                case "clientReferenceId" -> responseHeader.setClientReferenceId(readString(parser));
+                case "expRequestId" -> responseHeader.setExpRequestId(readString(parser));
+                case "messageTime" -> responseHeader.setMessageTime(readString(parser));
+                case "overallResponse" -> responseHeader.setOverallResponse(
+                        readOverallResponse(parser));
+                case "responseCode" -> responseHeader.setResponseCode(readString(parser));
+                case "responseType" -> responseHeader.setResponseType(readResponseType(parser));
+                case "responseMessage" -> responseHeader.setResponseMessage(readString(parser));
+                case "tenantID" -> responseHeader.setTenantID(readString(parser));
+                default -> parser.skipChildren();
+            }
+        }
+
+        return responseHeader;
+    }
+
+    private OverallResponse readOverallResponse(JsonParser parser) throws IOException {
+        if (parser.currentToken() == JsonToken.VALUE_NULL) {
+            return null;
+        }
+        expectStartObject(parser, "overallResponse");
+
+        OverallResponse overallResponse = new OverallResponse();
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String fieldName = parser.currentName();
+            parser.nextToken();
+
+            switch (fieldName) {
+                case "decision" -> overallResponse.setDecision(readString(parser));
+                case "decisionText" -> overallResponse.setDecisionText(readString(parser));
+                case "score" -> {
+                    Integer score = readInteger(parser);
+                    // Primitive field, null leaves the default
+                    if (score != null) {
+                        overallResponse.setScore(score);
+                    }
+                }
+                case "decisionReasons" -> overallResponse.setDecisionReasons(
+                        readList(parser, IdentityVerificationResponseReader::readString));
+                case "recommendedNextActions" -> overallResponse.setRecommendedNextActions(
+                        readList(parser, IdentityVerificationResponseReader::readString));
+                case "spareObjects" -> overallResponse.setSpareObjects(
+                        readList(parser, IdentityVerificationResponseReader::readString));
+                default -> parser.skipChildren();
+            }
+        }
+
+        return overallResponse;
+    }
+
+    private ClientResponsePayload readClientResponsePayload(JsonParser parser) throws IOException {
+        if (parser.currentToken() == JsonToken.VALUE_NULL) {
+            return null;
+        }
+        expectStartObject(parser, "clientResponsePayload");
+
+        ClientResponsePayload clientResponsePayload = new ClientResponsePayload();
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String fieldName = parser.currentName();
+            parser.nextToken();
+
+            switch (fieldName) {
+                case "orchestrationDecisions" -> clientResponsePayload.setOrchestrationDecisions(
+                        readList(parser, this::readOrchestrationDecision));
+                case "decisionElements" -> clientResponsePayload.setDecisionElements(
+                        readList(parser, this::readDecisionElement));
+                default -> parser.skipChildren();
+            }
+        }
+
+        return clientResponsePayload;
+    }
+
+    private OrchestrationDecision readOrchestrationDecision(JsonParser parser) throws IOException {
+        if (parser.currentToken() == JsonToken.VALUE_NULL) {
+            return null;
+        }
+        expectStartObject(parser, "orchestrationDecision");
+
+        OrchestrationDecision orchestrationDecision = new OrchestrationDecision();
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String fieldName = parser.currentName();
+            parser.nextToken();
+
+            switch (fieldName) {
+                case "sequenceId" -> orchestrationDecision.setSequenceId(readString(parser));
+                case "decisionSource" -> orchestrationDecision.setDecisionSource(
+                        readString(parser));
+                case "decision" -> orchestrationDecision.setDecision(readString(parser));
+                case "decisionReasons" -> orchestrationDecision.setDecisionReasons(
+                        readList(parser, IdentityVerificationResponseReader::readString));
+                case "score" -> orchestrationDecision.setScore(readInteger(parser));
+                case "decisionText" -> orchestrationDecision.setDecisionText(readString(parser));
+                case "nextAction" -> orchestrationDecision.setNextAction(readString(parser));
+                case "appReference" -> orchestrationDecision.setAppReference(readString(parser));
+                case "decisionTime" -> orchestrationDecision.setDecisionTime(readString(parser));
+                default -> parser.skipChildren();
+            }
+        }
+
+        return orchestrationDecision;
+    }
+
+    private DecisionElement readDecisionElement(JsonParser parser) throws IOException {
+        if (parser.currentToken() == JsonToken.VALUE_NULL) {
+            return null;
+        }
+        expectStartObject(parser, "decisionElement");
+
+        DecisionElement decisionElement = new DecisionElement();
+
+        // otherData, matches and scores are skipped
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String fieldName = parser.currentName();
+            parser.nextToken();
+
+            switch (fieldName) {
+                case "serviceName" -> decisionElement.setServiceName(readString(parser));
+                case "applicantId" -> decisionElement.setApplicantId(readString(parser));
+                case "decision" -> decisionElement.setDecision(readString(parser));
+                case "score" -> decisionElement.setScore(readInteger(parser));
+                case "decisionText" -> decisionElement.setDecisionText(readString(parser));
+                case "decisionReason" -> decisionElement.setDecisionReason(readString(parser));
+                case "appReference" -> decisionElement.setAppReference(readString(parser));
+                case "rules" -> decisionElement.setRules(readList(parser, this::readRule));
+                case "warningsErrors" -> decisionElement.setWarningsErrors(
+                        readList(parser, this::readWarningsErrors));
+                case "dataCounts" -> decisionElement.setDataCounts(
+                        readActivityHistoryDataCounts(parser));
+                default -> parser.skipChildren();
+            }
+        }
+
+        return decisionElement;
+    }
+
+    private Rule readRule(JsonParser parser) throws IOException {
+        if (parser.currentToken() == JsonToken.VALUE_NULL) {
+            return null;
+        }
+        expectStartObject(parser, "rule");
+
+        Rule rule = new Rule();
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String fieldName = parser.currentName();
+            parser.nextToken();
+
+            switch (fieldName) {
+                case "ruleId" -> rule.setRuleId(readString(parser));
+                case "ruleName" -> rule.setRuleName(readString(parser));
+                case "ruleScore" -> rule.setRuleScore(readInteger(parser));
+                case "ruleText" -> rule.setRuleText(readString(parser));
+                default -> parser.skipChildren();
+            }
+        }
+
+        return rule;
+    }
+
+    private WarningsErrors readWarningsErrors(JsonParser parser) throws IOException {
+        if (parser.currentToken() == JsonToken.VALUE_NULL) {
+            return null;
+        }
+        expectStartObject(parser, "warningsErrors");
+
+        WarningsErrors warningsErrors = new WarningsErrors();
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String fieldName = parser.currentName();
+            parser.nextToken();
+
+            switch (fieldName) {
+                case "responseCode" -> warningsErrors.setResponseCode(readString(parser));
+                case "responseType" -> warningsErrors.setResponseType(readString(parser));
+                case "responseMessage" -> warningsErrors.setResponseMessage(readString(parser));
+                default -> parser.skipChildren();
+            }
+        }
+
+        return warningsErrors;
+    }
+
+    /** Only the activity history data counts are kept, the others are never read. */
+    private List<DataCount> readActivityHistoryDataCounts(JsonParser parser) throws IOException {
+        List<DataCount> dataCounts = readList(parser, this::readDataCount);
+
+        if (dataCounts != null) {
+            dataCounts.removeIf(
+                    dataCount ->
+                            dataCount == null
+                                    || !ACTIVITY_HISTORY_DATA_COUNT_NAMES.contains(
+                                            dataCount.getName()));
+        }
+
+        return dataCounts;
+    }
+
+    private DataCount readDataCount(JsonParser parser) throws IOException {
+        if (parser.currentToken() == JsonToken.VALUE_NULL) {
+            return null;
+        }
+        expectStartObject(parser, "dataCount");
+
+        DataCount dataCount = new DataCount();
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String fieldName = parser.currentName();
+            parser.nextToken();
+
+            switch (fieldName) {
+                case "name" -> dataCount.setName(readString(parser));
+                case "value" -> dataCount.setValue(readInteger(parser));
+                default -> parser.skipChildren();
+            }
+        }
+
+        return dataCount;
+    }
+
+    private static <T> List<T> readList(JsonParser parser, ElementReader<T> elementReader)
+            throws IOException {
+        JsonToken token = parser.currentToken();
+
+        if (token == JsonToken.VALUE_NULL) {
+            return null;
+        }
+        if (token != JsonToken.START_ARRAY) {
+            throw new JsonParseException(parser, "Expected array but found " + token);
+        }
+
+        List<T> elements = new ArrayList<>();
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+            elements.add(elementReader.read(parser));
+        }
+
+        return elements;
+    }
+
+    private static String readString(JsonParser parser) throws IOException {
+        JsonToken token = parser.currentToken();
+
+        if (token == JsonToken.VALUE_NULL) {
+            return null;
+        }
+        if (!token.isScalarValue()) {
+            throw new JsonParseException(parser, "Expected string but found " + token);
+        }
+
+        return parser.getText();
+    }
+
+    private static Integer readInteger(JsonParser parser) throws IOException {
+        JsonToken token = parser.currentToken();
+
+        if (token == JsonToken.VALUE_NULL) {
+            return null;
+        }
+        if (token.isNumeric()) {
+            return parser.getIntValue();
+        }
+        if (token == JsonToken.VALUE_STRING) {
+            String text = parser.getText().trim();
+            if (text.isEmpty()) {
+                return null;
+            }
+            try {
+                return Integer.valueOf(text);
+            } catch (NumberFormatException e) {
+                throw new JsonParseException(parser, "Expected integer but found " + text);
+            }
+        }
+
+        throw new JsonParseException(parser, "Expected integer but found " + token);
+    }
+
+    private static ResponseType readResponseType(JsonParser parser) throws IOException {
+        String responseType = readString(parser);
+
+        if (responseType == null) {
+            return null;
+        }
+
+        try {
+            return ResponseType.valueOf(responseType);
+        } catch (IllegalArgumentException e) {
+            throw new JsonParseException(parser, "Unknown responseType " + responseType);
+        }
+    }
+
+    private static void expectStartObject(JsonParser parser, String name) throws IOException {
+        if (parser.currentToken() != JsonToken.START_OBJECT) {
+            throw new JsonParseException(
+                    parser, "Expected " + name + " object but found " + parser.currentToken());
+        }
+    }
+}
@@ -1,7 +1,6 @@
 package uk.gov.di.ipv.cri.fraud.api.gateway;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import org.apache.http.client.config.RequestConfig;
 import org.apache.http.client.methods.HttpPost;
 import org.apache.http.entity.ContentType;
@@ -23,6 +22,7 @@ import uk.gov.di.ipv.cri.fraud.library.service.HttpRetryStatusConfig;
 import uk.gov.di.ipv.cri.fraud.library.service.HttpRetryer;
 import uk.gov.di.ipv.cri.fraud.library.strategy.Strategy;
 import uk.gov.di.ipv.cri.fraud.library.util.HTTPReply;
+import uk.gov.di.ipv.cri.fraud.library.util.JsonCodecRegistry;
 import uk.gov.di.ipv.cri.fraud.library.util.StopWatch;
 
 import java.io.IOException;
@@ -52,7 +52,7 @@ public class ThirdPartyFraudGateway {
     private final FraudCheckConfigurationService fraudCheckConfigurationService;
     private final IdentityVerificationRequestMapper requestMapper;
     private final IdentityVerificationResponseMapper responseMapper;
-    private final ObjectMapper objectMapper;
+    private final JsonCodecRegistry jsonCodecRegistry;
     private final EventProbe eventProbe;
 
     // HTTP
@@ -67,23 +67,27 @@ public class ThirdPartyFraudGateway {
 
     private final StopWatch stopWatch;
 
+    // The databind path remains selectable for diagnostics
+    private final boolean streamingResponseParsing;
+    private final IdentityVerificationResponseReader responseReader;
+
     public ThirdPartyFraudGateway(
             HttpRetryer httpRetryer,
             IdentityVerificationRequestMapper requestMapper,
             IdentityVerificationResponseMapper responseMapper,
-            ObjectMapper objectMapper,
+            JsonCodecRegistry jsonCodecRegistry,
             FraudCheckConfigurationService fraudCheckConfigurationService,
             EventProbe eventProbe) {
         Objects.requireNonNull(httpRetryer, "httpClient must not be null");
         Objects.requireNonNull(requestMapper, "requestMapper must not be null");
         Objects.requireNonNull(responseMapper, "responseMapper must not be null");
-        Objects.requireNonNull(objectMapper, "objectMapper must not be null");
+        Objects.requireNonNull(jsonCodecRegistry, "jsonCodecRegistry must not be null");
         Objects.requireNonNull(
                 fraudCheckConfigurationService, "fraudCheckConfigurationService must not be null");
         this.httpRetryer = httpRetryer;
         this.requestMapper = requestMapper;
         this.responseMapper = responseMapper;
-        this.objectMapper = objectMapper;
+        this.jsonCodecRegistry = jsonCodecRegistry;
         this.fraudCheckConfigurationService = fraudCheckConfigurationService;
         this.eventProbe = eventProbe;
 
@@ -96,6 +100,12 @@ public class ThirdPartyFraudGateway {
                         FRAUD_HTTP_RESPONSE_TIMEOUT_MS);
 
         this.stopWatch = new StopWatch();
+
+        this.streamingResponseParsing =
+                Boolean.parseBoolean(
+                        System.getenv("ENV_VAR_FEATURE_FLAG_STREAMING_RESPONSE_PARSING"));
+        this.responseReader = new IdentityVerificationResponseReader();
+        LOGGER.info("Streaming response parsing = {}", streamingResponseParsing);
     }
 
     public FraudCheckResult performFraudCheck(
@@ -110,7 +120,7 @@ public class ThirdPartyFraudGateway {
 
         String requestBody = null;
         try {
-            requestBody = objectMapper.writeValueAsString(apiRequest);
+            requestBody = jsonCodecRegistry.writeValueAsString(apiRequest);
         } catch (JsonProcessingException e) {
 
             // PII in variables
@@ -188,9 +198,8 @@ public class ThirdPartyFraudGateway {
             IdentityVerificationResponse fraudCheckResponse;
 
             try {
-                fraudCheckResponse =
-                        objectMapper.readValue(responseBody, IdentityVerificationResponse.class);
-            } catch (JsonProcessingException e) {
+                fraudCheckResponse = readFraudCheckResponse(responseBody);
+            } catch (IOException e) {
                 LOGGER.error("JsonProcessingException mapping {} response", REQUEST_NAME);
                 LOGGER.debug(e.getMessage());
 
@@ -224,6 +233,15 @@ public class ThirdPartyFraudGateway {
         }
     }
 
+    private IdentityVerificationResponse readFraudCheckResponse(String responseBody)
+            throws IOException {
+        if (streamingResponseParsing) {
+            return responseReader.readIdentityVerificationResponse(responseBody);
+        }
+
+        return jsonCodecRegistry.readValue(responseBody, IdentityVerificationResponse.class);
+    }
+
     private URI selectRequestURI(Strategy strategy) {
         if (strategy == Strategy.NO_CHANGE) {
             return URI.create(
@@ -1,7 +1,6 @@
 package uk.gov.di.ipv.cri.fraud.api.gateway;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import org.apache.http.client.config.RequestConfig;
 import org.apache.http.client.methods.HttpPost;
 import org.apache.http.entity.ContentType;
@@ -23,6 +22,7 @@ import uk.gov.di.ipv.cri.fraud.library.service.HttpRetryStatusConfig;
 import uk.gov.di.ipv.cri.fraud.library.service.HttpRetryer;
 import uk.gov.di.ipv.cri.fraud.library.strategy.Strategy;
 import uk.gov.di.ipv.cri.fraud.library.util.HTTPReply;
+import uk.gov.di.ipv.cri.fraud.library.util.JsonCodecRegistry;
 import uk.gov.di.ipv.cri.fraud.library.util.StopWatch;
 
 import java.io.IOException;
@@ -51,7 +51,7 @@ public class ThirdPartyPepGateway {
     private final FraudCheckConfigurationService fraudCheckConfigurationService;
     private final IdentityVerificationRequestMapper requestMapper;
     private final IdentityVerificationResponseMapper responseMapper;
-    private final ObjectMapper objectMapper;
+    private final JsonCodecRegistry jsonCodecRegistry;
     private final EventProbe eventProbe;
 
     // HTTP
@@ -66,23 +66,27 @@ public class ThirdPartyPepGateway {
 
     private final StopWatch stopWatch;
 
+    // The databind path remains selectable for diagnostics
+    private final boolean streamingResponseParsing;
+    private final IdentityVerificationResponseReader responseReader;
+
     public ThirdPartyPepGateway(
             HttpRetryer httpRetryer,
             IdentityVerificationRequestMapper requestMapper,
             IdentityVerificationResponseMapper responseMapper,
-            ObjectMapper objectMapper,
+            JsonCodecRegistry jsonCodecRegistry,
             FraudCheckConfigurationService fraudCheckConfigurationService,
             EventProbe eventProbe) {
         Objects.requireNonNull(httpRetryer, "httpClient must not be null");
         Objects.requireNonNull(requestMapper, "requestMapper must not be null");
         Objects.requireNonNull(responseMapper, "responseMapper must not be null");
-        Objects.requireNonNull(objectMapper, "objectMapper must not be null");
+        Objects.requireNonNull(jsonCodecRegistry, "jsonCodecRegistry must not be null");
         Objects.requireNonNull(fraudCheckConfigurationService, "objectMapper must not be null");
 
         this.httpRetryer = httpRetryer;
         this.requestMapper = requestMapper;
         this.responseMapper = responseMapper;
-        this.objectMapper = objectMapper;
+        this.jsonCodecRegistry = jsonCodecRegistry;
         this.fraudCheckConfigurationService = fraudCheckConfigurationService;
         this.eventProbe = eventProbe;
 
@@ -95,6 +99,12 @@ public class ThirdPartyPepGateway {
                         PEP_HTTP_RESPONSE_TIMEOUT_MS);
 
         this.stopWatch = new StopWatch();
+
+        this.streamingResponseParsing =
+                Boolean.parseBoolean(
+                        System.getenv("ENV_VAR_FEATURE_FLAG_STREAMING_RESPONSE_PARSING"));
+        this.responseReader = new IdentityVerificationResponseReader();
+        LOGGER.info("Streaming response parsing = {}", streamingResponseParsing);
     }
 
     public PepCheckResult performPepCheck(
@@ -109,7 +119,7 @@ public class ThirdPartyPepGateway {
 
         String requestBody = null;
         try {
-            requestBody = objectMapper.writeValueAsString(apiRequest);
+            requestBody = jsonCodecRegistry.writeValueAsString(apiRequest);
         } catch (JsonProcessingException e) {
 
             // PII in variables
@@ -188,8 +198,8 @@ public class ThirdPartyPepGateway {
             PEPResponse pepResponse;
 
             try {
-                pepResponse = objectMapper.readValue(responseBody, PEPResponse.class);
-            } catch (JsonProcessingException e) {
+                pepResponse = readPepCheckResponse(responseBody);
+            } catch (IOException e) {
                 LOGGER.error("JsonProcessingException mapping {} response", REQUEST_NAME);
                 LOGGER.debug(e.getMessage());
 
@@ -219,6 +229,14 @@ public class ThirdPartyPepGateway {
         }
     }
 
+    private PEPResponse readPepCheckResponse(String responseBody) throws IOException {
+        if (streamingResponseParsing) {
+            return responseReader.readPEPResponse(responseBody);
+        }
+
+        return jsonCodecRegistry.readValue(responseBody, PEPResponse.class);
+    }
+
     private URI selectRequestURI(Strategy strategy) {
         if (strategy == Strategy.NO_CHANGE) {
             return URI.create(
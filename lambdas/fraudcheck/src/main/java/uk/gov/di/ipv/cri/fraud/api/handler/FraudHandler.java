@@ -18,9 +18,9 @@ import uk.gov.di.ipv.cri.common.library.annotations.ExcludeFromGeneratedCoverage
 import uk.gov.di.ipv.cri.common.library.domain.AuditEventContext;
 import uk.gov.di.ipv.cri.common.library.domain.AuditEventType;
 import uk.gov.di.ipv.cri.common.library.domain.personidentity.PersonIdentity;
+import uk.gov.di.ipv.cri.common.library.domain.personidentity.PersonIdentityDetailed;
 import uk.gov.di.ipv.cri.common.library.exception.SessionNotFoundException;
 import uk.gov.di.ipv.cri.common.library.persistence.item.SessionItem;
-import uk.gov.di.ipv.cri.common.library.service.AuditService;
 import uk.gov.di.ipv.cri.common.library.service.PersonIdentityService;
 import uk.gov.di.ipv.cri.common.library.service.SessionService;
 import uk.gov.di.ipv.cri.common.library.util.ApiGatewayResponseGenerator;
@@ -28,29 +28,44 @@ import uk.gov.di.ipv.cri.common.library.util.EventProbe;
 import uk.gov.di.ipv.cri.fraud.api.domain.IdentityVerificationResult;
 import uk.gov.di.ipv.cri.fraud.api.gateway.ThirdPartyFraudGateway;
 import uk.gov.di.ipv.cri.fraud.api.gateway.ThirdPartyPepGateway;
-import uk.gov.di.ipv.cri.fraud.api.service.ActivityHistoryScoreCalculator;
 import uk.gov.di.ipv.cri.fraud.api.service.ContraIndicatorMapper;
+import uk.gov.di.ipv.cri.fraud.api.service.ContraindicationMappingStore;
+import uk.gov.di.ipv.cri.fraud.api.service.CrosscoreV2Configuration;
 import uk.gov.di.ipv.cri.fraud.api.service.FraudCheckConfigurationService;
+import uk.gov.di.ipv.cri.fraud.api.service.FraudCheckPipelinePrimer;
 import uk.gov.di.ipv.cri.fraud.api.service.IdentityVerificationService;
 import uk.gov.di.ipv.cri.fraud.api.service.PersonIdentityValidator;
 import uk.gov.di.ipv.cri.fraud.api.service.ThirdPartyAPIServiceFactory;
 import uk.gov.di.ipv.cri.fraud.api.util.RequestSentAuditHelper;
 import uk.gov.di.ipv.cri.fraud.library.config.ParameterStoreParameters;
+import uk.gov.di.ipv.cri.fraud.library.domain.CredentialProjection;
 import uk.gov.di.ipv.cri.fraud.library.error.CommonExpressOAuthError;
 import uk.gov.di.ipv.cri.fraud.library.error.ErrorResponse;
 import uk.gov.di.ipv.cri.fraud.library.exception.OAuthErrorResponseException;
 import uk.gov.di.ipv.cri.fraud.library.metrics.Definitions;
 import uk.gov.di.ipv.cri.fraud.library.persistence.item.FraudResultItem;
+import uk.gov.di.ipv.cri.fraud.library.service.AuditEventDispatcher;
+import uk.gov.di.ipv.cri.fraud.library.service.ParameterStoreBootstrapLoader;
 import uk.gov.di.ipv.cri.fraud.library.service.ParameterStoreService;
+import uk.gov.di.ipv.cri.fraud.library.service.PollingResultItemNotifier;
+import uk.gov.di.ipv.cri.fraud.library.service.ResultItemNotifier;
 import uk.gov.di.ipv.cri.fraud.library.service.ResultItemStorageService;
 import uk.gov.di.ipv.cri.fraud.library.service.ServiceFactory;
+import uk.gov.di.ipv.cri.fraud.library.service.SessionAttemptService;
+import uk.gov.di.ipv.cri.fraud.library.service.SessionCompletionService;
 import uk.gov.di.ipv.cri.fraud.library.service.parameterstore.ParameterPrefix;
-import uk.gov.di.ipv.cri.fraud.library.util.SleepHelper;
+import uk.gov.di.ipv.cri.fraud.library.util.CredentialProjectionCodec;
+import uk.gov.di.ipv.cri.fraud.library.util.InvocationDeadline;
 
 import java.time.Clock;
 import java.time.Duration;
 import java.time.temporal.ChronoUnit;
+import java.util.EnumSet;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.regex.Pattern;
 
 import static uk.gov.di.ipv.cri.common.library.error.ErrorResponse.SESSION_NOT_FOUND;
@@ -66,34 +81,67 @@ public class FraudHandler
     private static final boolean DEV_ENVIRONMENT_ONLY_ENHANCED_DEBUG =
             Boolean.parseBoolean(System.getenv("DEV_ENVIRONMENT_ONLY_ENHANCED_DEBUG"));
 
+    // Contra indicator mappings from the mapping table instead of the SSM mapping string
+    private static final boolean CONTRAINDICATION_MAPPING_TABLE_ENABLED =
+            Boolean.parseBoolean(System.getenv("ENV_VAR_FEATURE_FLAG_CI_MAPPING_TABLE"));
+
+    // Everything the fraud check path uses, built in parallel during init
+    private static final Set<ServiceFactory.Component> EAGER_COMPONENTS =
+            EnumSet.of(
+                    ServiceFactory.Component.PARAMETER_STORE_SERVICE,
+                    ServiceFactory.Component.COMMON_LIB_CONFIGURATION_SERVICE,
+                    ServiceFactory.Component.SESSION_SERVICE,
+                    ServiceFactory.Component.AUDIT_EVENT_DISPATCHER,
+                    ServiceFactory.Component.PERSON_IDENTITY_SERVICE,
+                    ServiceFactory.Component.RESULT_ITEM_STORAGE_SERVICE,
+                    ServiceFactory.Component.SESSION_COMPLETION_SERVICE,
+                    ServiceFactory.Component.SESSION_ATTEMPT_SERVICE,
+                    ServiceFactory.Component.JSON_CODEC_REGISTRY);
+
     private EventProbe eventProbe;
 
     private SessionService sessionService;
-    private AuditService auditService;
+    private AuditEventDispatcher auditEventDispatcher;
 
     private PersonIdentityService personIdentityService;
 
     private IdentityVerificationService identityVerificationService;
 
     private ResultItemStorageService<FraudResultItem> fraudResultItemStorageService;
+    private SessionCompletionService<FraudResultItem> sessionCompletionService;
+    private SessionAttemptService sessionAttemptService;
+    private CredentialProjectionCodec credentialProjectionCodec;
+    // Reads the person identity for the credential projection while the third party checks run
+    private ExecutorService credentialProjectionExecutor;
+    // Used by duplicate attempts to wait for the result of the check in progress
+    private ResultItemNotifier<FraudResultItem> fraudResultItemNotifier;
 
     // Max Wait is FRAUD timeout + PEP timeout + some time for processing a result
     private static final int MAX_ATTEMPT_DUPLICATE_CHECK_WAIT_DURATION_MS =
             1000
                     + ThirdPartyFraudGateway.FRAUD_HTTP_RESPONSE_TIMEOUT_MS
                     + ThirdPartyPepGateway.PEP_HTTP_RESPONSE_TIMEOUT_MS;
-    // To avoid waiting the full MAX_ATTEMPT_DUPLICATE_CHECK_WAIT_DURATION,
-    // The lambda will recheck for a result at this interval
-    private static final int DUPLICATE_CHECK_POLLING_INTERVAL_MS = 1000;
+
+    // Upper bound on waiting for audit events to be sent before responding
+    private static final long AUDIT_EVENT_FLUSH_TIMEOUT_MS = 2000;
 
     private long fraudResultItemTtl;
 
     private long functionInitMetricLatchedValue = 0;
     private boolean functionInitMetricCaptured = false;
 
+    // -1 when connections were not pre-warmed (test constructor)
+    private long connectionPrewarmMetricLatchedValue = -1;
+
+    // -1 when the pipeline was not primed (test constructor) or priming failed
+    private long pipelinePrimingMetricLatchedValue = -1;
+
+    private Map<String, Long> componentInitDurationsLatchedValue = Map.of();
+
     @ExcludeFromGeneratedCoverageReport
     public FraudHandler() throws HttpException, JsonProcessingException {
-        ServiceFactory serviceFactory = new ServiceFactory();
+        ServiceFactory serviceFactory =
+                new ServiceFactory(EAGER_COMPONENTS, createParameterStoreBootstrapLoader());
 
         FraudCheckConfigurationService fraudCheckConfigurationServiceNotYetAssigned =
                 createFraudCheckConfigurationService(serviceFactory);
@@ -111,18 +159,40 @@ public class FraudHandler
         initializeLambdaServices(serviceFactory, identityVerificationService);
     }
 
+    public FraudHandler(
+            ServiceFactory serviceFactory,
+            IdentityVerificationService identityVerificationService,
+            ResultItemNotifier<FraudResultItem> fraudResultItemNotifier) {
+        initializeLambdaServices(serviceFactory, identityVerificationService);
+        this.fraudResultItemNotifier = fraudResultItemNotifier;
+    }
+
     public void initializeLambdaServices(
             ServiceFactory serviceFactory,
             IdentityVerificationService identityVerificationService) {
 
         this.eventProbe = serviceFactory.getEventProbe();
+        this.componentInitDurationsLatchedValue = serviceFactory.getComponentInitDurations();
         this.sessionService = serviceFactory.getSessionService();
-        this.auditService = serviceFactory.getAuditService();
+        this.auditEventDispatcher = serviceFactory.getAuditEventDispatcher();
         this.personIdentityService = serviceFactory.getPersonIdentityService();
 
         ParameterStoreService parameterStoreService = serviceFactory.getParameterStoreService();
 
         this.fraudResultItemStorageService = serviceFactory.getResultItemStorageService();
+        this.sessionCompletionService = serviceFactory.getSessionCompletionService();
+        this.sessionAttemptService = serviceFactory.getSessionAttemptService();
+        this.credentialProjectionCodec =
+                new CredentialProjectionCodec(serviceFactory.getObjectMapper());
+        this.credentialProjectionExecutor =
+                Executors.newCachedThreadPool(
+                        runnable -> {
+                            Thread thread = new Thread(runnable, "credential-projection");
+                            thread.setDaemon(true);
+                            return thread;
+                        });
+        this.fraudResultItemNotifier =
+                new PollingResultItemNotifier<>(fraudResultItemStorageService);
 
         fraudResultItemTtl =
                 Long.parseLong(
@@ -145,23 +215,83 @@ public class FraudHandler
         final ThirdPartyAPIServiceFactory thirdPartyAPIServiceFactory =
                 new ThirdPartyAPIServiceFactory(serviceFactory, fraudCheckConfigurationService);
 
-        final ActivityHistoryScoreCalculator activityHistoryScoreCalculator =
-                new ActivityHistoryScoreCalculator();
+        connectionPrewarmMetricLatchedValue =
+                thirdPartyAPIServiceFactory.getConnectionPrewarmDuration();
 
         final PersonIdentityValidator personIdentityValidator = new PersonIdentityValidator();
 
         final ContraIndicatorMapper contraindicationMapper =
-                new ContraIndicatorMapper(fraudCheckConfigurationService);
+                createContraIndicatorMapper(serviceFactory, fraudCheckConfigurationService);
+
+        // Class loads and initialises the request/response path before the first request
+        pipelinePrimingMetricLatchedValue =
+                new FraudCheckPipelinePrimer(
+                                serviceFactory.getJsonCodecRegistry(),
+                                serviceFactory.getObjectMapper(),
+                                contraindicationMapper)
+                        .prime();
 
         return new IdentityVerificationService(
                 serviceFactory,
                 thirdPartyAPIServiceFactory,
                 personIdentityValidator,
                 contraindicationMapper,
-                activityHistoryScoreCalculator,
                 fraudCheckConfigurationService);
     }
 
+    private ContraIndicatorMapper createContraIndicatorMapper(
+            ServiceFactory serviceFactory,
+            FraudCheckConfigurationService fraudCheckConfigurationService) {
+
+        if (!CONTRAINDICATION_MAPPING_TABLE_ENABLED) {
+            return new ContraIndicatorMapper(
+                    fraudCheckConfigurationService, serviceFactory.getEventProbe());
+        }
+
+        String mappingTableName =
+                serviceFactory
+                        .getParameterStoreService()
+                        .getParameterValue(
+                                ParameterPrefix.STACK,
+                                ContraindicationMappingStore
+                                        .CONTRAINDICATION_MAPPING_TABLE_NAME_PARAMETER_KEY);
+
+        ContraindicationMappingStore contraindicationMappingStore =
+                new ContraindicationMappingStore(
+                        serviceFactory.getClientProviderFactory().getDynamoDbEnhancedClient(),
+                        mappingTableName,
+                        ContraindicationMappingStore.EXPERIAN_THIRD_PARTY_ID);
+
+        return new ContraIndicatorMapper(
+                contraindicationMappingStore, serviceFactory.getEventProbe());
+    }
+
+    // Every parameter read while the function initialises, see ServiceFactory for its own
+    private static ParameterStoreBootstrapLoader createParameterStoreBootstrapLoader() {
+        return ParameterStoreBootstrapLoader.create()
+                .parameter(
+                        ParameterPrefix.COMMON_API,
+                        ParameterStoreParameters.FRAUD_RESULT_ITEM_TTL_PARAMETER)
+                .parameter(
+                        ParameterPrefix.OVERRIDE,
+                        FraudCheckConfigurationService.CONTRAINDICATION_MAPPINGS_PARAMETER_KEY)
+                .parameter(
+                        ParameterPrefix.OVERRIDE,
+                        FraudCheckConfigurationService.ZERO_SCORE_UCODES_PARAMETER_KEY)
+                .parameter(
+                        ParameterPrefix.OVERRIDE,
+                        FraudCheckConfigurationService.NO_FILE_FOUND_THRESHOLD_PARAMETER_KEY)
+                .parameter(
+                        ParameterPrefix.OVERRIDE,
+                        FraudCheckConfigurationService
+                                .TEST_STRATEGY_NO_FILE_FOUND_THRESHOLD_PARAMETER_KEY)
+                .parameter(
+                        ParameterPrefix.STACK,
+                        CrosscoreV2Configuration.TOKEN_TABLE_NAME_PARAMETER_KEY)
+                .parametersByPath(
+                        ParameterPrefix.OVERRIDE, CrosscoreV2Configuration.CC2_PARAMETER_PATH);
+    }
+
     private FraudCheckConfigurationService createFraudCheckConfigurationService(
             ServiceFactory serviceFactory) throws JsonProcessingException {
 
@@ -183,6 +313,9 @@ public class FraudHandler
                     context.getFunctionName(),
                     context.getFunctionVersion());
 
+            // Lets http retries be skipped when they cannot finish before the lambda times out
+            InvocationDeadline.start(context.getRemainingTimeInMillis());
+
             // Recorded here as sending metrics during function init may fail depending on lambda
             // config
             if (!functionInitMetricCaptured) {
@@ -190,6 +323,25 @@ public class FraudHandler
                         Definitions.LAMBDA_FRAUD_CHECK_FUNCTION_INIT_DURATION,
                         functionInitMetricLatchedValue);
                 LOGGER.info("Lambda function init duration {}ms", functionInitMetricLatchedValue);
+
+                if (connectionPrewarmMetricLatchedValue >= 0) {
+                    eventProbe.counterMetric(
+                            Definitions.LAMBDA_FRAUD_CHECK_CONNECTION_PREWARM_DURATION,
+                            connectionPrewarmMetricLatchedValue);
+                }
+
+                if (pipelinePrimingMetricLatchedValue >= 0) {
+                    eventProbe.counterMetric(
+                            Definitions.LAMBDA_FRAUD_CHECK_FUNCTION_PRIMING_DURATION,
+                            pipelinePrimingMetricLatchedValue);
+                }
+
+                componentInitDurationsLatchedValue.forEach(
+                        (component, duration) ->
+                                eventProbe.counterMetric(
+                                        Definitions.LAMBDA_COMPONENT_INIT_DURATION_PREFIX
+                                                + component,
+                                        duration));
                 functionInitMetricCaptured = true;
             }
 
@@ -239,12 +391,20 @@ public class FraudHandler
                         ErrorResponse.FAILED_TO_RETRIEVE_PERSON_IDENTITY);
             }
 
+            // Only needed once the check has passed, but read now so it costs no extra round trip
+            CompletableFuture<PersonIdentityDetailed> personIdentityDetailedRead =
+                    CompletableFuture.supplyAsync(
+                            () ->
+                                    personIdentityService.getPersonIdentityDetailed(
+                                            sessionItem.getSessionId()),
+                            credentialProjectionExecutor);
+
             LOGGER.info("Verifying identity...");
             IdentityVerificationResult identityVerificationResult =
                     identityVerificationService.verifyIdentity(
                             personIdentity, sessionItem, headers);
 
-            auditService.sendAuditEvent(
+            auditEventDispatcher.dispatch(
                     AuditEventType.REQUEST_SENT,
                     new AuditEventContext(
                             RequestSentAuditHelper.personIdentityToAuditRestrictedFormat(
@@ -270,13 +430,18 @@ public class FraudHandler
             }
             LOGGER.info("Identity verified.");
 
-            LOGGER.info("Generating authorization code...");
-            sessionService.createAuthorizationCode(sessionItem);
+            // RESPONSE_RECEIVED and REQUEST_SENT go in one batch, and the authorization code is
+            // only issued once they are on the queue
+            auditEventDispatcher.flush(AUDIT_EVENT_FLUSH_TIMEOUT_MS);
 
-            LOGGER.info("Saving fraud results...");
+            // Authorization code and fraud results are written in one transaction
+            LOGGER.info("Generating authorization code and saving fraud results...");
             FraudResultItem fraudResultItem =
                     createFraudResultItem(identityVerificationResult, sessionItem);
-            fraudResultItemStorageService.saveResultItem(fraudResultItem);
+            projectCredentialContent(fraudResultItem, sessionItem, personIdentityDetailedRead);
+            sessionCompletionService.completeSession(sessionItem, fraudResultItem);
+            fraudResultItemNotifier.notifyResultItemSaved(
+                    sessionItem.getSessionId(), fraudResultItem);
             LOGGER.info("Fraud results saved.");
 
             return completedOk();
@@ -328,6 +493,9 @@ public class FraudHandler
             return ApiGatewayResponseGenerator.proxyJsonResponse(
                     HttpStatusCode.INTERNAL_SERVER_ERROR,
                     new CommonExpressOAuthError(OAuth2Error.SERVER_ERROR));
+        } finally {
+            // Events dispatched before an error are still sent
+            auditEventDispatcher.flushQuietly(AUDIT_EVENT_FLUSH_TIMEOUT_MS);
         }
     }
 
@@ -368,6 +536,30 @@ public class FraudHandler
         return fraudResultItem;
     }
 
+    /**
+     * Stores what the credential is built from with the result, so the credential can be issued
+     * from the result alone. Left off if it cannot be made, the credential is then built from the
+     * person identity as before.
+     */
+    private void projectCredentialContent(
+            FraudResultItem fraudResultItem,
+            SessionItem sessionItem,
+            CompletableFuture<PersonIdentityDetailed> personIdentityDetailedRead) {
+        try {
+            PersonIdentityDetailed personIdentityDetailed = personIdentityDetailedRead.join();
+            if (personIdentityDetailed == null) {
+                return;
+            }
+
+            fraudResultItem.setCredentialProjection(
+                    credentialProjectionCodec.write(
+                            new CredentialProjection(
+                                    sessionItem.getSubject(), personIdentityDetailed)));
+        } catch (JsonProcessingException | RuntimeException e) {
+            LOGGER.warn("Credential projection not stored, exception {}", e.getClass());
+        }
+    }
+
     private APIGatewayProxyResponseEvent completedOk() {
 
         // Lambda Complete No Error
@@ -384,11 +576,13 @@ public class FraudHandler
      * @return true if a duplicate attempt was handled, false if not a duplicate or a result was
      *     never found
      */
-    private boolean detectAndHandleDuplicateCheckAttempts(SessionItem sessionItem) {
+    private boolean detectAndHandleDuplicateCheckAttempts(SessionItem sessionItem)
+            throws SessionNotFoundException {
         // We need to update and save attempt count immediately to prevent additional checks
         // In FraudCRI the user is not slowed down by form data entry and submission
-        sessionItem.setAttemptCount(sessionItem.getAttemptCount() + 1);
-        sessionService.updateSession(sessionItem);
+        // The count is incremented atomically so concurrent attempts each see their own count
+        sessionItem.setAttemptCount(
+                sessionAttemptService.incrementAttemptCount(sessionItem.getSessionId()));
         LOGGER.info("Attempt Number {}", sessionItem.getAttemptCount());
 
         // If Attempt count is > 1,
@@ -400,41 +594,26 @@ public class FraudHandler
                     "Session attempt count value {} is greater than 1, a previous attempt may be in progress or have completed",
                     sessionItem.getAttemptCount());
 
-            SleepHelper sleepHelper = new SleepHelper(DUPLICATE_CHECK_POLLING_INTERVAL_MS);
-            boolean finished = false;
-            long waitedTotalMilliseconds = 0;
-
-            do {
-                LOGGER.info("Searching for a completed result");
-                FraudResultItem fraudResultItem =
-                        fraudResultItemStorageService.getResultItem(sessionItem.getSessionId());
-
-                if (fraudResultItem == null) {
-                    LOGGER.info("No result found, waiting {}", DUPLICATE_CHECK_POLLING_INTERVAL_MS);
-
-                    waitedTotalMilliseconds +=
-                            sleepHelper.busyWaitMilliseconds(DUPLICATE_CHECK_POLLING_INTERVAL_MS);
-                } else {
-
-                    LOGGER.info("Completed result found");
-
-                    // A duplicate attempt
-                    return true;
-                }
+            long waitStartTime = System.currentTimeMillis();
+            FraudResultItem fraudResultItem =
+                    fraudResultItemNotifier.awaitResultItem(
+                            sessionItem.getSessionId(),
+                            MAX_ATTEMPT_DUPLICATE_CHECK_WAIT_DURATION_MS);
+            long waitedTotalMilliseconds = System.currentTimeMillis() - waitStartTime;
 
-                // Exit condition to avoid waiting forever
-                if (waitedTotalMilliseconds > MAX_ATTEMPT_DUPLICATE_CHECK_WAIT_DURATION_MS) {
-                    finished = true;
+            if (fraudResultItem != null) {
+                LOGGER.info("Completed result found");
 
-                    // This could happen if the check in progress had an error and never completed
-                    LOGGER.error(
-                            "SessionId {} had a duplicate attempts (count {}) but a result was not found after waiting {}ms, allowing the current attempt to continue",
-                            sessionItem.getSessionId(),
-                            sessionItem.getAttemptCount(),
-                            waitedTotalMilliseconds);
-                }
+                // A duplicate attempt
+                return true;
+            }
 
-            } while (!finished);
+            // This could happen if the check in progress had an error and never completed
+            LOGGER.error(
+                    "SessionId {} had a duplicate attempts (count {}) but a result was not found after waiting {}ms, allowing the current attempt to continue",
+                    sessionItem.getSessionId(),
+                    sessionItem.getAttemptCount(),
+                    waitedTotalMilliseconds);
         }
 
         // Not a duplicate attempt (or original check had an error)
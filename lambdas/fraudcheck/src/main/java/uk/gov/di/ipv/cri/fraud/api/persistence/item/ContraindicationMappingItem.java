@@ -4,11 +4,24 @@ import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbBean;
 import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbPartitionKey;
 import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbSortKey;
 
+/**
+ * A contra indicator mapping read by ContraindicationMappingStore. The store only re-reads rows
+ * whose lastUpdated has moved on between its full scans, so writers must:
+ *
+ * <ul>
+ *   <li>set lastUpdated to the current epoch millis on every put or update. A row written without
+ *       it, or from a clock more than a minute behind, is only picked up by the next full scan.
+ *   <li>remove a mapping by clearing contraindicationCode and setting lastUpdated, leaving the row
+ *       as a tombstone. A deleted row is only dropped by the next full scan.
+ * </ul>
+ */
 @DynamoDbBean
 public class ContraindicationMappingItem {
     private String thirdPartyId;
     private String thirdPartyFraudCode;
     private String contraindicationCode;
+    // Epoch millis of the last change, lets a refresh read only the changed mappings
+    private Long lastUpdated;
 
     @DynamoDbSortKey
     public String getThirdPartyId() {
@@ -35,4 +48,12 @@ public class ContraindicationMappingItem {
     public void setContraindicationCode(String contraindicationCode) {
         this.contraindicationCode = contraindicationCode;
     }
+
+    public Long getLastUpdated() {
+        return lastUpdated;
+    }
+
+    public void setLastUpdated(Long lastUpdated) {
+        this.lastUpdated = lastUpdated;
+    }
 }
@@ -0,0 +1,48 @@
+package uk.gov.di.ipv.cri.fraud.api.persistence.item;
+
+import lombok.NoArgsConstructor;
+import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbBean;
+import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbPartitionKey;
+
+@DynamoDbBean
+@NoArgsConstructor
+public class TokenRefreshLeaseItem {
+
+    private String id;
+
+    private String owner;
+
+    // Lease expiry, also used by DynamoDB to remove abandoned leases
+    private long ttl;
+
+    public TokenRefreshLeaseItem(String id, String owner, long ttl) {
+        this.id = id;
+        this.owner = owner;
+        this.ttl = ttl;
+    }
+
+    @DynamoDbPartitionKey
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getOwner() {
+        return owner;
+    }
+
+    public void setOwner(String owner) {
+        this.owner = owner;
+    }
+
+    public long getTtl() {
+        return ttl;
+    }
+
+    public void setTtl(long ttl) {
+        this.ttl = ttl;
+    }
+}
@@ -2,29 +2,53 @@ package uk.gov.di.ipv.cri.fraud.api.service;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import uk.gov.di.ipv.cri.common.library.util.EventProbe;
 
-import java.util.Arrays;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
 import java.util.Objects;
-import java.util.Set;
+
+import static uk.gov.di.ipv.cri.fraud.library.metrics.Definitions.CONTRA_INDICATOR_UNMAPPED_FRAUD_CODES;
 
 public class ContraIndicatorMapper {
     private static final Logger LOGGER = LogManager.getLogger();
 
     private static final String CIMAP = "CIMap";
 
-    private final Map<String, String> uCodeCIMap;
+    private final EventProbe eventProbe;
+
+    // Null when the mappings are fixed for the life of the container
+    private final FraudCheckConfigurationService fraudCheckConfigurationService;
+    // Set instead when the mappings come from the mapping table
+    private final ContraindicationMappingStore contraindicationMappingStore;
+
+    private volatile CompiledMappings compiledMappings;
 
-    public ContraIndicatorMapper(FraudCheckConfigurationService fraudCheckConfigurationService) {
+    public ContraIndicatorMapper(
+            FraudCheckConfigurationService fraudCheckConfigurationService, EventProbe eventProbe) {
+        this.eventProbe = eventProbe;
+        this.contraindicationMappingStore = null;
 
-        final String contraindicatorMappingString =
-                System.getenv().get(CIMAP) == null
-                        ? fraudCheckConfigurationService.getContraindicationMappings()
-                        : System.getenv().get(CIMAP);
+        final String contraindicatorMappingString = System.getenv().get(CIMAP);
 
-        uCodeCIMap = parseUCodeCIMapString(contraindicatorMappingString);
+        if (contraindicatorMappingString == null) {
+            // Recompiled whenever the configuration service loads a new snapshot
+            FraudCheckConfigurationSnapshot snapshot = fraudCheckConfigurationService.getSnapshot();
+
+            this.fraudCheckConfigurationService = fraudCheckConfigurationService;
+            this.compiledMappings =
+                    new CompiledMappings(
+                            snapshot.getVersion(), snapshot.getContraindicationMappings());
+        } else {
+            this.fraudCheckConfigurationService = null;
+            this.compiledMappings = new CompiledMappings(0, contraindicatorMappingString);
+        }
+    }
+
+    /** Maps with the mappings the store holds, which it refreshes itself. */
+    public ContraIndicatorMapper(
+            ContraindicationMappingStore contraindicationMappingStore, EventProbe eventProbe) {
+        this.eventProbe = eventProbe;
+        this.fraudCheckConfigurationService = null;
+        this.contraindicationMappingStore = Objects.requireNonNull(contraindicationMappingStore);
     }
 
     /**
@@ -32,12 +56,15 @@ public class ContraIndicatorMapper {
      * Mapper.
      *
      * @param mappingString
+     * @param eventProbe
      */
-    public ContraIndicatorMapper(String mappingString) {
+    public ContraIndicatorMapper(String mappingString, EventProbe eventProbe) {
         Objects.requireNonNull(mappingString);
 
-        // Create the map
-        uCodeCIMap = parseUCodeCIMapString(mappingString);
+        this.eventProbe = eventProbe;
+        this.fraudCheckConfigurationService = null;
+        this.contraindicationMappingStore = null;
+        this.compiledMappings = new CompiledMappings(0, mappingString);
     }
 
     public String[] mapThirdPartyFraudCodes(String[] thirdPartyFraudCodes) {
@@ -47,57 +74,122 @@ public class ContraIndicatorMapper {
             return new String[] {};
         }
 
-        List<String> contraindicators =
-                Arrays.stream(thirdPartyFraudCodes)
-                        .filter(this.uCodeCIMap::containsKey)
-                        .map(this.uCodeCIMap::get)
-                        .toList();
+        ContraIndicatorMappingTable mappingTable = currentMappingTable();
+
+        // A bit per CI id flattens any duplicate CI codes
+        long[] mappedContraIndicatorIds =
+                new long[(mappingTable.contraIndicatorCount() + Long.SIZE - 1) / Long.SIZE];
+        int mappedCount = 0;
+        int unmappedCount = 0;
+
+        for (String thirdPartyFraudCode : thirdPartyFraudCodes) {
+            int contraIndicatorId = mappingTable.lookup(thirdPartyFraudCode);
 
-        if (contraindicators.size() != thirdPartyFraudCodes.length) {
-            String[] unmappedFraudCodes =
-                    Arrays.stream(thirdPartyFraudCodes)
-                            .filter(fraudCode -> !uCodeCIMap.containsKey(fraudCode))
-                            .toArray(String[]::new);
+            if (contraIndicatorId == ContraIndicatorMappingTable.UNMAPPED) {
+                unmappedCount++;
+                continue;
+            }
 
-            String unmappedFraudCodesAsString = String.join(", ", unmappedFraudCodes);
+            int word = contraIndicatorId / Long.SIZE;
+            long bit = 1L << contraIndicatorId;
+            if ((mappedContraIndicatorIds[word] & bit) == 0) {
+                mappedContraIndicatorIds[word] |= bit;
+                mappedCount++;
+            }
+        }
 
-            LOGGER.warn("Unmapped fraud codes encountered: {}", unmappedFraudCodesAsString);
+        if (unmappedCount > 0) {
+            LOGGER.warn("Unmapped fraud codes encountered: {}", unmappedCount);
+            eventProbe.counterMetric(CONTRA_INDICATOR_UNMAPPED_FRAUD_CODES, unmappedCount);
         }
 
-        // Flattens any duplicate CI Codes
-        return Set.copyOf(contraindicators).toArray(String[]::new);
+        String[] contraindicators = new String[mappedCount];
+        int index = 0;
+        for (int word = 0; word < mappedContraIndicatorIds.length; word++) {
+            long bits = mappedContraIndicatorIds[word];
+            while (bits != 0) {
+                int contraIndicatorId = word * Long.SIZE + Long.numberOfTrailingZeros(bits);
+                contraindicators[index++] = mappingTable.contraIndicator(contraIndicatorId);
+                bits &= bits - 1;
+            }
+        }
+
+        return contraindicators;
     }
 
-    /**
-     * Parses a string representing the uCodeCI Mappings. Example : CIMap=z101,z102:a1#x123:b1
-     * Represents : z101 -> a1 z102 -> a1 x123 -> b1 Assumes we never map Ucodes to a second CICode.
-     *
-     * @param mappingString
-     * @return A map of uCode to CI pairs
-     */
-    private Map<String, String> parseUCodeCIMapString(String mappingString) {
+    private ContraIndicatorMappingTable currentMappingTable() {
+        if (contraindicationMappingStore != null) {
+            return contraindicationMappingStore.getMappingTable();
+        }
 
-        LOGGER.info("Parsing UCode CI Mapping string...");
+        CompiledMappings current = compiledMappings;
 
-        Map<String, String> ucCIMap = new HashMap<>();
+        if (fraudCheckConfigurationService == null) {
+            return current.mappingTable;
+        }
 
-        String[] mapDesc = mappingString.split("\\|\\|");
+        FraudCheckConfigurationSnapshot snapshot = fraudCheckConfigurationService.getSnapshot();
+        if (snapshot.getVersion() == current.version) {
+            return current.mappingTable;
+        }
 
-        // Loop through each description and generate the individual mapping.
-        for (String desc : mapDesc) {
+        // Concurrent callers may both compile the new version, either result is the same
+        CompiledMappings reloaded = current.reload(snapshot);
+        compiledMappings = reloaded;
 
-            List<String> ucodeCIPairs = Arrays.asList(desc.split(":"));
+        return reloaded.mappingTable;
+    }
 
-            String[] uCodes = ucodeCIPairs.get(0).split(",");
+    /** The mappings compiled from one configuration version. */
+    private static final class CompiledMappings {
+        private final long version;
+        private final String mappingString;
+        private final ContraIndicatorMappingTable mappingTable;
 
-            // This assumes we never also map to a second CICode
-            String ciCode = ucodeCIPairs.get(1);
+        private CompiledMappings(long version, String mappingString) {
+            this(version, mappingString, compile(mappingString));
+        }
 
-            for (String uCode : uCodes) {
-                ucCIMap.put(uCode, ciCode);
-            }
+        private CompiledMappings(
+                long version, String mappingString, ContraIndicatorMappingTable mappingTable) {
+            this.version = version;
+            this.mappingString = mappingString;
+            this.mappingTable = mappingTable;
         }
 
-        return ucCIMap;
+        private static ContraIndicatorMappingTable compile(String mappingString) {
+            LOGGER.info("Parsing UCode CI Mapping string...");
+
+            ContraIndicatorMappingTable mappingTable =
+                    ContraIndicatorMappingTable.compile(mappingString);
+
+            LOGGER.info(
+                    "Compiled {} fraud codes to {} contra indicators",
+                    mappingTable.fraudCodeCount(),
+                    mappingTable.contraIndicatorCount());
+
+            return mappingTable;
+        }
+
+        private CompiledMappings reload(FraudCheckConfigurationSnapshot snapshot) {
+            String reloadedMappingString = snapshot.getContraindicationMappings();
+
+            // Most refreshes leave the mappings as they were
+            if (mappingString.equals(reloadedMappingString)) {
+                return new CompiledMappings(snapshot.getVersion(), mappingString, mappingTable);
+            }
+
+            try {
+                return new CompiledMappings(snapshot.getVersion(), reloadedMappingString);
+            } catch (RuntimeException e) {
+                // Kept until a later version compiles, so this one is not retried every request
+                LOGGER.warn(
+                        "CI mappings version {} not compiled, keeping version {} - {}",
+                        snapshot.getVersion(),
+                        version,
+                        e.getMessage());
+                return new CompiledMappings(snapshot.getVersion(), mappingString, mappingTable);
+            }
+        }
     }
 }
@@ -0,0 +1,178 @@
+package uk.gov.di.ipv.cri.fraud.api.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compiled form of the fraud code to contra indicator mappings. Each distinct CI is held once and
+ * given an id, the fraud codes sit in an open addressing table against the id of their CI. A
+ * lookup is one hash and usually one probe, and callers can de-duplicate CIs with a bit per id.
+ *
+ * <p>Immutable once built, a new table is compiled for every change to the mappings.
+ */
+final class ContraIndicatorMappingTable {
+
+    static final int UNMAPPED = -1;
+
+    private static final String MAPPING_SEPARATOR = "||";
+    private static final char CONTRA_INDICATOR_SEPARATOR = ':';
+    private static final char FRAUD_CODE_SEPARATOR = ',';
+
+    // Indexed by CI id
+    private final String[] contraIndicators;
+
+    // Open addressing slots, a null fraud code is an empty slot
+    private final String[] slotFraudCodes;
+    private final int[] slotContraIndicatorIds;
+    private final int slotMask;
+
+    private final int fraudCodeCount;
+
+    private ContraIndicatorMappingTable(Map<String, String> fraudCodeContraIndicators) {
+        Map<String, Integer> contraIndicatorIds = new HashMap<>();
+        List<String> contraIndicatorList = new ArrayList<>();
+
+        // At most half full, keeps the probe sequences short
+        int slotCount =
+                Integer.highestOneBit(Math.max(1, fraudCodeContraIndicators.size()) * 2 - 1) << 1;
+
+        this.slotFraudCodes = new String[slotCount];
+        this.slotContraIndicatorIds = new int[slotCount];
+        this.slotMask = slotCount - 1;
+
+        for (Map.Entry<String, String> mapping : fraudCodeContraIndicators.entrySet()) {
+            int contraIndicatorId =
+                    contraIndicatorIds.computeIfAbsent(
+                            mapping.getValue(),
+                            contraIndicator -> {
+                                contraIndicatorList.add(contraIndicator);
+                                return contraIndicatorList.size() - 1;
+                            });
+
+            int slot = slotOf(mapping.getKey());
+            while (slotFraudCodes[slot] != null) {
+                slot = (slot + 1) & slotMask;
+            }
+            slotFraudCodes[slot] = mapping.getKey();
+            slotContraIndicatorIds[slot] = contraIndicatorId;
+        }
+
+        this.contraIndicators = contraIndicatorList.toArray(String[]::new);
+        this.fraudCodeCount = fraudCodeContraIndicators.size();
+    }
+
+    /**
+     * Compiles a mapping string such as {@code z101,z102:a1||x123:b1}, which maps z101 and z102 to
+     * a1 and x123 to b1. A fraud code mapped twice keeps its last CI.
+     *
+     * @throws IllegalArgumentException if a mapping has no CI
+     */
+    static ContraIndicatorMappingTable compile(String mappingString) {
+        Builder builder = builder();
+
+        int mappingStart = 0;
+        while (mappingStart <= mappingString.length()) {
+            int mappingEnd = mappingString.indexOf(MAPPING_SEPARATOR, mappingStart);
+            if (mappingEnd < 0) {
+                mappingEnd = mappingString.length();
+            }
+
+            if (mappingEnd > mappingStart) {
+                addMapping(builder, mappingString, mappingStart, mappingEnd);
+            }
+
+            mappingStart = mappingEnd + MAPPING_SEPARATOR.length();
+        }
+
+        return builder.build();
+    }
+
+    static Builder builder() {
+        return new Builder();
+    }
+
+    /** @return the id of the CI the fraud code maps to, or {@link #UNMAPPED} */
+    int lookup(String fraudCode) {
+        if (fraudCode == null) {
+            return UNMAPPED;
+        }
+
+        int slot = slotOf(fraudCode);
+        String slotFraudCode;
+        while ((slotFraudCode = slotFraudCodes[slot]) != null) {
+            if (slotFraudCode.equals(fraudCode)) {
+                return slotContraIndicatorIds[slot];
+            }
+            slot = (slot + 1) & slotMask;
+        }
+
+        return UNMAPPED;
+    }
+
+    String contraIndicator(int contraIndicatorId) {
+        return contraIndicators[contraIndicatorId];
+    }
+
+    int contraIndicatorCount() {
+        return contraIndicators.length;
+    }
+
+    int fraudCodeCount() {
+        return fraudCodeCount;
+    }
+
+    private int slotOf(String fraudCode) {
+        int hash = fraudCode.hashCode();
+        // Spreads the high bits down as the short codes differ mostly in the last characters
+        return (hash ^ (hash >>> 16)) & slotMask;
+    }
+
+    private static void addMapping(
+            Builder builder, String mappingString, int mappingStart, int mappingEnd) {
+        int separator = mappingString.indexOf(CONTRA_INDICATOR_SEPARATOR, mappingStart);
+        if (separator < 0 || separator >= mappingEnd) {
+            throw new IllegalArgumentException(
+                    "Contra indicator mapping at " + mappingStart + " has no contra indicator");
+        }
+
+        // Anything after a second separator is ignored, as it always has been
+        int contraIndicatorEnd = mappingString.indexOf(CONTRA_INDICATOR_SEPARATOR, separator + 1);
+        if (contraIndicatorEnd < 0 || contraIndicatorEnd > mappingEnd) {
+            contraIndicatorEnd = mappingEnd;
+        }
+        String contraIndicator = mappingString.substring(separator + 1, contraIndicatorEnd);
+
+        int fraudCodeStart = mappingStart;
+        while (fraudCodeStart <= separator) {
+            int fraudCodeEnd = mappingString.indexOf(FRAUD_CODE_SEPARATOR, fraudCodeStart);
+            if (fraudCodeEnd < 0 || fraudCodeEnd > separator) {
+                fraudCodeEnd = separator;
+            }
+
+            if (fraudCodeEnd > fraudCodeStart) {
+                builder.map(mappingString.substring(fraudCodeStart, fraudCodeEnd), contraIndicator);
+            }
+
+            fraudCodeStart = fraudCodeEnd + 1;
+        }
+    }
+
+    /** Collects fraud code to CI mappings from any source, a later mapping of a code wins. */
+    static final class Builder {
+        private final Map<String, String> fraudCodeContraIndicators = new LinkedHashMap<>();
+
+        private Builder() {}
+
+        Builder map(String fraudCode, String contraIndicator) {
+            fraudCodeContraIndicators.put(fraudCode, contraIndicator);
+            return this;
+        }
+
+        ContraIndicatorMappingTable build() {
+            return new ContraIndicatorMappingTable(fraudCodeContraIndicators);
+        }
+    }
+}
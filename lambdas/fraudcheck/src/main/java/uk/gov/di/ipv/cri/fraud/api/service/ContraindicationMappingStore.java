@@ -0,0 +1,304 @@
+package uk.gov.di.ipv.cri.fraud.api.service;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbEnhancedClient;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbTable;
+import software.amazon.awssdk.enhanced.dynamodb.Expression;
+import software.amazon.awssdk.enhanced.dynamodb.TableSchema;
+import software.amazon.awssdk.enhanced.dynamodb.model.ScanEnhancedRequest;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import uk.gov.di.ipv.cri.fraud.api.persistence.item.ContraindicationMappingItem;
+import uk.gov.di.ipv.cri.fraud.library.util.StopWatch;
+
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Contra indicator mappings held in the ContraindicationMappingItem table, one row per fraud code
+ * and third party. The third party's rows are loaded at init with a parallel segmented scan and
+ * compiled into a {@link ContraIndicatorMappingTable}, which is what requests read.
+ *
+ * <p>A refresh runs in the background once the refresh interval has passed and only reads rows
+ * whose lastUpdated is newer than the newest row already seen. A row with no contraindicationCode
+ * removes the mapping of its fraud code. Every {@value #FULL_SCAN_EVERY_REFRESHES}th refresh scans
+ * the whole table instead and replaces the mappings with it, so rows the incremental refresh cannot
+ * see (deleted rows, rows written without or with a stale lastUpdated) are reconciled. See {@link
+ * ContraindicationMappingItem} for what writers need to do to be picked up sooner.
+ */
+public class ContraindicationMappingStore {
+
+    private static final Logger LOGGER = LogManager.getLogger();
+
+    public static final String CONTRAINDICATION_MAPPING_TABLE_NAME_PARAMETER_KEY =
+            "ContraindicationMappingTableName";
+
+    // Rows this CRI maps, the table can hold mappings for other third parties
+    public static final String EXPERIAN_THIRD_PARTY_ID = "experian";
+
+    // Enough to spread a few thousand rows without a thread per handful of items
+    private static final int SCAN_SEGMENTS = 4;
+
+    // Re-reads rows written just before the last refresh, in case they became visible late
+    private static final long REFRESH_OVERLAP_MILLIS = TimeUnit.SECONDS.toMillis(60);
+
+    // The full scan costs about as much as the initial load, so only one refresh in this many
+    static final int FULL_SCAN_EVERY_REFRESHES = 10;
+
+    private final DynamoDbTable<ContraindicationMappingItem> mappingItemTable;
+    private final String thirdPartyId;
+    private final int scanSegments;
+    private final Executor scanExecutor;
+
+    private final Clock clock;
+    private final long refreshIntervalMillis;
+    private final int fullScanEveryRefreshes;
+    private final Executor refreshExecutor;
+    private final AtomicBoolean refreshInProgress = new AtomicBoolean(false);
+    private volatile long nextRefreshAtMillis;
+
+    // Only touched by the initial load and by refreshes, which never run at the same time
+    private final Map<String, String> fraudCodeContraIndicators = new HashMap<>();
+    private long newestLastUpdated;
+    private int refreshesSinceFullScan;
+
+    private volatile ContraIndicatorMappingTable mappingTable;
+
+    public ContraindicationMappingStore(
+            DynamoDbEnhancedClient dynamoDbEnhancedClient,
+            String mappingTableName,
+            String thirdPartyId) {
+        this(
+                dynamoDbEnhancedClient.table(
+                        mappingTableName, TableSchema.fromBean(ContraindicationMappingItem.class)),
+                thirdPartyId,
+                SCAN_SEGMENTS,
+                Executors.newFixedThreadPool(SCAN_SEGMENTS, daemonThreadFactory("ci-mapping-scan")),
+                TimeUnit.SECONDS.toMillis(
+                        Optional.ofNullable(
+                                        System.getenv(
+                                                FraudCheckConfigurationService
+                                                        .CONFIGURATION_REFRESH_SECONDS_ENV_VAR))
+                                .map(Long::parseLong)
+                                .orElse(0L)),
+                FULL_SCAN_EVERY_REFRESHES,
+                Clock.systemUTC(),
+                Executors.newSingleThreadExecutor(daemonThreadFactory("ci-mapping-refresh")));
+    }
+
+    ContraindicationMappingStore(
+            DynamoDbTable<ContraindicationMappingItem> mappingItemTable,
+            String thirdPartyId,
+            int scanSegments,
+            Executor scanExecutor,
+            long refreshIntervalMillis,
+            int fullScanEveryRefreshes,
+            Clock clock,
+            Executor refreshExecutor) {
+        this.mappingItemTable = mappingItemTable;
+        this.thirdPartyId = Objects.requireNonNull(thirdPartyId);
+        this.scanSegments = scanSegments;
+        this.scanExecutor = scanExecutor;
+
+        this.clock = clock;
+        this.refreshIntervalMillis = refreshIntervalMillis;
+        this.fullScanEveryRefreshes = fullScanEveryRefreshes;
+        this.refreshExecutor = refreshExecutor;
+
+        // Initial load is synchronous, without the mappings no CIs would be returned
+        StopWatch stopWatch = new StopWatch();
+        stopWatch.start();
+
+        long loadStartedAtMillis = clock.millis();
+        applyChangedItems(scan(null));
+        this.mappingTable = compile();
+        this.nextRefreshAtMillis = loadStartedAtMillis + refreshIntervalMillis;
+
+        LOGGER.info(
+                "Loaded {} contra indicator mappings in {}ms",
+                fraudCodeContraIndicators.size(),
+                stopWatch.stop());
+    }
+
+    /**
+     * Returns the current mappings without blocking. If the refresh interval has passed a refresh
+     * is started in the background and callers keep the current mappings until it completes.
+     */
+    ContraIndicatorMappingTable getMappingTable() {
+        refreshIfDue();
+
+        return mappingTable;
+    }
+
+    private void refreshIfDue() {
+        if (refreshIntervalMillis <= 0 || clock.millis() < nextRefreshAtMillis) {
+            return;
+        }
+
+        // Only one refresh at a time, everyone else carries on with the current mappings
+        if (!refreshInProgress.compareAndSet(false, true)) {
+            return;
+        }
+
+        // Set now so a failing refresh is retried on the next interval and not every request
+        nextRefreshAtMillis = clock.millis() + refreshIntervalMillis;
+
+        try {
+            refreshExecutor.execute(this::refresh);
+        } catch (RuntimeException e) {
+            LOGGER.warn("Failed to start contra indicator mapping refresh - {}", e.getMessage());
+            refreshInProgress.set(false);
+        }
+    }
+
+    private void refresh() {
+        try {
+            boolean changed;
+            if (refreshesSinceFullScan + 1 >= fullScanEveryRefreshes) {
+                changed = replaceAllItems(scan(null));
+                refreshesSinceFullScan = 0;
+            } else {
+                changed = applyChangedItems(scan(newestLastUpdated - REFRESH_OVERLAP_MILLIS));
+                refreshesSinceFullScan++;
+            }
+
+            // Most refreshes only see the overlap, which changes nothing
+            if (changed) {
+                mappingTable = compile();
+                LOGGER.info(
+                        "Contra indicator mappings refreshed, {} mappings",
+                        fraudCodeContraIndicators.size());
+            }
+        } catch (Exception e) {
+            LOGGER.warn(
+                    "Contra indicator mapping refresh failed, keeping the current mappings - {}",
+                    e.getMessage());
+        } finally {
+            refreshInProgress.set(false);
+        }
+    }
+
+    /** @return true if the table no longer matches the held mappings */
+    private boolean replaceAllItems(List<ContraindicationMappingItem> items) {
+        Map<String, String> previousFraudCodeContraIndicators =
+                new HashMap<>(fraudCodeContraIndicators);
+
+        fraudCodeContraIndicators.clear();
+        newestLastUpdated = 0;
+        applyChangedItems(items);
+
+        return !fraudCodeContraIndicators.equals(previousFraudCodeContraIndicators);
+    }
+
+    /** @return true if any mapping was added, changed or removed */
+    private boolean applyChangedItems(List<ContraindicationMappingItem> changedItems) {
+        boolean changed = false;
+
+        for (ContraindicationMappingItem item : changedItems) {
+            String contraIndicator = item.getContraindicationCode();
+
+            if (contraIndicator == null || contraIndicator.isEmpty()) {
+                changed |= fraudCodeContraIndicators.remove(item.getThirdPartyFraudCode()) != null;
+            } else {
+                changed |=
+                        !contraIndicator.equals(
+                                fraudCodeContraIndicators.put(
+                                        item.getThirdPartyFraudCode(), contraIndicator));
+            }
+
+            if (item.getLastUpdated() != null) {
+                newestLastUpdated = Math.max(newestLastUpdated, item.getLastUpdated());
+            }
+        }
+
+        return changed;
+    }
+
+    private ContraIndicatorMappingTable compile() {
+        ContraIndicatorMappingTable.Builder builder = ContraIndicatorMappingTable.builder();
+        fraudCodeContraIndicators.forEach(builder::map);
+        return builder.build();
+    }
+
+    /**
+     * Scans every segment of the table in parallel.
+     *
+     * @param updatedAfterMillis only rows with a newer lastUpdated are returned, null for all rows
+     */
+    private List<ContraindicationMappingItem> scan(Long updatedAfterMillis) {
+        Expression filterExpression = filterExpression(updatedAfterMillis);
+
+        List<CompletableFuture<List<ContraindicationMappingItem>>> segmentScans =
+                new ArrayList<>(scanSegments);
+        for (int segment = 0; segment < scanSegments; segment++) {
+            ScanEnhancedRequest scanRequest =
+                    ScanEnhancedRequest.builder()
+                            .segment(segment)
+                            .totalSegments(scanSegments)
+                            .filterExpression(filterExpression)
+                            .build();
+
+            segmentScans.add(
+                    CompletableFuture.supplyAsync(() -> scanSegment(scanRequest), scanExecutor));
+        }
+
+        List<ContraindicationMappingItem> items = new ArrayList<>();
+        try {
+            for (CompletableFuture<List<ContraindicationMappingItem>> segmentScan : segmentScans) {
+                items.addAll(segmentScan.join());
+            }
+        } catch (CompletionException e) {
+            // Surfaces the scan failure rather than the wrapper
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+
+        return items;
+    }
+
+    private List<ContraindicationMappingItem> scanSegment(ScanEnhancedRequest scanRequest) {
+        List<ContraindicationMappingItem> items = new ArrayList<>();
+        mappingItemTable.scan(scanRequest).items().forEach(items::add);
+        return items;
+    }
+
+    private Expression filterExpression(Long updatedAfterMillis) {
+        Expression.Builder filterExpression =
+                Expression.builder()
+                        .putExpressionName("#thirdPartyId", "thirdPartyId")
+                        .putExpressionValue(":thirdPartyId", AttributeValue.fromS(thirdPartyId));
+
+        if (updatedAfterMillis == null) {
+            return filterExpression.expression("#thirdPartyId = :thirdPartyId").build();
+        }
+
+        return filterExpression
+                .expression("#thirdPartyId = :thirdPartyId AND #lastUpdated > :updatedAfter")
+                .putExpressionName("#lastUpdated", "lastUpdated")
+                .putExpressionValue(
+                        ":updatedAfter", AttributeValue.fromN(String.valueOf(updatedAfterMillis)))
+                .build();
+    }
+
+    private static ThreadFactory daemonThreadFactory(String threadName) {
+        return runnable -> {
+            Thread thread = new Thread(runnable, threadName);
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -0,0 +1,104 @@
+package uk.gov.di.ipv.cri.fraud.api.service;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import software.amazon.awssdk.awscore.exception.AwsServiceException;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbEnhancedClient;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbTable;
+import software.amazon.awssdk.enhanced.dynamodb.Expression;
+import software.amazon.awssdk.enhanced.dynamodb.TableSchema;
+import software.amazon.awssdk.enhanced.dynamodb.model.PutItemEnhancedRequest;
+import software.amazon.awssdk.enhanced.dynamodb.model.UpdateItemEnhancedRequest;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.ConditionalCheckFailedException;
+import uk.gov.di.ipv.cri.fraud.api.persistence.item.TokenRefreshLeaseItem;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Lease item stored alongside the token items. Acquiring the lease is a conditional put that only
+ * succeeds if no lease exists or the existing lease has expired.
+ */
+public class DynamoDbTokenRefreshLease implements TokenRefreshLease {
+
+    private static final Logger LOGGER = LogManager.getLogger();
+
+    // ttl is a DynamoDB reserved word
+    private static final String ACQUIRE_CONDITION = "attribute_not_exists(id) OR #ttl < :now";
+    private static final String RELEASE_CONDITION = "#owner = :owner";
+
+    private final DynamoDbTable<TokenRefreshLeaseItem> leaseTable;
+
+    // Identifies this lambda as the lease holder
+    private final String owner;
+
+    public DynamoDbTokenRefreshLease(
+            DynamoDbEnhancedClient dynamoDbEnhancedClient, String tokenTableName) {
+        this.leaseTable =
+                dynamoDbEnhancedClient.table(
+                        tokenTableName, TableSchema.fromBean(TokenRefreshLeaseItem.class));
+        this.owner = UUID.randomUUID().toString();
+    }
+
+    @Override
+    public boolean tryAcquire(String leaseId, long leaseSeconds) {
+        long now = Instant.now().getEpochSecond();
+
+        TokenRefreshLeaseItem leaseItem =
+                new TokenRefreshLeaseItem(leaseId, owner, now + leaseSeconds);
+
+        Expression acquireCondition =
+                Expression.builder()
+                        .expression(ACQUIRE_CONDITION)
+                        .putExpressionName("#ttl", "ttl")
+                        .putExpressionValue(
+                                ":now", AttributeValue.builder().n(String.valueOf(now)).build())
+                        .build();
+
+        try {
+            leaseTable.putItem(
+                    PutItemEnhancedRequest.builder(TokenRefreshLeaseItem.class)
+                            .item(leaseItem)
+                            .conditionExpression(acquireCondition)
+                            .build());
+
+            LOGGER.info("Acquired token refresh lease {}", leaseId);
+            return true;
+        } catch (ConditionalCheckFailedException e) {
+            LOGGER.info("Token refresh lease {} held elsewhere", leaseId);
+            return false;
+        }
+    }
+
+    @Override
+    public void release(String leaseId) {
+        Expression releaseCondition =
+                Expression.builder()
+                        .expression(RELEASE_CONDITION)
+                        .putExpressionName("#owner", "owner")
+                        .putExpressionValue(":owner", AttributeValue.builder().s(owner).build())
+                        .build();
+
+        // Expiring the lease rather than deleting it needs only the UpdateItem permission
+        // the function already has on the token table. The owner is left as it was.
+        TokenRefreshLeaseItem expiredLeaseItem = new TokenRefreshLeaseItem(leaseId, null, 0L);
+
+        try {
+            leaseTable.updateItem(
+                    UpdateItemEnhancedRequest.builder(TokenRefreshLeaseItem.class)
+                            .item(expiredLeaseItem)
+                            .ignoreNulls(true)
+                            .conditionExpression(releaseCondition)
+                            .build());
+
+            LOGGER.info("Released token refresh lease {}", leaseId);
+        } catch (ConditionalCheckFailedException e) {
+            // Lease expired and was taken by another lambda
+            LOGGER.warn("Token refresh lease {} no longer held", leaseId);
+        } catch (AwsServiceException e) {
+            // Called from the refresh thread, the lease will expire by itself
+            LOGGER.warn("Unable to release token refresh lease {} - {}", leaseId, e.getMessage());
+        }
+    }
+}
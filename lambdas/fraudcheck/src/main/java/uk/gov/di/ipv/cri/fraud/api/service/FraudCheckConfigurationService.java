@@ -3,35 +3,167 @@ package uk.gov.di.ipv.cri.fraud.api.service;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 import uk.gov.di.ipv.cri.fraud.library.service.ParameterStoreService;
 import uk.gov.di.ipv.cri.fraud.library.service.parameterstore.ParameterPrefix;
 import uk.gov.di.ipv.cri.fraud.library.strategy.Strategy;
 
+import java.time.Clock;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
 
 public class FraudCheckConfigurationService {
+
+    private static final Logger LOGGER = LogManager.getLogger();
+
     // Parameter Keys
     public static final String CONTRAINDICATION_MAPPINGS_PARAMETER_KEY = "contraindicationMappings";
     public static final String ZERO_SCORE_UCODES_PARAMETER_KEY = "zeroScoreUcodes";
     public static final String NO_FILE_FOUND_THRESHOLD_PARAMETER_KEY = "noFileFoundThreshold";
+    public static final String TEST_STRATEGY_NO_FILE_FOUND_THRESHOLD_PARAMETER_KEY =
+            "testStrategy/" + NO_FILE_FOUND_THRESHOLD_PARAMETER_KEY;
 
-    private final String contraindicationMappings;
-
-    private final List<String> zeroScoreUcodes;
+    // Unset or <= 0 disables the refresh
+    public static final String CONFIGURATION_REFRESH_SECONDS_ENV_VAR =
+            "FRAUD_CHECK_CONFIGURATION_REFRESH_SECONDS";
 
     private final ParameterStoreService parameterStoreService;
     private final ObjectMapper objectMapper;
+    private final Clock clock;
+
+    private final AtomicReference<FraudCheckConfigurationSnapshot> currentSnapshot;
 
-    private final CrosscoreV2Configuration crosscoreV2Configuration;
+    private final long refreshIntervalMillis;
+    private final Executor refreshExecutor;
+    private final AtomicBoolean refreshInProgress = new AtomicBoolean(false);
+    private volatile long nextRefreshAtMillis;
 
     public FraudCheckConfigurationService(
             ParameterStoreService parameterStoreService, ObjectMapper objectMapper)
             throws JsonProcessingException {
+        this(
+                parameterStoreService,
+                objectMapper,
+                TimeUnit.SECONDS.toMillis(
+                        Optional.ofNullable(System.getenv(CONFIGURATION_REFRESH_SECONDS_ENV_VAR))
+                                .map(Long::parseLong)
+                                .orElse(0L)),
+                Clock.systemUTC(),
+                Executors.newSingleThreadExecutor(
+                        runnable -> {
+                            Thread thread = new Thread(runnable, "fraud-check-config-refresh");
+                            thread.setDaemon(true);
+                            return thread;
+                        }));
+    }
+
+    FraudCheckConfigurationService(
+            ParameterStoreService parameterStoreService,
+            ObjectMapper objectMapper,
+            long refreshIntervalMillis,
+            Clock clock,
+            Executor refreshExecutor)
+            throws JsonProcessingException {
 
         this.parameterStoreService = parameterStoreService;
         this.objectMapper = objectMapper;
+        this.clock = clock;
+
+        this.refreshIntervalMillis = refreshIntervalMillis;
+        this.refreshExecutor = refreshExecutor;
+
+        // Initial load is synchronous, a function without its config cannot serve requests
+        FraudCheckConfigurationSnapshot initialSnapshot = loadSnapshot(1);
+        this.currentSnapshot = new AtomicReference<>(initialSnapshot);
+        this.nextRefreshAtMillis = initialSnapshot.getLoadedAtMillis() + refreshIntervalMillis;
+    }
+
+    /**
+     * Returns the current snapshot without blocking. If the refresh interval has passed a reload is
+     * started in the background and this and any concurrent callers keep the current snapshot.
+     */
+    public FraudCheckConfigurationSnapshot getSnapshot() {
+        refreshIfDue();
+
+        return currentSnapshot.get();
+    }
+
+    public String getContraindicationMappings() {
+        return getSnapshot().getContraindicationMappings();
+    }
+
+    public CrosscoreV2Configuration getCrosscoreV2Configuration() {
+        return getSnapshot().getCrosscoreV2Configuration();
+    }
+
+    public List<String> getZeroScoreUcodes() {
+        return getSnapshot().getZeroScoreUcodes();
+    }
+
+    public Integer getNoFileFoundThreshold(Strategy strategy) {
+        FraudCheckConfigurationSnapshot snapshot = getSnapshot();
+
+        // As before null indicates the parameter is not there
+        return snapshot.hasNoFileFoundThreshold(strategy)
+                ? snapshot.getNoFileFoundThreshold(strategy)
+                : null;
+    }
+
+    public FraudCheckScoringRules getScoringRules() {
+        return getSnapshot().getScoringRules();
+    }
+
+    private void refreshIfDue() {
+        if (refreshIntervalMillis <= 0 || clock.millis() < nextRefreshAtMillis) {
+            return;
+        }
+
+        // Only one refresh at a time, everyone else carries on with the current snapshot
+        if (!refreshInProgress.compareAndSet(false, true)) {
+            return;
+        }
+
+        // Set now so a failing refresh is retried on the next interval and not every request
+        nextRefreshAtMillis = clock.millis() + refreshIntervalMillis;
+
+        try {
+            refreshExecutor.execute(this::refresh);
+        } catch (RuntimeException e) {
+            LOGGER.warn("Failed to start configuration refresh - {}", e.getMessage());
+            refreshInProgress.set(false);
+        }
+    }
+
+    private void refresh() {
+        try {
+            FraudCheckConfigurationSnapshot previousSnapshot = currentSnapshot.get();
+            FraudCheckConfigurationSnapshot newSnapshot =
+                    loadSnapshot(previousSnapshot.getVersion() + 1);
+
+            currentSnapshot.set(newSnapshot);
+
+            LOGGER.info(
+                    "Fraud check configuration refreshed to version {}", newSnapshot.getVersion());
+        } catch (Exception e) {
+            LOGGER.warn(
+                    "Fraud check configuration refresh failed, keeping version {} - {}",
+                    currentSnapshot.get().getVersion(),
+                    e.getMessage());
+        } finally {
+            refreshInProgress.set(false);
+        }
+    }
+
+    private FraudCheckConfigurationSnapshot loadSnapshot(long version)
+            throws JsonProcessingException {
 
         // ****************************  Environment Parameters ****************************
 
@@ -39,58 +171,66 @@ public class FraudCheckConfigurationService {
 
         // **************************** Prefix Parameters ****************************
 
-        this.contraindicationMappings =
+        final String contraindicationMappings =
                 parameterStoreService.getParameterValue(
                         ParameterPrefix.OVERRIDE, CONTRAINDICATION_MAPPINGS_PARAMETER_KEY);
 
         final String zeroScoreUcodesParameterValue =
                 parameterStoreService.getParameterValue(
                         ParameterPrefix.OVERRIDE, ZERO_SCORE_UCODES_PARAMETER_KEY);
-        this.zeroScoreUcodes = Arrays.asList(zeroScoreUcodesParameterValue.split(","));
+        final List<String> zeroScoreUcodes =
+                Arrays.asList(zeroScoreUcodesParameterValue.split(","));
 
-        // *************************CrosscoreV2 Parameters***************************
+        final int[] noFileFoundThresholds = loadNoFileFoundThresholds();
 
-        this.crosscoreV2Configuration = new CrosscoreV2Configuration(parameterStoreService);
-    }
+        // *************************CrosscoreV2 Parameters***************************
 
-    public String getContraindicationMappings() {
-        return contraindicationMappings;
-    }
+        final CrosscoreV2Configuration crosscoreV2Configuration =
+                new CrosscoreV2Configuration(parameterStoreService);
 
-    public CrosscoreV2Configuration getCrosscoreV2Configuration() {
-        return crosscoreV2Configuration;
+        return new FraudCheckConfigurationSnapshot(
+                version,
+                clock.millis(),
+                contraindicationMappings,
+                zeroScoreUcodes,
+                noFileFoundThresholds,
+                crosscoreV2Configuration);
     }
 
-    public List<String> getZeroScoreUcodes() {
-        return zeroScoreUcodes;
-    }
+    private int[] loadNoFileFoundThresholds() {
+        int[] noFileFoundThresholds = new int[Strategy.values().length];
+        Arrays.fill(noFileFoundThresholds, FraudCheckConfigurationSnapshot.NO_THRESHOLD);
 
-    public Integer getNoFileFoundThreshold(Strategy strategy) {
+        noFileFoundThresholds[Strategy.NO_CHANGE.ordinal()] =
+                Integer.parseInt(
+                        parameterStoreService.getParameterValue(
+                                ParameterPrefix.OVERRIDE, NO_FILE_FOUND_THRESHOLD_PARAMETER_KEY));
 
-        if (strategy == Strategy.NO_CHANGE) {
-            return Integer.parseInt(
-                    parameterStoreService.getParameterValue(
-                            ParameterPrefix.OVERRIDE, NO_FILE_FOUND_THRESHOLD_PARAMETER_KEY));
-        } else {
-            // Temporary until all CRI parameters are place under the same path
-            String jsonString =
-                    parameterStoreService.getParameterValue(
-                            ParameterPrefix.OVERRIDE,
-                            "testStrategy/" + NO_FILE_FOUND_THRESHOLD_PARAMETER_KEY);
+        // Temporary until all CRI parameters are place under the same path
+        String jsonString =
+                parameterStoreService.getParameterValue(
+                        ParameterPrefix.OVERRIDE,
+                        TEST_STRATEGY_NO_FILE_FOUND_THRESHOLD_PARAMETER_KEY);
 
+        HashMap<String, String> map;
+        try {
             TypeReference<HashMap<String, String>> typeRef = new TypeReference<>() {};
 
-            HashMap<String, String> map = null;
-            try {
-                map = objectMapper.readValue(jsonString, typeRef);
-            } catch (JsonProcessingException e) {
-                // Avoids all callers needing to handle json processing
-                // As below this indicates the parameter is not there.
-                return null;
-            }
+            map = objectMapper.readValue(jsonString, typeRef);
+        } catch (JsonProcessingException | IllegalArgumentException e) {
+            // The test strategy thresholds are optional, callers see them as not there
+            LOGGER.warn("Test strategy no file found thresholds not available");
+            return noFileFoundThresholds;
+        }
 
-            // Get the associated value from the map
-            return Integer.parseInt(map.get(strategy.name()));
+        for (Strategy strategy : Strategy.values()) {
+            String threshold = map.get(strategy.name());
+
+            if (strategy != Strategy.NO_CHANGE && threshold != null) {
+                noFileFoundThresholds[strategy.ordinal()] = Integer.parseInt(threshold);
+            }
         }
+
+        return noFileFoundThresholds;
     }
 }
@@ -0,0 +1,82 @@
+package uk.gov.di.ipv.cri.fraud.api.service;
+
+import uk.gov.di.ipv.cri.fraud.library.strategy.Strategy;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Immutable view of the fraud check parameters as loaded at one point in time. A new snapshot is
+ * built for every refresh and swapped in whole, so a request never sees a mix of old and new
+ * values.
+ */
+public final class FraudCheckConfigurationSnapshot {
+
+    // Marks a strategy with no usable threshold parameter
+    static final int NO_THRESHOLD = Integer.MIN_VALUE;
+
+    private final long version;
+    private final long loadedAtMillis;
+
+    private final String contraindicationMappings;
+    private final List<String> zeroScoreUcodes;
+
+    // Indexed by Strategy ordinal
+    private final int[] noFileFoundThresholds;
+
+    // Compiled once per snapshot so the rules change with the parameters
+    private final FraudCheckScoringRules scoringRules;
+
+    private final CrosscoreV2Configuration crosscoreV2Configuration;
+
+    FraudCheckConfigurationSnapshot(
+            long version,
+            long loadedAtMillis,
+            String contraindicationMappings,
+            List<String> zeroScoreUcodes,
+            int[] noFileFoundThresholds,
+            CrosscoreV2Configuration crosscoreV2Configuration) {
+        this.version = version;
+        this.loadedAtMillis = loadedAtMillis;
+        this.contraindicationMappings = contraindicationMappings;
+        this.zeroScoreUcodes = List.copyOf(zeroScoreUcodes);
+        this.noFileFoundThresholds =
+                Arrays.copyOf(noFileFoundThresholds, Strategy.values().length);
+        this.scoringRules =
+                FraudCheckScoringRules.compile(this.zeroScoreUcodes, this.noFileFoundThresholds);
+        this.crosscoreV2Configuration = crosscoreV2Configuration;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public long getLoadedAtMillis() {
+        return loadedAtMillis;
+    }
+
+    public String getContraindicationMappings() {
+        return contraindicationMappings;
+    }
+
+    public List<String> getZeroScoreUcodes() {
+        return zeroScoreUcodes;
+    }
+
+    public boolean hasNoFileFoundThreshold(Strategy strategy) {
+        return noFileFoundThresholds[strategy.ordinal()] != NO_THRESHOLD;
+    }
+
+    /** Only meaningful when {@link #hasNoFileFoundThreshold(Strategy)} is true. */
+    public int getNoFileFoundThreshold(Strategy strategy) {
+        return noFileFoundThresholds[strategy.ordinal()];
+    }
+
+    public FraudCheckScoringRules getScoringRules() {
+        return scoringRules;
+    }
+
+    public CrosscoreV2Configuration getCrosscoreV2Configuration() {
+        return crosscoreV2Configuration;
+    }
+}
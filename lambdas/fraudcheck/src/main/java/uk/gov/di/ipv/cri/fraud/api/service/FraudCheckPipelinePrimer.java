@@ -0,0 +1,222 @@
+package uk.gov.di.ipv.cri.fraud.api.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import uk.gov.di.ipv.cri.common.library.domain.personidentity.Address;
+import uk.gov.di.ipv.cri.common.library.domain.personidentity.PersonIdentity;
+import uk.gov.di.ipv.cri.common.library.util.EventProbe;
+import uk.gov.di.ipv.cri.fraud.api.domain.check.FraudCheckResult;
+import uk.gov.di.ipv.cri.fraud.api.domain.check.PepCheckResult;
+import uk.gov.di.ipv.cri.fraud.api.gateway.IdentityVerificationRequestMapper;
+import uk.gov.di.ipv.cri.fraud.api.gateway.IdentityVerificationResponseMapper;
+import uk.gov.di.ipv.cri.fraud.api.gateway.IdentityVerificationResponseReader;
+import uk.gov.di.ipv.cri.fraud.api.gateway.dto.response.ClientResponsePayload;
+import uk.gov.di.ipv.cri.fraud.api.gateway.dto.response.DecisionElement;
+import uk.gov.di.ipv.cri.fraud.api.gateway.dto.response.IdentityVerificationResponse;
+import uk.gov.di.ipv.cri.fraud.api.gateway.dto.response.OrchestrationDecision;
+import uk.gov.di.ipv.cri.fraud.api.gateway.dto.response.OverallResponse;
+import uk.gov.di.ipv.cri.fraud.api.gateway.dto.response.PEPResponse;
+import uk.gov.di.ipv.cri.fraud.api.gateway.dto.response.ResponseHeader;
+import uk.gov.di.ipv.cri.fraud.api.gateway.dto.response.ResponseType;
+import uk.gov.di.ipv.cri.fraud.api.gateway.dto.response.Rule;
+import uk.gov.di.ipv.cri.fraud.library.util.JsonCodecRegistry;
+import uk.gov.di.ipv.cri.fraud.library.util.StopWatch;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Runs synthetic data through the request mapping, codecs, response validation and mapping during
+ * function init, so the first real request does not pay for class loading and first-use
+ * initialisation. Nothing here makes a network call or emits a metric.
+ */
+public class FraudCheckPipelinePrimer {
+
+    private static final Logger LOGGER = LogManager.getLogger();
+
+    // Aimed at class loading and first-use init, not at reaching compiled code
+    private static final int PRIMING_ITERATIONS = 3;
+
+    private static final String PRIMING_TENANT_ID = "00000000-0000-0000-0000-000000000000";
+    private static final String FRAUD_SERVICE_NAME = "Authenticateplus";
+    private static final String PEP_SERVICE_NAME = "PepSanctions01";
+
+    private final JsonCodecRegistry jsonCodecRegistry;
+    private final ContraIndicatorMapper contraIndicatorMapper;
+
+    private final IdentityVerificationRequestMapper requestMapper;
+    private final IdentityVerificationResponseMapper responseMapper;
+    private final IdentityVerificationResponseReader responseReader;
+    private final IdentityVerificationInfoResponseValidator responseValidator;
+
+    public FraudCheckPipelinePrimer(
+            JsonCodecRegistry jsonCodecRegistry,
+            ObjectMapper objectMapper,
+            ContraIndicatorMapper contraIndicatorMapper) {
+        this.jsonCodecRegistry = jsonCodecRegistry;
+        this.contraIndicatorMapper = contraIndicatorMapper;
+
+        this.requestMapper = new IdentityVerificationRequestMapper();
+        this.responseMapper =
+                new IdentityVerificationResponseMapper(new PrimingEventProbe(), objectMapper);
+        this.responseReader = new IdentityVerificationResponseReader();
+        this.responseValidator = new IdentityVerificationInfoResponseValidator();
+    }
+
+    /**
+     * @return time spent priming in ms, or -1 if priming failed. A failure is logged and otherwise
+     *     ignored as the real request path is unaffected by it.
+     */
+    public long prime() {
+        StopWatch stopWatch = new StopWatch();
+        stopWatch.start();
+
+        try {
+            for (int i = 0; i < PRIMING_ITERATIONS; i++) {
+                primeFraudCheck();
+                primePepCheck();
+            }
+        } catch (Exception e) {
+            LOGGER.warn("Fraud check pipeline priming failed - {}", e.getMessage());
+            return -1;
+        }
+
+        long primingDuration = stopWatch.stop();
+        LOGGER.info("Fraud check pipeline priming duration {}ms", primingDuration);
+
+        return primingDuration;
+    }
+
+    private void primeFraudCheck() throws IOException {
+        PersonIdentity personIdentity = createPrimingPersonIdentity();
+
+        jsonCodecRegistry.writeValueAsString(
+                requestMapper.mapPersonIdentity(personIdentity, PRIMING_TENANT_ID));
+
+        String responseBody =
+                jsonCodecRegistry.writeValueAsString(
+                        createPrimingResponse(
+                                new IdentityVerificationResponse(), FRAUD_SERVICE_NAME));
+
+        responseReader.readIdentityVerificationResponse(responseBody);
+        IdentityVerificationResponse response =
+                jsonCodecRegistry.readValue(responseBody, IdentityVerificationResponse.class);
+
+        responseValidator.validate(response);
+        FraudCheckResult fraudCheckResult = responseMapper.mapFraudResponse(response);
+
+        contraIndicatorMapper.mapThirdPartyFraudCodes(fraudCheckResult.getThirdPartyFraudCodes());
+    }
+
+    private void primePepCheck() throws IOException {
+        PersonIdentity personIdentity = createPrimingPersonIdentity();
+
+        jsonCodecRegistry.writeValueAsString(
+                requestMapper.mapPEPPersonIdentity(personIdentity, PRIMING_TENANT_ID));
+
+        String responseBody =
+                jsonCodecRegistry.writeValueAsString(
+                        createPrimingResponse(new PEPResponse(), PEP_SERVICE_NAME));
+
+        responseReader.readPEPResponse(responseBody);
+        PEPResponse response = jsonCodecRegistry.readValue(responseBody, PEPResponse.class);
+
+        responseValidator.validatePEP(response);
+        PepCheckResult pepCheckResult = responseMapper.mapPEPResponse(response);
+
+        contraIndicatorMapper.mapThirdPartyFraudCodes(pepCheckResult.getThirdPartyFraudCodes());
+    }
+
+    private static PersonIdentity createPrimingPersonIdentity() {
+        PersonIdentity personIdentity = new PersonIdentity();
+
+        personIdentity.setFirstName("FirstName");
+        personIdentity.setMiddleNames("MiddleName");
+        personIdentity.setSurname("Surname");
+        personIdentity.setDateOfBirth(LocalDate.of(1970, 1, 1));
+
+        Address address = new Address();
+        address.setValidFrom(LocalDate.now().minusYears(3));
+        address.setBuildingNumber("1");
+        address.setStreetName("Street Name");
+        address.setAddressLocality("PostTown");
+        address.setPostalCode("Postcode");
+        address.setAddressCountry("GB");
+
+        personIdentity.setAddresses(List.of(address));
+
+        return personIdentity;
+    }
+
+    private static <T extends IdentityVerificationResponse> T createPrimingResponse(
+            T response, String serviceName) {
+        OverallResponse overallResponse = new OverallResponse();
+        overallResponse.setDecision("OK");
+        overallResponse.setDecisionText("OK");
+        overallResponse.setDecisionReasons(List.of("NoReason"));
+        overallResponse.setRecommendedNextActions(List.of(""));
+        overallResponse.setSpareObjects(List.of(""));
+
+        ResponseHeader header = new ResponseHeader();
+        header.setRequestType("PRIMING");
+        header.setClientReferenceId("00000000-0000-0000-0000-000000000000");
+        header.setExpRequestId("0");
+        header.setMessageTime("2020-01-01T00:00:00Z");
+        header.setOverallResponse(overallResponse);
+        header.setResponseCode("0");
+        header.setResponseType(ResponseType.INFO);
+        header.setResponseMessage("Priming");
+        header.setTenantID(PRIMING_TENANT_ID);
+
+        OrchestrationDecision orchestrationDecision = new OrchestrationDecision();
+        orchestrationDecision.setSequenceId("1");
+        orchestrationDecision.setDecisionSource("Priming");
+        orchestrationDecision.setDecision("OK");
+        orchestrationDecision.setDecisionReasons(List.of("Priming"));
+        orchestrationDecision.setScore(0);
+        orchestrationDecision.setDecisionText("Priming");
+        orchestrationDecision.setDecisionTime("2020-01-01T00:00:00Z");
+        orchestrationDecision.setNextAction("Continue");
+        orchestrationDecision.setAppReference("PRIMING");
+
+        Rule rule = new Rule();
+        rule.setRuleName("AUTP_IDCONFLEVEL");
+        rule.setRuleId("");
+        rule.setRuleScore(1);
+        rule.setRuleText("Conf Level 1");
+
+        DecisionElement decisionElement = new DecisionElement();
+        decisionElement.setApplicantId("APPLICANT_1");
+        decisionElement.setServiceName(serviceName);
+        decisionElement.setDecision("AU01");
+        decisionElement.setScore(90);
+        decisionElement.setDecisionText("OK");
+        decisionElement.setDecisionReason("Priming");
+        decisionElement.setAppReference("PRIMING");
+        decisionElement.setRules(List.of(rule));
+
+        ClientResponsePayload payload = new ClientResponsePayload();
+        payload.setOrchestrationDecisions(List.of(orchestrationDecision));
+        payload.setDecisionElements(List.of(decisionElement));
+
+        response.setResponseHeader(header);
+        response.setClientResponsePayload(payload);
+
+        return response;
+    }
+
+    // Keeps the synthetic responses out of the response type metrics
+    private static class PrimingEventProbe extends EventProbe {
+        @Override
+        public EventProbe counterMetric(String key) {
+            return this;
+        }
+
+        @Override
+        public EventProbe counterMetric(String key, double value) {
+            return this;
+        }
+    }
+}
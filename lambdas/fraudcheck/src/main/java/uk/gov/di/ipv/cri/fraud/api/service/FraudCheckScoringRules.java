@@ -0,0 +1,201 @@
+package uk.gov.di.ipv.cri.fraud.api.service;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import uk.gov.di.ipv.cri.fraud.api.domain.check.FraudCheckResult;
+import uk.gov.di.ipv.cri.fraud.library.domain.CheckType;
+import uk.gov.di.ipv.cri.fraud.library.strategy.Strategy;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Scoring rules compiled from one configuration snapshot into a decision table. A successful fraud
+ * check is reduced to three conditions, any zero score uCode, file found and enough activity
+ * history, which index one of the precomputed {@link FraudCheckScore} outcomes.
+ *
+ * <p>Evaluating is a single pass over the fraud codes with a hash lookup per code and allocates
+ * nothing.
+ */
+public final class FraudCheckScoringRules {
+
+    private static final Logger LOGGER = LogManager.getLogger();
+
+    // Months of activity history needed for an activity history score of 1
+    static final int ACTIVITY_HISTORY_MINIMUM_MONTHS = 6;
+
+    // Required identity check score for a PEP check to have been performed
+    private static final int PEP_CHECK_REQUIRED_SCORE = 1;
+
+    private static final int NO_ZERO_SCORE_UCODE = 0b100;
+    private static final int FILE_FOUND = 0b010;
+    private static final int ACTIVITY_HISTORY = 0b001;
+
+    private final Set<String> zeroScoreUcodes;
+
+    // Indexed by Strategy ordinal
+    private final int[] noFileFoundThresholds;
+
+    private final int activityHistoryMinimumMonths;
+
+    // Indexed by the condition bits above
+    private final FraudCheckScore[] outcomes;
+
+    private FraudCheckScoringRules(
+            Set<String> zeroScoreUcodes,
+            int[] noFileFoundThresholds,
+            int activityHistoryMinimumMonths) {
+        this.zeroScoreUcodes = zeroScoreUcodes;
+        this.noFileFoundThresholds = noFileFoundThresholds;
+        this.activityHistoryMinimumMonths = activityHistoryMinimumMonths;
+
+        this.outcomes = new FraudCheckScore[8];
+        for (int conditions = 0; conditions < outcomes.length; conditions++) {
+            outcomes[conditions] = outcome(conditions);
+        }
+    }
+
+    /**
+     * @param noFileFoundThresholds indexed by Strategy ordinal, {@link
+     *     FraudCheckConfigurationSnapshot#NO_THRESHOLD} for a strategy without one
+     */
+    static FraudCheckScoringRules compile(
+            List<String> zeroScoreUcodes, int[] noFileFoundThresholds) {
+        return new FraudCheckScoringRules(
+                Set.copyOf(zeroScoreUcodes),
+                Arrays.copyOf(noFileFoundThresholds, Strategy.values().length),
+                ACTIVITY_HISTORY_MINIMUM_MONTHS);
+    }
+
+    /**
+     * Scores a fraud check that executed successfully.
+     *
+     * @throws IllegalStateException if the strategy has no no file found threshold
+     */
+    public FraudCheckScore evaluate(FraudCheckResult fraudCheckResult, Strategy strategy) {
+        int noFileFoundThreshold = noFileFoundThresholds[strategy.ordinal()];
+        if (noFileFoundThreshold == FraudCheckConfigurationSnapshot.NO_THRESHOLD) {
+            throw new IllegalStateException(
+                    "No file found threshold is not configured for strategy " + strategy);
+        }
+
+        int conditions = NO_ZERO_SCORE_UCODE;
+
+        for (String thirdPartyFraudCode : fraudCheckResult.getThirdPartyFraudCodes()) {
+            if (zeroScoreUcodes.contains(thirdPartyFraudCode)) {
+                conditions = 0;
+                break;
+            }
+        }
+
+        if (fraudCheckResult.getDecisionScore() > noFileFoundThreshold) {
+            conditions |= FILE_FOUND;
+        }
+
+        Integer oldestRecordDateInMonths = fraudCheckResult.getOldestRecordDateInMonths();
+        if (oldestRecordDateInMonths != null
+                && oldestRecordDateInMonths >= activityHistoryMinimumMonths) {
+            conditions |= ACTIVITY_HISTORY;
+        }
+
+        return outcomes[conditions];
+    }
+
+    /** The identity check score once a PEP check has been performed. */
+    public int scoreAfterPepCheck(int currentScore, boolean pepCheckSuccess) {
+        if (currentScore == PEP_CHECK_REQUIRED_SCORE && pepCheckSuccess) {
+            return PEP_CHECK_REQUIRED_SCORE + 1;
+        } else if (currentScore != PEP_CHECK_REQUIRED_SCORE) {
+            LOGGER.error(
+                    "PEP should not have been performed with current score of {}", currentScore);
+        }
+
+        // no change to score
+        return currentScore;
+    }
+
+    private static FraudCheckScore outcome(int conditions) {
+        boolean noZeroScoreUcode = (conditions & NO_ZERO_SCORE_UCODE) != 0;
+        boolean fileFound = (conditions & FILE_FOUND) != 0;
+        boolean activityHistory = (conditions & ACTIVITY_HISTORY) != 0;
+
+        // A PEP check needs a file found with a score of one (no zero score uCode)
+        boolean pepCheckAllowed = noZeroScoreUcode && fileFound;
+
+        List<String> checksSucceeded = new ArrayList<>();
+        List<String> checksFailed = new ArrayList<>();
+
+        if (pepCheckAllowed) {
+            if (activityHistory) {
+                checksSucceeded.add(CheckType.ACTIVITY_HISTORY_CHECK.toString());
+            }
+            checksSucceeded.add(CheckType.MORTALITY_CHECK.toString());
+            checksSucceeded.add(CheckType.IDENTITY_THEFT_CHECK.toString());
+            checksSucceeded.add(CheckType.SYNTHETIC_IDENTITY_CHECK.toString());
+        } else {
+            // The activity history check is not reported when the fraud checks fail
+            checksFailed.add(CheckType.MORTALITY_CHECK.toString());
+            checksFailed.add(CheckType.IDENTITY_THEFT_CHECK.toString());
+            checksFailed.add(CheckType.SYNTHETIC_IDENTITY_CHECK.toString());
+        }
+
+        return new FraudCheckScore(
+                noZeroScoreUcode ? 1 : 0,
+                activityHistory ? 1 : 0,
+                fileFound,
+                pepCheckAllowed,
+                List.copyOf(checksSucceeded),
+                List.copyOf(checksFailed));
+    }
+
+    /** The outcome of scoring a fraud check, shared between requests so never modified. */
+    public static final class FraudCheckScore {
+        private final int identityCheckScore;
+        private final int activityHistoryScore;
+        private final boolean fileFound;
+        private final boolean pepCheckAllowed;
+        private final List<String> checksSucceeded;
+        private final List<String> checksFailed;
+
+        private FraudCheckScore(
+                int identityCheckScore,
+                int activityHistoryScore,
+                boolean fileFound,
+                boolean pepCheckAllowed,
+                List<String> checksSucceeded,
+                List<String> checksFailed) {
+            this.identityCheckScore = identityCheckScore;
+            this.activityHistoryScore = activityHistoryScore;
+            this.fileFound = fileFound;
+            this.pepCheckAllowed = pepCheckAllowed;
+            this.checksSucceeded = checksSucceeded;
+            this.checksFailed = checksFailed;
+        }
+
+        public int getIdentityCheckScore() {
+            return identityCheckScore;
+        }
+
+        public int getActivityHistoryScore() {
+            return activityHistoryScore;
+        }
+
+        public boolean isFileFound() {
+            return fileFound;
+        }
+
+        public boolean isPepCheckAllowed() {
+            return pepCheckAllowed;
+        }
+
+        public List<String> getChecksSucceeded() {
+            return checksSucceeded;
+        }
+
+        public List<String> getChecksFailed() {
+            return checksFailed;
+        }
+    }
+}
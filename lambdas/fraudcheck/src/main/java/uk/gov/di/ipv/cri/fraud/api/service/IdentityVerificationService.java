@@ -4,12 +4,12 @@ import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.apache.logging.log4j.ThreadContext;
 import uk.gov.di.ipv.cri.common.library.domain.AuditEventContext;
 import uk.gov.di.ipv.cri.common.library.domain.AuditEventType;
 import uk.gov.di.ipv.cri.common.library.domain.personidentity.PersonIdentity;
 import uk.gov.di.ipv.cri.common.library.exception.SqsException;
 import uk.gov.di.ipv.cri.common.library.persistence.item.SessionItem;
-import uk.gov.di.ipv.cri.common.library.service.AuditService;
 import uk.gov.di.ipv.cri.common.library.util.EventProbe;
 import uk.gov.di.ipv.cri.fraud.api.domain.IdentityVerificationResult;
 import uk.gov.di.ipv.cri.fraud.api.domain.ValidationResult;
@@ -18,10 +18,13 @@ import uk.gov.di.ipv.cri.fraud.api.domain.check.FraudCheckResult;
 import uk.gov.di.ipv.cri.fraud.api.domain.check.PepCheckResult;
 import uk.gov.di.ipv.cri.fraud.api.gateway.ThirdPartyFraudGateway;
 import uk.gov.di.ipv.cri.fraud.api.gateway.ThirdPartyPepGateway;
+import uk.gov.di.ipv.cri.fraud.api.service.FraudCheckScoringRules.FraudCheckScore;
 import uk.gov.di.ipv.cri.fraud.library.domain.CheckType;
 import uk.gov.di.ipv.cri.fraud.library.exception.OAuthErrorResponseException;
+import uk.gov.di.ipv.cri.fraud.library.service.AuditEventDispatcher;
 import uk.gov.di.ipv.cri.fraud.library.service.ServiceFactory;
 import uk.gov.di.ipv.cri.fraud.library.strategy.Strategy;
+import uk.gov.di.ipv.cri.fraud.library.util.InvocationDeadline;
 
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
@@ -30,6 +33,12 @@ import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 import static uk.gov.di.ipv.cri.fraud.library.metrics.Definitions.FRAUD_CHECK_CI_PREFIX;
 import static uk.gov.di.ipv.cri.fraud.library.metrics.Definitions.FRAUD_CHECK_REQUEST_FAILED;
@@ -38,6 +47,9 @@ import static uk.gov.di.ipv.cri.fraud.library.metrics.Definitions.IDENTITY_CHECK
 import static uk.gov.di.ipv.cri.fraud.library.metrics.Definitions.PEP_CHECK_CI_PREFIX;
 import static uk.gov.di.ipv.cri.fraud.library.metrics.Definitions.PEP_CHECK_REQUEST_FAILED;
 import static uk.gov.di.ipv.cri.fraud.library.metrics.Definitions.PEP_CHECK_REQUEST_SUCCEEDED;
+import static uk.gov.di.ipv.cri.fraud.library.metrics.Definitions.PEP_CHECK_SPECULATIVE_DISPATCHED;
+import static uk.gov.di.ipv.cri.fraud.library.metrics.Definitions.PEP_CHECK_SPECULATIVE_USED;
+import static uk.gov.di.ipv.cri.fraud.library.metrics.Definitions.PEP_CHECK_SPECULATIVE_WASTED;
 import static uk.gov.di.ipv.cri.fraud.library.metrics.Definitions.PERSON_DETAILS_VALIDATION_FAIL;
 import static uk.gov.di.ipv.cri.fraud.library.metrics.Definitions.PERSON_DETAILS_VALIDATION_PASS;
 
@@ -55,7 +67,7 @@ public class IdentityVerificationService {
     private final ObjectMapper objectMapper;
 
     private final EventProbe eventProbe;
-    private final AuditService auditService;
+    private final AuditEventDispatcher auditEventDispatcher;
 
     private final TokenRequestService tokenRequestService;
     private final ThirdPartyFraudGateway thirdPartyFraudGateway;
@@ -63,20 +75,23 @@ public class IdentityVerificationService {
 
     private final PersonIdentityValidator personIdentityValidator;
     private final ContraIndicatorMapper contraindicationMapper;
-    private final IdentityScoreCalculator identityScoreCalculator;
-    private final ActivityHistoryScoreCalculator activityHistoryScoreCalculator;
     private final FraudCheckConfigurationService fraudCheckConfigurationService;
 
+    // When enabled the PEP request is sent at the same time as the fraud request.
+    // The PEP result is only used if the fraud check outcome would have allowed a PEP check.
+    private final boolean speculativePepCheckEnabled =
+            Boolean.parseBoolean(System.getenv("ENV_VAR_FEATURE_FLAG_SPECULATIVE_PEP_CHECK"));
+    private final ExecutorService speculativePepCheckExecutor;
+
     public IdentityVerificationService(
             ServiceFactory serviceFactory,
             ThirdPartyAPIServiceFactory thirdPartyAPIServiceFactory,
             PersonIdentityValidator personIdentityValidator,
             ContraIndicatorMapper contraindicationMapper,
-            ActivityHistoryScoreCalculator activityHistoryScoreCalculator,
             FraudCheckConfigurationService fraudCheckConfigurationService) {
 
         this.eventProbe = serviceFactory.getEventProbe();
-        this.auditService = serviceFactory.getAuditService();
+        this.auditEventDispatcher = serviceFactory.getAuditEventDispatcher();
         this.objectMapper = serviceFactory.getObjectMapper();
 
         this.tokenRequestService = thirdPartyAPIServiceFactory.getTokenRequestService();
@@ -87,11 +102,18 @@ public class IdentityVerificationService {
 
         this.contraindicationMapper = contraindicationMapper;
 
-        this.identityScoreCalculator = new IdentityScoreCalculator(fraudCheckConfigurationService);
-
-        this.activityHistoryScoreCalculator = activityHistoryScoreCalculator;
-
         this.fraudCheckConfigurationService = fraudCheckConfigurationService;
+
+        LOGGER.info("Speculative PEP check enabled = {}", speculativePepCheckEnabled);
+        this.speculativePepCheckExecutor =
+                speculativePepCheckEnabled
+                        ? Executors.newCachedThreadPool(
+                                runnable -> {
+                                    Thread thread = new Thread(runnable, "speculative-pep-check");
+                                    thread.setDaemon(true);
+                                    return thread;
+                                })
+                        : null;
     }
 
     public IdentityVerificationResult verifyIdentity(
@@ -122,21 +144,46 @@ public class IdentityVerificationService {
         LOGGER.info("IPV Core Client Id {}, Routing set to {}", clientId, strategy);
 
         String token = tokenRequestService.requestToken(false, strategy);
-        IdentityVerificationResult fraudIdentityVerificationResult =
-                fraudCheckStep(personIdentity, token, strategy);
+
+        // null when speculative PEP checks are not enabled
+        Future<PepCheckResult> speculativePepCheck =
+                speculativePepCheckEnabled
+                        ? dispatchSpeculativePepCheck(personIdentity, token, strategy)
+                        : null;
+
+        IdentityVerificationResult fraudIdentityVerificationResult;
         IdentityVerificationResult pepIdentityVerificationResult = new IdentityVerificationResult();
 
-        boolean pepValidToPerform =
-                fraudIdentityVerificationResult.isSuccess()
-                        && fraudIdentityVerificationResult.getChecksFailed().isEmpty();
-
-        if (pepValidToPerform) {
-            pepIdentityVerificationResult =
-                    pepCheckStep(
-                            personIdentity,
-                            fraudIdentityVerificationResult.getIdentityCheckScore(),
-                            token,
-                            strategy);
+        // Any way out of here other than using the speculative result discards it, including
+        // exceptions, so it never runs on into the next invocation
+        boolean speculativePepCheckUsed = false;
+        try {
+            fraudIdentityVerificationResult = fraudCheckStep(personIdentity, token, strategy);
+
+            boolean pepValidToPerform =
+                    fraudIdentityVerificationResult.isSuccess()
+                            && fraudIdentityVerificationResult.getChecksFailed().isEmpty();
+
+            if (pepValidToPerform && null != speculativePepCheck) {
+                speculativePepCheckUsed = true;
+                eventProbe.counterMetric(PEP_CHECK_SPECULATIVE_USED);
+
+                pepIdentityVerificationResult =
+                        pepCheckResultStep(
+                                awaitSpeculativePepCheck(speculativePepCheck),
+                                fraudIdentityVerificationResult.getIdentityCheckScore());
+            } else if (pepValidToPerform) {
+                pepIdentityVerificationResult =
+                        pepCheckStep(
+                                personIdentity,
+                                fraudIdentityVerificationResult.getIdentityCheckScore(),
+                                token,
+                                strategy);
+            }
+        } finally {
+            if (!speculativePepCheckUsed) {
+                discardSpeculativePepCheck(speculativePepCheck);
+            }
         }
 
         int identityCheckScore =
@@ -190,7 +237,7 @@ public class IdentityVerificationService {
             String stringCIs = String.join(", ", identityVerificationResult.getContraIndicators());
             LOGGER.info("Final Combined Indicators {}", stringCIs);
 
-            auditService.sendAuditEvent(
+            auditEventDispatcher.dispatch(
                     AuditEventType.RESPONSE_RECEIVED,
                     new AuditEventContext(requestHeaders, sessionItem),
                     new TPREFraudAuditExtension(
@@ -260,9 +307,6 @@ public class IdentityVerificationService {
         identityVerificationResult.setSuccess(true);
         identityVerificationResult.setTransactionId(fraudCheckResult.getTransactionId());
 
-        List<String> checksSucceeded = new ArrayList<>();
-        List<String> checksFailed = new ArrayList<>();
-
         LOGGER.info("Mapping contra indicators from fraud response");
         List<String> fraudContraindications =
                 List.of(
@@ -282,12 +326,13 @@ public class IdentityVerificationService {
                 fraudCheckResult.getDecisionScore(),
                 thirdPartyFraudCodes);
 
-        int fraudIdentityCheckScore =
-                identityScoreCalculator.calculateIdentityScoreAfterFraudCheck(
-                        fraudCheckResult, true, strategy);
-        int activityHistoryScore =
-                activityHistoryScoreCalculator.calculateActivityHistoryScore(
-                        fraudCheckResult.getOldestRecordDateInMonths());
+        // Read per request so a configuration refresh is picked up
+        FraudCheckScore fraudCheckScore =
+                fraudCheckConfigurationService
+                        .getScoringRules()
+                        .evaluate(fraudCheckResult, strategy);
+        int fraudIdentityCheckScore = fraudCheckScore.getIdentityCheckScore();
+        int activityHistoryScore = fraudCheckScore.getActivityHistoryScore();
 
         LOGGER.info("Activity history score {}", activityHistoryScore);
 
@@ -309,53 +354,20 @@ public class IdentityVerificationService {
                 fraudIdentityCheckScore);
         eventProbe.counterMetric(FRAUD_CHECK_REQUEST_SUCCEEDED);
 
-        if (activityHistoryScore > 0) {
-            checksSucceeded.add(CheckType.ACTIVITY_HISTORY_CHECK.toString());
-        }
-        // else add ACTIVITY_HISTORY_CHECK to checksFailed
-
-        if (decisionScore <= fraudCheckConfigurationService.getNoFileFoundThreshold(strategy)) {
-
-            // Fraud Checks that have failed if decisionScore <= NoFileFoundThreshold
-            checksFailed.add(CheckType.MORTALITY_CHECK.toString());
-            checksFailed.add(CheckType.IDENTITY_THEFT_CHECK.toString());
-            checksFailed.add(CheckType.SYNTHETIC_IDENTITY_CHECK.toString());
+        identityVerificationResult.setChecksSucceeded(fraudCheckScore.getChecksSucceeded());
+        identityVerificationResult.setChecksFailed(fraudCheckScore.getChecksFailed());
 
+        if (!fraudCheckScore.isFileFound()) {
             LOGGER.info(
                     "User was file not found with decision score {} so PEP check will be skipped",
                     decisionScore);
-
-            identityVerificationResult.setChecksFailed(checksFailed);
-
-            // No Pep check
-            return identityVerificationResult;
-        }
-
-        // fraudIdentityCheckScore must be one to perform pepCheck (no zero score uCode)
-        if (fraudIdentityCheckScore != 1) {
-
+        } else if (!fraudCheckScore.isPepCheckAllowed()) {
             LOGGER.info(
                     "fraudIdentityCheckScore {} so PEP check will be skipped",
                     fraudIdentityCheckScore);
-
-            checksFailed.add(CheckType.MORTALITY_CHECK.toString());
-            checksFailed.add(CheckType.IDENTITY_THEFT_CHECK.toString());
-            checksFailed.add(CheckType.SYNTHETIC_IDENTITY_CHECK.toString());
-
-            identityVerificationResult.setChecksFailed(checksFailed);
-
-            return identityVerificationResult;
         }
 
-        // Fraud Checks that have succeeded if decisionScore > NoFileFoundThreshold and score
-        // currently 1
-        checksSucceeded.add(CheckType.MORTALITY_CHECK.toString());
-        checksSucceeded.add(CheckType.IDENTITY_THEFT_CHECK.toString());
-        checksSucceeded.add(CheckType.SYNTHETIC_IDENTITY_CHECK.toString());
-
-        identityVerificationResult.setChecksSucceeded(checksSucceeded);
-
-        // Pep check is now available
+        // Pep check is available when no fraud checks have failed
         return identityVerificationResult;
     }
 
@@ -363,10 +375,6 @@ public class IdentityVerificationService {
             PersonIdentity personIdentity, int currentScore, String token, Strategy strategy)
             throws JsonProcessingException {
 
-        IdentityVerificationResult identityVerificationResult = new IdentityVerificationResult();
-        List<String> checksSucceeded = new ArrayList<>();
-        List<String> checksFailed = new ArrayList<>();
-
         PepCheckResult pepCheckResult = null;
 
         try {
@@ -376,6 +384,16 @@ public class IdentityVerificationService {
             LOGGER.error(ERROR_MSG_CONTEXT, e);
         }
 
+        return pepCheckResultStep(pepCheckResult, currentScore);
+    }
+
+    private IdentityVerificationResult pepCheckResultStep(
+            PepCheckResult pepCheckResult, int currentScore) throws JsonProcessingException {
+
+        IdentityVerificationResult identityVerificationResult = new IdentityVerificationResult();
+        List<String> checksSucceeded = new ArrayList<>();
+        List<String> checksFailed = new ArrayList<>();
+
         String loggedPepCheckObject = objectMapper.writeValueAsString(pepCheckResult);
         LOGGER.info("Third party pep response {}", loggedPepCheckObject);
 
@@ -388,8 +406,10 @@ public class IdentityVerificationService {
                             this.contraindicationMapper.mapThirdPartyFraudCodes(
                                     pepCheckResult.getThirdPartyFraudCodes()));
             int pepIdentityCheckScore =
-                    identityScoreCalculator.calculateIdentityScoreAfterPEPCheck(
-                            currentScore, pepCheckResult.isExecutedSuccessfully());
+                    fraudCheckConfigurationService
+                            .getScoringRules()
+                            .scoreAfterPepCheck(
+                                    currentScore, pepCheckResult.isExecutedSuccessfully());
 
             LOGGER.info("IdentityCheckScore after PEP {}", pepIdentityCheckScore);
             identityVerificationResult.setIdentityCheckScore(pepIdentityCheckScore);
@@ -435,6 +455,59 @@ public class IdentityVerificationService {
         return identityVerificationResult;
     }
 
+    private Future<PepCheckResult> dispatchSpeculativePepCheck(
+            PersonIdentity personIdentity, String token, Strategy strategy) {
+
+        LOGGER.info("Dispatching speculative PEP check alongside fraud check");
+        eventProbe.counterMetric(PEP_CHECK_SPECULATIVE_DISPATCHED);
+
+        // Keeps the correlation ids etc on the log lines from the PEP thread
+        final Map<String, String> loggingContext = ThreadContext.getImmutableContext();
+
+        return speculativePepCheckExecutor.submit(
+                () -> {
+                    ThreadContext.putAll(loggingContext);
+                    try {
+                        return thirdPartyPepGateway.performPepCheck(
+                                personIdentity, token, strategy);
+                    } finally {
+                        ThreadContext.clearMap();
+                    }
+                });
+    }
+
+    private PepCheckResult awaitSpeculativePepCheck(Future<PepCheckResult> speculativePepCheck) {
+        try {
+            // Same deadline the synchronous PEP path retries within
+            return speculativePepCheck.get(
+                    Math.max(0, InvocationDeadline.getRemainingTimeMillis()),
+                    TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            // Pep check can completely fail and result returned based on fraud check alone
+            LOGGER.error(ERROR_MSG_CONTEXT, e.getCause());
+        } catch (TimeoutException e) {
+            LOGGER.error("Speculative PEP check did not complete before the invocation deadline");
+            speculativePepCheck.cancel(true);
+        } catch (InterruptedException e) {
+            LOGGER.error(ERROR_MSG_CONTEXT, e);
+            Thread.currentThread().interrupt();
+        }
+
+        return null;
+    }
+
+    private void discardSpeculativePepCheck(Future<PepCheckResult> speculativePepCheck) {
+        if (null == speculativePepCheck) {
+            return;
+        }
+
+        LOGGER.info("Speculative PEP check result not used, discarding speculative PEP");
+        eventProbe.counterMetric(PEP_CHECK_SPECULATIVE_WASTED);
+
+        // The request may already be with the third party, the result is ignored
+        speculativePepCheck.cancel(true);
+    }
+
     private void recordCIMetrics(String ciRequestPrefix, List<String> contraIndications) {
         for (String ci : contraIndications) {
             eventProbe.counterMetric(ciRequestPrefix + ci);
@@ -3,20 +3,40 @@ package uk.gov.di.ipv.cri.fraud.api.service;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.apache.http.HttpException;
 import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 import software.amazon.awssdk.enhanced.dynamodb.DynamoDbEnhancedClient;
 import uk.gov.di.ipv.cri.common.library.util.EventProbe;
 import uk.gov.di.ipv.cri.fraud.api.gateway.IdentityVerificationRequestMapper;
 import uk.gov.di.ipv.cri.fraud.api.gateway.IdentityVerificationResponseMapper;
 import uk.gov.di.ipv.cri.fraud.api.gateway.ThirdPartyFraudGateway;
 import uk.gov.di.ipv.cri.fraud.api.gateway.ThirdPartyPepGateway;
+import uk.gov.di.ipv.cri.fraud.api.gateway.dto.request.IdentityVerificationRequest;
+import uk.gov.di.ipv.cri.fraud.api.gateway.dto.request.PEPRequest;
+import uk.gov.di.ipv.cri.fraud.api.gateway.dto.request.TokenRequestPayload;
+import uk.gov.di.ipv.cri.fraud.api.gateway.dto.response.AccessTokenHeader;
+import uk.gov.di.ipv.cri.fraud.api.gateway.dto.response.AccessTokenPayload;
+import uk.gov.di.ipv.cri.fraud.api.gateway.dto.response.IdentityVerificationResponse;
+import uk.gov.di.ipv.cri.fraud.api.gateway.dto.response.PEPResponse;
+import uk.gov.di.ipv.cri.fraud.api.gateway.dto.response.TokenResponse;
 import uk.gov.di.ipv.cri.fraud.library.config.HttpRequestConfig;
 import uk.gov.di.ipv.cri.fraud.library.service.HttpRetryer;
 import uk.gov.di.ipv.cri.fraud.library.service.ServiceFactory;
+import uk.gov.di.ipv.cri.fraud.library.util.JsonCodecRegistry;
+import uk.gov.di.ipv.cri.fraud.library.util.StopWatch;
+
+import java.util.ArrayList;
+import java.util.List;
 
 public class ThirdPartyAPIServiceFactory {
 
+    private static final Logger LOGGER = LogManager.getLogger();
+
     private static final int MAX_HTTP_RETRIES = 0;
 
+    // Time taken opening connections during init, recorded as a metric by the handler
+    private final long connectionPrewarmDuration;
+
     private final TokenRequestService tokenRequestService;
     private final ThirdPartyFraudGateway thirdPartyFraudGateway;
     private final ThirdPartyPepGateway thirdPartyPepGateway;
@@ -29,11 +49,36 @@ public class ThirdPartyAPIServiceFactory {
         ObjectMapper objectMapper = serviceFactory.getObjectMapper();
         EventProbe eventProbe = serviceFactory.getEventProbe();
 
+        // Readers/writers for the third party DTOs are built here rather than on first request
+        JsonCodecRegistry jsonCodecRegistry =
+                serviceFactory
+                        .getJsonCodecRegistry()
+                        .register(
+                                TokenRequestPayload.class,
+                                TokenResponse.class,
+                                AccessTokenHeader.class,
+                                AccessTokenPayload.class,
+                                IdentityVerificationRequest.class,
+                                IdentityVerificationResponse.class,
+                                PEPRequest.class,
+                                PEPResponse.class);
+
         ThirdPartyCloseableHttpClientFactory thirdPartyCloseableHttpClientFactory =
                 new ThirdPartyCloseableHttpClientFactory();
 
+        final List<String> thirdPartyEndpoints =
+                getThirdPartyEndpoints(
+                        fraudCheckConfigurationService.getCrosscoreV2Configuration());
+
         final CloseableHttpClient closeableHttpClient =
-                thirdPartyCloseableHttpClientFactory.generateTLSHttpClient();
+                thirdPartyCloseableHttpClientFactory.generateTLSHttpClient(thirdPartyEndpoints);
+
+        // Moves the TCP/TLS setup of the first request into init
+        StopWatch prewarmStopWatch = new StopWatch();
+        prewarmStopWatch.start();
+        thirdPartyCloseableHttpClientFactory.prewarmConnections(thirdPartyEndpoints);
+        connectionPrewarmDuration = prewarmStopWatch.stop();
+        LOGGER.info("Connection pre-warm duration {}ms", connectionPrewarmDuration);
 
         final HttpRetryer httpRetryer =
                 new HttpRetryer(closeableHttpClient, eventProbe, MAX_HTTP_RETRIES);
@@ -47,7 +92,7 @@ public class ThirdPartyAPIServiceFactory {
                         dynamoDbEnhancedClient,
                         httpRetryer,
                         HttpRequestConfig.getCustomRequestConfig(1000, 1000, 10000),
-                        objectMapper,
+                        jsonCodecRegistry,
                         eventProbe);
 
         thirdPartyFraudGateway =
@@ -55,7 +100,7 @@ public class ThirdPartyAPIServiceFactory {
                         httpRetryer,
                         new IdentityVerificationRequestMapper(),
                         new IdentityVerificationResponseMapper(eventProbe, objectMapper),
-                        objectMapper,
+                        jsonCodecRegistry,
                         fraudCheckConfigurationService,
                         eventProbe);
 
@@ -64,11 +109,27 @@ public class ThirdPartyAPIServiceFactory {
                         httpRetryer,
                         new IdentityVerificationRequestMapper(),
                         new IdentityVerificationResponseMapper(eventProbe, objectMapper),
-                        objectMapper,
+                        jsonCodecRegistry,
                         fraudCheckConfigurationService,
                         eventProbe);
     }
 
+    // Token and crosscore (fraud + pep) endpoints for all strategies
+    private List<String> getThirdPartyEndpoints(CrosscoreV2Configuration crosscoreV2Configuration) {
+        List<String> thirdPartyEndpoints = new ArrayList<>();
+
+        thirdPartyEndpoints.add(crosscoreV2Configuration.getTokenEndpoint());
+        thirdPartyEndpoints.add(crosscoreV2Configuration.getEndpointUri());
+        thirdPartyEndpoints.addAll(crosscoreV2Configuration.getTokenEndpointURIs().values());
+        thirdPartyEndpoints.addAll(crosscoreV2Configuration.getEndpointURIs().values());
+
+        return thirdPartyEndpoints;
+    }
+
+    public long getConnectionPrewarmDuration() {
+        return connectionPrewarmDuration;
+    }
+
     public TokenRequestService getTokenRequestService() {
         return tokenRequestService;
     }
@@ -1,29 +1,301 @@
 package uk.gov.di.ipv.cri.fraud.api.service;
 
+import org.apache.http.HttpClientConnection;
 import org.apache.http.HttpException;
+import org.apache.http.HttpHost;
+import org.apache.http.client.protocol.HttpClientContext;
+import org.apache.http.config.Registry;
+import org.apache.http.config.RegistryBuilder;
+import org.apache.http.config.SocketConfig;
+import org.apache.http.conn.ConnectionRequest;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.conn.socket.ConnectionSocketFactory;
+import org.apache.http.conn.socket.PlainConnectionSocketFactory;
+import org.apache.http.conn.ssl.SSLConnectionSocketFactory;
 import org.apache.http.impl.client.CloseableHttpClient;
 import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
 import org.apache.http.ssl.SSLContexts;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import uk.gov.di.ipv.cri.fraud.library.util.HTTPConnectionKeepAliveStrategyFactory;
 
 import javax.net.ssl.SSLContext;
 
+import java.io.IOException;
+import java.net.URI;
 import java.security.KeyManagementException;
 import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 public class ThirdPartyCloseableHttpClientFactory {
 
+    private static final Logger LOGGER = LogManager.getLogger();
+
+    // A lambda handles one request at a time, the token, fraud and (speculative) pep requests
+    // are the most that can be in flight together
+    public static final int DEFAULT_MAX_CONNECTIONS_TOTAL = 10;
+    public static final int DEFAULT_MAX_CONNECTIONS_PER_ROUTE = 2;
+    public static final int DEFAULT_MAX_CONNECTIONS_PER_THIRD_PARTY_ROUTE = 4;
+
+    // Pooled connections idle longer than this are checked before reuse
+    public static final int VALIDATE_AFTER_INACTIVITY_MS = 2000;
+
+    // Used when the remote does not send a Keep-Alive header
+    public static final long KEEP_ALIVE_SECONDS = 60;
+
+    // Background eviction of connections the remote will have closed
+    public static final long MAX_IDLE_CONNECTION_SECONDS = 55;
+
+    // Bounds the TLS handshake, request socket timeouts apply once connected
+    public static final int HANDSHAKE_SOCKET_TIMEOUT_MS = 10000;
+
+    // Pre-warming is best effort, all hosts share this budget so a slow host cannot hold up init
+    public static final long PREWARM_BUDGET_MS = 300;
+
+    // Per host limits while pre-warming, a host still pending at the budget is left behind
+    public static final int PREWARM_CONNECT_TIMEOUT_MS = 300;
+    public static final int PREWARM_HANDSHAKE_SOCKET_TIMEOUT_MS = 1000;
+
+    private final int maxConnectionsTotal;
+    private final int maxConnectionsPerThirdPartyRoute;
+
+    // Manager of the last generated client, used when pre-warming connections
+    private PoolingHttpClientConnectionManager connectionManager;
+
     public ThirdPartyCloseableHttpClientFactory() {
-        /* Intended */
+        this(DEFAULT_MAX_CONNECTIONS_TOTAL, DEFAULT_MAX_CONNECTIONS_PER_THIRD_PARTY_ROUTE);
+    }
+
+    public ThirdPartyCloseableHttpClientFactory(
+            int maxConnectionsTotal, int maxConnectionsPerThirdPartyRoute) {
+        this.maxConnectionsTotal = maxConnectionsTotal;
+        this.maxConnectionsPerThirdPartyRoute = maxConnectionsPerThirdPartyRoute;
     }
 
     // SSL context with TLS
     public CloseableHttpClient generateTLSHttpClient() throws HttpException {
+        return generateTLSHttpClient(List.of());
+    }
+
+    /**
+     * @param thirdPartyEndpoints urls of the endpoints to be called, each host is given the third
+     *     party per route connection limit. Null or invalid urls are ignored.
+     */
+    public CloseableHttpClient generateTLSHttpClient(Collection<String> thirdPartyEndpoints)
+            throws HttpException {
         try {
             SSLContext sslContext = SSLContexts.custom().setProtocol("TLSv1.2").build();
 
-            return HttpClients.custom().setSSLContext(sslContext).build();
+            connectionManager = createConnectionManager(sslContext, thirdPartyEndpoints);
+
+            return HttpClients.custom()
+                    .setConnectionManager(connectionManager)
+                    .setKeepAliveStrategy(
+                            HTTPConnectionKeepAliveStrategyFactory
+                                    .createHTTPConnectionKeepAliveStrategy(
+                                            KEEP_ALIVE_SECONDS, true))
+                    .evictExpiredConnections()
+                    .evictIdleConnections(MAX_IDLE_CONNECTION_SECONDS, TimeUnit.SECONDS)
+                    .build();
         } catch (NoSuchAlgorithmException | KeyManagementException e) {
             throw new HttpException(e.getMessage());
         }
     }
+
+    PoolingHttpClientConnectionManager createConnectionManager(
+            SSLContext sslContext, Collection<String> thirdPartyEndpoints) {
+
+        Registry<ConnectionSocketFactory> socketFactoryRegistry =
+                RegistryBuilder.<ConnectionSocketFactory>create()
+                        .register("https", new SSLConnectionSocketFactory(sslContext))
+                        .register("http", PlainConnectionSocketFactory.getSocketFactory())
+                        .build();
+
+        PoolingHttpClientConnectionManager connectionManager =
+                new PoolingHttpClientConnectionManager(socketFactoryRegistry);
+
+        connectionManager.setMaxTotal(maxConnectionsTotal);
+        connectionManager.setDefaultMaxPerRoute(DEFAULT_MAX_CONNECTIONS_PER_ROUTE);
+        connectionManager.setValidateAfterInactivity(VALIDATE_AFTER_INACTIVITY_MS);
+        connectionManager.setDefaultSocketConfig(
+                SocketConfig.custom().setSoTimeout(HANDSHAKE_SOCKET_TIMEOUT_MS).build());
+
+        for (String endpoint : thirdPartyEndpoints) {
+            HttpRoute route = createRoute(endpoint);
+
+            if (route != null) {
+                LOGGER.info(
+                        "Max connections for route {} set to {}",
+                        route.getTargetHost(),
+                        maxConnectionsPerThirdPartyRoute);
+                connectionManager.setMaxPerRoute(route, maxConnectionsPerThirdPartyRoute);
+            }
+        }
+
+        return connectionManager;
+    }
+
+    /**
+     * Opens a connection (TCP + TLS handshake) to each endpoint host and returns it to the pool,
+     * so the first request of the lambda can reuse it. No http request is sent. Failures are
+     * logged and left for the request to retry.
+     *
+     * @return the number of hosts with a connection in the pool
+     */
+    public int prewarmConnections(Collection<String> thirdPartyEndpoints) {
+        if (connectionManager == null) {
+            LOGGER.warn("No http client generated, connections not pre-warmed");
+            return 0;
+        }
+
+        Set<HttpRoute> routes = new LinkedHashSet<>();
+        for (String endpoint : thirdPartyEndpoints) {
+            HttpRoute route = createRoute(endpoint);
+            if (route != null) {
+                routes.add(route);
+            }
+        }
+
+        if (routes.isEmpty()) {
+            return 0;
+        }
+
+        // Shorter handshake while pre-warming, requests keep the default socket config
+        SocketConfig prewarmSocketConfig =
+                SocketConfig.custom().setSoTimeout(PREWARM_HANDSHAKE_SOCKET_TIMEOUT_MS).build();
+        for (HttpRoute route : routes) {
+            connectionManager.setSocketConfig(route.getTargetHost(), prewarmSocketConfig);
+        }
+
+        ExecutorService prewarmExecutor =
+                Executors.newFixedThreadPool(
+                        routes.size(),
+                        runnable -> {
+                            Thread thread = new Thread(runnable, "connection-prewarm");
+                            thread.setDaemon(true);
+                            return thread;
+                        });
+
+        int prewarmedRoutes = 0;
+        try {
+            Map<HttpRoute, Future<Boolean>> prewarms = new LinkedHashMap<>();
+            for (HttpRoute route : routes) {
+                prewarms.put(route, prewarmExecutor.submit(() -> prewarmConnection(route)));
+            }
+
+            long budgetEndNanos =
+                    System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(PREWARM_BUDGET_MS);
+            for (Map.Entry<HttpRoute, Future<Boolean>> prewarm : prewarms.entrySet()) {
+                if (awaitPrewarm(prewarm.getKey(), prewarm.getValue(), budgetEndNanos)) {
+                    prewarmedRoutes++;
+                }
+            }
+        } finally {
+            // Interrupts anything still waiting on the pool, a pending connect ends at its timeout
+            prewarmExecutor.shutdownNow();
+
+            SocketConfig defaultSocketConfig = connectionManager.getDefaultSocketConfig();
+            for (HttpRoute route : routes) {
+                connectionManager.setSocketConfig(route.getTargetHost(), defaultSocketConfig);
+            }
+        }
+
+        LOGGER.info("Pre-warmed connections to {} of {} hosts", prewarmedRoutes, routes.size());
+
+        return prewarmedRoutes;
+    }
+
+    private boolean awaitPrewarm(HttpRoute route, Future<Boolean> prewarm, long budgetEndNanos) {
+        try {
+            return prewarm.get(
+                    Math.max(0, budgetEndNanos - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            LOGGER.warn(
+                    "Pre-warming connection to {} not complete within {}ms, skipped",
+                    route.getTargetHost(),
+                    PREWARM_BUDGET_MS);
+            prewarm.cancel(true);
+            return false;
+        } catch (ExecutionException e) {
+            LOGGER.warn(
+                    "Unable to pre-warm connection to {} - {}",
+                    route.getTargetHost(),
+                    e.getCause().getClass().getSimpleName());
+            return false;
+        } catch (InterruptedException e) {
+            LOGGER.warn("Interrupted pre-warming connection to {}", route.getTargetHost());
+            prewarm.cancel(true);
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private boolean prewarmConnection(HttpRoute route) {
+        HttpClientConnection connection = null;
+        try {
+            ConnectionRequest connectionRequest = connectionManager.requestConnection(route, null);
+            connection = connectionRequest.get(PREWARM_CONNECT_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+
+            if (!connection.isOpen()) {
+                HttpClientContext context = HttpClientContext.create();
+                connectionManager.connect(connection, route, PREWARM_CONNECT_TIMEOUT_MS, context);
+                connectionManager.routeComplete(connection, route, context);
+            }
+
+            return true;
+        } catch (IOException | ExecutionException e) {
+            LOGGER.warn(
+                    "Unable to pre-warm connection to {} - {}",
+                    route.getTargetHost(),
+                    e.getClass().getSimpleName());
+            return false;
+        } catch (InterruptedException e) {
+            LOGGER.warn("Interrupted pre-warming connection to {}", route.getTargetHost());
+            Thread.currentThread().interrupt();
+            return false;
+        } finally {
+            if (connection != null) {
+                // Only kept in the pool if the connection is open with its route complete
+                connectionManager.releaseConnection(
+                        connection, null, KEEP_ALIVE_SECONDS, TimeUnit.SECONDS);
+            }
+        }
+    }
+
+    // Matches the route the client plans for a request to the endpoint
+    static HttpRoute createRoute(String endpoint) {
+        if (endpoint == null) {
+            return null;
+        }
+
+        try {
+            URI uri = URI.create(endpoint);
+            String scheme = uri.getScheme();
+
+            if (uri.getHost() == null || scheme == null) {
+                LOGGER.warn("Endpoint has no host or scheme, route limit not set");
+                return null;
+            }
+
+            boolean secure = "https".equalsIgnoreCase(scheme);
+            int port = uri.getPort() > 0 ? uri.getPort() : (secure ? 443 : 80);
+
+            return new HttpRoute(new HttpHost(uri.getHost(), port, scheme), null, secure);
+        } catch (IllegalArgumentException e) {
+            LOGGER.warn("Endpoint is not a valid url, route limit not set");
+            return null;
+        }
+    }
 }
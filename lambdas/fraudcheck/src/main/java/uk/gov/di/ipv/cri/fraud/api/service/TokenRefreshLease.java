@@ -0,0 +1,18 @@
+package uk.gov.di.ipv.cri.fraud.api.service;
+
+/**
+ * Lease shared between concurrent lambdas, used so only one lambda refreshes a token ahead of its
+ * expiry window.
+ */
+public interface TokenRefreshLease {
+
+    /**
+     * @param leaseId the lease to acquire
+     * @param leaseSeconds how long the lease is held for if not released
+     * @return true if this lambda now holds the lease, false if it is held elsewhere
+     */
+    boolean tryAcquire(String leaseId, long leaseSeconds);
+
+    /** Releases the lease if it is still held by this lambda. */
+    void release(String leaseId);
+}
@@ -1,7 +1,6 @@
 package uk.gov.di.ipv.cri.fraud.api.service;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import org.apache.http.client.config.RequestConfig;
 import org.apache.http.client.methods.HttpPost;
 import org.apache.http.entity.ContentType;
@@ -25,6 +24,7 @@ import uk.gov.di.ipv.cri.fraud.library.service.HttpRetryStatusConfig;
 import uk.gov.di.ipv.cri.fraud.library.service.HttpRetryer;
 import uk.gov.di.ipv.cri.fraud.library.strategy.Strategy;
 import uk.gov.di.ipv.cri.fraud.library.util.HTTPReply;
+import uk.gov.di.ipv.cri.fraud.library.util.JsonCodecRegistry;
 import uk.gov.di.ipv.cri.fraud.library.util.StopWatch;
 
 import java.io.IOException;
@@ -33,7 +33,11 @@ import java.time.Instant;
 import java.time.ZoneId;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
 
 import static uk.gov.di.ipv.cri.fraud.library.metrics.ThirdPartyAPIEndpointMetric.TOKEN_RESPONSE_LATENCY;
 
@@ -48,6 +52,15 @@ public class TokenRequestService {
     private final String tokenTableName;
     private DataStore<TokenItem> dataStore;
 
+    // L1 - token items already seen by this lambda instance, per 3rd party route.
+    // The token table is the L2 shared between concurrent lambdas.
+    private final Map<Strategy, TokenItem> tokenItemCache = new ConcurrentHashMap<>();
+
+    // Refresh-ahead - only the lambda holding the lease renews the token
+    private final TokenRefreshLease tokenRefreshLease;
+    private final Executor tokenRefreshExecutor;
+    private final Map<Strategy, Long> nextTokenRefreshAttempt = new ConcurrentHashMap<>();
+
     private final String clientSecret;
     private final String clientId;
     private final String username;
@@ -57,7 +70,7 @@ public class TokenRequestService {
     private final HttpRetryer httpRetryer;
     private final RequestConfig requestConfig;
 
-    private final ObjectMapper objectMapper;
+    private final JsonCodecRegistry jsonCodecRegistry;
     private final EventProbe eventProbe;
     private final HttpRetryStatusConfig httpRetryStatusConfig;
 
@@ -67,6 +80,7 @@ public class TokenRequestService {
 
     // Token item shared between concurrent lambdas (if scaling)
     public static final String TOKEN_ITEM_ID = "TokenKey";
+    public static final String TOKEN_REFRESH_LEASE_ID = "TokenRefreshLease";
 
     // DynamoDB auto ttl deletion is the best effort (upto 48hrs later...)
     // Token Item ttl expiration enforced CRI side (vs dynamo filter expression)
@@ -76,18 +90,48 @@ public class TokenRequestService {
     private static final long TOKEN_ITEM_TTL_SECS =
             MAX_ALLOWED_TOKEN_LIFETIME_SECONDS - TOKEN_EXPIRATION_WINDOW_SECONDS;
 
+    // Token is renewed in the background once inside this window, before the expiration window
+    // opens and lambdas start requesting tokens on the user request path
+    private static final long TOKEN_REFRESH_AHEAD_WINDOW_SECONDS = 600L;
+    // Also the minimum time between refresh attempts from one lambda
+    private static final long TOKEN_REFRESH_LEASE_SECONDS = 60L;
+
     public static final String INVALID_EXPIRY_WINDOW_ERROR_MESSAGE =
             "Token expiry window not valid";
 
-    private final StopWatch stopWatch;
-
     public TokenRequestService(
             CrosscoreV2Configuration crosscoreV2Configuration,
             DynamoDbEnhancedClient dynamoDbEnhancedClient,
             HttpRetryer httpRetryer,
             RequestConfig requestConfig,
-            ObjectMapper objectMapper,
+            JsonCodecRegistry jsonCodecRegistry,
             EventProbe eventProbe) {
+        this(
+                crosscoreV2Configuration,
+                dynamoDbEnhancedClient,
+                httpRetryer,
+                requestConfig,
+                jsonCodecRegistry,
+                eventProbe,
+                new DynamoDbTokenRefreshLease(
+                        dynamoDbEnhancedClient, crosscoreV2Configuration.getTokenTableName()),
+                Executors.newSingleThreadExecutor(
+                        runnable -> {
+                            Thread thread = new Thread(runnable, "token-refresh-ahead");
+                            thread.setDaemon(true);
+                            return thread;
+                        }));
+    }
+
+    public TokenRequestService(
+            CrosscoreV2Configuration crosscoreV2Configuration,
+            DynamoDbEnhancedClient dynamoDbEnhancedClient,
+            HttpRetryer httpRetryer,
+            RequestConfig requestConfig,
+            JsonCodecRegistry jsonCodecRegistry,
+            EventProbe eventProbe,
+            TokenRefreshLease tokenRefreshLease,
+            Executor tokenRefreshExecutor) {
 
         this.crosscoreV2Configuration = crosscoreV2Configuration;
 
@@ -104,19 +148,18 @@ public class TokenRequestService {
         this.httpRetryer = httpRetryer;
         this.requestConfig = requestConfig;
 
-        this.objectMapper = objectMapper;
+        this.jsonCodecRegistry = jsonCodecRegistry;
         this.eventProbe = eventProbe;
 
         this.httpRetryStatusConfig = new TokenHttpRetryStatusConfig();
 
-        this.stopWatch = new StopWatch();
+        this.tokenRefreshLease = tokenRefreshLease;
+        this.tokenRefreshExecutor = tokenRefreshExecutor;
     }
 
     public String requestToken(boolean alwaysRequestNewToken, Strategy strategy)
             throws OAuthErrorResponseException {
-        LOGGER.info("Checking Table {} for existing cached token", tokenTableName);
-
-        TokenItem tokenItem = getTokenItemFromTable(strategy);
+        TokenItem tokenItem = getCachedTokenItem(strategy);
 
         boolean existingCachedToken = tokenItem != null;
         boolean tokenTtlHasExpired =
@@ -170,6 +213,8 @@ public class TokenRequestService {
             eventProbe.counterMetric(
                     ThirdPartyAPIEndpointMetric.TOKEN_REQUEST_REUSING_CACHED_TOKEN
                             .withEndpointPrefix());
+
+            refreshTokenAheadIfDue(tokenItem, strategy);
         }
 
         return tokenItem.getTokenValue();
@@ -203,7 +248,7 @@ public class TokenRequestService {
                             .clientSecret(clientSecret)
                             .build();
 
-            requestBody = objectMapper.writeValueAsString(tokenRequestPayload);
+            requestBody = jsonCodecRegistry.writeValueAsString(tokenRequestPayload);
         } catch (JsonProcessingException e) {
             LOGGER.error("JsonProcessingException creating request body");
             LOGGER.debug(e.getMessage());
@@ -231,6 +276,8 @@ public class TokenRequestService {
         String requestURIString = requestURI.toString();
         LOGGER.debug("{} request endpoint is {}", REQUEST_NAME, requestURIString);
         LOGGER.info("Submitting {} request to third party...", REQUEST_NAME);
+        // Local as token requests can also be made by the refresh-ahead thread
+        final StopWatch stopWatch = new StopWatch();
         stopWatch.start();
         try {
             httpReply =
@@ -268,12 +315,14 @@ public class TokenRequestService {
                 LOGGER.debug("{} response {}", REQUEST_NAME, httpReply.responseBody);
 
                 TokenResponse response =
-                        objectMapper.readValue(httpReply.responseBody, TokenResponse.class);
+                        jsonCodecRegistry.readValue(httpReply.responseBody, TokenResponse.class);
 
                 // Validate token JWT
                 boolean isValidToken =
                         AccessTokenValidator.isTokenValid(
-                                response.getAccessToken(), objectMapper, crosscoreV2Configuration);
+                                response.getAccessToken(),
+                                jsonCodecRegistry,
+                                crosscoreV2Configuration);
 
                 if (!isValidToken) {
                     eventProbe.counterMetric(
@@ -324,6 +373,102 @@ public class TokenRequestService {
         }
     }
 
+    private void refreshTokenAheadIfDue(TokenItem tokenItem, Strategy strategy) {
+        if (!isTokenNearExpiration(tokenItem, TOKEN_REFRESH_AHEAD_WINDOW_SECONDS)) {
+            return;
+        }
+
+        long now = Instant.now().getEpochSecond();
+        Long nextAttempt = nextTokenRefreshAttempt.get(strategy);
+        if (nextAttempt != null && now < nextAttempt) {
+            return;
+        }
+        nextTokenRefreshAttempt.put(strategy, now + TOKEN_REFRESH_LEASE_SECONDS);
+
+        final String leaseId = strategy.name() + TOKEN_REFRESH_LEASE_ID;
+
+        boolean leaseAcquired;
+        try {
+            leaseAcquired = tokenRefreshLease.tryAcquire(leaseId, TOKEN_REFRESH_LEASE_SECONDS);
+        } catch (RuntimeException e) {
+            // Token is still valid, the expiration window path will renew it if needed
+            LOGGER.warn("Unable to acquire token refresh lease - {}", e.getMessage());
+            leaseAcquired = false;
+        }
+
+        if (!leaseAcquired) {
+            eventProbe.counterMetric(
+                    ThirdPartyAPIEndpointMetric.TOKEN_REQUEST_REFRESH_AHEAD_LEASE_UNAVAILABLE
+                            .withEndpointPrefix());
+            return;
+        }
+
+        LOGGER.info("Refreshing token ahead of expiry");
+        eventProbe.counterMetric(
+                ThirdPartyAPIEndpointMetric.TOKEN_REQUEST_REFRESH_AHEAD_STARTED
+                        .withEndpointPrefix());
+
+        // If the lambda is frozen before this completes the lease expires and another lambda
+        // can take over the refresh
+        tokenRefreshExecutor.execute(
+                () -> {
+                    try {
+                        // This lambda's cached token may be stale, the previous lease holder
+                        // could have renewed the stored token already
+                        TokenItem storedTokenItem = getTokenItemFromTable(strategy);
+                        if (storedTokenItem != null
+                                && !isTokenNearExpiration(
+                                        storedTokenItem, TOKEN_REFRESH_AHEAD_WINDOW_SECONDS)) {
+                            LOGGER.info("Token already refreshed ahead of expiry, using it");
+                            eventProbe.counterMetric(
+                                    ThirdPartyAPIEndpointMetric
+                                            .TOKEN_REQUEST_REFRESH_AHEAD_ALREADY_REFRESHED
+                                            .withEndpointPrefix());
+
+                            tokenItemCache.put(strategy, storedTokenItem);
+                            return;
+                        }
+
+                        TokenResponse newTokenResponse = performNewTokenRequest(strategy);
+
+                        saveTokenItem(new TokenItem(newTokenResponse.getAccessToken()), strategy);
+                    } catch (Exception exception) {
+                        LOGGER.error("Failed to refresh token ahead of expiry", exception);
+                        eventProbe.counterMetric(
+                                ThirdPartyAPIEndpointMetric
+                                        .TOKEN_RESPONSE_FAILED_TO_GENERATE_NEW_TOKEN_METRIC
+                                        .withEndpointPrefix());
+                    } finally {
+                        tokenRefreshLease.release(leaseId);
+                    }
+                });
+    }
+
+    private TokenItem getCachedTokenItem(Strategy strategy) {
+        TokenItem tokenItem = tokenItemCache.get(strategy);
+
+        if (tokenItem != null
+                && !isTokenNearExpiration(tokenItem, TOKEN_EXPIRATION_WINDOW_SECONDS)) {
+            LOGGER.info("Found token in lambda token cache");
+            eventProbe.counterMetric(
+                    ThirdPartyAPIEndpointMetric.TOKEN_REQUEST_L1_CACHE_HIT.withEndpointPrefix());
+
+            return tokenItem;
+        }
+
+        eventProbe.counterMetric(
+                ThirdPartyAPIEndpointMetric.TOKEN_REQUEST_L1_CACHE_MISS.withEndpointPrefix());
+
+        LOGGER.info("Checking Table {} for existing cached token", tokenTableName);
+        tokenItem = getTokenItemFromTable(strategy);
+
+        if (tokenItem != null) {
+            tokenItemCache.put(strategy, tokenItem);
+        }
+
+        return tokenItem;
+    }
+
     private TokenItem getTokenItemFromTable(Strategy strategy) {
         return dataStore.getItem(strategy.name() + TOKEN_ITEM_ID);
     }
@@ -338,6 +483,7 @@ public class TokenRequestService {
         tokenItem.setTtl(ttlSeconds);
         // Create calls put which overwrites any existing token
         dataStore.create(tokenItem);
+        tokenItemCache.put(strategy, tokenItem);
 
         LOGGER.info(
                 "Token cached - expires {} UTC",
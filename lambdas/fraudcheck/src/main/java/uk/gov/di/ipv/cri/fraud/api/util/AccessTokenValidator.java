@@ -1,12 +1,12 @@
 package uk.gov.di.ipv.cri.fraud.api.util;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import uk.gov.di.ipv.cri.fraud.api.gateway.dto.response.AccessTokenHeader;
 import uk.gov.di.ipv.cri.fraud.api.gateway.dto.response.AccessTokenPayload;
 import uk.gov.di.ipv.cri.fraud.api.service.CrosscoreV2Configuration;
+import uk.gov.di.ipv.cri.fraud.library.util.JsonCodecRegistry;
 
 import java.util.Base64;
 
@@ -21,7 +21,7 @@ public class AccessTokenValidator {
 
     public static boolean isTokenValid(
             String accessToken,
-            ObjectMapper objectMapper,
+            JsonCodecRegistry jsonCodecRegistry,
             CrosscoreV2Configuration crosscoreV2Configuration)
             throws JsonProcessingException {
         boolean isTokenValid = false;
@@ -37,9 +37,9 @@ public class AccessTokenValidator {
             String payload = new String(decoder.decode(chunks[1]));
 
             AccessTokenHeader accessTokenHeader =
-                    objectMapper.readValue(header, AccessTokenHeader.class);
+                    jsonCodecRegistry.readValue(header, AccessTokenHeader.class);
             AccessTokenPayload accessTokenPayload =
-                    objectMapper.readValue(payload, AccessTokenPayload.class);
+                    jsonCodecRegistry.readValue(payload, AccessTokenPayload.class);
 
             alg = accessTokenHeader.getAlgorithm();
             sub = accessTokenPayload.getUsername();
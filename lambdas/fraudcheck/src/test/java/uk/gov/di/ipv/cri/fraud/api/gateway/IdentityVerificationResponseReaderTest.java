@@ -0,0 +1,184 @@
+package uk.gov.di.ipv.cri.fraud.api.gateway;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import uk.gov.di.ipv.cri.common.library.util.EventProbe;
+import uk.gov.di.ipv.cri.fraud.api.domain.ValidationResult;
+import uk.gov.di.ipv.cri.fraud.api.domain.check.FraudCheckResult;
+import uk.gov.di.ipv.cri.fraud.api.domain.check.PepCheckResult;
+import uk.gov.di.ipv.cri.fraud.api.gateway.dto.response.DecisionElement;
+import uk.gov.di.ipv.cri.fraud.api.gateway.dto.response.IdentityVerificationResponse;
+import uk.gov.di.ipv.cri.fraud.api.gateway.dto.response.PEPResponse;
+import uk.gov.di.ipv.cri.fraud.api.gateway.dto.response.ResponseType;
+import uk.gov.di.ipv.cri.fraud.api.service.IdentityVerificationInfoResponseValidator;
+import uk.gov.di.ipv.cri.fraud.api.util.TestDataCreator;
+
+import java.io.IOException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@ExtendWith(MockitoExtension.class)
+class IdentityVerificationResponseReaderTest {
+
+    @Mock private EventProbe mockEventProbe;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private IdentityVerificationResponseReader responseReader;
+    private IdentityVerificationResponseMapper responseMapper;
+    private IdentityVerificationInfoResponseValidator responseValidator;
+
+    @BeforeEach
+    void setUp() {
+        responseReader = new IdentityVerificationResponseReader();
+        responseMapper = new IdentityVerificationResponseMapper(mockEventProbe, objectMapper);
+        responseValidator = new IdentityVerificationInfoResponseValidator();
+    }
+
+    @ParameterizedTest
+    @EnumSource(
+            value = ResponseType.class,
+            names = {"INFO", "ERROR", "WARN", "WARNING"})
+    void shouldMapFraudResponseTheSameAsObjectMapper(ResponseType responseType)
+            throws IOException {
+        String json =
+                objectMapper.writeValueAsString(
+                        TestDataCreator.createTestVerificationResponse(responseType));
+
+        IdentityVerificationResponse streamed =
+                responseReader.readIdentityVerificationResponse(json);
+        IdentityVerificationResponse databound =
+                objectMapper.readValue(json, IdentityVerificationResponse.class);
+
+        assertValidationResultsEqual(
+                responseValidator.validate(databound), responseValidator.validate(streamed));
+
+        FraudCheckResult expected = responseMapper.mapFraudResponse(databound);
+        FraudCheckResult actual = responseMapper.mapFraudResponse(streamed);
+
+        assertEquals(expected.isExecutedSuccessfully(), actual.isExecutedSuccessfully());
+        assertArrayEquals(expected.getThirdPartyFraudCodes(), actual.getThirdPartyFraudCodes());
+        assertEquals(expected.getErrorMessage(), actual.getErrorMessage());
+        assertEquals(expected.getTransactionId(), actual.getTransactionId());
+        assertEquals(expected.getDecisionScore(), actual.getDecisionScore());
+        assertEquals(
+                expected.getOldestRecordDateInMonths(), actual.getOldestRecordDateInMonths());
+    }
+
+    @ParameterizedTest
+    @EnumSource(
+            value = ResponseType.class,
+            names = {"INFO", "ERROR", "WARN", "WARNING"})
+    void shouldMapPepResponseTheSameAsObjectMapper(ResponseType responseType) throws IOException {
+        String json =
+                objectMapper.writeValueAsString(TestDataCreator.createTestPEPResponse(responseType));
+
+        PEPResponse streamed = responseReader.readPEPResponse(json);
+        PEPResponse databound = objectMapper.readValue(json, PEPResponse.class);
+
+        assertValidationResultsEqual(
+                responseValidator.validatePEP(databound), responseValidator.validatePEP(streamed));
+
+        PepCheckResult expected = responseMapper.mapPEPResponse(databound);
+        PepCheckResult actual = responseMapper.mapPEPResponse(streamed);
+
+        assertEquals(expected.isExecutedSuccessfully(), actual.isExecutedSuccessfully());
+        assertArrayEquals(expected.getThirdPartyFraudCodes(), actual.getThirdPartyFraudCodes());
+        assertEquals(expected.getErrorMessage(), actual.getErrorMessage());
+        assertEquals(expected.getTransactionId(), actual.getTransactionId());
+    }
+
+    @Test
+    void shouldSkipFieldsNotUsedByValidationOrMapping() throws IOException {
+        String json =
+                "{\"responseHeader\":{\"responseType\":\"INFO\",\"unknownField\":{\"a\":[1,2]}},"
+                        + "\"clientResponsePayload\":{\"decisionElements\":[{"
+                        + "\"decision\":\"ACCEPT\","
+                        + "\"otherData\":{\"response\":{\"nested\":true}},"
+                        + "\"matches\":[{\"name\":\"m1\",\"value\":\"1\"}],"
+                        + "\"scores\":[{\"name\":\"s1\",\"score\":10}],"
+                        + "\"dataCounts\":["
+                        + "{\"name\":\"IDandLocDataAtCL_StartDateOldestPrim\",\"value\":201501},"
+                        + "{\"name\":\"SomeOtherCount\",\"value\":3}]}]},"
+                        + "\"originalRequestData\":{\"ignored\":\"value\"}}";
+
+        IdentityVerificationResponse response =
+                responseReader.readIdentityVerificationResponse(json);
+
+        assertEquals(ResponseType.INFO, response.getResponseHeader().getResponseType());
+
+        DecisionElement decisionElement =
+                response.getClientResponsePayload().getDecisionElements().get(0);
+        assertEquals("ACCEPT", decisionElement.getDecision());
+        assertNull(decisionElement.getOtherData());
+        assertTrue(decisionElement.getMatches().isEmpty());
+        assertTrue(decisionElement.getScores().isEmpty());
+        assertEquals(1, decisionElement.getDataCounts().size());
+        assertEquals(
+                "IDandLocDataAtCL_StartDateOldestPrim",
+                decisionElement.getDataCounts().get(0).getName());
+        assertEquals(201501, decisionElement.getDataCounts().get(0).getValue());
+    }
+
+    @Test
+    void shouldReadNullFieldsAsNull() throws IOException {
+        String json =
+                "{\"responseHeader\":{\"responseType\":null,\"overallResponse\":null},"
+                        + "\"clientResponsePayload\":{\"decisionElements\":null}}";
+
+        IdentityVerificationResponse response =
+                responseReader.readIdentityVerificationResponse(json);
+
+        assertNull(response.getResponseHeader().getResponseType());
+        assertNull(response.getResponseHeader().getOverallResponse());
+        assertNull(response.getClientResponsePayload().getDecisionElements());
+    }
+
+    @Test
+    void shouldReturnNullForNullBody() throws IOException {
+        assertNull(responseReader.readIdentityVerificationResponse("null"));
+    }
+
+    @Test
+    void shouldThrowForMalformedJson() {
+        assertThrows(
+                JsonParseException.class,
+                () -> responseReader.readIdentityVerificationResponse("{\"responseHeader\":{"));
+    }
+
+    @Test
+    void shouldThrowForUnexpectedStructure() {
+        assertThrows(
+                JsonParseException.class,
+                () ->
+                        responseReader.readIdentityVerificationResponse(
+                                "{\"clientResponsePayload\":{\"decisionElements\":\"x\"}}"));
+    }
+
+    @Test
+    void shouldThrowForUnknownResponseType() {
+        assertThrows(
+                JsonParseException.class,
+                () ->
+                        responseReader.readPEPResponse(
+                                "{\"responseHeader\":{\"responseType\":\"UNKNOWN\"}}"));
+    }
+
+    private static void assertValidationResultsEqual(
+            ValidationResult<List<String>> expected, ValidationResult<List<String>> actual) {
+        assertEquals(expected.isValid(), actual.isValid());
+        assertEquals(expected.getError(), actual.getError());
+    }
+}
@@ -27,6 +27,7 @@ import uk.gov.di.ipv.cri.fraud.library.exception.OAuthErrorResponseException;
 import uk.gov.di.ipv.cri.fraud.library.service.HttpRetryer;
 import uk.gov.di.ipv.cri.fraud.library.strategy.Strategy;
 import uk.gov.di.ipv.cri.fraud.library.util.HTTPReply;
+import uk.gov.di.ipv.cri.fraud.library.util.JsonCodecRegistry;
 
 import java.io.IOException;
 import java.util.Arrays;
@@ -70,7 +71,7 @@ class ThirdPartyFraudGatewayComponentTest {
                         mockHttpRetryer,
                         mockRequestMapper,
                         mockResponseMapper,
-                        new ObjectMapper(),
+                        new JsonCodecRegistry(new ObjectMapper()),
                         mockFraudCheckConfigurationService,
                         mockEventProbe);
     }
@@ -1,7 +1,6 @@
 package uk.gov.di.ipv.cri.fraud.api.gateway;
 
 import com.fasterxml.jackson.core.exc.InputCoercionException;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import org.apache.http.Header;
 import org.apache.http.HttpStatus;
 import org.apache.http.client.methods.HttpEntityEnclosingRequestBase;
@@ -31,6 +30,7 @@ import uk.gov.di.ipv.cri.fraud.library.exception.OAuthErrorResponseException;
 import uk.gov.di.ipv.cri.fraud.library.service.HttpRetryer;
 import uk.gov.di.ipv.cri.fraud.library.strategy.Strategy;
 import uk.gov.di.ipv.cri.fraud.library.util.HTTPReply;
+import uk.gov.di.ipv.cri.fraud.library.util.JsonCodecRegistry;
 
 import java.io.IOException;
 import java.util.Arrays;
@@ -69,7 +69,7 @@ class ThirdPartyFraudGatewayTest {
     @Mock private CrosscoreV2Configuration mockCrosscoreV2Configuration;
     @Mock private IdentityVerificationRequestMapper mockRequestMapper;
     @Mock private IdentityVerificationResponseMapper mockResponseMapper;
-    @Mock private ObjectMapper mockObjectMapper;
+    @Mock private JsonCodecRegistry mockJsonCodecRegistry;
     @Mock private HmacGenerator mockHmacGenerator;
     @Mock private EventProbe mockEventProbe;
 
@@ -80,7 +80,7 @@ class ThirdPartyFraudGatewayTest {
                         mockHttpRetryer,
                         mockRequestMapper,
                         mockResponseMapper,
-                        mockObjectMapper,
+                        mockJsonCodecRegistry,
                         fraudCheckConfigurationService,
                         mockEventProbe);
     }
@@ -119,7 +119,8 @@ class ThirdPartyFraudGatewayTest {
         when(mockRequestMapper.mapPersonIdentity(personIdentity, "12345"))
                 .thenReturn(testApiRequest);
 
-        when(this.mockObjectMapper.writeValueAsString(testApiRequest)).thenReturn(testRequestBody);
+        when(this.mockJsonCodecRegistry.writeValueAsString(testApiRequest))
+                .thenReturn(testRequestBody);
         ArgumentCaptor<HttpEntityEnclosingRequestBase> httpRequestCaptor =
                 ArgumentCaptor.forClass(HttpPost.class);
 
@@ -129,7 +130,7 @@ class ThirdPartyFraudGatewayTest {
                         eq("Fraud Check")))
                 .thenReturn(new HTTPReply(200, null, TEST_API_RESPONSE_BODY));
 
-        when(this.mockObjectMapper.readValue(
+        when(this.mockJsonCodecRegistry.readValue(
                         TEST_API_RESPONSE_BODY, IdentityVerificationResponse.class))
                 .thenReturn(testResponse);
         when(this.mockResponseMapper.mapFraudResponse(testResponse))
@@ -160,7 +161,7 @@ class ThirdPartyFraudGatewayTest {
         verifyNoMoreInteractions(mockEventProbe);
 
         verify(mockRequestMapper).mapPersonIdentity(personIdentity, "12345");
-        verify(mockObjectMapper).writeValueAsString(testApiRequest);
+        verify(mockJsonCodecRegistry).writeValueAsString(testApiRequest);
         verify(mockHttpRetryer)
                 .sendHTTPRequestRetryIfAllowed(
                         httpRequestCaptor.capture(),
@@ -189,7 +190,8 @@ class ThirdPartyFraudGatewayTest {
         when(mockCrosscoreV2Configuration.getTenantId()).thenReturn("12345");
         when(mockCrosscoreV2Configuration.getEndpointUri()).thenReturn("http://localhost");
 
-        when(this.mockObjectMapper.writeValueAsString(testApiRequest)).thenReturn(testRequestBody);
+        when(this.mockJsonCodecRegistry.writeValueAsString(testApiRequest))
+                .thenReturn(testRequestBody);
         ArgumentCaptor<HttpEntityEnclosingRequestBase> httpRequestCaptor =
                 ArgumentCaptor.forClass(HttpPost.class);
 
@@ -205,7 +207,7 @@ class ThirdPartyFraudGatewayTest {
                         ErrorResponse.FAILED_TO_MAP_FRAUD_CHECK_RESPONSE_BODY);
 
         // Trigger the mapping failure via the mock
-        when(mockObjectMapper.readValue("}BAD JSON{", IdentityVerificationResponse.class))
+        when(mockJsonCodecRegistry.readValue("}BAD JSON{", IdentityVerificationResponse.class))
                 .thenThrow(
                         new InputCoercionException(
                                 null, "Problem during json mapping", null, null));
@@ -242,7 +244,7 @@ class ThirdPartyFraudGatewayTest {
         verifyNoMoreInteractions(mockEventProbe);
 
         verify(mockRequestMapper).mapPersonIdentity(personIdentity, "12345");
-        verify(mockObjectMapper).writeValueAsString(testApiRequest);
+        verify(mockJsonCodecRegistry).writeValueAsString(testApiRequest);
         verify(mockHttpRetryer)
                 .sendHTTPRequestRetryIfAllowed(
                         httpRequestCaptor.capture(),
@@ -272,7 +274,8 @@ class ThirdPartyFraudGatewayTest {
         when(mockCrosscoreV2Configuration.getTenantId()).thenReturn("12345");
         when(mockCrosscoreV2Configuration.getEndpointUri()).thenReturn("http://localhost");
 
-        when(this.mockObjectMapper.writeValueAsString(testApiRequest)).thenReturn(testRequestBody);
+        when(this.mockJsonCodecRegistry.writeValueAsString(testApiRequest))
+                .thenReturn(testRequestBody);
 
         ArgumentCaptor<HttpEntityEnclosingRequestBase> httpRequestCaptor =
                 ArgumentCaptor.forClass(HttpPost.class);
@@ -308,7 +311,7 @@ class ThirdPartyFraudGatewayTest {
                 ERROR_FRAUD_CHECK_RETURNED_UNEXPECTED_HTTP_STATUS_CODE.getMessage();
 
         verify(mockRequestMapper).mapPersonIdentity(personIdentity, "12345");
-        verify(mockObjectMapper).writeValueAsString(testApiRequest);
+        verify(mockJsonCodecRegistry).writeValueAsString(testApiRequest);
 
         verify(mockHttpRetryer, times(1))
                 .sendHTTPRequestRetryIfAllowed(
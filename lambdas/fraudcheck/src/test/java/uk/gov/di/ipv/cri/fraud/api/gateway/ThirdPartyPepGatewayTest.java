@@ -1,7 +1,6 @@
 package uk.gov.di.ipv.cri.fraud.api.gateway;
 
 import com.fasterxml.jackson.core.exc.InputCoercionException;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import org.apache.http.Header;
 import org.apache.http.HttpStatus;
 import org.apache.http.client.methods.HttpEntityEnclosingRequestBase;
@@ -31,6 +30,7 @@ import uk.gov.di.ipv.cri.fraud.library.exception.OAuthErrorResponseException;
 import uk.gov.di.ipv.cri.fraud.library.service.HttpRetryer;
 import uk.gov.di.ipv.cri.fraud.library.strategy.Strategy;
 import uk.gov.di.ipv.cri.fraud.library.util.HTTPReply;
+import uk.gov.di.ipv.cri.fraud.library.util.JsonCodecRegistry;
 
 import java.io.IOException;
 import java.util.Arrays;
@@ -78,7 +78,7 @@ class ThirdPartyPepGatewayTest {
     @Mock private CrosscoreV2Configuration mockCrosscoreV2Configuration;
     @Mock private IdentityVerificationRequestMapper mockRequestMapper;
     @Mock private IdentityVerificationResponseMapper mockResponseMapper;
-    @Mock private ObjectMapper mockObjectMapper;
+    @Mock private JsonCodecRegistry mockJsonCodecRegistry;
     @Mock private HmacGenerator mockHmacGenerator;
     @Mock private EventProbe mockEventProbe;
 
@@ -89,7 +89,7 @@ class ThirdPartyPepGatewayTest {
                         mockHttpRetryer,
                         mockRequestMapper,
                         mockResponseMapper,
-                        mockObjectMapper,
+                        mockJsonCodecRegistry,
                         fraudCheckConfigurationService,
                         mockEventProbe);
     }
@@ -126,7 +126,8 @@ class ThirdPartyPepGatewayTest {
         when(mockRequestMapper.mapPEPPersonIdentity(personIdentity, "12345"))
                 .thenReturn(testApiRequest);
 
-        when(this.mockObjectMapper.writeValueAsString(testApiRequest)).thenReturn(testRequestBody);
+        when(this.mockJsonCodecRegistry.writeValueAsString(testApiRequest))
+                .thenReturn(testRequestBody);
 
         ArgumentCaptor<HttpEntityEnclosingRequestBase> httpRequestCaptor =
                 ArgumentCaptor.forClass(HttpPost.class);
@@ -137,7 +138,7 @@ class ThirdPartyPepGatewayTest {
                         eq("Pep Check")))
                 .thenReturn(new HTTPReply(200, null, TEST_API_RESPONSE_BODY));
 
-        when(this.mockObjectMapper.readValue(TEST_API_RESPONSE_BODY, PEPResponse.class))
+        when(this.mockJsonCodecRegistry.readValue(TEST_API_RESPONSE_BODY, PEPResponse.class))
                 .thenReturn(testPepResponse);
         when(this.mockResponseMapper.mapPEPResponse(testPepResponse))
                 .thenReturn(testPepCheckResult);
@@ -165,7 +166,7 @@ class ThirdPartyPepGatewayTest {
         verifyNoMoreInteractions(mockEventProbe);
 
         verify(mockRequestMapper).mapPEPPersonIdentity(personIdentity, "12345");
-        verify(mockObjectMapper).writeValueAsString(testApiRequest);
+        verify(mockJsonCodecRegistry).writeValueAsString(testApiRequest);
         verify(mockHttpRetryer)
                 .sendHTTPRequestRetryIfAllowed(
                         httpRequestCaptor.capture(),
@@ -195,7 +196,8 @@ class ThirdPartyPepGatewayTest {
         when(mockRequestMapper.mapPEPPersonIdentity(personIdentity, "12345"))
                 .thenReturn(testApiRequest);
 
-        when(this.mockObjectMapper.writeValueAsString(testApiRequest)).thenReturn(testRequestBody);
+        when(this.mockJsonCodecRegistry.writeValueAsString(testApiRequest))
+                .thenReturn(testRequestBody);
         ArgumentCaptor<HttpEntityEnclosingRequestBase> httpRequestCaptor =
                 ArgumentCaptor.forClass(HttpPost.class);
 
@@ -211,7 +213,7 @@ class ThirdPartyPepGatewayTest {
                         ErrorResponse.FAILED_TO_MAP_PEP_CHECK_RESPONSE_BODY);
 
         // Trigger the mapping failure via the mock
-        when(mockObjectMapper.readValue("}BAD JSON{", PEPResponse.class))
+        when(mockJsonCodecRegistry.readValue("}BAD JSON{", PEPResponse.class))
                 .thenThrow(
                         new InputCoercionException(
                                 null, "Problem during json mapping", null, null));
@@ -247,7 +249,7 @@ class ThirdPartyPepGatewayTest {
         verifyNoMoreInteractions(mockEventProbe);
 
         verify(mockRequestMapper).mapPEPPersonIdentity(personIdentity, "12345");
-        verify(mockObjectMapper).writeValueAsString(testApiRequest);
+        verify(mockJsonCodecRegistry).writeValueAsString(testApiRequest);
         verify(mockHttpRetryer)
                 .sendHTTPRequestRetryIfAllowed(
                         httpRequestCaptor.capture(),
@@ -278,7 +280,8 @@ class ThirdPartyPepGatewayTest {
         when(mockRequestMapper.mapPEPPersonIdentity(personIdentity, "12345"))
                 .thenReturn(testApiRequest);
 
-        when(this.mockObjectMapper.writeValueAsString(testApiRequest)).thenReturn(testRequestBody);
+        when(this.mockJsonCodecRegistry.writeValueAsString(testApiRequest))
+                .thenReturn(testRequestBody);
 
         ArgumentCaptor<HttpEntityEnclosingRequestBase> httpRequestCaptor =
                 ArgumentCaptor.forClass(HttpPost.class);
@@ -313,7 +316,7 @@ class ThirdPartyPepGatewayTest {
                 ERROR_PEP_CHECK_RETURNED_UNEXPECTED_HTTP_STATUS_CODE.getMessage();
 
         verify(mockRequestMapper).mapPEPPersonIdentity(personIdentity, "12345");
-        verify(mockObjectMapper).writeValueAsString(testApiRequest);
+        verify(mockJsonCodecRegistry).writeValueAsString(testApiRequest);
 
         verify(mockHttpRetryer, times(1))
                 .sendHTTPRequestRetryIfAllowed(
@@ -18,34 +18,45 @@ import software.amazon.awssdk.http.HttpStatusCode;
 import uk.gov.di.ipv.cri.common.library.domain.AuditEventContext;
 import uk.gov.di.ipv.cri.common.library.domain.AuditEventType;
 import uk.gov.di.ipv.cri.common.library.domain.personidentity.PersonIdentity;
+import uk.gov.di.ipv.cri.common.library.domain.personidentity.PersonIdentityDetailed;
 import uk.gov.di.ipv.cri.common.library.exception.SqsException;
 import uk.gov.di.ipv.cri.common.library.persistence.item.SessionItem;
-import uk.gov.di.ipv.cri.common.library.service.AuditService;
 import uk.gov.di.ipv.cri.common.library.service.PersonIdentityService;
 import uk.gov.di.ipv.cri.common.library.service.SessionService;
 import uk.gov.di.ipv.cri.common.library.util.EventProbe;
 import uk.gov.di.ipv.cri.fraud.api.domain.IdentityVerificationResult;
 import uk.gov.di.ipv.cri.fraud.api.service.IdentityVerificationService;
 import uk.gov.di.ipv.cri.fraud.api.util.TestDataCreator;
+import uk.gov.di.ipv.cri.fraud.library.FraudPersonIdentityDetailedMapper;
+import uk.gov.di.ipv.cri.fraud.library.LocalResultItemNotifier;
 import uk.gov.di.ipv.cri.fraud.library.config.ParameterStoreParameters;
+import uk.gov.di.ipv.cri.fraud.library.domain.CredentialProjection;
 import uk.gov.di.ipv.cri.fraud.library.error.CommonExpressOAuthError;
 import uk.gov.di.ipv.cri.fraud.library.exception.OAuthErrorResponseException;
 import uk.gov.di.ipv.cri.fraud.library.persistence.item.FraudResultItem;
+import uk.gov.di.ipv.cri.fraud.library.service.AuditEventDispatcher;
 import uk.gov.di.ipv.cri.fraud.library.service.ParameterStoreService;
 import uk.gov.di.ipv.cri.fraud.library.service.ResultItemStorageService;
 import uk.gov.di.ipv.cri.fraud.library.service.ServiceFactory;
+import uk.gov.di.ipv.cri.fraud.library.service.SessionAttemptService;
+import uk.gov.di.ipv.cri.fraud.library.service.SessionCompletionService;
 import uk.gov.di.ipv.cri.fraud.library.service.parameterstore.ParameterPrefix;
+import uk.gov.di.ipv.cri.fraud.library.util.CredentialProjectionCodec;
 import uk.org.webcompere.systemstubs.environment.EnvironmentVariables;
 import uk.org.webcompere.systemstubs.jupiter.SystemStub;
 import uk.org.webcompere.systemstubs.jupiter.SystemStubsExtension;
 
 import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
@@ -68,11 +79,13 @@ class FraudHandlerTest {
     @Mock private EventProbe mockEventProbe;
 
     @Mock private SessionService mockSessionService;
-    @Mock private AuditService mockAuditService;
+    @Mock private AuditEventDispatcher mockAuditEventDispatcher;
 
     @Mock private PersonIdentityService mockPersonIdentityService;
 
     @Mock private ResultItemStorageService<FraudResultItem> mockResultItemStorageService;
+    @Mock private SessionCompletionService<FraudResultItem> mockSessionCompletionService;
+    @Mock private SessionAttemptService mockSessionAttemptService;
 
     @Mock private ParameterStoreService mockParameterStoreService;
 
@@ -88,13 +101,17 @@ class FraudHandlerTest {
         when(mockServiceFactory.getParameterStoreService()).thenReturn(mockParameterStoreService);
 
         when(mockServiceFactory.getEventProbe()).thenReturn(mockEventProbe);
+        when(mockServiceFactory.getObjectMapper()).thenReturn(new ObjectMapper());
         when(mockServiceFactory.getSessionService()).thenReturn(mockSessionService);
-        when(mockServiceFactory.getAuditService()).thenReturn(mockAuditService);
+        when(mockServiceFactory.getAuditEventDispatcher()).thenReturn(mockAuditEventDispatcher);
 
         when(mockServiceFactory.getPersonIdentityService()).thenReturn(mockPersonIdentityService);
 
         when(mockServiceFactory.getResultItemStorageService())
                 .thenReturn(mockResultItemStorageService);
+        when(mockServiceFactory.getSessionCompletionService())
+                .thenReturn(mockSessionCompletionService);
+        when(mockServiceFactory.getSessionAttemptService()).thenReturn(mockSessionAttemptService);
         when(mockParameterStoreService.getParameterValue(
                         ParameterPrefix.COMMON_API,
                         ParameterStoreParameters.FRAUD_RESULT_ITEM_TTL_PARAMETER))
@@ -131,17 +148,34 @@ class FraudHandlerTest {
         final var sessionItem = new SessionItem();
         sessionItem.setSessionId(sessionId);
         when(mockSessionService.validateSessionId(anyString())).thenReturn(sessionItem);
+        when(mockSessionAttemptService.incrementAttemptCount(sessionItem.getSessionId()))
+                .thenReturn(1);
 
         when(mockPersonIdentityService.getPersonIdentity(sessionItem.getSessionId()))
                 .thenReturn(testPersonIdentity);
+        PersonIdentityDetailed testPersonIdentityDetailed =
+                FraudPersonIdentityDetailedMapper.generatePersonIdentityDetailed(
+                        testPersonIdentity);
+        CountDownLatch personIdentityDetailedRead = new CountDownLatch(1);
+        when(mockPersonIdentityService.getPersonIdentityDetailed(sessionItem.getSessionId()))
+                .thenAnswer(
+                        invocation -> {
+                            personIdentityDetailedRead.countDown();
+                            return testPersonIdentityDetailed;
+                        });
 
         doNothing()
-                .when(mockAuditService)
-                .sendAuditEvent(eq(AuditEventType.REQUEST_SENT), any(AuditEventContext.class));
+                .when(mockAuditEventDispatcher)
+                .dispatch(eq(AuditEventType.REQUEST_SENT), any(AuditEventContext.class));
 
+        // The person identity for the credential projection is read while the check runs
         when(mockIdentityVerificationService.verifyIdentity(
                         testPersonIdentity, sessionItem, requestHeaders))
-                .thenReturn(testIdentityVerificationResult);
+                .thenAnswer(
+                        invocation -> {
+                            assertTrue(personIdentityDetailedRead.await(5, TimeUnit.SECONDS));
+                            return testIdentityVerificationResult;
+                        });
 
         when(context.getFunctionName()).thenReturn("functionName");
         when(context.getFunctionVersion()).thenReturn("1.0");
@@ -156,8 +190,18 @@ class FraudHandlerTest {
 
         final FraudResultItem fraudResultItem =
                 populateFraudResultItem(testIdentityVerificationResult, sessionItem);
-
-        verify(mockResultItemStorageService).saveResultItem(fraudResultItem);
+        // The credential content is stored with the result
+        fraudResultItem.setCredentialProjection(
+                new CredentialProjectionCodec(new ObjectMapper())
+                        .write(
+                                new CredentialProjection(
+                                        sessionItem.getSubject(), testPersonIdentityDetailed)));
+
+        InOrder auditInOrder = inOrder(mockAuditEventDispatcher, mockSessionCompletionService);
+        auditInOrder.verify(mockAuditEventDispatcher).flush(anyLong());
+        auditInOrder
+                .verify(mockSessionCompletionService)
+                .completeSession(sessionItem, fraudResultItem);
 
         assertNotNull(responseEvent);
         assertEquals(200, responseEvent.getStatusCode());
@@ -188,8 +232,10 @@ class FraudHandlerTest {
 
         final var sessionItem = new SessionItem();
         sessionItem.setSessionId(sessionId);
-        sessionItem.setAttemptCount(1);
         when(mockSessionService.validateSessionId(anyString())).thenReturn(sessionItem);
+        // Another attempt was counted first
+        when(mockSessionAttemptService.incrementAttemptCount(sessionItem.getSessionId()))
+                .thenReturn(2);
 
         final FraudResultItem fraudResultItem =
                 populateFraudResultItem(testIdentityVerificationResult, sessionItem);
@@ -200,7 +246,8 @@ class FraudHandlerTest {
         verifyNoInteractions(mockPersonIdentityService);
 
         // No audit events for send/received
-        verifyNoInteractions(mockAuditService);
+        verify(mockAuditEventDispatcher, never())
+                .dispatch(any(AuditEventType.class), any(AuditEventContext.class));
 
         // No Check Down
         verifyNoInteractions(mockIdentityVerificationService);
@@ -246,15 +293,17 @@ class FraudHandlerTest {
 
         final var sessionItem = new SessionItem();
         sessionItem.setSessionId(sessionId);
-        sessionItem.setAttemptCount(1);
         when(mockSessionService.validateSessionId(anyString())).thenReturn(sessionItem);
+        // Another attempt was counted first
+        when(mockSessionAttemptService.incrementAttemptCount(sessionItem.getSessionId()))
+                .thenReturn(2);
 
         when(mockPersonIdentityService.getPersonIdentity(sessionItem.getSessionId()))
                 .thenReturn(testPersonIdentity);
 
         doNothing()
-                .when(mockAuditService)
-                .sendAuditEvent(eq(AuditEventType.REQUEST_SENT), any(AuditEventContext.class));
+                .when(mockAuditEventDispatcher)
+                .dispatch(eq(AuditEventType.REQUEST_SENT), any(AuditEventContext.class));
 
         when(mockIdentityVerificationService.verifyIdentity(
                         testPersonIdentity, sessionItem, requestHeaders))
@@ -274,7 +323,64 @@ class FraudHandlerTest {
         final FraudResultItem fraudResultItem =
                 populateFraudResultItem(testIdentityVerificationResult, sessionItem);
 
-        verify(mockResultItemStorageService).saveResultItem(fraudResultItem);
+        verify(mockSessionCompletionService).completeSession(sessionItem, fraudResultItem);
+
+        assertNotNull(responseEvent);
+        assertEquals(200, responseEvent.getStatusCode());
+    }
+
+    @Test
+    void handleResponseShouldReturnOkResponseWhenSessionAttemptGreaterThanOneAndResultNotified() {
+        String testRequestBody = "request body";
+
+        LocalResultItemNotifier<FraudResultItem> localResultItemNotifier =
+                new LocalResultItemNotifier<>();
+        FraudHandler fraudHandlerWithLocalNotifier =
+                new FraudHandler(
+                        mockServiceFactory,
+                        mockIdentityVerificationService,
+                        localResultItemNotifier);
+
+        APIGatewayProxyRequestEvent mockRequestEvent =
+                Mockito.mock(APIGatewayProxyRequestEvent.class);
+
+        UUID sessionId = UUID.randomUUID();
+        Map<String, String> requestHeaders = Map.of("session_id", sessionId.toString());
+
+        when(mockRequestEvent.getBody()).thenReturn(testRequestBody);
+        when(mockRequestEvent.getHeaders()).thenReturn(requestHeaders);
+
+        final var sessionItem = new SessionItem();
+        sessionItem.setSessionId(sessionId);
+        when(mockSessionService.validateSessionId(anyString())).thenReturn(sessionItem);
+        // Another attempt was counted first
+        when(mockSessionAttemptService.incrementAttemptCount(sessionItem.getSessionId()))
+                .thenReturn(2);
+
+        // Original attempt completes while the duplicate is waiting
+        FraudResultItem fraudResultItem = new FraudResultItem();
+        CompletableFuture.runAsync(
+                () -> localResultItemNotifier.notifyResultItemSaved(sessionId, fraudResultItem),
+                CompletableFuture.delayedExecutor(100, TimeUnit.MILLISECONDS));
+
+        when(context.getFunctionName()).thenReturn("functionName");
+        when(context.getFunctionVersion()).thenReturn("1.0");
+
+        long startTime = System.currentTimeMillis();
+        APIGatewayProxyResponseEvent responseEvent =
+                fraudHandlerWithLocalNotifier.handleRequest(mockRequestEvent, context);
+        long waitedMilliseconds = System.currentTimeMillis() - startTime;
+
+        verify(mockEventProbe).counterMetric(LAMBDA_IDENTITY_CHECK_COMPLETED_OK);
+
+        // Released by the notification rather than the max wait duration
+        assertTrue(waitedMilliseconds < 5000);
+
+        verifyNoInteractions(mockPersonIdentityService);
+        verify(mockAuditEventDispatcher, never())
+                .dispatch(any(AuditEventType.class), any(AuditEventContext.class));
+        verifyNoInteractions(mockIdentityVerificationService);
+        verifyNoInteractions(mockResultItemStorageService);
 
         assertNotNull(responseEvent);
         assertEquals(200, responseEvent.getStatusCode());
@@ -303,6 +409,8 @@ class FraudHandlerTest {
         final var sessionItem = new SessionItem();
         sessionItem.setSessionId(UUID.randomUUID());
         when(mockSessionService.validateSessionId(anyString())).thenReturn(sessionItem);
+        when(mockSessionAttemptService.incrementAttemptCount(sessionItem.getSessionId()))
+                .thenReturn(1);
 
         when(mockPersonIdentityService.getPersonIdentity(sessionItem.getSessionId()))
                 .thenReturn(testPersonIdentity);
@@ -3,8 +3,16 @@ package uk.gov.di.ipv.cri.fraud.api.service;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import uk.gov.di.ipv.cri.common.library.util.EventProbe;
+
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+import static uk.gov.di.ipv.cri.fraud.library.metrics.Definitions.CONTRA_INDICATOR_UNMAPPED_FRAUD_CODES;
 
 public class ContraIndicatorMapperTest {
 
@@ -29,7 +37,7 @@ public class ContraIndicatorMapperTest {
 
     @BeforeAll
     public static void Setup() {
-        envVarMapper = new ContraIndicatorMapper(TEST_CIMAP_STRING);
+        envVarMapper = new ContraIndicatorMapper(TEST_CIMAP_STRING, mock(EventProbe.class));
     }
 
     @Test
@@ -84,4 +92,97 @@ public class ContraIndicatorMapperTest {
         assertNotNull(result);
         assertEquals(0, result.length);
     }
+
+    @Test
+    @DisplayName("Duplicate CI's are flattened")
+    void mapThirdPartyFraudCodesShouldReturnEachContraIndicatorOnce() {
+        String[] ciCode =
+                envVarMapper.mapThirdPartyFraudCodes(
+                        new String[] {TEST_UCODE_3, TEST_UCODE_1, TEST_UCODE_5, TEST_UCODE_1});
+
+        assertEquals(2, ciCode.length);
+        assertTrue(List.of(ciCode).containsAll(List.of("A1", "A3")));
+    }
+
+    @Test
+    @DisplayName("Unmapped codes are counted")
+    void mapThirdPartyFraudCodesShouldRecordTheUnmappedCodeCount() {
+        EventProbe mockEventProbe = mock(EventProbe.class);
+        ContraIndicatorMapper mapper = new ContraIndicatorMapper(TEST_CIMAP_STRING, mockEventProbe);
+
+        String[] ciCode =
+                mapper.mapThirdPartyFraudCodes(new String[] {"Z998", TEST_UCODE_2, "Z999", null});
+
+        assertArrayEquals(new String[] {"A2"}, ciCode);
+        verify(mockEventProbe).counterMetric(CONTRA_INDICATOR_UNMAPPED_FRAUD_CODES, 3);
+    }
+
+    @Test
+    @DisplayName("No metric when every code is mapped")
+    void mapThirdPartyFraudCodesShouldNotRecordUnmappedCodesWhenAllAreMapped() {
+        EventProbe mockEventProbe = mock(EventProbe.class);
+        ContraIndicatorMapper mapper = new ContraIndicatorMapper(TEST_CIMAP_STRING, mockEventProbe);
+
+        mapper.mapThirdPartyFraudCodes(new String[] {TEST_UCODE_1, TEST_UCODE_4});
+
+        verifyNoInteractions(mockEventProbe);
+    }
+
+    @Test
+    @DisplayName("Mappings are reloaded with the configuration")
+    void mapThirdPartyFraudCodesShouldUseTheMappingsOfTheCurrentConfigurationVersion() {
+        FraudCheckConfigurationService mockConfigurationService =
+                mock(FraudCheckConfigurationService.class);
+        when(mockConfigurationService.getSnapshot())
+                .thenReturn(snapshot(1, TEST_CIMAP_1))
+                .thenReturn(snapshot(1, TEST_CIMAP_1))
+                .thenReturn(snapshot(2, TEST_UCODE_1 + ":B1"));
+
+        ContraIndicatorMapper mapper =
+                new ContraIndicatorMapper(mockConfigurationService, mock(EventProbe.class));
+
+        assertArrayEquals(
+                new String[] {"A1"}, mapper.mapThirdPartyFraudCodes(new String[] {TEST_UCODE_1}));
+        assertArrayEquals(
+                new String[] {"B1"}, mapper.mapThirdPartyFraudCodes(new String[] {TEST_UCODE_1}));
+    }
+
+    @Test
+    @DisplayName("A reloaded mapping that does not parse is ignored")
+    void mapThirdPartyFraudCodesShouldKeepTheMappingsWhenTheReloadedMappingsAreInvalid() {
+        FraudCheckConfigurationService mockConfigurationService =
+                mock(FraudCheckConfigurationService.class);
+        when(mockConfigurationService.getSnapshot())
+                .thenReturn(snapshot(1, TEST_CIMAP_1))
+                .thenReturn(snapshot(2, "not a mapping"));
+
+        ContraIndicatorMapper mapper =
+                new ContraIndicatorMapper(mockConfigurationService, mock(EventProbe.class));
+
+        assertArrayEquals(
+                new String[] {"A1"}, mapper.mapThirdPartyFraudCodes(new String[] {TEST_UCODE_1}));
+    }
+
+    @Test
+    @DisplayName("Flattens CI's beyond the first 64")
+    void mapThirdPartyFraudCodesShouldFlattenContraIndicatorsBeyondTheFirstSixtyFour() {
+        StringBuilder mappingString = new StringBuilder();
+        for (int ci = 0; ci < 70; ci++) {
+            mappingString.append("Z").append(ci).append(":C").append(ci).append("||");
+        }
+        mappingString.append("Z100:C69");
+
+        ContraIndicatorMapper mapper =
+                new ContraIndicatorMapper(mappingString.toString(), mock(EventProbe.class));
+
+        String[] ciCode = mapper.mapThirdPartyFraudCodes(new String[] {"Z69", "Z0", "Z100"});
+
+        assertEquals(2, ciCode.length);
+        assertTrue(List.of(ciCode).containsAll(List.of("C0", "C69")));
+    }
+
+    private static FraudCheckConfigurationSnapshot snapshot(long version, String mappings) {
+        return new FraudCheckConfigurationSnapshot(
+                version, 0L, mappings, List.of(), new int[0], null);
+    }
 }
@@ -0,0 +1,58 @@
+package uk.gov.di.ipv.cri.fraud.api.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ContraIndicatorMappingTableTest {
+
+    @Test
+    void shouldMapEachFraudCodeToItsContraIndicator() {
+        ContraIndicatorMappingTable mappingTable =
+                ContraIndicatorMappingTable.compile("u101:A01||u131,u134:N01||u135:A01");
+
+        assertEquals(4, mappingTable.fraudCodeCount());
+        assertEquals(2, mappingTable.contraIndicatorCount());
+
+        assertEquals("A01", mappingTable.contraIndicator(mappingTable.lookup("u101")));
+        assertEquals("N01", mappingTable.contraIndicator(mappingTable.lookup("u131")));
+        assertEquals("N01", mappingTable.contraIndicator(mappingTable.lookup("u134")));
+        assertEquals(mappingTable.lookup("u101"), mappingTable.lookup("u135"));
+
+        assertEquals(ContraIndicatorMappingTable.UNMAPPED, mappingTable.lookup("u999"));
+        assertEquals(ContraIndicatorMappingTable.UNMAPPED, mappingTable.lookup(null));
+    }
+
+    @Test
+    void shouldKeepTheLastContraIndicatorOfACodeMappedTwice() {
+        ContraIndicatorMappingTable mappingTable =
+                ContraIndicatorMappingTable.compile("u101:A01||u101:B01||");
+
+        assertEquals(1, mappingTable.fraudCodeCount());
+        assertEquals("B01", mappingTable.contraIndicator(mappingTable.lookup("u101")));
+    }
+
+    @Test
+    void shouldFindEveryCodeOfALargeMapping() {
+        ContraIndicatorMappingTable.Builder builder = ContraIndicatorMappingTable.builder();
+        for (int code = 0; code < 500; code++) {
+            builder.map("u" + code, "C" + (code % 70));
+        }
+
+        ContraIndicatorMappingTable mappingTable = builder.build();
+
+        assertEquals(70, mappingTable.contraIndicatorCount());
+        for (int code = 0; code < 500; code++) {
+            int contraIndicatorId = mappingTable.lookup("u" + code);
+            assertEquals("C" + (code % 70), mappingTable.contraIndicator(contraIndicatorId));
+        }
+    }
+
+    @Test
+    void shouldRejectAMappingWithoutAContraIndicator() {
+        assertThrows(
+                IllegalArgumentException.class,
+                () -> ContraIndicatorMappingTable.compile("u101:A01||u102"));
+    }
+}
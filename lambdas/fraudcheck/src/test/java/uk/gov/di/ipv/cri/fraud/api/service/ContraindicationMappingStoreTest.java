@@ -0,0 +1,230 @@
+package uk.gov.di.ipv.cri.fraud.api.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import software.amazon.awssdk.core.pagination.sync.SdkIterable;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbTable;
+import software.amazon.awssdk.enhanced.dynamodb.model.Page;
+import software.amazon.awssdk.enhanced.dynamodb.model.PageIterable;
+import software.amazon.awssdk.enhanced.dynamodb.model.ScanEnhancedRequest;
+import software.amazon.awssdk.services.dynamodb.model.ProvisionedThroughputExceededException;
+import uk.gov.di.ipv.cri.fraud.api.persistence.item.ContraindicationMappingItem;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ContraindicationMappingStoreTest {
+
+    private static final String THIRD_PARTY_ID = "experian";
+    private static final long REFRESH_INTERVAL_MILLIS = 60000;
+
+    @Mock private DynamoDbTable<ContraindicationMappingItem> mockMappingItemTable;
+
+    @Test
+    void shouldLoadTheMappingsFromEverySegment() {
+        when(mockMappingItemTable.scan(any(ScanEnhancedRequest.class)))
+                .thenReturn(pages(item("u101", "A01", 1000L)))
+                .thenReturn(pages(item("u131", "N01", 2000L), item("u134", "N01", null)));
+
+        ContraindicationMappingStore contraindicationMappingStore =
+                createStore(2, 0, new MutableClock());
+
+        ContraIndicatorMappingTable mappingTable = contraindicationMappingStore.getMappingTable();
+        assertEquals(3, mappingTable.fraudCodeCount());
+        assertEquals("A01", mappingTable.contraIndicator(mappingTable.lookup("u101")));
+        assertEquals("N01", mappingTable.contraIndicator(mappingTable.lookup("u134")));
+
+        ArgumentCaptor<ScanEnhancedRequest> scanRequestCaptor =
+                ArgumentCaptor.forClass(ScanEnhancedRequest.class);
+        verify(mockMappingItemTable, times(2)).scan(scanRequestCaptor.capture());
+
+        List<ScanEnhancedRequest> scanRequests = scanRequestCaptor.getAllValues();
+        assertEquals(0, scanRequests.get(0).segment());
+        assertEquals(1, scanRequests.get(1).segment());
+        assertEquals(2, scanRequests.get(1).totalSegments());
+        assertEquals(
+                THIRD_PARTY_ID,
+                scanRequests.get(0).filterExpression().expressionValues().get(":thirdPartyId").s());
+    }
+
+    @Test
+    void shouldApplyOnlyTheChangedMappingsOnRefresh() {
+        when(mockMappingItemTable.scan(any(ScanEnhancedRequest.class)))
+                .thenReturn(pages(item("u101", "A01", 100000L), item("u131", "N01", 100000L)))
+                .thenReturn(pages(item("u101", "B01", 200000L), item("u131", null, 200000L)));
+
+        MutableClock clock = new MutableClock();
+        ContraindicationMappingStore contraindicationMappingStore =
+                createStore(1, REFRESH_INTERVAL_MILLIS, clock);
+
+        ContraIndicatorMappingTable initialMappingTable =
+                contraindicationMappingStore.getMappingTable();
+
+        clock.advance(REFRESH_INTERVAL_MILLIS);
+        ContraIndicatorMappingTable refreshedMappingTable =
+                contraindicationMappingStore.getMappingTable();
+
+        assertEquals(
+                "A01", initialMappingTable.contraIndicator(initialMappingTable.lookup("u101")));
+        assertEquals(1, refreshedMappingTable.fraudCodeCount());
+        assertEquals(
+                "B01", refreshedMappingTable.contraIndicator(refreshedMappingTable.lookup("u101")));
+        assertEquals(ContraIndicatorMappingTable.UNMAPPED, refreshedMappingTable.lookup("u131"));
+
+        // The refresh reads rows changed since the newest row seen, less the overlap
+        ArgumentCaptor<ScanEnhancedRequest> scanRequestCaptor =
+                ArgumentCaptor.forClass(ScanEnhancedRequest.class);
+        verify(mockMappingItemTable, times(2)).scan(scanRequestCaptor.capture());
+        assertEquals(
+                "40000",
+                scanRequestCaptor
+                        .getAllValues()
+                        .get(1)
+                        .filterExpression()
+                        .expressionValues()
+                        .get(":updatedAfter")
+                        .n());
+    }
+
+    @Test
+    void shouldKeepTheMappingsWhenTheRefreshFails() {
+        when(mockMappingItemTable.scan(any(ScanEnhancedRequest.class)))
+                .thenReturn(pages(item("u101", "A01", 1000L)))
+                .thenThrow(ProvisionedThroughputExceededException.builder().build());
+
+        MutableClock clock = new MutableClock();
+        ContraindicationMappingStore contraindicationMappingStore =
+                createStore(1, REFRESH_INTERVAL_MILLIS, clock);
+
+        ContraIndicatorMappingTable initialMappingTable =
+                contraindicationMappingStore.getMappingTable();
+
+        clock.advance(REFRESH_INTERVAL_MILLIS);
+
+        assertSame(initialMappingTable, contraindicationMappingStore.getMappingTable());
+    }
+
+    @Test
+    void shouldReplaceTheMappingsWithAFullScanToDropDeletedRows() {
+        when(mockMappingItemTable.scan(any(ScanEnhancedRequest.class)))
+                .thenReturn(pages(item("u101", "A01", 100000L), item("u131", "N01", 100000L)))
+                .thenReturn(pages())
+                // u131 was deleted and u134 written without a lastUpdated
+                .thenReturn(pages(item("u101", "A01", 100000L), item("u134", "N01", null)));
+
+        MutableClock clock = new MutableClock();
+        ContraindicationMappingStore contraindicationMappingStore =
+                createStore(1, REFRESH_INTERVAL_MILLIS, 2, clock);
+
+        clock.advance(REFRESH_INTERVAL_MILLIS);
+        ContraIndicatorMappingTable incrementallyRefreshedMappingTable =
+                contraindicationMappingStore.getMappingTable();
+
+        clock.advance(REFRESH_INTERVAL_MILLIS);
+        ContraIndicatorMappingTable fullyRefreshedMappingTable =
+                contraindicationMappingStore.getMappingTable();
+
+        assertEquals(
+                "N01",
+                incrementallyRefreshedMappingTable.contraIndicator(
+                        incrementallyRefreshedMappingTable.lookup("u131")));
+        assertEquals(2, fullyRefreshedMappingTable.fraudCodeCount());
+        assertEquals(
+                ContraIndicatorMappingTable.UNMAPPED, fullyRefreshedMappingTable.lookup("u131"));
+        assertEquals(
+                "N01",
+                fullyRefreshedMappingTable.contraIndicator(
+                        fullyRefreshedMappingTable.lookup("u134")));
+
+        // The second refresh reads every row of the third party
+        ArgumentCaptor<ScanEnhancedRequest> scanRequestCaptor =
+                ArgumentCaptor.forClass(ScanEnhancedRequest.class);
+        verify(mockMappingItemTable, times(3)).scan(scanRequestCaptor.capture());
+        assertEquals(
+                "#thirdPartyId = :thirdPartyId",
+                scanRequestCaptor.getAllValues().get(2).filterExpression().expression());
+    }
+
+    private ContraindicationMappingStore createStore(
+            int scanSegments, long refreshIntervalMillis, Clock clock) {
+        return createStore(
+                scanSegments,
+                refreshIntervalMillis,
+                ContraindicationMappingStore.FULL_SCAN_EVERY_REFRESHES,
+                clock);
+    }
+
+    // Direct executors so the scans and refresh complete inside the calls
+    private ContraindicationMappingStore createStore(
+            int scanSegments, long refreshIntervalMillis, int fullScanEveryRefreshes, Clock clock) {
+        return new ContraindicationMappingStore(
+                mockMappingItemTable,
+                THIRD_PARTY_ID,
+                scanSegments,
+                Runnable::run,
+                refreshIntervalMillis,
+                fullScanEveryRefreshes,
+                clock,
+                Runnable::run);
+    }
+
+    @SafeVarargs
+    private static PageIterable<ContraindicationMappingItem> pages(
+            ContraindicationMappingItem... items) {
+        SdkIterable<Page<ContraindicationMappingItem>> pages =
+                () -> List.of(Page.create(List.of(items))).iterator();
+        return PageIterable.create(pages);
+    }
+
+    private static ContraindicationMappingItem item(
+            String thirdPartyFraudCode, String contraindicationCode, Long lastUpdated) {
+        ContraindicationMappingItem item = new ContraindicationMappingItem();
+        item.setThirdPartyFraudCode(thirdPartyFraudCode);
+        item.setThirdPartyId(THIRD_PARTY_ID);
+        item.setContraindicationCode(contraindicationCode);
+        item.setLastUpdated(lastUpdated);
+        return item;
+    }
+
+    private static class MutableClock extends Clock {
+        private long millis = 0;
+
+        void advance(long delta) {
+            millis += delta;
+        }
+
+        @Override
+        public long millis() {
+            return millis;
+        }
+
+        @Override
+        public Instant instant() {
+            return Instant.ofEpochMilli(millis);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package uk.gov.di.ipv.cri.fraud.api.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbEnhancedClient;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbTable;
+import software.amazon.awssdk.enhanced.dynamodb.TableSchema;
+import software.amazon.awssdk.enhanced.dynamodb.model.PutItemEnhancedRequest;
+import software.amazon.awssdk.enhanced.dynamodb.model.UpdateItemEnhancedRequest;
+import software.amazon.awssdk.services.dynamodb.model.ConditionalCheckFailedException;
+import software.amazon.awssdk.services.dynamodb.model.DynamoDbException;
+import uk.gov.di.ipv.cri.fraud.api.persistence.item.TokenRefreshLeaseItem;
+
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class DynamoDbTokenRefreshLeaseTest {
+
+    private static final String TEST_TOKEN_TABLE_NAME = "test_token_table_name";
+    private static final String TEST_LEASE_ID = "NO_CHANGETokenRefreshLease";
+
+    @Mock private DynamoDbEnhancedClient mockDynamoDbEnhancedClient;
+    @Mock private DynamoDbTable<TokenRefreshLeaseItem> mockLeaseTable;
+
+    private DynamoDbTokenRefreshLease dynamoDbTokenRefreshLease;
+
+    @BeforeEach
+    void setUp() {
+        when(mockDynamoDbEnhancedClient.table(eq(TEST_TOKEN_TABLE_NAME), any(TableSchema.class)))
+                .thenReturn(mockLeaseTable);
+
+        dynamoDbTokenRefreshLease =
+                new DynamoDbTokenRefreshLease(mockDynamoDbEnhancedClient, TEST_TOKEN_TABLE_NAME);
+    }
+
+    @Test
+    void shouldAcquireLeaseWithConditionalPut() {
+        ArgumentCaptor<PutItemEnhancedRequest<TokenRefreshLeaseItem>> putRequestCaptor =
+                ArgumentCaptor.forClass(PutItemEnhancedRequest.class);
+
+        long now = Instant.now().getEpochSecond();
+
+        assertTrue(dynamoDbTokenRefreshLease.tryAcquire(TEST_LEASE_ID, 60L));
+
+        verify(mockLeaseTable).putItem(putRequestCaptor.capture());
+
+        PutItemEnhancedRequest<TokenRefreshLeaseItem> putRequest = putRequestCaptor.getValue();
+        assertEquals(TEST_LEASE_ID, putRequest.item().getId());
+        assertTrue(putRequest.item().getTtl() >= now + 60L);
+        assertEquals(
+                "attribute_not_exists(id) OR #ttl < :now",
+                putRequest.conditionExpression().expression());
+    }
+
+    @Test
+    void shouldNotAcquireLeaseWhenHeldElsewhere() {
+        doThrow(ConditionalCheckFailedException.builder().build())
+                .when(mockLeaseTable)
+                .putItem(any(PutItemEnhancedRequest.class));
+
+        assertFalse(dynamoDbTokenRefreshLease.tryAcquire(TEST_LEASE_ID, 60L));
+    }
+
+    @Test
+    void shouldReleaseLeaseByExpiringItOnlyIfStillOwner() {
+        ArgumentCaptor<UpdateItemEnhancedRequest<TokenRefreshLeaseItem>> updateRequestCaptor =
+                ArgumentCaptor.forClass(UpdateItemEnhancedRequest.class);
+
+        dynamoDbTokenRefreshLease.release(TEST_LEASE_ID);
+
+        verify(mockLeaseTable).updateItem(updateRequestCaptor.capture());
+
+        UpdateItemEnhancedRequest<TokenRefreshLeaseItem> updateRequest =
+                updateRequestCaptor.getValue();
+        assertEquals(TEST_LEASE_ID, updateRequest.item().getId());
+        assertEquals(0L, updateRequest.item().getTtl());
+        assertNull(updateRequest.item().getOwner());
+        assertTrue(updateRequest.ignoreNulls());
+        assertEquals("#owner = :owner", updateRequest.conditionExpression().expression());
+    }
+
+    @Test
+    void shouldIgnoreReleaseOfLeaseTakenByAnotherLambda() {
+        when(mockLeaseTable.updateItem(any(UpdateItemEnhancedRequest.class)))
+                .thenThrow(ConditionalCheckFailedException.builder().build());
+
+        assertDoesNotThrow(() -> dynamoDbTokenRefreshLease.release(TEST_LEASE_ID));
+    }
+
+    @Test
+    void shouldNotThrowWhenReleaseIsDenied() {
+        when(mockLeaseTable.updateItem(any(UpdateItemEnhancedRequest.class)))
+                .thenThrow(
+                        DynamoDbException.builder()
+                                .statusCode(400)
+                                .message("AccessDeniedException")
+                                .build());
+
+        assertDoesNotThrow(() -> dynamoDbTokenRefreshLease.release(TEST_LEASE_ID));
+    }
+}
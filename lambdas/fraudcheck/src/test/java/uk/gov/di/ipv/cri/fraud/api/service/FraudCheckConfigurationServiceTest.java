@@ -13,12 +13,19 @@ import uk.org.webcompere.systemstubs.environment.EnvironmentVariables;
 import uk.org.webcompere.systemstubs.jupiter.SystemStub;
 import uk.org.webcompere.systemstubs.jupiter.SystemStubsExtension;
 
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
 import java.util.AbstractMap;
 import java.util.List;
 import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -34,6 +41,8 @@ class FraudCheckConfigurationServiceTest {
     private final String PARAMETER_PREFIX = "fraud-api-pipeline";
     private final String COMMON_PARAMETER_NAME_PREFIX = "common-cri-api";
 
+    private static final long REFRESH_INTERVAL_MILLIS = 60000;
+
     @Mock private ParameterStoreService mockParameterStoreService;
 
     @Test
@@ -84,6 +93,11 @@ class FraudCheckConfigurationServiceTest {
                         ParameterPrefix.OVERRIDE,
                         FraudCheckConfigurationService.NO_FILE_FOUND_THRESHOLD_PARAMETER_KEY))
                 .thenReturn(String.valueOf(noFileFoundThresholdValue));
+        when(mockParameterStoreService.getParameterValue(
+                        ParameterPrefix.OVERRIDE,
+                        FraudCheckConfigurationService
+                                .TEST_STRATEGY_NO_FILE_FOUND_THRESHOLD_PARAMETER_KEY))
+                .thenReturn("{\"STUB\": \"30\", \"UAT\": \"31\"}");
 
         String testStrategyRawEndpointValue =
                 """
@@ -164,6 +178,14 @@ class FraudCheckConfigurationServiceTest {
         assertEquals(
                 noFileFoundThresholdValue,
                 fraudCheckConfigurationService.getNoFileFoundThreshold(Strategy.NO_CHANGE));
+        assertEquals(
+                Integer.valueOf(30),
+                fraudCheckConfigurationService.getNoFileFoundThreshold(Strategy.STUB));
+        assertEquals(
+                Integer.valueOf(31),
+                fraudCheckConfigurationService.getNoFileFoundThreshold(Strategy.UAT));
+        assertNull(fraudCheckConfigurationService.getNoFileFoundThreshold(Strategy.LIVE));
+        assertEquals(1, fraudCheckConfigurationService.getSnapshot().getVersion());
 
         // CC2
         verify(mockParameterStoreService)
@@ -207,4 +229,135 @@ class FraudCheckConfigurationServiceTest {
                 experianTokenTableValue,
                 fraudCheckConfigurationService.getCrosscoreV2Configuration().getTokenTableName());
     }
+
+    @Test
+    void shouldSwapInANewSnapshotOnceTheRefreshIntervalHasPassed()
+            throws JsonProcessingException {
+        stubMinimalParameters();
+        when(mockParameterStoreService.getParameterValue(
+                        ParameterPrefix.OVERRIDE,
+                        FraudCheckConfigurationService.ZERO_SCORE_UCODES_PARAMETER_KEY))
+                .thenReturn("U001", "U002");
+
+        MutableClock clock = new MutableClock();
+
+        // Direct executor so the refresh completes inside getSnapshot
+        FraudCheckConfigurationService fraudCheckConfigurationService =
+                new FraudCheckConfigurationService(
+                        mockParameterStoreService,
+                        new ObjectMapper(),
+                        REFRESH_INTERVAL_MILLIS,
+                        clock,
+                        Runnable::run);
+
+        FraudCheckConfigurationSnapshot initialSnapshot =
+                fraudCheckConfigurationService.getSnapshot();
+
+        clock.advance(REFRESH_INTERVAL_MILLIS - 1);
+        assertSame(initialSnapshot, fraudCheckConfigurationService.getSnapshot());
+
+        clock.advance(1);
+        FraudCheckConfigurationSnapshot refreshedSnapshot =
+                fraudCheckConfigurationService.getSnapshot();
+
+        assertEquals(1, initialSnapshot.getVersion());
+        assertEquals(List.of("U001"), initialSnapshot.getZeroScoreUcodes());
+        assertEquals(2, refreshedSnapshot.getVersion());
+        assertEquals(List.of("U002"), refreshedSnapshot.getZeroScoreUcodes());
+
+        // The next refresh is not due until a further interval has passed
+        assertSame(refreshedSnapshot, fraudCheckConfigurationService.getSnapshot());
+        verify(mockParameterStoreService, times(2))
+                .getParameterValue(
+                        ParameterPrefix.OVERRIDE,
+                        FraudCheckConfigurationService.ZERO_SCORE_UCODES_PARAMETER_KEY);
+    }
+
+    @Test
+    void shouldKeepTheCurrentSnapshotWhenARefreshFails() throws JsonProcessingException {
+        stubMinimalParameters();
+        when(mockParameterStoreService.getParameterValue(
+                        ParameterPrefix.OVERRIDE,
+                        FraudCheckConfigurationService.ZERO_SCORE_UCODES_PARAMETER_KEY))
+                .thenReturn("U001")
+                .thenThrow(new IllegalStateException("parameter store unavailable"));
+
+        MutableClock clock = new MutableClock();
+
+        FraudCheckConfigurationService fraudCheckConfigurationService =
+                new FraudCheckConfigurationService(
+                        mockParameterStoreService,
+                        new ObjectMapper(),
+                        REFRESH_INTERVAL_MILLIS,
+                        clock,
+                        Runnable::run);
+
+        FraudCheckConfigurationSnapshot initialSnapshot =
+                fraudCheckConfigurationService.getSnapshot();
+
+        clock.advance(REFRESH_INTERVAL_MILLIS);
+
+        assertSame(initialSnapshot, fraudCheckConfigurationService.getSnapshot());
+        assertEquals(List.of("U001"), fraudCheckConfigurationService.getZeroScoreUcodes());
+    }
+
+    private void stubMinimalParameters() {
+        environmentVariables.set("PARAMETER_PREFIX", PARAMETER_PREFIX);
+        environmentVariables.set("AWS_STACK_NAME", AWS_STACK_NAME);
+
+        when(mockParameterStoreService.getParameterValue(
+                        ParameterPrefix.OVERRIDE,
+                        FraudCheckConfigurationService.CONTRAINDICATION_MAPPINGS_PARAMETER_KEY))
+                .thenReturn("null:null");
+        when(mockParameterStoreService.getParameterValue(
+                        ParameterPrefix.OVERRIDE,
+                        FraudCheckConfigurationService.NO_FILE_FOUND_THRESHOLD_PARAMETER_KEY))
+                .thenReturn("35");
+        when(mockParameterStoreService.getParameterValue(
+                        ParameterPrefix.OVERRIDE,
+                        FraudCheckConfigurationService
+                                .TEST_STRATEGY_NO_FILE_FOUND_THRESHOLD_PARAMETER_KEY))
+                .thenReturn("{}");
+        when(mockParameterStoreService.getAllParametersFromPath(
+                        ParameterPrefix.OVERRIDE, CrosscoreV2Configuration.CC2_PARAMETER_PATH))
+                .thenReturn(
+                        Map.of(
+                                CrosscoreV2Configuration.CC2_TEST_STRATEGY_ENDPOINT_PARAMETER_KEY,
+                                "{}",
+                                CrosscoreV2Configuration
+                                        .TEST_STRATEGY_TOKEN_END_POINT_PARAMETER_KEY,
+                                "{}"));
+        when(mockParameterStoreService.getParameterValue(
+                        ParameterPrefix.STACK,
+                        CrosscoreV2Configuration.TOKEN_TABLE_NAME_PARAMETER_KEY))
+                .thenReturn("ExperianTokenTableValue");
+    }
+
+    private static class MutableClock extends Clock {
+        private long millis = 0;
+
+        void advance(long delta) {
+            millis += delta;
+        }
+
+        @Override
+        public long millis() {
+            return millis;
+        }
+
+        @Override
+        public Instant instant() {
+            return Instant.ofEpochMilli(millis);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+    }
 }
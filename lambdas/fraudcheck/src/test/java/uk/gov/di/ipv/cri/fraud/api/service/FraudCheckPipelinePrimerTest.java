@@ -0,0 +1,60 @@
+package uk.gov.di.ipv.cri.fraud.api.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import uk.gov.di.ipv.cri.common.library.util.EventProbe;
+import uk.gov.di.ipv.cri.fraud.library.util.JsonCodecRegistry;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class FraudCheckPipelinePrimerTest {
+
+    @Mock private ContraIndicatorMapper mockContraIndicatorMapper;
+    @Mock private EventProbe mockEventProbe;
+
+    private ObjectMapper objectMapper;
+    private JsonCodecRegistry jsonCodecRegistry;
+
+    @BeforeEach
+    void setUp() {
+        objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+        jsonCodecRegistry = new JsonCodecRegistry(objectMapper);
+    }
+
+    @Test
+    void shouldRunThePipelineAndReturnTheDuration() {
+        FraudCheckPipelinePrimer primer =
+                new FraudCheckPipelinePrimer(
+                        jsonCodecRegistry,
+                        objectMapper,
+                        new ContraIndicatorMapper("u101:A01||u131:N01", mockEventProbe));
+
+        long primingDuration = primer.prime();
+
+        assertTrue(primingDuration >= 0);
+    }
+
+    @Test
+    void shouldReturnMinusOneWhenPrimingFails() {
+        when(mockContraIndicatorMapper.mapThirdPartyFraudCodes(any()))
+                .thenThrow(new IllegalStateException("priming failure"));
+
+        FraudCheckPipelinePrimer primer =
+                new FraudCheckPipelinePrimer(
+                        jsonCodecRegistry, objectMapper, mockContraIndicatorMapper);
+
+        assertEquals(-1, primer.prime());
+        verify(mockContraIndicatorMapper, atLeastOnce()).mapThirdPartyFraudCodes(any());
+    }
+}
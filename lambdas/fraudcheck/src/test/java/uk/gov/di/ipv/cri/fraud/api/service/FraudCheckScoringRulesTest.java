@@ -0,0 +1,157 @@
+package uk.gov.di.ipv.cri.fraud.api.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import uk.gov.di.ipv.cri.fraud.api.domain.check.FraudCheckResult;
+import uk.gov.di.ipv.cri.fraud.api.service.FraudCheckScoringRules.FraudCheckScore;
+import uk.gov.di.ipv.cri.fraud.library.strategy.Strategy;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static uk.gov.di.ipv.cri.fraud.library.domain.CheckType.ACTIVITY_HISTORY_CHECK;
+import static uk.gov.di.ipv.cri.fraud.library.domain.CheckType.IDENTITY_THEFT_CHECK;
+import static uk.gov.di.ipv.cri.fraud.library.domain.CheckType.MORTALITY_CHECK;
+import static uk.gov.di.ipv.cri.fraud.library.domain.CheckType.SYNTHETIC_IDENTITY_CHECK;
+
+class FraudCheckScoringRulesTest {
+
+    private static final int NO_FILE_FOUND_THRESHOLD = 35;
+
+    private final FraudCheckScoringRules scoringRules = scoringRules(NO_FILE_FOUND_THRESHOLD);
+
+    @Test
+    void testSuccessInFraudAndSuccessInPepIsScoreOfTwo() {
+        FraudCheckScore fraudCheckScore =
+                scoringRules.evaluate(fraudCheckResult(40, null), Strategy.NO_CHANGE);
+
+        assertEquals(1, fraudCheckScore.getIdentityCheckScore());
+        assertTrue(fraudCheckScore.isPepCheckAllowed());
+        assertEquals(
+                2, scoringRules.scoreAfterPepCheck(fraudCheckScore.getIdentityCheckScore(), true));
+    }
+
+    @Test
+    void testSuccessInFraudAndSuccessInPepWithZeroScoreUcodeIsScoreOfZero() {
+        FraudCheckScore fraudCheckScore =
+                scoringRules.evaluate(
+                        fraudCheckResult(45, null, "U999", "U001"), Strategy.NO_CHANGE);
+
+        assertEquals(0, fraudCheckScore.getIdentityCheckScore());
+        assertFalse(fraudCheckScore.isPepCheckAllowed());
+        assertEquals(
+                0, scoringRules.scoreAfterPepCheck(fraudCheckScore.getIdentityCheckScore(), true));
+    }
+
+    @Test
+    void testSuccessInFraudAndFailInPepIsScoreOfOne() {
+        FraudCheckScore fraudCheckScore =
+                scoringRules.evaluate(fraudCheckResult(45, null), Strategy.NO_CHANGE);
+
+        assertEquals(
+                1, scoringRules.scoreAfterPepCheck(fraudCheckScore.getIdentityCheckScore(), false));
+    }
+
+    @Test
+    void shouldPassTheFraudChecksWhenTheFileIsFoundWithoutAZeroScoreUcode() {
+        FraudCheckScore fraudCheckScore =
+                scoringRules.evaluate(fraudCheckResult(36, 12, "U999"), Strategy.NO_CHANGE);
+
+        assertTrue(fraudCheckScore.isFileFound());
+        assertEquals(
+                List.of(
+                        ACTIVITY_HISTORY_CHECK.toString(),
+                        MORTALITY_CHECK.toString(),
+                        IDENTITY_THEFT_CHECK.toString(),
+                        SYNTHETIC_IDENTITY_CHECK.toString()),
+                fraudCheckScore.getChecksSucceeded());
+        assertEquals(List.of(), fraudCheckScore.getChecksFailed());
+    }
+
+    @Test
+    void shouldFailTheFraudChecksWhenTheFileIsNotFound() {
+        FraudCheckScore fraudCheckScore =
+                scoringRules.evaluate(
+                        fraudCheckResult(NO_FILE_FOUND_THRESHOLD, 12), Strategy.NO_CHANGE);
+
+        // Still scores one, the PEP check is skipped instead
+        assertEquals(1, fraudCheckScore.getIdentityCheckScore());
+        assertEquals(1, fraudCheckScore.getActivityHistoryScore());
+        assertFalse(fraudCheckScore.isFileFound());
+        assertFalse(fraudCheckScore.isPepCheckAllowed());
+        assertEquals(List.of(), fraudCheckScore.getChecksSucceeded());
+        assertEquals(
+                List.of(
+                        MORTALITY_CHECK.toString(),
+                        IDENTITY_THEFT_CHECK.toString(),
+                        SYNTHETIC_IDENTITY_CHECK.toString()),
+                fraudCheckScore.getChecksFailed());
+    }
+
+    @ParameterizedTest
+    @CsvSource({",0", "3,0", "5,0", "6,1", "12,1"})
+    void shouldScoreActivityHistoryOfSixMonthsOrMore(
+            Integer oldestRecordDateInMonths, int expectedActivityHistoryScore) {
+        FraudCheckScore fraudCheckScore =
+                scoringRules.evaluate(
+                        fraudCheckResult(40, oldestRecordDateInMonths), Strategy.NO_CHANGE);
+
+        assertEquals(expectedActivityHistoryScore, fraudCheckScore.getActivityHistoryScore());
+        assertEquals(
+                expectedActivityHistoryScore == 1,
+                fraudCheckScore.getChecksSucceeded().contains(ACTIVITY_HISTORY_CHECK.toString()));
+    }
+
+    @Test
+    void shouldUseTheThresholdOfTheStrategy() {
+        int[] noFileFoundThresholds = new int[Strategy.values().length];
+        Arrays.fill(noFileFoundThresholds, NO_FILE_FOUND_THRESHOLD);
+        noFileFoundThresholds[Strategy.STUB.ordinal()] = 50;
+
+        FraudCheckScoringRules strategyScoringRules =
+                FraudCheckScoringRules.compile(List.of("U001"), noFileFoundThresholds);
+
+        assertTrue(
+                strategyScoringRules
+                        .evaluate(fraudCheckResult(40, null), Strategy.NO_CHANGE)
+                        .isFileFound());
+        assertFalse(
+                strategyScoringRules
+                        .evaluate(fraudCheckResult(40, null), Strategy.STUB)
+                        .isFileFound());
+    }
+
+    @Test
+    void shouldThrowWhenTheStrategyHasNoThreshold() {
+        FraudCheckScoringRules noThresholdScoringRules =
+                scoringRules(FraudCheckConfigurationSnapshot.NO_THRESHOLD);
+        FraudCheckResult fraudCheckResult = fraudCheckResult(40, null);
+
+        assertThrows(
+                IllegalStateException.class,
+                () -> noThresholdScoringRules.evaluate(fraudCheckResult, Strategy.LIVE));
+    }
+
+    private static FraudCheckScoringRules scoringRules(int noFileFoundThreshold) {
+        int[] noFileFoundThresholds = new int[Strategy.values().length];
+        Arrays.fill(noFileFoundThresholds, noFileFoundThreshold);
+
+        return FraudCheckScoringRules.compile(List.of("U001"), noFileFoundThresholds);
+    }
+
+    private static FraudCheckResult fraudCheckResult(
+            int decisionScore, Integer oldestRecordDateInMonths, String... thirdPartyFraudCodes) {
+        FraudCheckResult fraudCheckResult = new FraudCheckResult();
+        fraudCheckResult.setDecisionScore(decisionScore);
+        fraudCheckResult.setOldestRecordDateInMonths(oldestRecordDateInMonths);
+        fraudCheckResult.setThirdPartyFraudCodes(thirdPartyFraudCodes);
+        fraudCheckResult.setExecutedSuccessfully(true);
+        fraudCheckResult.setTransactionId("123456789");
+        return fraudCheckResult;
+    }
+}
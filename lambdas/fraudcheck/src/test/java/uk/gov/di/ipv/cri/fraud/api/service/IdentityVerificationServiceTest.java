@@ -15,7 +15,6 @@ import uk.gov.di.ipv.cri.common.library.domain.AuditEventType;
 import uk.gov.di.ipv.cri.common.library.domain.personidentity.PersonIdentity;
 import uk.gov.di.ipv.cri.common.library.exception.SqsException;
 import uk.gov.di.ipv.cri.common.library.persistence.item.SessionItem;
-import uk.gov.di.ipv.cri.common.library.service.AuditService;
 import uk.gov.di.ipv.cri.common.library.util.EventProbe;
 import uk.gov.di.ipv.cri.fraud.api.domain.IdentityVerificationResult;
 import uk.gov.di.ipv.cri.fraud.api.domain.ValidationResult;
@@ -27,22 +26,30 @@ import uk.gov.di.ipv.cri.fraud.api.gateway.ThirdPartyPepGateway;
 import uk.gov.di.ipv.cri.fraud.api.util.TestDataCreator;
 import uk.gov.di.ipv.cri.fraud.library.error.ErrorResponse;
 import uk.gov.di.ipv.cri.fraud.library.exception.OAuthErrorResponseException;
+import uk.gov.di.ipv.cri.fraud.library.service.AuditEventDispatcher;
 import uk.gov.di.ipv.cri.fraud.library.service.ServiceFactory;
 import uk.gov.di.ipv.cri.fraud.library.strategy.Strategy;
+import uk.gov.di.ipv.cri.fraud.library.util.InvocationDeadline;
+import uk.org.webcompere.systemstubs.environment.EnvironmentVariables;
+import uk.org.webcompere.systemstubs.jupiter.SystemStub;
+import uk.org.webcompere.systemstubs.jupiter.SystemStubsExtension;
 
 import java.io.IOException;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.lenient;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -55,16 +62,22 @@ import static uk.gov.di.ipv.cri.fraud.library.metrics.Definitions.FRAUD_CHECK_RE
 import static uk.gov.di.ipv.cri.fraud.library.metrics.Definitions.IDENTITY_CHECK_SCORE_PREFIX;
 import static uk.gov.di.ipv.cri.fraud.library.metrics.Definitions.PEP_CHECK_REQUEST_FAILED;
 import static uk.gov.di.ipv.cri.fraud.library.metrics.Definitions.PEP_CHECK_REQUEST_SUCCEEDED;
+import static uk.gov.di.ipv.cri.fraud.library.metrics.Definitions.PEP_CHECK_SPECULATIVE_DISPATCHED;
+import static uk.gov.di.ipv.cri.fraud.library.metrics.Definitions.PEP_CHECK_SPECULATIVE_USED;
+import static uk.gov.di.ipv.cri.fraud.library.metrics.Definitions.PEP_CHECK_SPECULATIVE_WASTED;
 import static uk.gov.di.ipv.cri.fraud.library.metrics.Definitions.PERSON_DETAILS_VALIDATION_PASS;
 
 @ExtendWith(MockitoExtension.class)
+@ExtendWith(SystemStubsExtension.class)
 class IdentityVerificationServiceTest {
 
+    @SystemStub private EnvironmentVariables environmentVariables;
+
     @Mock private ServiceFactory mockServiceFactory;
 
     @Mock private ObjectMapper mockObjectMapper;
     @Mock private EventProbe mockEventProbe;
-    @Mock private AuditService mockAuditService;
+    @Mock private AuditEventDispatcher mockAuditEventDispatcher;
 
     @Mock private ThirdPartyAPIServiceFactory mockThirdPartyAPIServiceFactory;
 
@@ -74,7 +87,6 @@ class IdentityVerificationServiceTest {
 
     @Mock private PersonIdentityValidator personIdentityValidator;
     @Mock private ContraIndicatorMapper mockContraindicationMapper;
-    @Mock private ActivityHistoryScoreCalculator mockActivityHistoryScoreCalculator;
 
     @Mock private FraudCheckConfigurationService mockFraudCheckConfigurationService;
 
@@ -87,13 +99,15 @@ class IdentityVerificationServiceTest {
 
     @BeforeEach
     void setup() {
-        // Tests rely on real IdentityScoreCalculator not mock
-        when(mockFraudCheckConfigurationService.getZeroScoreUcodes())
-                .thenReturn(List.of("zero-score-ucode"));
+        // Tests rely on real scoring rules not a mock
+        // which are only read once a fraud check has succeeded
+        lenient()
+                .when(mockFraudCheckConfigurationService.getScoringRules())
+                .thenReturn(scoringRules(0));
 
         when(mockServiceFactory.getObjectMapper()).thenReturn(mockObjectMapper);
         when(mockServiceFactory.getEventProbe()).thenReturn(mockEventProbe);
-        when(mockServiceFactory.getAuditService()).thenReturn(mockAuditService);
+        when(mockServiceFactory.getAuditEventDispatcher()).thenReturn(mockAuditEventDispatcher);
 
         when(mockThirdPartyAPIServiceFactory.getTokenRequestService())
                 .thenReturn(mockTokenRequestService);
@@ -108,7 +122,6 @@ class IdentityVerificationServiceTest {
                         mockThirdPartyAPIServiceFactory,
                         personIdentityValidator,
                         mockContraindicationMapper,
-                        mockActivityHistoryScoreCalculator,
                         mockFraudCheckConfigurationService);
     }
 
@@ -145,8 +158,7 @@ class IdentityVerificationServiceTest {
         when(personIdentityValidator.validate(testPersonIdentity))
                 .thenReturn(ValidationResult.createValidResult());
 
-        when(mockFraudCheckConfigurationService.getNoFileFoundThreshold(any(Strategy.class)))
-                .thenReturn(35);
+        when(mockFraudCheckConfigurationService.getScoringRules()).thenReturn(scoringRules(35));
 
         when(mockThirdPartyFraudGateway.performFraudCheck(
                         eq(testPersonIdentity), eq(TEST_ACCESS_TOKEN), any(Strategy.class)))
@@ -154,8 +166,6 @@ class IdentityVerificationServiceTest {
         when(mockContraindicationMapper.mapThirdPartyFraudCodes(thirdPartyFraudCodes))
                 .thenReturn(mappedFraudCodes);
 
-        when(mockActivityHistoryScoreCalculator.calculateActivityHistoryScore(null)).thenReturn(0);
-
         IdentityVerificationResult result =
                 this.identityVerificationService.verifyIdentity(
                         testPersonIdentity, sessionItem, requestHeaders);
@@ -234,8 +244,6 @@ class IdentityVerificationServiceTest {
         when(mockContraindicationMapper.mapThirdPartyFraudCodes(thirdPartyPEPCodes))
                 .thenReturn(mappedPEPCodes);
 
-        when(mockActivityHistoryScoreCalculator.calculateActivityHistoryScore(366)).thenReturn(1);
-
         IdentityVerificationResult result =
                 this.identityVerificationService.verifyIdentity(
                         testPersonIdentity, sessionItem, requestHeaders);
@@ -352,8 +360,8 @@ class IdentityVerificationServiceTest {
         when(personIdentityValidator.validate(testPersonIdentity))
                 .thenReturn(ValidationResult.createValidResult());
 
-        when(mockFraudCheckConfigurationService.getNoFileFoundThreshold(Strategy.NO_CHANGE))
-                .thenReturn(noFileFoundThreshold);
+        when(mockFraudCheckConfigurationService.getScoringRules())
+                .thenReturn(scoringRules(noFileFoundThreshold));
 
         if (zeroScoreUCodePresent) {
             // Make the sample thirdPartyFraudCodes uCode a zero score one
@@ -428,8 +436,8 @@ class IdentityVerificationServiceTest {
                     result.getChecksSucceeded(), result.getChecksFailed());
         }
 
-        verify(mockAuditService)
-                .sendAuditEvent(
+        verify(mockAuditEventDispatcher)
+                .dispatch(
                         eq(AuditEventType.RESPONSE_RECEIVED),
                         any(AuditEventContext.class),
                         eq(new TPREFraudAuditExtension(result.getThirdPartyFraudCodes())));
@@ -543,8 +551,8 @@ class IdentityVerificationServiceTest {
         when(personIdentityValidator.validate(testPersonIdentity))
                 .thenReturn(ValidationResult.createValidResult());
 
-        when(mockFraudCheckConfigurationService.getNoFileFoundThreshold(Strategy.NO_CHANGE))
-                .thenReturn(noFileFoundThreshold);
+        when(mockFraudCheckConfigurationService.getScoringRules())
+                .thenReturn(scoringRules(noFileFoundThreshold));
 
         when(mockThirdPartyFraudGateway.performFraudCheck(
                         testPersonIdentity, TEST_ACCESS_TOKEN, Strategy.NO_CHANGE))
@@ -552,8 +560,6 @@ class IdentityVerificationServiceTest {
         when(mockContraindicationMapper.mapThirdPartyFraudCodes(thirdPartyFraudCodes))
                 .thenReturn(mappedFraudCodes);
 
-        when(mockActivityHistoryScoreCalculator.calculateActivityHistoryScore(366)).thenReturn(1);
-
         if (errorType.equals("OAuthErrorResponseException")) {
             when(mockThirdPartyPepGateway.performPepCheck(
                             testPersonIdentity, TEST_ACCESS_TOKEN, Strategy.NO_CHANGE))
@@ -612,6 +618,269 @@ class IdentityVerificationServiceTest {
         assertEquals(expectedIdentityFraudScore, result.getIdentityCheckScore());
     }
 
+    @Test
+    void verifyIdentityShouldUseSpeculativePepCheckResultWhenFraudCheckPasses()
+            throws IOException, SqsException, OAuthErrorResponseException {
+
+        environmentVariables.set("ENV_VAR_FEATURE_FLAG_SPECULATIVE_PEP_CHECK", "true");
+        IdentityVerificationService speculativeIdentityVerificationService =
+                createIdentityVerificationService();
+
+        when(sessionItem.getClientId()).thenReturn("ipv-core");
+
+        when(mockTokenRequestService.requestToken(eq(false), any(Strategy.class)))
+                .thenReturn(TEST_ACCESS_TOKEN);
+
+        PersonIdentity testPersonIdentity = TestDataCreator.createTestPersonIdentity();
+
+        FraudCheckResult testFraudCheckResult = new FraudCheckResult();
+        testFraudCheckResult.setExecutedSuccessfully(true);
+        testFraudCheckResult.setDecisionScore(60);
+        testFraudCheckResult.setOldestRecordDateInMonths(366);
+
+        PepCheckResult testPEPCheckResult = new PepCheckResult();
+        testPEPCheckResult.setExecutedSuccessfully(true);
+
+        String[] thirdPartyFraudCodes = new String[] {"sample-f-code"};
+        String[] mappedFraudCodes = new String[] {"mapped-f-code"};
+        String[] thirdPartyPEPCodes = new String[] {"sample-p-code"};
+        String[] mappedPEPCodes = new String[] {"mapped-p-code"};
+        testFraudCheckResult.setThirdPartyFraudCodes(thirdPartyFraudCodes);
+        testPEPCheckResult.setThirdPartyFraudCodes(thirdPartyPEPCodes);
+
+        when(personIdentityValidator.validate(testPersonIdentity))
+                .thenReturn(ValidationResult.createValidResult());
+
+        when(mockThirdPartyFraudGateway.performFraudCheck(
+                        eq(testPersonIdentity), eq(TEST_ACCESS_TOKEN), any(Strategy.class)))
+                .thenReturn(testFraudCheckResult);
+        when(mockContraindicationMapper.mapThirdPartyFraudCodes(thirdPartyFraudCodes))
+                .thenReturn(mappedFraudCodes);
+
+        when(mockThirdPartyPepGateway.performPepCheck(
+                        eq(testPersonIdentity), eq(TEST_ACCESS_TOKEN), any(Strategy.class)))
+                .thenReturn(testPEPCheckResult);
+        when(mockContraindicationMapper.mapThirdPartyFraudCodes(thirdPartyPEPCodes))
+                .thenReturn(mappedPEPCodes);
+
+        IdentityVerificationResult result =
+                speculativeIdentityVerificationService.verifyIdentity(
+                        testPersonIdentity, sessionItem, requestHeaders);
+
+        InOrder inOrder = inOrder(mockEventProbe);
+
+        inOrder.verify(mockEventProbe).counterMetric(PERSON_DETAILS_VALIDATION_PASS);
+        inOrder.verify(mockEventProbe).counterMetric(PEP_CHECK_SPECULATIVE_DISPATCHED);
+        inOrder.verify(mockEventProbe).counterMetric(FRAUD_CHECK_REQUEST_SUCCEEDED);
+        inOrder.verify(mockEventProbe).counterMetric(PEP_CHECK_SPECULATIVE_USED);
+        inOrder.verify(mockEventProbe).counterMetric(PEP_CHECK_REQUEST_SUCCEEDED);
+        inOrder.verify(mockEventProbe).counterMetric(IDENTITY_CHECK_SCORE_PREFIX + 2);
+        verify(mockEventProbe, never()).counterMetric(PEP_CHECK_SPECULATIVE_WASTED);
+
+        assertNotNull(result);
+        assertTrue(result.isSuccess());
+        assertEquals(2, result.getIdentityCheckScore());
+        assertEquals(mappedFraudCodes[0], result.getContraIndicators().get(0));
+        assertEquals(mappedPEPCodes[0], result.getContraIndicators().get(1));
+        assertAllChecksSucceed(result.getChecksSucceeded(), result.getChecksFailed());
+
+        // Only the speculative request is sent
+        verify(mockThirdPartyPepGateway)
+                .performPepCheck(
+                        eq(testPersonIdentity), eq(TEST_ACCESS_TOKEN), any(Strategy.class));
+    }
+
+    @Test
+    void verifyIdentityShouldDiscardSpeculativePepCheckResultWhenFraudCheckFails()
+            throws IOException, SqsException, OAuthErrorResponseException {
+
+        environmentVariables.set("ENV_VAR_FEATURE_FLAG_SPECULATIVE_PEP_CHECK", "true");
+        IdentityVerificationService speculativeIdentityVerificationService =
+                createIdentityVerificationService();
+
+        when(sessionItem.getClientId()).thenReturn("ipv-core");
+
+        when(mockTokenRequestService.requestToken(eq(false), any(Strategy.class)))
+                .thenReturn(TEST_ACCESS_TOKEN);
+
+        PersonIdentity testPersonIdentity = TestDataCreator.createTestPersonIdentity();
+
+        FraudCheckResult testFraudCheckResult = new FraudCheckResult();
+        testFraudCheckResult.setExecutedSuccessfully(true);
+        testFraudCheckResult.setDecisionScore(35);
+
+        String[] thirdPartyFraudCodes = new String[] {"sample-f-code"};
+        String[] mappedFraudCodes = new String[] {"mapped-f-code"};
+        testFraudCheckResult.setThirdPartyFraudCodes(thirdPartyFraudCodes);
+
+        when(personIdentityValidator.validate(testPersonIdentity))
+                .thenReturn(ValidationResult.createValidResult());
+
+        when(mockFraudCheckConfigurationService.getScoringRules()).thenReturn(scoringRules(35));
+
+        when(mockThirdPartyFraudGateway.performFraudCheck(
+                        eq(testPersonIdentity), eq(TEST_ACCESS_TOKEN), any(Strategy.class)))
+                .thenReturn(testFraudCheckResult);
+        when(mockContraindicationMapper.mapThirdPartyFraudCodes(thirdPartyFraudCodes))
+                .thenReturn(mappedFraudCodes);
+
+        // The speculative request may be cancelled before it reaches the gateway
+        lenient()
+                .when(
+                        mockThirdPartyPepGateway.performPepCheck(
+                                eq(testPersonIdentity),
+                                eq(TEST_ACCESS_TOKEN),
+                                any(Strategy.class)))
+                .thenReturn(new PepCheckResult());
+
+        IdentityVerificationResult result =
+                speculativeIdentityVerificationService.verifyIdentity(
+                        testPersonIdentity, sessionItem, requestHeaders);
+
+        InOrder inOrder = inOrder(mockEventProbe);
+
+        inOrder.verify(mockEventProbe).counterMetric(PERSON_DETAILS_VALIDATION_PASS);
+        inOrder.verify(mockEventProbe).counterMetric(PEP_CHECK_SPECULATIVE_DISPATCHED);
+        inOrder.verify(mockEventProbe).counterMetric(FRAUD_CHECK_REQUEST_SUCCEEDED);
+        inOrder.verify(mockEventProbe).counterMetric(PEP_CHECK_SPECULATIVE_WASTED);
+        verify(mockEventProbe, never()).counterMetric(PEP_CHECK_SPECULATIVE_USED);
+        verify(mockEventProbe, never()).counterMetric(PEP_CHECK_REQUEST_SUCCEEDED);
+
+        assertNotNull(result);
+        assertTrue(result.isSuccess());
+        assertEquals(0, result.getIdentityCheckScore());
+        assertEquals(1, result.getContraIndicators().size());
+        assertEquals(mappedFraudCodes[0], result.getContraIndicators().get(0));
+        assertAllFraudChecksFailAndPepNotPresent(
+                result.getChecksSucceeded(), result.getChecksFailed());
+    }
+
+    @Test
+    void verifyIdentityShouldDiscardSpeculativePepCheckWhenFraudCheckStepThrows()
+            throws IOException, OAuthErrorResponseException {
+
+        environmentVariables.set("ENV_VAR_FEATURE_FLAG_SPECULATIVE_PEP_CHECK", "true");
+        IdentityVerificationService speculativeIdentityVerificationService =
+                createIdentityVerificationService();
+
+        when(sessionItem.getClientId()).thenReturn("ipv-core");
+
+        when(mockTokenRequestService.requestToken(eq(false), any(Strategy.class)))
+                .thenReturn(TEST_ACCESS_TOKEN);
+
+        PersonIdentity testPersonIdentity = TestDataCreator.createTestPersonIdentity();
+
+        FraudCheckResult testFraudCheckResult = new FraudCheckResult();
+        testFraudCheckResult.setExecutedSuccessfully(true);
+        testFraudCheckResult.setDecisionScore(60);
+
+        String[] thirdPartyFraudCodes = new String[] {"sample-f-code"};
+        testFraudCheckResult.setThirdPartyFraudCodes(thirdPartyFraudCodes);
+
+        when(personIdentityValidator.validate(testPersonIdentity))
+                .thenReturn(ValidationResult.createValidResult());
+
+        when(mockThirdPartyFraudGateway.performFraudCheck(
+                        eq(testPersonIdentity), eq(TEST_ACCESS_TOKEN), any(Strategy.class)))
+                .thenReturn(testFraudCheckResult);
+        when(mockContraindicationMapper.mapThirdPartyFraudCodes(thirdPartyFraudCodes))
+                .thenThrow(new IllegalStateException("mapping failed"));
+
+        // The speculative request may be cancelled before it reaches the gateway
+        lenient()
+                .when(
+                        mockThirdPartyPepGateway.performPepCheck(
+                                eq(testPersonIdentity),
+                                eq(TEST_ACCESS_TOKEN),
+                                any(Strategy.class)))
+                .thenReturn(new PepCheckResult());
+
+        assertThrows(
+                IllegalStateException.class,
+                () ->
+                        speculativeIdentityVerificationService.verifyIdentity(
+                                testPersonIdentity, sessionItem, requestHeaders));
+
+        verify(mockEventProbe).counterMetric(PEP_CHECK_SPECULATIVE_DISPATCHED);
+        verify(mockEventProbe).counterMetric(PEP_CHECK_SPECULATIVE_WASTED);
+        verify(mockEventProbe, never()).counterMetric(PEP_CHECK_SPECULATIVE_USED);
+    }
+
+    @Test
+    void verifyIdentityShouldFailPepCheckWhenSpeculativePepCheckPassesTheInvocationDeadline()
+            throws IOException, SqsException, OAuthErrorResponseException {
+
+        environmentVariables.set("ENV_VAR_FEATURE_FLAG_SPECULATIVE_PEP_CHECK", "true");
+        IdentityVerificationService speculativeIdentityVerificationService =
+                createIdentityVerificationService();
+
+        when(sessionItem.getClientId()).thenReturn("ipv-core");
+
+        when(mockTokenRequestService.requestToken(eq(false), any(Strategy.class)))
+                .thenReturn(TEST_ACCESS_TOKEN);
+
+        PersonIdentity testPersonIdentity = TestDataCreator.createTestPersonIdentity();
+
+        FraudCheckResult testFraudCheckResult = new FraudCheckResult();
+        testFraudCheckResult.setExecutedSuccessfully(true);
+        testFraudCheckResult.setDecisionScore(60);
+
+        String[] thirdPartyFraudCodes = new String[] {"sample-f-code"};
+        String[] mappedFraudCodes = new String[] {"mapped-f-code"};
+        testFraudCheckResult.setThirdPartyFraudCodes(thirdPartyFraudCodes);
+
+        when(personIdentityValidator.validate(testPersonIdentity))
+                .thenReturn(ValidationResult.createValidResult());
+
+        when(mockThirdPartyFraudGateway.performFraudCheck(
+                        eq(testPersonIdentity), eq(TEST_ACCESS_TOKEN), any(Strategy.class)))
+                .thenReturn(testFraudCheckResult);
+        when(mockContraindicationMapper.mapThirdPartyFraudCodes(thirdPartyFraudCodes))
+                .thenReturn(mappedFraudCodes);
+
+        // Outlasts the deadline, the await gives up and cancels it
+        when(mockThirdPartyPepGateway.performPepCheck(
+                        eq(testPersonIdentity), eq(TEST_ACCESS_TOKEN), any(Strategy.class)))
+                .thenAnswer(
+                        invocation -> {
+                            Thread.sleep(5000);
+                            return new PepCheckResult();
+                        });
+
+        InvocationDeadline.start(InvocationDeadline.SAFETY_MARGIN_MS + 200);
+        IdentityVerificationResult result;
+        try {
+            result =
+                    speculativeIdentityVerificationService.verifyIdentity(
+                            testPersonIdentity, sessionItem, requestHeaders);
+        } finally {
+            InvocationDeadline.clear();
+        }
+
+        verify(mockEventProbe).counterMetric(PEP_CHECK_SPECULATIVE_USED);
+        verify(mockEventProbe).counterMetric(PEP_CHECK_REQUEST_FAILED);
+
+        assertTrue(result.isSuccess());
+        assertEquals(1, result.getIdentityCheckScore());
+        assertTrue(result.getChecksFailed().contains(IMPERSONATION_RISK_CHECK.toString()));
+    }
+
+    private IdentityVerificationService createIdentityVerificationService() {
+        return new IdentityVerificationService(
+                mockServiceFactory,
+                mockThirdPartyAPIServiceFactory,
+                personIdentityValidator,
+                mockContraindicationMapper,
+                mockFraudCheckConfigurationService);
+    }
+
+    private static FraudCheckScoringRules scoringRules(int noFileFoundThreshold) {
+        int[] noFileFoundThresholds = new int[Strategy.values().length];
+        Arrays.fill(noFileFoundThresholds, noFileFoundThreshold);
+
+        return FraudCheckScoringRules.compile(List.of("zero-score-ucode"), noFileFoundThresholds);
+    }
+
     private void assertAllChecksSucceed(List<String> checksSucceeded, List<String> checksFailed) {
 
         // Checks Expected for DecisionScore > 35 and Pep success
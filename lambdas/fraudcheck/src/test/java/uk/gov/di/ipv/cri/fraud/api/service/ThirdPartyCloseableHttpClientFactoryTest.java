@@ -0,0 +1,141 @@
+package uk.gov.di.ipv.cri.fraud.api.service;
+
+import org.apache.http.HttpException;
+import org.apache.http.HttpHost;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.ssl.SSLContexts;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.NullSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static uk.gov.di.ipv.cri.fraud.api.service.ThirdPartyCloseableHttpClientFactory.DEFAULT_MAX_CONNECTIONS_PER_ROUTE;
+import static uk.gov.di.ipv.cri.fraud.api.service.ThirdPartyCloseableHttpClientFactory.PREWARM_HANDSHAKE_SOCKET_TIMEOUT_MS;
+import static uk.gov.di.ipv.cri.fraud.api.service.ThirdPartyCloseableHttpClientFactory.VALIDATE_AFTER_INACTIVITY_MS;
+
+class ThirdPartyCloseableHttpClientFactoryTest {
+
+    private static final int TEST_MAX_TOTAL = 8;
+    private static final int TEST_MAX_PER_THIRD_PARTY_ROUTE = 3;
+
+    private final ThirdPartyCloseableHttpClientFactory thirdPartyCloseableHttpClientFactory =
+            new ThirdPartyCloseableHttpClientFactory(
+                    TEST_MAX_TOTAL, TEST_MAX_PER_THIRD_PARTY_ROUTE);
+
+    @Test
+    void shouldGenerateTLSHttpClient() {
+        CloseableHttpClient closeableHttpClient =
+                assertDoesNotThrow(
+                        () ->
+                                thirdPartyCloseableHttpClientFactory.generateTLSHttpClient(
+                                        List.of("https://localhost/token")));
+
+        assertNotNull(closeableHttpClient);
+    }
+
+    @Test
+    void shouldCreateConnectionManagerWithThirdPartyRouteLimits() {
+        PoolingHttpClientConnectionManager connectionManager =
+                thirdPartyCloseableHttpClientFactory.createConnectionManager(
+                        SSLContexts.createDefault(),
+                        Arrays.asList(
+                                "https://token.localhost/oauth2/token",
+                                "https://crosscore.localhost:8443/services/v3",
+                                null,
+                                "not a url"));
+
+        assertEquals(TEST_MAX_TOTAL, connectionManager.getMaxTotal());
+        assertEquals(DEFAULT_MAX_CONNECTIONS_PER_ROUTE, connectionManager.getDefaultMaxPerRoute());
+        assertEquals(VALIDATE_AFTER_INACTIVITY_MS, connectionManager.getValidateAfterInactivity());
+
+        assertEquals(
+                TEST_MAX_PER_THIRD_PARTY_ROUTE,
+                connectionManager.getMaxPerRoute(
+                        new HttpRoute(new HttpHost("token.localhost", 443, "https"), null, true)));
+        assertEquals(
+                TEST_MAX_PER_THIRD_PARTY_ROUTE,
+                connectionManager.getMaxPerRoute(
+                        new HttpRoute(
+                                new HttpHost("crosscore.localhost", 8443, "https"), null, true)));
+        assertEquals(
+                DEFAULT_MAX_CONNECTIONS_PER_ROUTE,
+                connectionManager.getMaxPerRoute(
+                        new HttpRoute(new HttpHost("other.localhost", 443, "https"), null, true)));
+    }
+
+    @ParameterizedTest
+    @NullSource
+    @ValueSource(strings = {"", "not a url", "/relative/path", "https://"})
+    void shouldNotCreateRouteForInvalidEndpoint(String endpoint) {
+        assertNull(ThirdPartyCloseableHttpClientFactory.createRoute(endpoint));
+    }
+
+    @Test
+    void shouldNotPrewarmConnectionsWhenNoClientGenerated() {
+        assertEquals(
+                0,
+                thirdPartyCloseableHttpClientFactory.prewarmConnections(
+                        List.of("http://localhost/token")));
+    }
+
+    @Test
+    void shouldPrewarmOneConnectionPerHost() throws IOException, HttpException {
+        try (ServerSocket serverSocket = new ServerSocket(0)) {
+            String endpoint = "http://localhost:" + serverSocket.getLocalPort();
+            List<String> endpoints = List.of(endpoint + "/token", endpoint + "/fraud");
+
+            thirdPartyCloseableHttpClientFactory.generateTLSHttpClient(endpoints);
+
+            assertEquals(1, thirdPartyCloseableHttpClientFactory.prewarmConnections(endpoints));
+        }
+    }
+
+    @Test
+    void shouldNotCountHostsThatCannotBeConnectedTo() throws IOException, HttpException {
+        int closedPort;
+        try (ServerSocket serverSocket = new ServerSocket(0)) {
+            closedPort = serverSocket.getLocalPort();
+        }
+        List<String> endpoints = List.of("http://localhost:" + closedPort + "/token");
+
+        thirdPartyCloseableHttpClientFactory.generateTLSHttpClient(endpoints);
+
+        assertEquals(0, thirdPartyCloseableHttpClientFactory.prewarmConnections(endpoints));
+    }
+
+    @Test
+    void shouldSkipHostsStillPendingWhenThePrewarmBudgetRunsOut()
+            throws IOException, HttpException {
+        // Accepts the connection but never answers the TLS handshake
+        try (ServerSocket slowServerSocket = new ServerSocket(0);
+                ServerSocket serverSocket = new ServerSocket(0)) {
+            List<String> endpoints =
+                    List.of(
+                            "https://localhost:" + slowServerSocket.getLocalPort() + "/token",
+                            "http://localhost:" + serverSocket.getLocalPort() + "/fraud");
+
+            thirdPartyCloseableHttpClientFactory.generateTLSHttpClient(endpoints);
+
+            long startNanos = System.nanoTime();
+            int prewarmedRoutes =
+                    thirdPartyCloseableHttpClientFactory.prewarmConnections(endpoints);
+            long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+
+            assertEquals(1, prewarmedRoutes);
+            assertTrue(elapsedMillis < PREWARM_HANDSHAKE_SOCKET_TIMEOUT_MS);
+        }
+    }
+}
@@ -27,14 +27,17 @@ import uk.gov.di.ipv.cri.fraud.library.exception.OAuthErrorResponseException;
 import uk.gov.di.ipv.cri.fraud.library.service.HttpRetryer;
 import uk.gov.di.ipv.cri.fraud.library.strategy.Strategy;
 import uk.gov.di.ipv.cri.fraud.library.util.HTTPReply;
+import uk.gov.di.ipv.cri.fraud.library.util.JsonCodecRegistry;
 
 import java.io.IOException;
 import java.time.Instant;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.Map;
 import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
@@ -44,11 +47,18 @@ import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
 import static uk.gov.di.ipv.cri.fraud.api.service.TokenRequestService.TOKEN_ITEM_ID;
 import static uk.gov.di.ipv.cri.fraud.library.metrics.ThirdPartyAPIEndpointMetric.TOKEN_REQUEST_CREATED;
+import static uk.gov.di.ipv.cri.fraud.library.metrics.ThirdPartyAPIEndpointMetric.TOKEN_REQUEST_L1_CACHE_HIT;
+import static uk.gov.di.ipv.cri.fraud.library.metrics.ThirdPartyAPIEndpointMetric.TOKEN_REQUEST_L1_CACHE_MISS;
+import static uk.gov.di.ipv.cri.fraud.library.metrics.ThirdPartyAPIEndpointMetric.TOKEN_REQUEST_REFRESH_AHEAD_ALREADY_REFRESHED;
+import static uk.gov.di.ipv.cri.fraud.library.metrics.ThirdPartyAPIEndpointMetric.TOKEN_REQUEST_REFRESH_AHEAD_LEASE_UNAVAILABLE;
+import static uk.gov.di.ipv.cri.fraud.library.metrics.ThirdPartyAPIEndpointMetric.TOKEN_REQUEST_REFRESH_AHEAD_STARTED;
 import static uk.gov.di.ipv.cri.fraud.library.metrics.ThirdPartyAPIEndpointMetric.TOKEN_REQUEST_REUSING_CACHED_TOKEN;
 import static uk.gov.di.ipv.cri.fraud.library.metrics.ThirdPartyAPIEndpointMetric.TOKEN_REQUEST_SEND_ERROR;
 import static uk.gov.di.ipv.cri.fraud.library.metrics.ThirdPartyAPIEndpointMetric.TOKEN_REQUEST_SEND_OK;
@@ -125,7 +135,7 @@ class TokenRequestServiceTest {
                         mockDynamoDbEnhancedClient,
                         mockHttpRetryer,
                         mockRequestConfig,
-                        realObjectMapper,
+                        new JsonCodecRegistry(realObjectMapper),
                         mockEventProbe);
     }
 
@@ -159,6 +169,9 @@ class TokenRequestServiceTest {
         verifyNoMoreInteractions(mockHttpRetryer);
 
         InOrder inOrderMockEventProbeSequence = inOrder(mockEventProbe);
+        inOrderMockEventProbeSequence
+                .verify(mockEventProbe, times(1))
+                .counterMetric(TOKEN_REQUEST_L1_CACHE_MISS.withEndpointPrefix());
         inOrderMockEventProbeSequence
                 .verify(mockEventProbe)
                 .counterMetric(TOKEN_REQUEST_CREATED.withEndpointPrefix());
@@ -213,6 +226,9 @@ class TokenRequestServiceTest {
         verifyNoMoreInteractions(mockHttpRetryer);
 
         InOrder inOrderMockEventProbeSequence = inOrder(mockEventProbe);
+        inOrderMockEventProbeSequence
+                .verify(mockEventProbe, times(1))
+                .counterMetric(TOKEN_REQUEST_L1_CACHE_MISS.withEndpointPrefix());
         inOrderMockEventProbeSequence
                 .verify(mockEventProbe)
                 .counterMetric(TOKEN_REQUEST_CREATED.withEndpointPrefix());
@@ -265,6 +281,9 @@ class TokenRequestServiceTest {
         verifyNoMoreInteractions(mockHttpRetryer);
 
         InOrder inOrderMockEventProbeSequence = inOrder(mockEventProbe);
+        inOrderMockEventProbeSequence
+                .verify(mockEventProbe, times(1))
+                .counterMetric(TOKEN_REQUEST_L1_CACHE_MISS.withEndpointPrefix());
         inOrderMockEventProbeSequence
                 .verify(mockEventProbe)
                 .counterMetric(TOKEN_REQUEST_CREATED.withEndpointPrefix());
@@ -322,6 +341,9 @@ class TokenRequestServiceTest {
         verifyNoMoreInteractions(mockHttpRetryer);
 
         InOrder inOrderMockEventProbeSequence = inOrder(mockEventProbe);
+        inOrderMockEventProbeSequence
+                .verify(mockEventProbe, times(1))
+                .counterMetric(TOKEN_REQUEST_L1_CACHE_MISS.withEndpointPrefix());
         inOrderMockEventProbeSequence
                 .verify(mockEventProbe)
                 .counterMetric(TOKEN_REQUEST_CREATED.withEndpointPrefix());
@@ -375,6 +397,9 @@ class TokenRequestServiceTest {
         verifyNoMoreInteractions(mockHttpRetryer);
 
         InOrder inOrderMockEventProbeSequence = inOrder(mockEventProbe);
+        inOrderMockEventProbeSequence
+                .verify(mockEventProbe, times(1))
+                .counterMetric(TOKEN_REQUEST_L1_CACHE_MISS.withEndpointPrefix());
         inOrderMockEventProbeSequence
                 .verify(mockEventProbe)
                 .counterMetric(TOKEN_REQUEST_CREATED.withEndpointPrefix());
@@ -428,10 +453,7 @@ class TokenRequestServiceTest {
         String tokenResponseOne = tokenRequestService.requestToken(false, Strategy.NO_CHANGE);
         assertEquals(TEST_TOKEN_VALID_VALUE, tokenResponseOne);
 
-        // Request two
-        TokenItem testTokenFromDynamo = dynamoPutItemTokenItemCaptor.getValue();
-        // Captured token get
-        when(mockTokenTable.getItem(TOKEN_ITEM_KEY)).thenReturn(testTokenFromDynamo);
+        // Request two - served from the lambda token cache, table is not read again
         String tokenResponseTwo = tokenRequestService.requestToken(false, Strategy.NO_CHANGE);
 
         assertEquals(tokenResponseOne, tokenResponseTwo);
@@ -446,6 +468,9 @@ class TokenRequestServiceTest {
 
         // Times 1 here is important - token is cached
         InOrder inOrderMockEventProbeSequence = inOrder(mockEventProbe);
+        inOrderMockEventProbeSequence
+                .verify(mockEventProbe, times(1))
+                .counterMetric(TOKEN_REQUEST_L1_CACHE_MISS.withEndpointPrefix());
         inOrderMockEventProbeSequence
                 .verify(mockEventProbe, times(1))
                 .counterMetric(TOKEN_REQUEST_CREATED.withEndpointPrefix());
@@ -461,10 +486,16 @@ class TokenRequestServiceTest {
         inOrderMockEventProbeSequence
                 .verify(mockEventProbe, times(1))
                 .counterMetric(TOKEN_RESPONSE_TYPE_VALID.withEndpointPrefix());
+        inOrderMockEventProbeSequence
+                .verify(mockEventProbe, times(1))
+                .counterMetric(TOKEN_REQUEST_L1_CACHE_HIT.withEndpointPrefix());
         inOrderMockEventProbeSequence
                 .verify(mockEventProbe, times(1))
                 .counterMetric(TOKEN_REQUEST_REUSING_CACHED_TOKEN.withEndpointPrefix());
         verifyNoMoreInteractions(mockEventProbe);
+
+        // Request one table read only
+        verify(mockTokenTable, times(1)).getItem(TOKEN_ITEM_KEY);
     }
 
     @Test
@@ -518,6 +549,9 @@ class TokenRequestServiceTest {
         // Times 1 here is important - token is cached
         InOrder inOrderMockEventProbeSequence = inOrder(mockEventProbe);
         // Request one
+        inOrderMockEventProbeSequence
+                .verify(mockEventProbe, times(1))
+                .counterMetric(TOKEN_REQUEST_L1_CACHE_MISS.withEndpointPrefix());
         inOrderMockEventProbeSequence
                 .verify(mockEventProbe, times(1))
                 .counterMetric(TOKEN_REQUEST_CREATED.withEndpointPrefix());
@@ -533,7 +567,10 @@ class TokenRequestServiceTest {
         inOrderMockEventProbeSequence
                 .verify(mockEventProbe, times(1))
                 .counterMetric(TOKEN_RESPONSE_TYPE_VALID.withEndpointPrefix());
-        // Request Two
+        // Request Two - lambda cached token is near expiry so the table is checked
+        inOrderMockEventProbeSequence
+                .verify(mockEventProbe, times(1))
+                .counterMetric(TOKEN_REQUEST_L1_CACHE_MISS.withEndpointPrefix());
         inOrderMockEventProbeSequence
                 .verify(mockEventProbe, times(1))
                 .counterMetric(TOKEN_REQUEST_CREATED.withEndpointPrefix());
@@ -591,6 +628,9 @@ class TokenRequestServiceTest {
         verifyNoMoreInteractions(mockHttpRetryer);
 
         InOrder inOrderMockEventProbeSequence = inOrder(mockEventProbe);
+        inOrderMockEventProbeSequence
+                .verify(mockEventProbe, times(1))
+                .counterMetric(TOKEN_REQUEST_L1_CACHE_MISS.withEndpointPrefix());
         inOrderMockEventProbeSequence
                 .verify(mockEventProbe)
                 .counterMetric(TOKEN_REQUEST_CREATED.withEndpointPrefix());
@@ -658,6 +698,9 @@ class TokenRequestServiceTest {
         verifyNoMoreInteractions(mockHttpRetryer);
 
         InOrder inOrderMockEventProbeSequence = inOrder(mockEventProbe);
+        inOrderMockEventProbeSequence
+                .verify(mockEventProbe, times(1))
+                .counterMetric(TOKEN_REQUEST_L1_CACHE_MISS.withEndpointPrefix());
         inOrderMockEventProbeSequence
                 .verify(mockEventProbe)
                 .counterMetric(TOKEN_REQUEST_CREATED.withEndpointPrefix());
@@ -724,6 +767,9 @@ class TokenRequestServiceTest {
         verifyNoMoreInteractions(mockHttpRetryer);
 
         InOrder inOrderMockEventProbeSequence = inOrder(mockEventProbe);
+        inOrderMockEventProbeSequence
+                .verify(mockEventProbe, times(1))
+                .counterMetric(TOKEN_REQUEST_L1_CACHE_MISS.withEndpointPrefix());
         inOrderMockEventProbeSequence
                 .verify(mockEventProbe)
                 .counterMetric(TOKEN_REQUEST_CREATED.withEndpointPrefix());
@@ -751,6 +797,195 @@ class TokenRequestServiceTest {
         assertEquals(expectedReturnedException.getErrorReason(), thrownException.getErrorReason());
     }
 
+    @Test
+    void shouldRefreshTokenAheadOfExpiryWhenRefreshLeaseAcquired()
+            throws IOException, OAuthErrorResponseException {
+
+        when(mockCrosscoreV2Configuration.getTokenIssuer()).thenReturn(TEST_TOKEN_ISSUER);
+
+        LocalTokenRefreshLease tokenRefreshLease = new LocalTokenRefreshLease();
+        // Refresh runs on the calling thread
+        TokenRequestService refreshAheadTokenRequestService =
+                createTokenRequestService(tokenRefreshLease);
+
+        // Token inside the refresh-ahead window but not the expiration window
+        TokenItem testTokenFromDynamo = new TokenItem("current-token");
+        testTokenFromDynamo.setTtl(Instant.now().plusSeconds(400).getEpochSecond());
+        when(mockTokenTable.getItem(TOKEN_ITEM_KEY)).thenReturn(testTokenFromDynamo);
+
+        TokenResponse testTokenResponse =
+                TokenResponse.builder().accessToken(TEST_TOKEN_VALID_VALUE).build();
+        String testTokenResponseString = realObjectMapper.writeValueAsString(testTokenResponse);
+        when(mockHttpRetryer.sendHTTPRequestRetryIfAllowed(
+                        any(HttpPost.class), any(TokenHttpRetryStatusConfig.class), anyString()))
+                .thenReturn(new HTTPReply(200, null, testTokenResponseString));
+
+        ArgumentCaptor<TokenItem> dynamoPutItemTokenItemCaptor =
+                ArgumentCaptor.forClass(TokenItem.class);
+        doNothing().when(mockTokenTable).putItem(dynamoPutItemTokenItemCaptor.capture());
+
+        String tokenValue =
+                refreshAheadTokenRequestService.requestToken(false, Strategy.NO_CHANGE);
+
+        // Current token is still used for this request
+        assertEquals("current-token", tokenValue);
+        assertEquals(
+                TEST_TOKEN_VALID_VALUE, dynamoPutItemTokenItemCaptor.getValue().getTokenValue());
+        assertFalse(
+                tokenRefreshLease.isHeld(
+                        Strategy.NO_CHANGE.name() + TokenRequestService.TOKEN_REFRESH_LEASE_ID));
+
+        InOrder inOrderMockEventProbeSequence = inOrder(mockEventProbe);
+        inOrderMockEventProbeSequence
+                .verify(mockEventProbe)
+                .counterMetric(TOKEN_REQUEST_L1_CACHE_MISS.withEndpointPrefix());
+        inOrderMockEventProbeSequence
+                .verify(mockEventProbe)
+                .counterMetric(TOKEN_REQUEST_REUSING_CACHED_TOKEN.withEndpointPrefix());
+        inOrderMockEventProbeSequence
+                .verify(mockEventProbe)
+                .counterMetric(TOKEN_REQUEST_REFRESH_AHEAD_STARTED.withEndpointPrefix());
+        inOrderMockEventProbeSequence
+                .verify(mockEventProbe)
+                .counterMetric(TOKEN_REQUEST_CREATED.withEndpointPrefix());
+        inOrderMockEventProbeSequence
+                .verify(mockEventProbe)
+                .counterMetric(TOKEN_REQUEST_SEND_OK.withEndpointPrefix());
+        inOrderMockEventProbeSequence
+                .verify(mockEventProbe)
+                .counterMetric(eq(TOKEN_RESPONSE_LATENCY.withEndpointPrefix()), anyDouble());
+        inOrderMockEventProbeSequence
+                .verify(mockEventProbe)
+                .counterMetric(TOKEN_RESPONSE_TYPE_EXPECTED_HTTP_STATUS.withEndpointPrefix());
+        inOrderMockEventProbeSequence
+                .verify(mockEventProbe)
+                .counterMetric(TOKEN_RESPONSE_TYPE_VALID.withEndpointPrefix());
+        verifyNoMoreInteractions(mockEventProbe);
+    }
+
+    @Test
+    void shouldUseStoredTokenWhenAlreadyRefreshedByThePreviousLeaseHolder()
+            throws IOException, OAuthErrorResponseException {
+
+        LocalTokenRefreshLease tokenRefreshLease = new LocalTokenRefreshLease();
+        TokenRequestService refreshAheadTokenRequestService =
+                createTokenRequestService(tokenRefreshLease);
+
+        // This lambda first reads a token inside the refresh-ahead window, by the time it holds
+        // the lease another lambda has stored a renewed token
+        TokenItem staleTokenFromDynamo = new TokenItem("current-token");
+        staleTokenFromDynamo.setTtl(Instant.now().plusSeconds(400).getEpochSecond());
+        TokenItem renewedTokenFromDynamo = new TokenItem("renewed-token");
+        renewedTokenFromDynamo.setTtl(Instant.now().plusSeconds(1500).getEpochSecond());
+        when(mockTokenTable.getItem(TOKEN_ITEM_KEY))
+                .thenReturn(staleTokenFromDynamo)
+                .thenReturn(renewedTokenFromDynamo);
+
+        String tokenValueOne =
+                refreshAheadTokenRequestService.requestToken(false, Strategy.NO_CHANGE);
+        String tokenValueTwo =
+                refreshAheadTokenRequestService.requestToken(false, Strategy.NO_CHANGE);
+
+        assertEquals("current-token", tokenValueOne);
+        // Served from the lambda token cache, updated from the stored token
+        assertEquals("renewed-token", tokenValueTwo);
+        assertFalse(
+                tokenRefreshLease.isHeld(
+                        Strategy.NO_CHANGE.name() + TokenRequestService.TOKEN_REFRESH_LEASE_ID));
+
+        verify(mockHttpRetryer, never())
+                .sendHTTPRequestRetryIfAllowed(
+                        any(HttpPost.class), any(TokenHttpRetryStatusConfig.class), anyString());
+        verify(mockTokenTable, never()).putItem(any(TokenItem.class));
+
+        InOrder inOrderMockEventProbeSequence = inOrder(mockEventProbe);
+        // Request one
+        inOrderMockEventProbeSequence
+                .verify(mockEventProbe)
+                .counterMetric(TOKEN_REQUEST_L1_CACHE_MISS.withEndpointPrefix());
+        inOrderMockEventProbeSequence
+                .verify(mockEventProbe)
+                .counterMetric(TOKEN_REQUEST_REUSING_CACHED_TOKEN.withEndpointPrefix());
+        inOrderMockEventProbeSequence
+                .verify(mockEventProbe)
+                .counterMetric(TOKEN_REQUEST_REFRESH_AHEAD_STARTED.withEndpointPrefix());
+        inOrderMockEventProbeSequence
+                .verify(mockEventProbe)
+                .counterMetric(TOKEN_REQUEST_REFRESH_AHEAD_ALREADY_REFRESHED.withEndpointPrefix());
+        // Request two
+        inOrderMockEventProbeSequence
+                .verify(mockEventProbe)
+                .counterMetric(TOKEN_REQUEST_L1_CACHE_HIT.withEndpointPrefix());
+        inOrderMockEventProbeSequence
+                .verify(mockEventProbe)
+                .counterMetric(TOKEN_REQUEST_REUSING_CACHED_TOKEN.withEndpointPrefix());
+        verifyNoMoreInteractions(mockEventProbe);
+    }
+
+    @Test
+    void shouldContinueUsingCurrentTokenWhenRefreshLeaseHeldByAnotherLambda()
+            throws IOException, OAuthErrorResponseException {
+
+        // Two lambdas sharing the same lease table
+        Map<String, LocalTokenRefreshLease.Lease> sharedLeaseTable = new HashMap<>();
+        LocalTokenRefreshLease otherLambdaLease = new LocalTokenRefreshLease(sharedLeaseTable);
+        otherLambdaLease.tryAcquire(
+                Strategy.NO_CHANGE.name() + TokenRequestService.TOKEN_REFRESH_LEASE_ID, 60L);
+
+        TokenRequestService refreshAheadTokenRequestService =
+                createTokenRequestService(new LocalTokenRefreshLease(sharedLeaseTable));
+
+        TokenItem testTokenFromDynamo = new TokenItem("current-token");
+        testTokenFromDynamo.setTtl(Instant.now().plusSeconds(400).getEpochSecond());
+        when(mockTokenTable.getItem(TOKEN_ITEM_KEY)).thenReturn(testTokenFromDynamo);
+
+        String tokenValueOne =
+                refreshAheadTokenRequestService.requestToken(false, Strategy.NO_CHANGE);
+        // Lease is not retried by this lambda until the lease could have expired
+        String tokenValueTwo =
+                refreshAheadTokenRequestService.requestToken(false, Strategy.NO_CHANGE);
+
+        assertEquals("current-token", tokenValueOne);
+        assertEquals("current-token", tokenValueTwo);
+
+        verify(mockHttpRetryer, never())
+                .sendHTTPRequestRetryIfAllowed(
+                        any(HttpPost.class), any(TokenHttpRetryStatusConfig.class), anyString());
+        verify(mockTokenTable, never()).putItem(any(TokenItem.class));
+
+        InOrder inOrderMockEventProbeSequence = inOrder(mockEventProbe);
+        // Request one
+        inOrderMockEventProbeSequence
+                .verify(mockEventProbe)
+                .counterMetric(TOKEN_REQUEST_L1_CACHE_MISS.withEndpointPrefix());
+        inOrderMockEventProbeSequence
+                .verify(mockEventProbe)
+                .counterMetric(TOKEN_REQUEST_REUSING_CACHED_TOKEN.withEndpointPrefix());
+        inOrderMockEventProbeSequence
+                .verify(mockEventProbe)
+                .counterMetric(TOKEN_REQUEST_REFRESH_AHEAD_LEASE_UNAVAILABLE.withEndpointPrefix());
+        // Request two
+        inOrderMockEventProbeSequence
+                .verify(mockEventProbe)
+                .counterMetric(TOKEN_REQUEST_L1_CACHE_HIT.withEndpointPrefix());
+        inOrderMockEventProbeSequence
+                .verify(mockEventProbe)
+                .counterMetric(TOKEN_REQUEST_REUSING_CACHED_TOKEN.withEndpointPrefix());
+        verifyNoMoreInteractions(mockEventProbe);
+    }
+
+    private TokenRequestService createTokenRequestService(TokenRefreshLease tokenRefreshLease) {
+        return new TokenRequestService(
+                mockCrosscoreV2Configuration,
+                mockDynamoDbEnhancedClient,
+                mockHttpRetryer,
+                mockRequestConfig,
+                new JsonCodecRegistry(realObjectMapper),
+                mockEventProbe,
+                tokenRefreshLease,
+                Runnable::run);
+    }
+
     private void assertTokenHeaders(
             ArgumentCaptor<HttpEntityEnclosingRequestBase> httpRequestCaptor) {
         // Check Headers
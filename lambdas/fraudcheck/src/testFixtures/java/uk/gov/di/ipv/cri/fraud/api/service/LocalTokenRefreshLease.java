@@ -0,0 +1,71 @@
+package uk.gov.di.ipv.cri.fraud.api.service;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Local stand-in for the lease table. Instances created with the same lease map behave as separate
+ * lambdas sharing one table, with the same conditional write semantics as {@link
+ * DynamoDbTokenRefreshLease}.
+ */
+public class LocalTokenRefreshLease implements TokenRefreshLease {
+
+    private final Map<String, Lease> leaseTable;
+    private final String owner = UUID.randomUUID().toString();
+
+    public LocalTokenRefreshLease() {
+        this(new HashMap<>());
+    }
+
+    public LocalTokenRefreshLease(Map<String, Lease> sharedLeaseTable) {
+        this.leaseTable = sharedLeaseTable;
+    }
+
+    @Override
+    public boolean tryAcquire(String leaseId, long leaseSeconds) {
+        long now = Instant.now().getEpochSecond();
+
+        synchronized (leaseTable) {
+            Lease existing = leaseTable.get(leaseId);
+
+            if (existing != null && existing.ttl >= now) {
+                return false;
+            }
+
+            leaseTable.put(leaseId, new Lease(owner, now + leaseSeconds));
+            return true;
+        }
+    }
+
+    @Override
+    public void release(String leaseId) {
+        synchronized (leaseTable) {
+            Lease existing = leaseTable.get(leaseId);
+
+            // Expired rather than removed, as the DynamoDB lease is
+            if (existing != null && existing.owner.equals(owner)) {
+                leaseTable.put(leaseId, new Lease(owner, 0L));
+            }
+        }
+    }
+
+    public boolean isHeld(String leaseId) {
+        synchronized (leaseTable) {
+            Lease existing = leaseTable.get(leaseId);
+
+            return existing != null && existing.ttl >= Instant.now().getEpochSecond();
+        }
+    }
+
+    public static class Lease {
+        private final String owner;
+        private final long ttl;
+
+        public Lease(String owner, long ttl) {
+            this.owner = owner;
+            this.ttl = ttl;
+        }
+    }
+}
@@ -0,0 +1,196 @@
+package uk.gov.di.ipv.cri.fraud.api.handler;
+
+import com.amazonaws.services.lambda.runtime.Context;
+import com.amazonaws.services.lambda.runtime.RequestHandler;
+import com.amazonaws.services.lambda.runtime.events.DynamodbEvent;
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jwt.SignedJWT;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import software.amazon.awssdk.enhanced.dynamodb.Expression;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.lambda.powertools.logging.Logging;
+import software.amazon.lambda.powertools.metrics.Metrics;
+import uk.gov.di.ipv.cri.common.library.annotations.ExcludeFromGeneratedCoverageReport;
+import uk.gov.di.ipv.cri.common.library.domain.personidentity.PersonIdentityDetailed;
+import uk.gov.di.ipv.cri.common.library.exception.SessionNotFoundException;
+import uk.gov.di.ipv.cri.common.library.persistence.item.SessionItem;
+import uk.gov.di.ipv.cri.common.library.service.PersonIdentityService;
+import uk.gov.di.ipv.cri.common.library.service.SessionService;
+import uk.gov.di.ipv.cri.common.library.util.EventProbe;
+import uk.gov.di.ipv.cri.common.library.util.KMSSigner;
+import uk.gov.di.ipv.cri.fraud.api.service.VerifiableCredentialService;
+import uk.gov.di.ipv.cri.fraud.library.metrics.Definitions;
+import uk.gov.di.ipv.cri.fraud.library.persistence.item.FraudResultItem;
+import uk.gov.di.ipv.cri.fraud.library.service.ResultItemStorageService;
+import uk.gov.di.ipv.cri.fraud.library.service.ServiceFactory;
+
+import java.security.NoSuchAlgorithmException;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Signs the credential for a session as soon as its fraud result is stored, triggered by the
+ * fraud result table stream. The signed credential is written onto the fraud result item, so it
+ * expires with it, and IssueCredentialHandler returns it instead of signing one on demand.
+ *
+ * <p>Any session that could not be pre-signed is left to be signed on demand.
+ */
+public class CredentialPreSigningHandler implements RequestHandler<DynamodbEvent, Void> {
+
+    private static final Logger LOGGER = LogManager.getLogger();
+
+    // Only new results are signed, the pre-signed credential update is itself a MODIFY
+    private static final String INSERT_EVENT_NAME = "INSERT";
+    private static final String SESSION_ID_KEY = "sessionId";
+
+    private static final Set<ServiceFactory.Component> EAGER_COMPONENTS =
+            EnumSet.of(
+                    ServiceFactory.Component.PARAMETER_STORE_SERVICE,
+                    ServiceFactory.Component.COMMON_LIB_CONFIGURATION_SERVICE,
+                    ServiceFactory.Component.SESSION_SERVICE,
+                    ServiceFactory.Component.PERSON_IDENTITY_SERVICE,
+                    ServiceFactory.Component.RESULT_ITEM_STORAGE_SERVICE);
+
+    // Same flag IssueCredentialHandler reads, nothing is signed while it is off
+    private final boolean preSignedCredentialEnabled =
+            Boolean.parseBoolean(System.getenv("ENV_VAR_FEATURE_FLAG_VC_PRE_SIGNING"));
+
+    private EventProbe eventProbe;
+    private SessionService sessionService;
+    private PersonIdentityService personIdentityService;
+
+    private ResultItemStorageService<FraudResultItem> fraudResultItemStorageService;
+    private VerifiableCredentialService verifiableCredentialService;
+
+    @ExcludeFromGeneratedCoverageReport
+    public CredentialPreSigningHandler() {
+        ServiceFactory serviceFactory = new ServiceFactory(EAGER_COMPONENTS, null);
+
+        KMSSigner kmsSigner =
+                new KMSSigner(
+                        serviceFactory
+                                .getCommonLibConfigurationService()
+                                .getCommonParameterValue("verifiableCredentialKmsSigningKeyId"),
+                        serviceFactory.getClientProviderFactory().getKMSClient());
+
+        initializeLambdaServices(
+                serviceFactory, new VerifiableCredentialService(serviceFactory, kmsSigner));
+    }
+
+    public CredentialPreSigningHandler(
+            ServiceFactory serviceFactory,
+            VerifiableCredentialService verifiableCredentialService) {
+        initializeLambdaServices(serviceFactory, verifiableCredentialService);
+    }
+
+    private void initializeLambdaServices(
+            ServiceFactory serviceFactory,
+            VerifiableCredentialService verifiableCredentialService) {
+        this.eventProbe = serviceFactory.getEventProbe();
+
+        this.sessionService = serviceFactory.getSessionService();
+        this.personIdentityService = serviceFactory.getPersonIdentityService();
+
+        this.fraudResultItemStorageService = serviceFactory.getResultItemStorageService();
+
+        this.verifiableCredentialService = verifiableCredentialService;
+    }
+
+    @Override
+    @Logging
+    @Metrics(captureColdStart = true)
+    public Void handleRequest(DynamodbEvent input, Context context) {
+
+        if (!preSignedCredentialEnabled) {
+            LOGGER.info(
+                    "Credential pre-signing is disabled, {} records skipped", recordCount(input));
+            return null;
+        }
+
+        for (DynamodbEvent.DynamodbStreamRecord streamRecord : input.getRecords()) {
+            if (!INSERT_EVENT_NAME.equals(streamRecord.getEventName())) {
+                continue;
+            }
+
+            UUID sessionId =
+                    UUID.fromString(
+                            streamRecord.getDynamodb().getKeys().get(SESSION_ID_KEY).getS());
+
+            try {
+                preSignCredential(sessionId);
+            } catch (Exception e) {
+                // Not retried, the credential is signed on demand for this session instead
+                // We should not log unknown exceptions, due to possibility of PII
+                LOGGER.warn(
+                        "Credential pre-signing failed for session {} exception {}",
+                        sessionId,
+                        e.getClass());
+                LOGGER.debug(e.getMessage(), e);
+
+                eventProbe.counterMetric(
+                        Definitions.LAMBDA_CREDENTIAL_PRE_SIGNING_COMPLETED_ERROR);
+            }
+        }
+
+        return null;
+    }
+
+    private void preSignCredential(UUID sessionId)
+            throws SessionNotFoundException, JOSEException, NoSuchAlgorithmException {
+        SessionItem sessionItem = sessionService.getSession(sessionId.toString());
+        if (sessionItem == null) {
+            throw new SessionNotFoundException("Session is not found");
+        }
+
+        FraudResultItem fraudResult = fraudResultItemStorageService.getResultItem(sessionId);
+        if (!isCompleteCheck(fraudResult)) {
+            // Such as a result stored on the error path, left to be signed on demand if ever
+            LOGGER.info("Fraud result for {} has no completed check, not pre-signed", sessionId);
+            return;
+        }
+
+        PersonIdentityDetailed personIdentityDetailed =
+                personIdentityService.getPersonIdentityDetailed(sessionId);
+
+        SignedJWT signedJWT =
+                verifiableCredentialService.generateSignedVerifiableCredentialJwt(
+                        sessionItem.getSubject(), fraudResult, personIdentityDetailed);
+
+        FraudResultItem preSignedCredentialUpdate = new FraudResultItem();
+        preSignedCredentialUpdate.setSessionId(sessionId);
+        preSignedCredentialUpdate.setPreSignedCredential(signedJWT.serialize());
+        // ttl is always written, so it is written unchanged
+        preSignedCredentialUpdate.setTtl(fraudResult.getTtl());
+
+        if (fraudResultItemStorageService.updateResultItem(
+                preSignedCredentialUpdate, sameFraudCheck(fraudResult))) {
+            LOGGER.info("Pre-signed credential stored for session {}", sessionId);
+            eventProbe.counterMetric(Definitions.LAMBDA_CREDENTIAL_PRE_SIGNING_COMPLETED_OK);
+        } else {
+            // A later check attempt replaced the result this credential was made from
+            LOGGER.info("Fraud result changed, pre-signed credential for {} discarded", sessionId);
+            eventProbe.counterMetric(Definitions.LAMBDA_CREDENTIAL_PRE_SIGNING_COMPLETED_ERROR);
+        }
+    }
+
+    /** A result the third party check completed for, identified by its transaction id. */
+    private static boolean isCompleteCheck(FraudResultItem fraudResult) {
+        return fraudResult != null && fraudResult.getTransactionId() != null;
+    }
+
+    /** Stops the credential being written onto a result from a different check attempt. */
+    private static Expression sameFraudCheck(FraudResultItem fraudResult) {
+        return Expression.builder()
+                .expression("#transactionId = :transactionId")
+                .putExpressionName("#transactionId", "transactionId")
+                .putExpressionValue(
+                        ":transactionId", AttributeValue.fromS(fraudResult.getTransactionId()))
+                .build();
+    }
+
+    private static int recordCount(DynamodbEvent input) {
+        return input.getRecords() == null ? 0 : input.getRecords().size();
+    }
+}
@@ -4,7 +4,9 @@ import com.amazonaws.services.lambda.runtime.Context;
 import com.amazonaws.services.lambda.runtime.RequestHandler;
 import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyRequestEvent;
 import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyResponseEvent;
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jwt.JWTClaimsSet;
 import com.nimbusds.jwt.SignedJWT;
 import com.nimbusds.oauth2.sdk.OAuth2Error;
 import com.nimbusds.oauth2.sdk.ParseException;
@@ -12,6 +14,7 @@ import com.nimbusds.oauth2.sdk.token.AccessToken;
 import com.nimbusds.oauth2.sdk.token.AccessTokenType;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.apache.logging.log4j.ThreadContext;
 import software.amazon.awssdk.awscore.exception.AwsServiceException;
 import software.amazon.awssdk.http.HttpStatusCode;
 import software.amazon.lambda.powertools.logging.CorrelationIdPathConstants;
@@ -20,10 +23,10 @@ import software.amazon.lambda.powertools.metrics.Metrics;
 import uk.gov.di.ipv.cri.common.library.annotations.ExcludeFromGeneratedCoverageReport;
 import uk.gov.di.ipv.cri.common.library.domain.AuditEventContext;
 import uk.gov.di.ipv.cri.common.library.domain.AuditEventType;
+import uk.gov.di.ipv.cri.common.library.domain.personidentity.PersonIdentityDetailed;
 import uk.gov.di.ipv.cri.common.library.error.ErrorResponse;
 import uk.gov.di.ipv.cri.common.library.exception.SessionNotFoundException;
 import uk.gov.di.ipv.cri.common.library.exception.SqsException;
-import uk.gov.di.ipv.cri.common.library.service.AuditService;
 import uk.gov.di.ipv.cri.common.library.service.ConfigurationService;
 import uk.gov.di.ipv.cri.common.library.service.PersonIdentityService;
 import uk.gov.di.ipv.cri.common.library.service.SessionService;
@@ -31,19 +34,33 @@ import uk.gov.di.ipv.cri.common.library.util.ApiGatewayResponseGenerator;
 import uk.gov.di.ipv.cri.common.library.util.EventProbe;
 import uk.gov.di.ipv.cri.common.library.util.KMSSigner;
 import uk.gov.di.ipv.cri.fraud.api.exception.CredentialRequestException;
+import uk.gov.di.ipv.cri.fraud.api.service.VerifiableCredentialPrimer;
 import uk.gov.di.ipv.cri.fraud.api.service.VerifiableCredentialService;
 import uk.gov.di.ipv.cri.fraud.api.util.IssueCredentialFraudAuditExtensionUtil;
+import uk.gov.di.ipv.cri.fraud.library.domain.CredentialProjection;
 import uk.gov.di.ipv.cri.fraud.library.error.CommonExpressOAuthError;
 import uk.gov.di.ipv.cri.fraud.library.metrics.Definitions;
 import uk.gov.di.ipv.cri.fraud.library.persistence.item.FraudResultItem;
+import uk.gov.di.ipv.cri.fraud.library.service.AuditEventDispatcher;
 import uk.gov.di.ipv.cri.fraud.library.service.ResultItemStorageService;
 import uk.gov.di.ipv.cri.fraud.library.service.ServiceFactory;
+import uk.gov.di.ipv.cri.fraud.library.util.CredentialProjectionCodec;
 
 import java.time.Duration;
 import java.time.temporal.ChronoUnit;
+import java.util.Date;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import static uk.gov.di.ipv.cri.common.library.error.ErrorResponse.SESSION_NOT_FOUND;
 
@@ -60,22 +77,52 @@ public class IssueCredentialHandler
     public static final String LAMBDA_HANDLING_EXCEPTION =
             "Exception while handling lambda {} exception {}";
 
+    // Everything the credential path uses, built in parallel during init. The JSON codec
+    // registry is only used by the fraud check and is never built here.
+    private static final Set<ServiceFactory.Component> EAGER_COMPONENTS =
+            EnumSet.of(
+                    ServiceFactory.Component.PARAMETER_STORE_SERVICE,
+                    ServiceFactory.Component.COMMON_LIB_CONFIGURATION_SERVICE,
+                    ServiceFactory.Component.SESSION_SERVICE,
+                    ServiceFactory.Component.AUDIT_EVENT_DISPATCHER,
+                    ServiceFactory.Component.PERSON_IDENTITY_SERVICE,
+                    ServiceFactory.Component.RESULT_ITEM_STORAGE_SERVICE);
+
     // CommonLib
     private ConfigurationService commonLibConfigurationService;
     private EventProbe eventProbe;
     private SessionService sessionService;
-    private AuditService auditService;
+    private AuditEventDispatcher auditEventDispatcher;
     private PersonIdentityService personIdentityService;
 
     private ResultItemStorageService<FraudResultItem> fraudResultItemStorageService;
     private VerifiableCredentialService verifiableCredentialService;
 
+    // When enabled a credential signed by CredentialPreSigningHandler after the fraud check is
+    // returned in place of signing one here
+    private final boolean preSignedCredentialEnabled =
+            Boolean.parseBoolean(System.getenv("ENV_VAR_FEATURE_FLAG_VC_PRE_SIGNING"));
+
+    // Reads the credential content stored with the fraud result
+    private CredentialProjectionCodec credentialProjectionCodec;
+
+    // Runs the person identity read alongside the fraud result read
+    private ExecutorService credentialFetchExecutor;
+
+    // Upper bound on waiting for audit events to be sent before responding
+    private static final long AUDIT_EVENT_FLUSH_TIMEOUT_MS = 2000;
+
     private long functionInitMetricLatchedValue = 0;
     private boolean functionInitMetricCaptured = false;
 
+    // -1 when the credential path was not primed (test constructor) or priming failed
+    private long credentialPrimingMetricLatchedValue = -1;
+
+    private Map<String, Long> componentInitDurationsLatchedValue = Map.of();
+
     @ExcludeFromGeneratedCoverageReport
     public IssueCredentialHandler() {
-        ServiceFactory serviceFactory = new ServiceFactory();
+        ServiceFactory serviceFactory = new ServiceFactory(EAGER_COMPONENTS, null);
 
         KMSSigner kmsSigner =
                 new KMSSigner(
@@ -88,6 +135,10 @@ public class IssueCredentialHandler
         VerifiableCredentialService verifiableCredentialServiceNotAssignedYet =
                 new VerifiableCredentialService(serviceFactory, kmsSigner);
 
+        // Class loads and initialises the credential path before the first request
+        credentialPrimingMetricLatchedValue =
+                new VerifiableCredentialPrimer(verifiableCredentialServiceNotAssignedYet).prime();
+
         initializeLambdaServices(serviceFactory, verifiableCredentialServiceNotAssignedYet);
     }
 
@@ -103,9 +154,10 @@ public class IssueCredentialHandler
         this.commonLibConfigurationService = serviceFactory.getCommonLibConfigurationService();
 
         this.eventProbe = serviceFactory.getEventProbe();
+        this.componentInitDurationsLatchedValue = serviceFactory.getComponentInitDurations();
 
         this.sessionService = serviceFactory.getSessionService();
-        this.auditService = serviceFactory.getAuditService();
+        this.auditEventDispatcher = serviceFactory.getAuditEventDispatcher();
 
         this.personIdentityService = serviceFactory.getPersonIdentityService();
 
@@ -113,6 +165,17 @@ public class IssueCredentialHandler
 
         this.verifiableCredentialService = verifiableCredentialService;
 
+        this.credentialProjectionCodec =
+                new CredentialProjectionCodec(serviceFactory.getObjectMapper());
+
+        this.credentialFetchExecutor =
+                Executors.newCachedThreadPool(
+                        runnable -> {
+                            Thread thread = new Thread(runnable, "credential-fetch");
+                            thread.setDaemon(true);
+                            return thread;
+                        });
+
         // Runtime/SnapStart function init duration
         functionInitMetricLatchedValue =
                 System.currentTimeMillis() - FUNCTION_INIT_START_TIME_MILLISECONDS;
@@ -124,6 +187,7 @@ public class IssueCredentialHandler
     public APIGatewayProxyResponseEvent handleRequest(
             APIGatewayProxyRequestEvent input, Context context) {
 
+        Future<PersonIdentityDetailed> personIdentityFetch = null;
         try {
             LOGGER.info(
                     "Initiating lambda {} version {}",
@@ -138,6 +202,19 @@ public class IssueCredentialHandler
                         Definitions.LAMBDA_ISSUE_CREDENTIAL_FUNCTION_INIT_DURATION,
                         functionInitMetricLatchedValue);
                 LOGGER.info("Lambda function init duration {}ms", functionInitMetricLatchedValue);
+
+                if (credentialPrimingMetricLatchedValue >= 0) {
+                    eventProbe.counterMetric(
+                            Definitions.LAMBDA_ISSUE_CREDENTIAL_FUNCTION_PRIMING_DURATION,
+                            credentialPrimingMetricLatchedValue);
+                }
+
+                componentInitDurationsLatchedValue.forEach(
+                        (component, duration) ->
+                                eventProbe.counterMetric(
+                                        Definitions.LAMBDA_COMPONENT_INIT_DURATION_PREFIX
+                                                + component,
+                                        duration));
                 functionInitMetricCaptured = true;
             }
 
@@ -165,37 +242,63 @@ public class IssueCredentialHandler
 
             LOGGER.info("Extracted session from session store ID {}", sessionItem.getSessionId());
 
-            LOGGER.info("Retrieving identity details and fraud results...");
-            var personIdentityDetailed =
-                    personIdentityService.getPersonIdentityDetailed(sessionItem.getSessionId());
-            FraudResultItem fraudResult =
-                    fraudResultItemStorageService.getResultItem(sessionItem.getSessionId());
-            LOGGER.info("VC content retrieved.");
+            final UUID sessionId = sessionItem.getSessionId();
+
+            // Read alongside the fraud result so a result without a usable projection does not
+            // wait on a second read, and ignored when it is not needed
+            personIdentityFetch =
+                    fetchAsync(() -> personIdentityService.getPersonIdentityDetailed(sessionId));
 
-            LOGGER.info("Generating verifiable credential...");
-            SignedJWT signedJWT =
-                    verifiableCredentialService.generateSignedVerifiableCredentialJwt(
-                            sessionItem.getSubject(), fraudResult, personIdentityDetailed);
+            LOGGER.info("Retrieving fraud results...");
+            FraudResultItem fraudResult = fraudResultItemStorageService.getResultItem(sessionId);
 
             final String verifiableCredentialIssuer =
                     commonLibConfigurationService.getVerifiableCredentialIssuer();
 
-            auditService.sendAuditEvent(
+            String serializedVerifiableCredential =
+                    findPreSignedCredential(
+                            sessionItem.getSubject(), verifiableCredentialIssuer, fraudResult);
+
+            if (serializedVerifiableCredential == null) {
+                PersonIdentityDetailed personIdentityDetailed =
+                        findProjectedPersonIdentity(sessionItem.getSubject(), fraudResult);
+                if (personIdentityDetailed == null) {
+                    LOGGER.info("Retrieving identity details...");
+                    personIdentityDetailed = awaitFetch(personIdentityFetch);
+                }
+                LOGGER.info("VC content retrieved.");
+
+                LOGGER.info("Generating verifiable credential...");
+                SignedJWT signedJWT =
+                        verifiableCredentialService.generateSignedVerifiableCredentialJwt(
+                                sessionItem.getSubject(), fraudResult, personIdentityDetailed);
+
+                serializedVerifiableCredential = signedJWT.serialize();
+            }
+
+            auditEventDispatcher.dispatch(
                     AuditEventType.VC_ISSUED,
                     new AuditEventContext(input.getHeaders(), sessionItem),
                     IssueCredentialFraudAuditExtensionUtil.generateVCISSFraudAuditExtension(
                             verifiableCredentialIssuer, List.of(fraudResult)));
 
+            // END is only sent once VC_ISSUED is confirmed on the queue, as it was when each
+            // event was sent synchronously
+            auditEventDispatcher.flush(AUDIT_EVENT_FLUSH_TIMEOUT_MS);
+
             LOGGER.info("Credential generated");
 
             // Lambda Complete No Error
             eventProbe.counterMetric(Definitions.LAMBDA_ISSUE_CREDENTIAL_COMPLETED_OK);
 
-            auditService.sendAuditEvent(
+            auditEventDispatcher.dispatch(
                     AuditEventType.END, new AuditEventContext(input.getHeaders(), sessionItem));
 
+            // The credential is only returned once the audit events are on the queue
+            auditEventDispatcher.flush(AUDIT_EVENT_FLUSH_TIMEOUT_MS);
+
             return ApiGatewayResponseGenerator.proxyJwtResponse(
-                    HttpStatusCode.OK, signedJWT.serialize());
+                    HttpStatusCode.OK, serializedVerifiableCredential);
         } catch (SessionNotFoundException e) {
             String customOAuth2ErrorDescription = SESSION_NOT_FOUND.getMessage();
             LOGGER.error(customOAuth2ErrorDescription);
@@ -240,6 +343,115 @@ public class IssueCredentialHandler
 
             return ApiGatewayResponseGenerator.proxyJsonResponse(
                     HttpStatusCode.INTERNAL_SERVER_ERROR, e.getMessage());
+        } finally {
+            // Not interrupted, so a read still in flight does not abort its pooled connection
+            if (personIdentityFetch != null) {
+                personIdentityFetch.cancel(false);
+            }
+
+            // Events dispatched before an error are still sent
+            auditEventDispatcher.flushQuietly(AUDIT_EVENT_FLUSH_TIMEOUT_MS);
+        }
+    }
+
+    /**
+     * @return the credential CredentialPreSigningHandler stored with the fraud result, or null
+     *     to sign one on demand when there is none or it is not for this subject and issuer or has
+     *     expired
+     */
+    private String findPreSignedCredential(
+            String subject, String verifiableCredentialIssuer, FraudResultItem fraudResult) {
+        if (!preSignedCredentialEnabled || fraudResult == null) {
+            return null;
+        }
+
+        String preSignedCredential = fraudResult.getPreSignedCredential();
+        if (preSignedCredential == null) {
+            LOGGER.info("No pre-signed credential, signing on demand");
+            eventProbe.counterMetric(Definitions.ISSUE_CREDENTIAL_PRE_SIGNED_CREDENTIAL_FALLBACK);
+            return null;
+        }
+
+        if (!isUsablePreSignedCredential(
+                preSignedCredential, subject, verifiableCredentialIssuer)) {
+            LOGGER.info("Pre-signed credential not usable, signing on demand");
+            eventProbe.counterMetric(Definitions.ISSUE_CREDENTIAL_PRE_SIGNED_CREDENTIAL_FALLBACK);
+            return null;
+        }
+
+        LOGGER.info("Using pre-signed credential");
+        eventProbe.counterMetric(Definitions.ISSUE_CREDENTIAL_PRE_SIGNED_CREDENTIAL_USED);
+        return preSignedCredential;
+    }
+
+    /**
+     * @return the person identity stored with the fraud result when the check completed, or null
+     *     to read it when there is none or it was stored for another subject
+     */
+    private PersonIdentityDetailed findProjectedPersonIdentity(
+            String subject, FraudResultItem fraudResult) {
+        if (fraudResult != null && fraudResult.getCredentialProjection() != null) {
+            try {
+                CredentialProjection credentialProjection =
+                        credentialProjectionCodec.read(fraudResult.getCredentialProjection());
+
+                if (Objects.equals(subject, credentialProjection.getSubject())) {
+                    eventProbe.counterMetric(Definitions.ISSUE_CREDENTIAL_PROJECTION_USED);
+                    return credentialProjection.getPersonIdentityDetailed();
+                }
+            } catch (JsonProcessingException e) {
+                LOGGER.warn("Credential projection could not be read, exception {}", e.getClass());
+            }
+        }
+
+        eventProbe.counterMetric(Definitions.ISSUE_CREDENTIAL_PROJECTION_FALLBACK);
+        return null;
+    }
+
+    private static boolean isUsablePreSignedCredential(
+            String preSignedCredential, String subject, String verifiableCredentialIssuer) {
+        try {
+            JWTClaimsSet claimsSet = SignedJWT.parse(preSignedCredential).getJWTClaimsSet();
+
+            Date expirationTime = claimsSet.getExpirationTime();
+
+            return Objects.equals(subject, claimsSet.getSubject())
+                    && Objects.equals(verifiableCredentialIssuer, claimsSet.getIssuer())
+                    && (expirationTime == null || expirationTime.after(new Date()));
+        } catch (java.text.ParseException e) {
+            return false;
+        }
+    }
+
+    private <T> Future<T> fetchAsync(Callable<T> fetch) {
+        // Keeps the correlation ids etc on the log lines from the fetch thread
+        final Map<String, String> loggingContext = ThreadContext.getImmutableContext();
+
+        return credentialFetchExecutor.submit(
+                () -> {
+                    ThreadContext.putAll(loggingContext);
+                    try {
+                        return fetch.call();
+                    } finally {
+                        ThreadContext.clearMap();
+                    }
+                });
+    }
+
+    private static <T> T awaitFetch(Future<T> fetch) {
+        try {
+            // Bounded by the DynamoDB client timeouts
+            return fetch.get();
+        } catch (ExecutionException e) {
+            // Rethrown as is so it is handled as it was when read on the request thread
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
         }
     }
 
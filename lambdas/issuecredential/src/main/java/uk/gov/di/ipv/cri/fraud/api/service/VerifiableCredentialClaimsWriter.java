@@ -0,0 +1,102 @@
+package uk.gov.di.ipv.cri.fraud.api.service;
+
+import uk.gov.di.ipv.cri.common.library.domain.personidentity.Address;
+import uk.gov.di.ipv.cri.common.library.domain.personidentity.BirthDate;
+import uk.gov.di.ipv.cri.fraud.api.domain.Evidence;
+import uk.gov.di.ipv.cri.fraud.api.domain.ThirdPartyAddress;
+import uk.gov.di.ipv.cri.fraud.api.domain.checkdetails.Check;
+
+import java.time.format.DateTimeFormatter;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes the per-session credential claims directly, instead of converting the addresses and
+ * evidence with ObjectMapper.convertValue, which serialises each one to a JSON tree and reads it
+ * back. The output is the same as that conversion produced, keys in the same order and null values
+ * left out.
+ */
+final class VerifiableCredentialClaimsWriter {
+
+    private VerifiableCredentialClaimsWriter() {
+        throw new IllegalStateException("Instantiation is not valid for this class.");
+    }
+
+    static Object[] writeAddresses(List<Address> addresses) {
+        Object[] addressClaims = new Object[addresses.size()];
+
+        for (int i = 0; i < addressClaims.length; i++) {
+            Address address = addresses.get(i);
+
+            ThirdPartyAddress addressClaim = new ThirdPartyAddress();
+            addressClaim.setSubBuildingName(address.getSubBuildingName());
+            addressClaim.setBuildingNumber(address.getBuildingNumber());
+            addressClaim.setBuildingName(address.getBuildingName());
+            addressClaim.setStreetName(address.getStreetName());
+            addressClaim.setAddressLocality(address.getAddressLocality());
+            addressClaim.setPostalCode(address.getPostalCode());
+
+            addressClaims[i] = addressClaim;
+        }
+
+        return addressClaims;
+    }
+
+    static Object[] writeBirthDates(List<BirthDate> birthDates) {
+        Object[] birthDateClaims = new Object[birthDates.size()];
+
+        for (int i = 0; i < birthDateClaims.length; i++) {
+            birthDateClaims[i] =
+                    Map.of(
+                            "value",
+                            birthDates.get(i).getValue().format(DateTimeFormatter.ISO_LOCAL_DATE));
+        }
+
+        return birthDateClaims;
+    }
+
+    /** Keys follow Evidence's @JsonPropertyOrder then its field order. */
+    static Map<String, Object> writeEvidence(Evidence evidence) {
+        Map<String, Object> evidenceClaim = new LinkedHashMap<>();
+
+        putIfNotNull(evidenceClaim, "type", evidence.getType());
+        putIfNotNull(evidenceClaim, "txn", evidence.getTxn());
+        putIfNotNull(evidenceClaim, "identityFraudScore", evidence.getIdentityFraudScore());
+        putIfNotNull(evidenceClaim, "ci", evidence.getCi());
+        putIfNotNull(evidenceClaim, "activityHistoryScore", evidence.getActivityHistoryScore());
+        putIfNotNull(evidenceClaim, "decisionScore", evidence.getDecisionScore());
+        putIfNotNull(evidenceClaim, "checkDetails", writeChecks(evidence.getCheckDetails()));
+        putIfNotNull(
+                evidenceClaim, "failedCheckDetails", writeChecks(evidence.getFailedCheckDetails()));
+
+        return evidenceClaim;
+    }
+
+    private static List<Map<String, Object>> writeChecks(List<Check> checks) {
+        if (checks == null) {
+            return null;
+        }
+
+        return checks.stream().map(VerifiableCredentialClaimsWriter::writeCheck).toList();
+    }
+
+    /** Keys follow Check's @JsonPropertyOrder then its field order. */
+    private static Map<String, Object> writeCheck(Check check) {
+        Map<String, Object> checkClaim = new LinkedHashMap<>();
+
+        putIfNotNull(checkClaim, "txn", check.getTxn());
+        putIfNotNull(checkClaim, "checkMethod", check.getCheckMethod());
+        putIfNotNull(checkClaim, "fraudCheck", check.getFraudCheck());
+        putIfNotNull(checkClaim, "activityFrom", check.getActivityFrom());
+        putIfNotNull(checkClaim, "identityCheckPolicy", check.getIdentityCheckPolicy());
+
+        return checkClaim;
+    }
+
+    private static void putIfNotNull(Map<String, Object> claim, String key, Object value) {
+        if (value != null) {
+            claim.put(key, value);
+        }
+    }
+}
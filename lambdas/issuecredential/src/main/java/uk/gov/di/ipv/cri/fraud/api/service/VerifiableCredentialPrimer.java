@@ -0,0 +1,157 @@
+package uk.gov.di.ipv.cri.fraud.api.service;
+
+import com.nimbusds.jose.JWSSigner;
+import com.nimbusds.jose.crypto.ECDSASigner;
+import com.nimbusds.jose.jwk.Curve;
+import com.nimbusds.jose.jwk.gen.ECKeyGenerator;
+import com.nimbusds.jwt.JWTClaimsSet;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import uk.gov.di.ipv.cri.common.library.domain.personidentity.Address;
+import uk.gov.di.ipv.cri.common.library.domain.personidentity.BirthDate;
+import uk.gov.di.ipv.cri.common.library.domain.personidentity.Name;
+import uk.gov.di.ipv.cri.common.library.domain.personidentity.NamePart;
+import uk.gov.di.ipv.cri.common.library.domain.personidentity.PersonIdentityDetailed;
+import uk.gov.di.ipv.cri.common.library.util.SignedJWTFactory;
+import uk.gov.di.ipv.cri.fraud.api.util.IssueCredentialFraudAuditExtensionUtil;
+import uk.gov.di.ipv.cri.fraud.library.domain.CheckType;
+import uk.gov.di.ipv.cri.fraud.library.persistence.item.FraudResultItem;
+import uk.gov.di.ipv.cri.fraud.library.util.StopWatch;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static uk.gov.di.ipv.cri.fraud.api.domain.VerifiableCredentialConstants.FRAUD_CREDENTIAL_TYPE;
+import static uk.gov.di.ipv.cri.fraud.api.domain.VerifiableCredentialConstants.VC_ADDRESS_KEY;
+import static uk.gov.di.ipv.cri.fraud.api.domain.VerifiableCredentialConstants.VC_BIRTHDATE_KEY;
+import static uk.gov.di.ipv.cri.fraud.api.domain.VerifiableCredentialConstants.VC_CLAIM;
+import static uk.gov.di.ipv.cri.fraud.api.domain.VerifiableCredentialConstants.VC_CREDENTIAL_SUBJECT;
+import static uk.gov.di.ipv.cri.fraud.api.domain.VerifiableCredentialConstants.VC_EVIDENCE_KEY;
+import static uk.gov.di.ipv.cri.fraud.api.domain.VerifiableCredentialConstants.VC_NAME_KEY;
+import static uk.gov.di.ipv.cri.fraud.api.domain.VerifiableCredentialConstants.VC_TYPE;
+
+/**
+ * Runs a synthetic fraud result through the evidence, claims and JWS code during function init so
+ * the first real request does not pay for class loading and first-use initialisation. Signing
+ * uses a throwaway in-memory key, nothing here calls KMS or any other service.
+ */
+public class VerifiableCredentialPrimer {
+
+    private static final Logger LOGGER = LogManager.getLogger();
+
+    // Aimed at class loading and first-use init, not at reaching compiled code
+    private static final int PRIMING_ITERATIONS = 3;
+
+    private static final String PRIMING_ISSUER = "priming";
+
+    private final VerifiableCredentialService verifiableCredentialService;
+
+    public VerifiableCredentialPrimer(VerifiableCredentialService verifiableCredentialService) {
+        this.verifiableCredentialService = verifiableCredentialService;
+    }
+
+    /**
+     * @return time spent priming in ms, or -1 if priming failed. A failure is logged and otherwise
+     *     ignored as the real request path is unaffected by it.
+     */
+    public long prime() {
+        StopWatch stopWatch = new StopWatch();
+        stopWatch.start();
+
+        try {
+            JWSSigner primingSigner = new ECDSASigner(new ECKeyGenerator(Curve.P_256).generate());
+            SignedJWTFactory primingSignedJwtFactory = new SignedJWTFactory(primingSigner);
+
+            for (int i = 0; i < PRIMING_ITERATIONS; i++) {
+                FraudResultItem fraudResultItem = createPrimingFraudResultItem();
+                PersonIdentityDetailed personIdentityDetailed = createPrimingPersonIdentity();
+
+                JWTClaimsSet claimsSet =
+                        new JWTClaimsSet.Builder()
+                                .subject(PRIMING_ISSUER)
+                                .claim(
+                                        VC_CLAIM,
+                                        Map.of(
+                                                VC_TYPE,
+                                                new String[] {FRAUD_CREDENTIAL_TYPE},
+                                                VC_CREDENTIAL_SUBJECT,
+                                                createCredentialSubject(personIdentityDetailed),
+                                                VC_EVIDENCE_KEY,
+                                                verifiableCredentialService.calculateEvidence(
+                                                        fraudResultItem)))
+                                .build();
+
+                primingSignedJwtFactory.createSignedJwt(claimsSet).serialize();
+
+                IssueCredentialFraudAuditExtensionUtil.generateVCISSFraudAuditExtension(
+                        PRIMING_ISSUER, List.of(fraudResultItem));
+            }
+        } catch (Exception e) {
+            LOGGER.warn("Verifiable credential priming failed - {}", e.getMessage());
+            return -1;
+        }
+
+        long primingDuration = stopWatch.stop();
+        LOGGER.info("Verifiable credential priming duration {}ms", primingDuration);
+
+        return primingDuration;
+    }
+
+    private Map<String, Object> createCredentialSubject(
+            PersonIdentityDetailed personIdentityDetailed) {
+        return Map.of(
+                VC_ADDRESS_KEY,
+                verifiableCredentialService.convertAddresses(
+                        personIdentityDetailed.getAddresses()),
+                VC_NAME_KEY,
+                personIdentityDetailed.getNames(),
+                VC_BIRTHDATE_KEY,
+                verifiableCredentialService.convertBirthDates(
+                        personIdentityDetailed.getBirthDates()));
+    }
+
+    private static FraudResultItem createPrimingFraudResultItem() {
+        FraudResultItem fraudResultItem =
+                new FraudResultItem(UUID.randomUUID(), List.of("A01"), 2, 1, 0);
+
+        fraudResultItem.setTransactionId(UUID.randomUUID().toString());
+        fraudResultItem.setPepTransactionId(UUID.randomUUID().toString());
+        fraudResultItem.setCheckDetails(
+                List.of(
+                        CheckType.MORTALITY_CHECK.name(),
+                        CheckType.IDENTITY_THEFT_CHECK.name(),
+                        CheckType.ACTIVITY_HISTORY_CHECK.name()));
+        fraudResultItem.setFailedCheckDetails(List.of(CheckType.IMPERSONATION_RISK_CHECK.name()));
+        fraudResultItem.setActivityFrom(LocalDate.of(2013, 12, 1).toString());
+
+        return fraudResultItem;
+    }
+
+    private static PersonIdentityDetailed createPrimingPersonIdentity() {
+        NamePart givenName = new NamePart();
+        givenName.setType("GivenName");
+        givenName.setValue("FirstName");
+
+        NamePart familyName = new NamePart();
+        familyName.setType("FamilyName");
+        familyName.setValue("Surname");
+
+        Name name = new Name();
+        name.setNameParts(List.of(givenName, familyName));
+
+        BirthDate birthDate = new BirthDate();
+        birthDate.setValue(LocalDate.of(1970, 1, 1));
+
+        Address address = new Address();
+        address.setValidFrom(LocalDate.now().minusYears(3));
+        address.setBuildingNumber("1");
+        address.setStreetName("Street Name");
+        address.setAddressLocality("PostTown");
+        address.setPostalCode("Postcode");
+        address.setAddressCountry("GB");
+
+        return new PersonIdentityDetailed(List.of(name), List.of(birthDate), List.of(address));
+    }
+}
@@ -1,6 +1,5 @@
 package uk.gov.di.ipv.cri.fraud.api.service;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.nimbusds.jose.JOSEException;
 import com.nimbusds.jose.JWSSigner;
 import com.nimbusds.jwt.SignedJWT;
@@ -11,18 +10,14 @@ import uk.gov.di.ipv.cri.common.library.service.ConfigurationService;
 import uk.gov.di.ipv.cri.common.library.util.SignedJWTFactory;
 import uk.gov.di.ipv.cri.common.library.util.VerifiableCredentialClaimsSetBuilder;
 import uk.gov.di.ipv.cri.fraud.api.domain.Evidence;
-import uk.gov.di.ipv.cri.fraud.api.domain.ThirdPartyAddress;
 import uk.gov.di.ipv.cri.fraud.api.util.EvidenceHelper;
-import uk.gov.di.ipv.cri.fraud.library.config.ParameterStoreParameters;
 import uk.gov.di.ipv.cri.fraud.library.persistence.item.FraudResultItem;
 import uk.gov.di.ipv.cri.fraud.library.service.ParameterStoreService;
 import uk.gov.di.ipv.cri.fraud.library.service.ServiceFactory;
-import uk.gov.di.ipv.cri.fraud.library.service.parameterstore.ParameterPrefix;
+import uk.gov.di.ipv.cri.fraud.library.util.MemoizedSupplier;
 
 import java.security.NoSuchAlgorithmException;
 import java.time.Clock;
-import java.time.format.DateTimeFormatter;
-import java.time.temporal.ChronoUnit;
 import java.util.List;
 import java.util.Map;
 
@@ -33,22 +28,24 @@ import static uk.gov.di.ipv.cri.fraud.api.domain.VerifiableCredentialConstants.V
 
 public class VerifiableCredentialService {
 
-    private final ObjectMapper objectMapper;
     private final ParameterStoreService parameterStoreService;
     private final ConfigurationService commonLibConfigurationService;
     private final SignedJWTFactory signedJwtFactory;
-    private final VerifiableCredentialClaimsSetBuilder vcClaimsSetBuilder;
+
+    // Built with the first credential and kept for the life of the function instance
+    private final MemoizedSupplier<VerifiableCredentialTemplate> verifiableCredentialTemplate;
 
     public VerifiableCredentialService(ServiceFactory serviceFactory, JWSSigner jwsSigner) {
-        this.objectMapper = serviceFactory.getObjectMapper();
         this.parameterStoreService = serviceFactory.getParameterStoreService();
         this.commonLibConfigurationService = serviceFactory.getCommonLibConfigurationService();
 
         this.signedJwtFactory = new SignedJWTFactory(jwsSigner);
 
-        this.vcClaimsSetBuilder =
-                new VerifiableCredentialClaimsSetBuilder(
-                        commonLibConfigurationService, Clock.systemUTC());
+        this.verifiableCredentialTemplate =
+                MemoizedSupplier.of(
+                        () ->
+                                VerifiableCredentialTemplate.create(
+                                        commonLibConfigurationService, parameterStoreService));
     }
 
     public SignedJWT generateSignedVerifiableCredentialJwt(
@@ -56,17 +53,13 @@ public class VerifiableCredentialService {
             FraudResultItem fraudResultItem,
             PersonIdentityDetailed personIdentityDetailed)
             throws JOSEException, NoSuchAlgorithmException {
-        long jwtTtl = commonLibConfigurationService.getMaxJwtTtl();
-
-        ChronoUnit jwtTtlUnit =
-                ChronoUnit.valueOf(
-                        parameterStoreService.getParameterValue(
-                                ParameterPrefix.STACK, ParameterStoreParameters.MAX_JWT_TTL_UNIT));
+        VerifiableCredentialTemplate template = verifiableCredentialTemplate.get();
 
         var claimsSet =
-                this.vcClaimsSetBuilder
+                new VerifiableCredentialClaimsSetBuilder(
+                                commonLibConfigurationService, Clock.systemUTC())
                         .subject(subject)
-                        .timeToLive(jwtTtl, jwtTtlUnit)
+                        .timeToLive(template.getJwtTtl(), template.getJwtTtlUnit())
                         .verifiableCredentialType(FRAUD_CREDENTIAL_TYPE)
                         .verifiableCredentialSubject(
                                 Map.of(
@@ -79,46 +72,29 @@ public class VerifiableCredentialService {
                         .verifiableCredentialEvidence(calculateEvidence(fraudResultItem))
                         .build();
 
-        SignedJWT signedJwt = null;
-        if (Boolean.parseBoolean(System.getenv("INCLUDE_VC_KID"))) {
-            String issuer =
-                    commonLibConfigurationService.getCommonParameterValue(
-                            "verifiable-credential/issuer");
-            String kmsSigningKeyId =
-                    commonLibConfigurationService.getCommonParameterValue(
-                            "verifiableCredentialKmsSigningKeyId");
-            signedJwt = signedJwtFactory.createSignedJwt(claimsSet, issuer, kmsSigningKeyId);
-        } else {
-            signedJwt = signedJwtFactory.createSignedJwt(claimsSet);
+        if (template.isIncludeKid()) {
+            return signedJwtFactory.createSignedJwt(
+                    claimsSet, template.getKidIssuer(), template.getKmsSigningKeyId());
         }
-        return signedJwt;
+
+        return signedJwtFactory.createSignedJwt(claimsSet);
     }
 
-    private Object[] convertAddresses(List<Address> addresses) {
-        return addresses.stream()
-                .map(address -> objectMapper.convertValue(address, ThirdPartyAddress.class))
-                .toArray();
+    Object[] convertAddresses(List<Address> addresses) {
+        return VerifiableCredentialClaimsWriter.writeAddresses(addresses);
     }
 
-    private Object[] convertBirthDates(List<BirthDate> birthDates) {
-        return birthDates.stream()
-                .map(
-                        birthDate ->
-                                Map.of(
-                                        "value",
-                                        birthDate
-                                                .getValue()
-                                                .format(DateTimeFormatter.ISO_LOCAL_DATE)))
-                .toArray();
+    Object[] convertBirthDates(List<BirthDate> birthDates) {
+        return VerifiableCredentialClaimsWriter.writeBirthDates(birthDates);
     }
 
-    private Object[] calculateEvidence(FraudResultItem fraudResultItem) {
+    Object[] calculateEvidence(FraudResultItem fraudResultItem) {
 
         Evidence evidence = EvidenceHelper.fraudCheckResultItemToEvidence(fraudResultItem);
 
         // DecisionScore not currently requested to be in VC
         evidence.setDecisionScore(null);
 
-        return new Map[] {objectMapper.convertValue(evidence, Map.class)};
+        return new Map[] {VerifiableCredentialClaimsWriter.writeEvidence(evidence)};
     }
 }
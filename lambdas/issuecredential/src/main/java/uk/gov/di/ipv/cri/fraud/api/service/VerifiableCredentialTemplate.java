@@ -0,0 +1,82 @@
+package uk.gov.di.ipv.cri.fraud.api.service;
+
+import uk.gov.di.ipv.cri.common.library.service.ConfigurationService;
+import uk.gov.di.ipv.cri.fraud.library.config.ParameterStoreParameters;
+import uk.gov.di.ipv.cri.fraud.library.service.ParameterStoreService;
+import uk.gov.di.ipv.cri.fraud.library.service.parameterstore.ParameterPrefix;
+
+import java.time.temporal.ChronoUnit;
+
+/**
+ * The parts of a credential that are the same for every session: the TTL and whether the JWS
+ * header carries a kid, with the issuer and signing key id it is made from. Read once and reused
+ * for every credential the function instance issues.
+ */
+final class VerifiableCredentialTemplate {
+
+    private final long jwtTtl;
+    private final ChronoUnit jwtTtlUnit;
+
+    private final boolean includeKid;
+    // Only read when the kid is included
+    private final String kidIssuer;
+    private final String kmsSigningKeyId;
+
+    private VerifiableCredentialTemplate(
+            long jwtTtl,
+            ChronoUnit jwtTtlUnit,
+            boolean includeKid,
+            String kidIssuer,
+            String kmsSigningKeyId) {
+        this.jwtTtl = jwtTtl;
+        this.jwtTtlUnit = jwtTtlUnit;
+        this.includeKid = includeKid;
+        this.kidIssuer = kidIssuer;
+        this.kmsSigningKeyId = kmsSigningKeyId;
+    }
+
+    static VerifiableCredentialTemplate create(
+            ConfigurationService commonLibConfigurationService,
+            ParameterStoreService parameterStoreService) {
+        long jwtTtl = commonLibConfigurationService.getMaxJwtTtl();
+
+        ChronoUnit jwtTtlUnit =
+                ChronoUnit.valueOf(
+                        parameterStoreService.getParameterValue(
+                                ParameterPrefix.STACK, ParameterStoreParameters.MAX_JWT_TTL_UNIT));
+
+        boolean includeKid = Boolean.parseBoolean(System.getenv("INCLUDE_VC_KID"));
+        if (!includeKid) {
+            return new VerifiableCredentialTemplate(jwtTtl, jwtTtlUnit, false, null, null);
+        }
+
+        return new VerifiableCredentialTemplate(
+                jwtTtl,
+                jwtTtlUnit,
+                true,
+                commonLibConfigurationService.getCommonParameterValue(
+                        "verifiable-credential/issuer"),
+                commonLibConfigurationService.getCommonParameterValue(
+                        "verifiableCredentialKmsSigningKeyId"));
+    }
+
+    long getJwtTtl() {
+        return jwtTtl;
+    }
+
+    ChronoUnit getJwtTtlUnit() {
+        return jwtTtlUnit;
+    }
+
+    boolean isIncludeKid() {
+        return includeKid;
+    }
+
+    String getKidIssuer() {
+        return kidIssuer;
+    }
+
+    String getKmsSigningKeyId() {
+        return kmsSigningKeyId;
+    }
+}
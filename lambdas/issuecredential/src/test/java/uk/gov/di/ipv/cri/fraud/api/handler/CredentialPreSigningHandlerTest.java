@@ -0,0 +1,258 @@
+package uk.gov.di.ipv.cri.fraud.api.handler;
+
+import com.amazonaws.services.lambda.runtime.Context;
+import com.amazonaws.services.lambda.runtime.events.DynamodbEvent;
+import com.amazonaws.services.lambda.runtime.events.models.dynamodb.AttributeValue;
+import com.amazonaws.services.lambda.runtime.events.models.dynamodb.StreamRecord;
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jwt.SignedJWT;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import software.amazon.awssdk.enhanced.dynamodb.Expression;
+import uk.gov.di.ipv.cri.common.library.domain.personidentity.PersonIdentityDetailed;
+import uk.gov.di.ipv.cri.common.library.persistence.item.SessionItem;
+import uk.gov.di.ipv.cri.common.library.service.PersonIdentityService;
+import uk.gov.di.ipv.cri.common.library.service.SessionService;
+import uk.gov.di.ipv.cri.common.library.util.EventProbe;
+import uk.gov.di.ipv.cri.fraud.api.service.VerifiableCredentialService;
+import uk.gov.di.ipv.cri.fraud.api.util.TestDataCreator;
+import uk.gov.di.ipv.cri.fraud.library.FraudPersonIdentityDetailedMapper;
+import uk.gov.di.ipv.cri.fraud.library.persistence.item.FraudResultItem;
+import uk.gov.di.ipv.cri.fraud.library.service.ResultItemStorageService;
+import uk.gov.di.ipv.cri.fraud.library.service.ServiceFactory;
+import uk.org.webcompere.systemstubs.environment.EnvironmentVariables;
+import uk.org.webcompere.systemstubs.jupiter.SystemStub;
+import uk.org.webcompere.systemstubs.jupiter.SystemStubsExtension;
+
+import java.security.NoSuchAlgorithmException;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+import static uk.gov.di.ipv.cri.fraud.library.metrics.Definitions.LAMBDA_CREDENTIAL_PRE_SIGNING_COMPLETED_ERROR;
+import static uk.gov.di.ipv.cri.fraud.library.metrics.Definitions.LAMBDA_CREDENTIAL_PRE_SIGNING_COMPLETED_OK;
+
+@ExtendWith(MockitoExtension.class)
+@ExtendWith(SystemStubsExtension.class)
+class CredentialPreSigningHandlerTest {
+    @SystemStub private EnvironmentVariables environmentVariables = new EnvironmentVariables();
+
+    private static final String SUBJECT = "subject";
+    private static final String SIGNED_CREDENTIAL = "header.payload.signature";
+    private static final long TTL = 1000L;
+
+    @Mock private ServiceFactory mockServiceFactory;
+    @Mock private EventProbe mockEventProbe;
+    @Mock private SessionService mockSessionService;
+    @Mock private PersonIdentityService mockPersonIdentityService;
+    @Mock private ResultItemStorageService<FraudResultItem> mockFraudResultItemStorageService;
+    @Mock private VerifiableCredentialService mockVerifiableCredentialService;
+
+    @Mock private Context context;
+
+    private CredentialPreSigningHandler handler;
+
+    @BeforeEach
+    void setup() {
+        environmentVariables.set("ENV_VAR_FEATURE_FLAG_VC_PRE_SIGNING", "true");
+
+        mockServiceFactoryBehaviour();
+
+        handler =
+                new CredentialPreSigningHandler(
+                        mockServiceFactory, mockVerifiableCredentialService);
+    }
+
+    @Test
+    void shouldStoreThePreSignedCredentialOnTheNewFraudResult()
+            throws JOSEException, NoSuchAlgorithmException {
+        UUID sessionId = UUID.randomUUID();
+
+        SessionItem sessionItem = new SessionItem();
+        sessionItem.setSubject(SUBJECT);
+        FraudResultItem fraudResultItem = new FraudResultItem(sessionId, List.of(), 2, 1, 90);
+        fraudResultItem.setTransactionId("transaction-id");
+        fraudResultItem.setTtl(TTL);
+        PersonIdentityDetailed personIdentityDetailed =
+                FraudPersonIdentityDetailedMapper.generatePersonIdentityDetailed(
+                        TestDataCreator.createTestPersonIdentity());
+
+        SignedJWT mockSignedJWT = mock(SignedJWT.class);
+        when(mockSignedJWT.serialize()).thenReturn(SIGNED_CREDENTIAL);
+
+        when(mockSessionService.getSession(sessionId.toString())).thenReturn(sessionItem);
+        when(mockFraudResultItemStorageService.getResultItem(sessionId))
+                .thenReturn(fraudResultItem);
+        when(mockPersonIdentityService.getPersonIdentityDetailed(sessionId))
+                .thenReturn(personIdentityDetailed);
+        when(mockVerifiableCredentialService.generateSignedVerifiableCredentialJwt(
+                        SUBJECT, fraudResultItem, personIdentityDetailed))
+                .thenReturn(mockSignedJWT);
+
+        ArgumentCaptor<FraudResultItem> updateCaptor =
+                ArgumentCaptor.forClass(FraudResultItem.class);
+        ArgumentCaptor<Expression> conditionCaptor = ArgumentCaptor.forClass(Expression.class);
+        when(mockFraudResultItemStorageService.updateResultItem(
+                        updateCaptor.capture(), conditionCaptor.capture()))
+                .thenReturn(true);
+
+        handler.handleRequest(streamEvent("INSERT", sessionId), context);
+
+        FraudResultItem update = updateCaptor.getValue();
+        assertEquals(sessionId, update.getSessionId());
+        assertEquals(SIGNED_CREDENTIAL, update.getPreSignedCredential());
+        assertEquals(TTL, update.getTtl());
+        // Only the credential and ttl are written over the stored result
+        assertNull(update.getContraIndicators());
+        assertNull(update.getIdentityFraudScore());
+
+        assertEquals(
+                "transaction-id",
+                conditionCaptor.getValue().expressionValues().get(":transactionId").s());
+
+        verify(mockEventProbe).counterMetric(LAMBDA_CREDENTIAL_PRE_SIGNING_COMPLETED_OK);
+    }
+
+    @Test
+    void shouldDiscardThePreSignedCredentialWhenTheFraudResultHasChanged()
+            throws JOSEException, NoSuchAlgorithmException {
+        UUID sessionId = UUID.randomUUID();
+
+        SessionItem sessionItem = new SessionItem();
+        sessionItem.setSubject(SUBJECT);
+        FraudResultItem fraudResultItem = new FraudResultItem(sessionId, List.of(), 2, 1, 90);
+        fraudResultItem.setTransactionId("transaction-id");
+
+        when(mockSessionService.getSession(sessionId.toString())).thenReturn(sessionItem);
+        when(mockFraudResultItemStorageService.getResultItem(sessionId))
+                .thenReturn(fraudResultItem);
+        when(mockVerifiableCredentialService.generateSignedVerifiableCredentialJwt(
+                        eq(SUBJECT), eq(fraudResultItem), any()))
+                .thenReturn(mock(SignedJWT.class));
+        when(mockFraudResultItemStorageService.updateResultItem(
+                        any(FraudResultItem.class), any(Expression.class)))
+                .thenReturn(false);
+
+        handler.handleRequest(streamEvent("INSERT", sessionId), context);
+
+        verify(mockEventProbe).counterMetric(LAMBDA_CREDENTIAL_PRE_SIGNING_COMPLETED_ERROR);
+        verify(mockEventProbe, never()).counterMetric(LAMBDA_CREDENTIAL_PRE_SIGNING_COMPLETED_OK);
+    }
+
+    @Test
+    void shouldNotPreSignAFraudResultWithoutACompletedCheck() {
+        UUID sessionId = UUID.randomUUID();
+
+        SessionItem sessionItem = new SessionItem();
+        sessionItem.setSubject(SUBJECT);
+        // As stored on the error path, no transaction id
+        FraudResultItem fraudResultItem = new FraudResultItem(sessionId, List.of(), 0, 0, 0);
+
+        when(mockSessionService.getSession(sessionId.toString())).thenReturn(sessionItem);
+        when(mockFraudResultItemStorageService.getResultItem(sessionId))
+                .thenReturn(fraudResultItem);
+
+        handler.handleRequest(streamEvent("INSERT", sessionId), context);
+
+        verifyNoInteractions(mockVerifiableCredentialService);
+        verify(mockFraudResultItemStorageService, never())
+                .updateResultItem(any(FraudResultItem.class), any(Expression.class));
+        verify(mockEventProbe, never()).counterMetric(LAMBDA_CREDENTIAL_PRE_SIGNING_COMPLETED_OK);
+    }
+
+    @Test
+    void shouldContinueWithTheNextRecordWhenPreSigningFails()
+            throws JOSEException, NoSuchAlgorithmException {
+        UUID missingSessionId = UUID.randomUUID();
+        UUID sessionId = UUID.randomUUID();
+
+        SessionItem sessionItem = new SessionItem();
+        sessionItem.setSubject(SUBJECT);
+        FraudResultItem fraudResultItem = new FraudResultItem(sessionId, List.of(), 2, 1, 90);
+        fraudResultItem.setTransactionId("transaction-id");
+
+        when(mockSessionService.getSession(missingSessionId.toString())).thenReturn(null);
+        when(mockSessionService.getSession(sessionId.toString())).thenReturn(sessionItem);
+        when(mockFraudResultItemStorageService.getResultItem(sessionId))
+                .thenReturn(fraudResultItem);
+        when(mockVerifiableCredentialService.generateSignedVerifiableCredentialJwt(
+                        eq(SUBJECT), eq(fraudResultItem), any()))
+                .thenReturn(mock(SignedJWT.class));
+        when(mockFraudResultItemStorageService.updateResultItem(
+                        any(FraudResultItem.class), any(Expression.class)))
+                .thenReturn(true);
+
+        DynamodbEvent event = new DynamodbEvent();
+        event.setRecords(
+                List.of(
+                        streamRecord("INSERT", missingSessionId),
+                        streamRecord("INSERT", sessionId)));
+
+        handler.handleRequest(event, context);
+
+        verify(mockEventProbe).counterMetric(LAMBDA_CREDENTIAL_PRE_SIGNING_COMPLETED_ERROR);
+        verify(mockEventProbe).counterMetric(LAMBDA_CREDENTIAL_PRE_SIGNING_COMPLETED_OK);
+    }
+
+    @Test
+    void shouldIgnoreRecordsThatAreNotNewFraudResults() {
+        handler.handleRequest(streamEvent("MODIFY", UUID.randomUUID()), context);
+
+        verify(mockSessionService, never()).getSession(anyString());
+        verifyNoInteractions(mockVerifiableCredentialService);
+    }
+
+    @Test
+    void shouldNotSignAnythingWhenPreSigningIsDisabled() {
+        environmentVariables.set("ENV_VAR_FEATURE_FLAG_VC_PRE_SIGNING", "false");
+        handler =
+                new CredentialPreSigningHandler(
+                        mockServiceFactory, mockVerifiableCredentialService);
+
+        handler.handleRequest(streamEvent("INSERT", UUID.randomUUID()), context);
+
+        verifyNoInteractions(mockSessionService);
+        verifyNoInteractions(mockVerifiableCredentialService);
+    }
+
+    private static DynamodbEvent streamEvent(String eventName, UUID sessionId) {
+        DynamodbEvent event = new DynamodbEvent();
+        event.setRecords(List.of(streamRecord(eventName, sessionId)));
+        return event;
+    }
+
+    private static DynamodbEvent.DynamodbStreamRecord streamRecord(
+            String eventName, UUID sessionId) {
+        StreamRecord streamRecord = new StreamRecord();
+        streamRecord.setKeys(
+                Map.of("sessionId", new AttributeValue().withS(sessionId.toString())));
+
+        DynamodbEvent.DynamodbStreamRecord dynamodbStreamRecord =
+                new DynamodbEvent.DynamodbStreamRecord();
+        dynamodbStreamRecord.setEventName(eventName);
+        dynamodbStreamRecord.setDynamodb(streamRecord);
+        return dynamodbStreamRecord;
+    }
+
+    private void mockServiceFactoryBehaviour() {
+        when(mockServiceFactory.getEventProbe()).thenReturn(mockEventProbe);
+        when(mockServiceFactory.getSessionService()).thenReturn(mockSessionService);
+        when(mockServiceFactory.getPersonIdentityService()).thenReturn(mockPersonIdentityService);
+        when(mockServiceFactory.getResultItemStorageService())
+                .thenReturn(mockFraudResultItemStorageService);
+    }
+}
@@ -8,6 +8,9 @@ import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.nimbusds.common.contenttype.ContentType;
 import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.crypto.MACSigner;
 import com.nimbusds.jwt.JWTClaimNames;
 import com.nimbusds.jwt.JWTClaimsSet;
 import com.nimbusds.jwt.PlainJWT;
@@ -18,6 +21,7 @@ import com.nimbusds.oauth2.sdk.token.BearerAccessToken;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
@@ -27,10 +31,10 @@ import software.amazon.awssdk.http.HttpStatusCode;
 import software.amazon.awssdk.http.SdkHttpResponse;
 import uk.gov.di.ipv.cri.common.library.domain.AuditEventContext;
 import uk.gov.di.ipv.cri.common.library.domain.AuditEventType;
+import uk.gov.di.ipv.cri.common.library.domain.personidentity.PersonIdentityDetailed;
 import uk.gov.di.ipv.cri.common.library.error.ErrorResponse;
 import uk.gov.di.ipv.cri.common.library.exception.SqsException;
 import uk.gov.di.ipv.cri.common.library.persistence.item.SessionItem;
-import uk.gov.di.ipv.cri.common.library.service.AuditService;
 import uk.gov.di.ipv.cri.common.library.service.ConfigurationService;
 import uk.gov.di.ipv.cri.common.library.service.PersonIdentityService;
 import uk.gov.di.ipv.cri.common.library.service.SessionService;
@@ -39,25 +43,40 @@ import uk.gov.di.ipv.cri.fraud.api.domain.audit.VCISSFraudAuditExtension;
 import uk.gov.di.ipv.cri.fraud.api.service.VerifiableCredentialService;
 import uk.gov.di.ipv.cri.fraud.api.util.TestDataCreator;
 import uk.gov.di.ipv.cri.fraud.library.FraudPersonIdentityDetailedMapper;
+import uk.gov.di.ipv.cri.fraud.library.domain.CredentialProjection;
 import uk.gov.di.ipv.cri.fraud.library.error.CommonExpressOAuthError;
 import uk.gov.di.ipv.cri.fraud.library.persistence.item.FraudResultItem;
+import uk.gov.di.ipv.cri.fraud.library.service.AuditEventDispatcher;
 import uk.gov.di.ipv.cri.fraud.library.service.ResultItemStorageService;
 import uk.gov.di.ipv.cri.fraud.library.service.ServiceFactory;
+import uk.gov.di.ipv.cri.fraud.library.util.CredentialProjectionCodec;
 import uk.org.webcompere.systemstubs.environment.EnvironmentVariables;
 import uk.org.webcompere.systemstubs.jupiter.SystemStub;
 import uk.org.webcompere.systemstubs.jupiter.SystemStubsExtension;
 
 import java.net.MalformedURLException;
 import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTimeout;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.*;
 import static uk.gov.di.ipv.cri.common.library.error.ErrorResponse.SESSION_NOT_FOUND;
+import static uk.gov.di.ipv.cri.fraud.library.metrics.Definitions.ISSUE_CREDENTIAL_PRE_SIGNED_CREDENTIAL_FALLBACK;
+import static uk.gov.di.ipv.cri.fraud.library.metrics.Definitions.ISSUE_CREDENTIAL_PRE_SIGNED_CREDENTIAL_USED;
+import static uk.gov.di.ipv.cri.fraud.library.metrics.Definitions.ISSUE_CREDENTIAL_PROJECTION_FALLBACK;
+import static uk.gov.di.ipv.cri.fraud.library.metrics.Definitions.ISSUE_CREDENTIAL_PROJECTION_USED;
 import static uk.gov.di.ipv.cri.fraud.library.metrics.Definitions.LAMBDA_ISSUE_CREDENTIAL_COMPLETED_ERROR;
 import static uk.gov.di.ipv.cri.fraud.library.metrics.Definitions.LAMBDA_ISSUE_CREDENTIAL_COMPLETED_OK;
 
@@ -67,6 +86,7 @@ class IssueCredentialHandlerTest {
     @SystemStub private EnvironmentVariables environmentVariables = new EnvironmentVariables();
 
     public static final String SUBJECT = "subject";
+    private static final String ISSUER = "issuer";
 
     @Mock ConfigurationService mockCommonLibConfigurationService;
 
@@ -75,7 +95,7 @@ class IssueCredentialHandlerTest {
     @Mock private EventProbe mockEventProbe;
 
     @Mock private SessionService mockSessionService;
-    @Mock private AuditService mockAuditService;
+    @Mock private AuditEventDispatcher mockAuditEventDispatcher;
 
     @Mock private PersonIdentityService mockPersonIdentityService;
     @Mock private ResultItemStorageService<FraudResultItem> fraudResultItemStorageService;
@@ -123,8 +143,8 @@ class IssueCredentialHandlerTest {
                 .thenReturn(mock(SignedJWT.class));
 
         doNothing()
-                .when(mockAuditService)
-                .sendAuditEvent(
+                .when(mockAuditEventDispatcher)
+                .dispatch(
                         eq(AuditEventType.VC_ISSUED),
                         any(AuditEventContext.class),
                         any(VCISSFraudAuditExtension.class));
@@ -137,17 +157,300 @@ class IssueCredentialHandlerTest {
         verify(mockVerifiableCredentialService)
                 .generateSignedVerifiableCredentialJwt(
                         sessionItem.getSubject(), fraudResultItem, personIdentityDetailed);
-        verify(mockAuditService)
-                .sendAuditEvent(
+        verify(mockAuditEventDispatcher)
+                .dispatch(
                         eq(AuditEventType.VC_ISSUED),
                         any(AuditEventContext.class),
                         any(VCISSFraudAuditExtension.class));
         verify(mockEventProbe).counterMetric(LAMBDA_ISSUE_CREDENTIAL_COMPLETED_OK);
+        verify(mockAuditEventDispatcher, times(2)).flush(anyLong());
         assertEquals(
                 ContentType.APPLICATION_JWT.getType(), response.getHeaders().get("Content-Type"));
         assertEquals(HttpStatusCode.OK, response.getStatusCode());
     }
 
+    @Test
+    void shouldReadPersonIdentityAndFraudResultConcurrently()
+            throws JOSEException, NoSuchAlgorithmException {
+        APIGatewayProxyRequestEvent event = new APIGatewayProxyRequestEvent();
+        AccessToken accessToken = new BearerAccessToken();
+        event.withHeaders(
+                Map.of(
+                        IssueCredentialHandler.AUTHORIZATION_HEADER_KEY,
+                        accessToken.toAuthorizationHeader()));
+        setRequestBodyAsPlainJWT(event);
+
+        var personIdentityDetailed =
+                FraudPersonIdentityDetailedMapper.generatePersonIdentityDetailed(
+                        TestDataCreator.createTestPersonIdentity());
+        SessionItem sessionItem = new SessionItem();
+        FraudResultItem fraudResultItem =
+                new FraudResultItem(UUID.randomUUID(), List.of(""), 1, 1, 90);
+
+        // Each read only completes once the other has started
+        CountDownLatch personIdentityReadStarted = new CountDownLatch(1);
+        CountDownLatch fraudResultReadStarted = new CountDownLatch(1);
+
+        when(mockSessionService.getSessionByAccessToken(accessToken)).thenReturn(sessionItem);
+        when(mockPersonIdentityService.getPersonIdentityDetailed(any()))
+                .thenAnswer(
+                        invocation -> {
+                            personIdentityReadStarted.countDown();
+                            assertTrue(fraudResultReadStarted.await(5, TimeUnit.SECONDS));
+                            return personIdentityDetailed;
+                        });
+        when(fraudResultItemStorageService.getResultItem(sessionItem.getSessionId()))
+                .thenAnswer(
+                        invocation -> {
+                            fraudResultReadStarted.countDown();
+                            assertTrue(personIdentityReadStarted.await(5, TimeUnit.SECONDS));
+                            return fraudResultItem;
+                        });
+        when(mockVerifiableCredentialService.generateSignedVerifiableCredentialJwt(
+                        sessionItem.getSubject(), fraudResultItem, personIdentityDetailed))
+                .thenReturn(mock(SignedJWT.class));
+
+        APIGatewayProxyResponseEvent response = handler.handleRequest(event, context);
+
+        verify(mockEventProbe).counterMetric(ISSUE_CREDENTIAL_PROJECTION_FALLBACK);
+        verify(mockEventProbe).counterMetric(LAMBDA_ISSUE_CREDENTIAL_COMPLETED_OK);
+        assertEquals(HttpStatusCode.OK, response.getStatusCode());
+    }
+
+    @Test
+    void shouldBuildTheCredentialFromTheProjectionWithoutWaitingForThePersonIdentity()
+            throws JOSEException, NoSuchAlgorithmException, JsonProcessingException {
+        APIGatewayProxyRequestEvent event = new APIGatewayProxyRequestEvent();
+        AccessToken accessToken = new BearerAccessToken();
+        event.withHeaders(
+                Map.of(
+                        IssueCredentialHandler.AUTHORIZATION_HEADER_KEY,
+                        accessToken.toAuthorizationHeader()));
+        setRequestBodyAsPlainJWT(event);
+
+        var personIdentityDetailed =
+                FraudPersonIdentityDetailedMapper.generatePersonIdentityDetailed(
+                        TestDataCreator.createTestPersonIdentity());
+        SessionItem sessionItem = new SessionItem();
+        sessionItem.setSubject(SUBJECT);
+        FraudResultItem fraudResultItem =
+                new FraudResultItem(UUID.randomUUID(), List.of(""), 1, 1, 90);
+        fraudResultItem.setCredentialProjection(
+                new CredentialProjectionCodec(new ObjectMapper())
+                        .write(new CredentialProjection(SUBJECT, personIdentityDetailed)));
+
+        // The person identity read is still in flight when the credential is returned
+        CountDownLatch personIdentityReadReleased = new CountDownLatch(1);
+
+        when(mockSessionService.getSessionByAccessToken(accessToken)).thenReturn(sessionItem);
+        lenient()
+                .when(mockPersonIdentityService.getPersonIdentityDetailed(any()))
+                .thenAnswer(
+                        invocation -> {
+                            personIdentityReadReleased.await(5, TimeUnit.SECONDS);
+                            return personIdentityDetailed;
+                        });
+        when(fraudResultItemStorageService.getResultItem(sessionItem.getSessionId()))
+                .thenReturn(fraudResultItem);
+        ArgumentCaptor<PersonIdentityDetailed> personIdentityDetailedCaptor =
+                ArgumentCaptor.forClass(PersonIdentityDetailed.class);
+        when(mockVerifiableCredentialService.generateSignedVerifiableCredentialJwt(
+                        eq(SUBJECT),
+                        eq(fraudResultItem),
+                        personIdentityDetailedCaptor.capture()))
+                .thenReturn(mock(SignedJWT.class));
+
+        APIGatewayProxyResponseEvent response =
+                assertTimeout(
+                        Duration.ofSeconds(2), () -> handler.handleRequest(event, context));
+        personIdentityReadReleased.countDown();
+
+        verify(mockEventProbe).counterMetric(ISSUE_CREDENTIAL_PROJECTION_USED);
+        verify(mockEventProbe).counterMetric(LAMBDA_ISSUE_CREDENTIAL_COMPLETED_OK);
+        assertEquals(HttpStatusCode.OK, response.getStatusCode());
+
+        PersonIdentityDetailed projectedPersonIdentityDetailed =
+                personIdentityDetailedCaptor.getValue();
+        assertEquals(
+                personIdentityDetailed.getNames().get(0).getNameParts().get(0).getValue(),
+                projectedPersonIdentityDetailed
+                        .getNames()
+                        .get(0)
+                        .getNameParts()
+                        .get(0)
+                        .getValue());
+        assertEquals(
+                personIdentityDetailed.getAddresses().get(0).getPostalCode(),
+                projectedPersonIdentityDetailed.getAddresses().get(0).getPostalCode());
+    }
+
+    @Test
+    void shouldReadThePersonIdentityWhenTheProjectionIsForAnotherSubject()
+            throws JOSEException, NoSuchAlgorithmException, JsonProcessingException {
+        APIGatewayProxyRequestEvent event = new APIGatewayProxyRequestEvent();
+        AccessToken accessToken = new BearerAccessToken();
+        event.withHeaders(
+                Map.of(
+                        IssueCredentialHandler.AUTHORIZATION_HEADER_KEY,
+                        accessToken.toAuthorizationHeader()));
+        setRequestBodyAsPlainJWT(event);
+
+        var personIdentityDetailed =
+                FraudPersonIdentityDetailedMapper.generatePersonIdentityDetailed(
+                        TestDataCreator.createTestPersonIdentity());
+        SessionItem sessionItem = new SessionItem();
+        sessionItem.setSubject(SUBJECT);
+        FraudResultItem fraudResultItem =
+                new FraudResultItem(UUID.randomUUID(), List.of(""), 1, 1, 90);
+        fraudResultItem.setCredentialProjection(
+                new CredentialProjectionCodec(new ObjectMapper())
+                        .write(
+                                new CredentialProjection(
+                                        "another-subject", personIdentityDetailed)));
+
+        when(mockSessionService.getSessionByAccessToken(accessToken)).thenReturn(sessionItem);
+        when(mockPersonIdentityService.getPersonIdentityDetailed(sessionItem.getSessionId()))
+                .thenReturn(personIdentityDetailed);
+        when(fraudResultItemStorageService.getResultItem(sessionItem.getSessionId()))
+                .thenReturn(fraudResultItem);
+        when(mockVerifiableCredentialService.generateSignedVerifiableCredentialJwt(
+                        sessionItem.getSubject(), fraudResultItem, personIdentityDetailed))
+                .thenReturn(mock(SignedJWT.class));
+
+        APIGatewayProxyResponseEvent response = handler.handleRequest(event, context);
+
+        verify(mockPersonIdentityService).getPersonIdentityDetailed(sessionItem.getSessionId());
+        verify(mockEventProbe).counterMetric(ISSUE_CREDENTIAL_PROJECTION_FALLBACK);
+        assertEquals(HttpStatusCode.OK, response.getStatusCode());
+    }
+
+    @Test
+    void shouldReturnThePreSignedCredentialWithoutSigningWhenItMatchesTheSession()
+            throws JOSEException, NoSuchAlgorithmException {
+        environmentVariables.set("ENV_VAR_FEATURE_FLAG_VC_PRE_SIGNING", "true");
+        handler = new IssueCredentialHandler(mockServiceFactory, mockVerifiableCredentialService);
+
+        APIGatewayProxyRequestEvent event = new APIGatewayProxyRequestEvent();
+        AccessToken accessToken = new BearerAccessToken();
+        event.withHeaders(
+                Map.of(
+                        IssueCredentialHandler.AUTHORIZATION_HEADER_KEY,
+                        accessToken.toAuthorizationHeader()));
+        setRequestBodyAsPlainJWT(event);
+
+        SessionItem sessionItem = new SessionItem();
+        sessionItem.setSubject(SUBJECT);
+        FraudResultItem fraudResultItem =
+                new FraudResultItem(UUID.randomUUID(), List.of(""), 1, 1, 90);
+        String preSignedCredential = createPreSignedCredential(SUBJECT, ISSUER);
+        fraudResultItem.setPreSignedCredential(preSignedCredential);
+
+        when(mockSessionService.getSessionByAccessToken(accessToken)).thenReturn(sessionItem);
+        when(fraudResultItemStorageService.getResultItem(sessionItem.getSessionId()))
+                .thenReturn(fraudResultItem);
+        when(mockCommonLibConfigurationService.getVerifiableCredentialIssuer()).thenReturn(ISSUER);
+
+        APIGatewayProxyResponseEvent response = handler.handleRequest(event, context);
+
+        verify(mockVerifiableCredentialService, never())
+                .generateSignedVerifiableCredentialJwt(
+                        anyString(), any(), any());
+        verify(mockAuditEventDispatcher)
+                .dispatch(
+                        eq(AuditEventType.VC_ISSUED),
+                        any(AuditEventContext.class),
+                        any(VCISSFraudAuditExtension.class));
+        verify(mockEventProbe).counterMetric(ISSUE_CREDENTIAL_PRE_SIGNED_CREDENTIAL_USED);
+        verify(mockEventProbe).counterMetric(LAMBDA_ISSUE_CREDENTIAL_COMPLETED_OK);
+        assertEquals(HttpStatusCode.OK, response.getStatusCode());
+        assertEquals(preSignedCredential, response.getBody());
+    }
+
+    @Test
+    void shouldSignOnDemandWhenThePreSignedCredentialIsForAnotherSubject()
+            throws JOSEException, NoSuchAlgorithmException {
+        environmentVariables.set("ENV_VAR_FEATURE_FLAG_VC_PRE_SIGNING", "true");
+        handler = new IssueCredentialHandler(mockServiceFactory, mockVerifiableCredentialService);
+
+        APIGatewayProxyRequestEvent event = new APIGatewayProxyRequestEvent();
+        AccessToken accessToken = new BearerAccessToken();
+        event.withHeaders(
+                Map.of(
+                        IssueCredentialHandler.AUTHORIZATION_HEADER_KEY,
+                        accessToken.toAuthorizationHeader()));
+        setRequestBodyAsPlainJWT(event);
+
+        var personIdentityDetailed =
+                FraudPersonIdentityDetailedMapper.generatePersonIdentityDetailed(
+                        TestDataCreator.createTestPersonIdentity());
+        SessionItem sessionItem = new SessionItem();
+        sessionItem.setSubject(SUBJECT);
+        FraudResultItem fraudResultItem =
+                new FraudResultItem(UUID.randomUUID(), List.of(""), 1, 1, 90);
+        fraudResultItem.setPreSignedCredential(
+                createPreSignedCredential("another-subject", ISSUER));
+
+        when(mockSessionService.getSessionByAccessToken(accessToken)).thenReturn(sessionItem);
+        when(mockPersonIdentityService.getPersonIdentityDetailed(any()))
+                .thenReturn(personIdentityDetailed);
+        when(fraudResultItemStorageService.getResultItem(sessionItem.getSessionId()))
+                .thenReturn(fraudResultItem);
+        when(mockCommonLibConfigurationService.getVerifiableCredentialIssuer()).thenReturn(ISSUER);
+        when(mockVerifiableCredentialService.generateSignedVerifiableCredentialJwt(
+                        sessionItem.getSubject(), fraudResultItem, personIdentityDetailed))
+                .thenReturn(mock(SignedJWT.class));
+
+        APIGatewayProxyResponseEvent response = handler.handleRequest(event, context);
+
+        verify(mockVerifiableCredentialService)
+                .generateSignedVerifiableCredentialJwt(
+                        sessionItem.getSubject(), fraudResultItem, personIdentityDetailed);
+        verify(mockEventProbe).counterMetric(ISSUE_CREDENTIAL_PRE_SIGNED_CREDENTIAL_FALLBACK);
+        verify(mockEventProbe).counterMetric(LAMBDA_ISSUE_CREDENTIAL_COMPLETED_OK);
+        assertEquals(HttpStatusCode.OK, response.getStatusCode());
+    }
+
+    @Test
+    void shouldReturn500WhenAuditEventsFailToSend()
+            throws JOSEException, SqsException, NoSuchAlgorithmException {
+        APIGatewayProxyRequestEvent event = new APIGatewayProxyRequestEvent();
+        AccessToken accessToken = new BearerAccessToken();
+        event.withHeaders(
+                Map.of(
+                        IssueCredentialHandler.AUTHORIZATION_HEADER_KEY,
+                        accessToken.toAuthorizationHeader()));
+        setRequestBodyAsPlainJWT(event);
+
+        var personIdentityDetailed =
+                FraudPersonIdentityDetailedMapper.generatePersonIdentityDetailed(
+                        TestDataCreator.createTestPersonIdentity());
+        SessionItem sessionItem = new SessionItem();
+        FraudResultItem fraudResultItem =
+                new FraudResultItem(UUID.randomUUID(), List.of(""), 1, 1, 90);
+
+        when(mockSessionService.getSessionByAccessToken(accessToken)).thenReturn(sessionItem);
+        when(mockPersonIdentityService.getPersonIdentityDetailed(any()))
+                .thenReturn(personIdentityDetailed);
+        when(fraudResultItemStorageService.getResultItem(sessionItem.getSessionId()))
+                .thenReturn(fraudResultItem);
+        when(mockVerifiableCredentialService.generateSignedVerifiableCredentialJwt(
+                        sessionItem.getSubject(), fraudResultItem, personIdentityDetailed))
+                .thenReturn(mock(SignedJWT.class));
+
+        doThrow(new SqsException(new IllegalStateException("1 audit events failed to send")))
+                .when(mockAuditEventDispatcher)
+                .flush(anyLong());
+
+        APIGatewayProxyResponseEvent response = handler.handleRequest(event, context);
+
+        // No END for a session that did not get a credential
+        verify(mockAuditEventDispatcher, never())
+                .dispatch(eq(AuditEventType.END), any(AuditEventContext.class));
+        verify(mockEventProbe, never()).counterMetric(LAMBDA_ISSUE_CREDENTIAL_COMPLETED_OK);
+        verify(mockEventProbe).counterMetric(LAMBDA_ISSUE_CREDENTIAL_COMPLETED_ERROR);
+        assertEquals(HttpStatusCode.INTERNAL_SERVER_ERROR, response.getStatusCode());
+    }
+
     @Test
     void shouldThrowJOSEExceptionWhenGenerateVerifiableCredentialIsMalformed()
             throws JOSEException, SqsException, JsonProcessingException, MalformedURLException,
@@ -189,8 +492,8 @@ class IssueCredentialHandlerTest {
                         sessionItem.getSubject(), fraudResultItem, personIdentityDetailed);
         verify(mockEventProbe).counterMetric(LAMBDA_ISSUE_CREDENTIAL_COMPLETED_ERROR);
         verifyNoMoreInteractions(mockVerifiableCredentialService);
-        verify(mockAuditService, never())
-                .sendAuditEvent(
+        verify(mockAuditEventDispatcher, never())
+                .dispatch(
                         eq(AuditEventType.VC_ISSUED),
                         any(AuditEventContext.class),
                         any(VCISSFraudAuditExtension.class));
@@ -245,8 +548,8 @@ class IssueCredentialHandlerTest {
 
         APIGatewayProxyResponseEvent response = handler.handleRequest(event, context);
         verify(mockEventProbe).counterMetric(LAMBDA_ISSUE_CREDENTIAL_COMPLETED_ERROR);
-        verify(mockAuditService, never())
-                .sendAuditEvent(
+        verify(mockAuditEventDispatcher, never())
+                .dispatch(
                         eq(AuditEventType.VC_ISSUED),
                         any(AuditEventContext.class),
                         any(VCISSFraudAuditExtension.class));
@@ -288,13 +591,14 @@ class IssueCredentialHandlerTest {
 
         verify(mockSessionService).getSessionByAccessToken(accessToken);
         verify(mockPersonIdentityService, never()).getPersonIdentityDetailed(UUID.randomUUID());
-        verify(mockAuditService, never())
-                .sendAuditEvent(
+        verify(mockAuditEventDispatcher, never())
+                .dispatch(
                         eq(AuditEventType.VC_ISSUED),
                         any(AuditEventContext.class),
                         any(VCISSFraudAuditExtension.class));
         verify(mockEventProbe).counterMetric(LAMBDA_ISSUE_CREDENTIAL_COMPLETED_ERROR);
-        verify(mockAuditService, never()).sendAuditEvent((AuditEventType) any());
+        verify(mockAuditEventDispatcher, never())
+                .dispatch(any(AuditEventType.class), any(AuditEventContext.class));
 
         String responseBody = new ObjectMapper().readValue(response.getBody(), String.class);
         assertEquals(awsErrorDetails.sdkHttpResponse().statusCode(), response.getStatusCode());
@@ -336,8 +640,8 @@ class IssueCredentialHandlerTest {
 
         verify(mockSessionService).getSessionByAccessToken(accessToken);
         verify(mockPersonIdentityService).getPersonIdentityDetailed(sessionItem.getSessionId());
-        verify(mockAuditService, never())
-                .sendAuditEvent(
+        verify(mockAuditEventDispatcher, never())
+                .dispatch(
                         eq(AuditEventType.VC_ISSUED),
                         any(AuditEventContext.class),
                         any(VCISSFraudAuditExtension.class));
@@ -359,14 +663,31 @@ class IssueCredentialHandlerTest {
         event.setBody(requestJWT);
     }
 
+    private String createPreSignedCredential(String subject, String issuer)
+            throws JOSEException {
+        SignedJWT signedJWT =
+                new SignedJWT(
+                        new JWSHeader(JWSAlgorithm.HS256),
+                        new JWTClaimsSet.Builder()
+                                .subject(subject)
+                                .issuer(issuer)
+                                .expirationTime(
+                                        Date.from(Instant.now().plus(1, ChronoUnit.HOURS)))
+                                .build());
+        signedJWT.sign(new MACSigner(new byte[32]));
+
+        return signedJWT.serialize();
+    }
+
     private void mockServiceFactoryBehaviour() {
         when(mockServiceFactory.getCommonLibConfigurationService())
                 .thenReturn(mockCommonLibConfigurationService);
 
         when(mockServiceFactory.getEventProbe()).thenReturn(mockEventProbe);
+        when(mockServiceFactory.getObjectMapper()).thenReturn(new ObjectMapper());
 
         when(mockServiceFactory.getSessionService()).thenReturn(mockSessionService);
-        when(mockServiceFactory.getAuditService()).thenReturn(mockAuditService);
+        when(mockServiceFactory.getAuditEventDispatcher()).thenReturn(mockAuditEventDispatcher);
 
         when(mockServiceFactory.getPersonIdentityService()).thenReturn(mockPersonIdentityService);
 
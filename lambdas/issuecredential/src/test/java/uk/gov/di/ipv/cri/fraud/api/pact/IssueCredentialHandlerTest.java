@@ -8,8 +8,6 @@ import au.com.dius.pact.provider.junitsupport.State;
 import au.com.dius.pact.provider.junitsupport.loader.PactBroker;
 import au.com.dius.pact.provider.junitsupport.loader.PactBrokerAuth;
 import au.com.dius.pact.provider.junitsupport.loader.SelectorBuilder;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import com.nimbusds.jose.JOSEException;
 import com.nimbusds.jose.JWSSigner;
 import com.nimbusds.jose.crypto.ECDSASigner;
@@ -36,7 +34,6 @@ import uk.gov.di.ipv.cri.common.library.persistence.item.personidentity.PersonId
 import uk.gov.di.ipv.cri.common.library.persistence.item.personidentity.PersonIdentityItem;
 import uk.gov.di.ipv.cri.common.library.persistence.item.personidentity.PersonIdentityName;
 import uk.gov.di.ipv.cri.common.library.persistence.item.personidentity.PersonIdentityNamePart;
-import uk.gov.di.ipv.cri.common.library.service.AuditService;
 import uk.gov.di.ipv.cri.common.library.service.ConfigurationService;
 import uk.gov.di.ipv.cri.common.library.service.PersonIdentityMapper;
 import uk.gov.di.ipv.cri.common.library.service.PersonIdentityService;
@@ -48,6 +45,7 @@ import uk.gov.di.ipv.cri.fraud.api.pact.utils.MockHttpServer;
 import uk.gov.di.ipv.cri.fraud.api.service.VerifiableCredentialService;
 import uk.gov.di.ipv.cri.fraud.library.config.ParameterStoreParameters;
 import uk.gov.di.ipv.cri.fraud.library.persistence.item.FraudResultItem;
+import uk.gov.di.ipv.cri.fraud.library.service.AuditEventDispatcher;
 import uk.gov.di.ipv.cri.fraud.library.service.ParameterStoreService;
 import uk.gov.di.ipv.cri.fraud.library.service.ResultItemStorageService;
 import uk.gov.di.ipv.cri.fraud.library.service.ServiceFactory;
@@ -107,16 +105,13 @@ class IssueCredentialHandlerTest {
     @Mock private EventProbe mockEventProbe;
     @Mock private ConfigurationService mockCommonLibConfigurationService;
     private SessionService sessionService;
-    @Mock private AuditService mockAuditService;
+    @Mock private AuditEventDispatcher mockAuditEventDispatcher;
     @Mock private ResultItemStorageService<FraudResultItem> mockFraudResultItemStorageService;
     @Mock private ParameterStoreService mockParameterStoreService;
 
     @Mock private DataStore<SessionItem> mockSessionItemDataStore;
     @Mock private DataStore<PersonIdentityItem> mockPersonIdentityDataStore;
 
-    private final ObjectMapper objectMapper =
-            new ObjectMapper().registerModules(new JavaTimeModule());
-
     // Off by default to prevent logging all secrets
     private static final boolean ENABLE_FULL_DEBUG = false;
 
@@ -429,7 +424,6 @@ class IssueCredentialHandlerTest {
 
     private void mockServiceFactoryBehaviour() {
 
-        when(mockServiceFactory.getObjectMapper()).thenReturn(objectMapper);
         when(mockServiceFactory.getEventProbe()).thenReturn(mockEventProbe);
         when(mockServiceFactory.getParameterStoreService()).thenReturn(mockParameterStoreService);
         when(mockServiceFactory.getParameterStoreService()).thenReturn(mockParameterStoreService);
@@ -441,7 +435,7 @@ class IssueCredentialHandlerTest {
                         mockCommonLibConfigurationService,
                         Clock.systemUTC());
         when(mockServiceFactory.getSessionService()).thenReturn(sessionService);
-        when(mockServiceFactory.getAuditService()).thenReturn(mockAuditService);
+        when(mockServiceFactory.getAuditEventDispatcher()).thenReturn(mockAuditEventDispatcher);
         when(mockServiceFactory.getPersonIdentityService())
                 .thenReturn(
                         new PersonIdentityService(
@@ -0,0 +1,88 @@
+package uk.gov.di.ipv.cri.fraud.api.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.Test;
+import uk.gov.di.ipv.cri.common.library.domain.personidentity.Address;
+import uk.gov.di.ipv.cri.common.library.domain.personidentity.PersonIdentityDetailed;
+import uk.gov.di.ipv.cri.fraud.api.domain.Evidence;
+import uk.gov.di.ipv.cri.fraud.api.domain.ThirdPartyAddress;
+import uk.gov.di.ipv.cri.fraud.api.util.EvidenceHelper;
+import uk.gov.di.ipv.cri.fraud.api.util.TestDataCreator;
+import uk.gov.di.ipv.cri.fraud.library.FraudPersonIdentityDetailedMapper;
+import uk.gov.di.ipv.cri.fraud.library.domain.CheckType;
+import uk.gov.di.ipv.cri.fraud.library.persistence.item.FraudResultItem;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class VerifiableCredentialClaimsWriterTest {
+
+    // The conversion the writer replaces
+    private final ObjectMapper objectMapper =
+            new ObjectMapper().registerModule(new JavaTimeModule());
+
+    @Test
+    void shouldWriteAddressesAsTheObjectMapperConversionDid() throws JsonProcessingException {
+        PersonIdentityDetailed personIdentityDetailed =
+                FraudPersonIdentityDetailedMapper.generatePersonIdentityDetailed(
+                        TestDataCreator.createTestPersonIdentityMultipleAddresses(3));
+        List<Address> addresses = personIdentityDetailed.getAddresses();
+        addresses.get(0).setBuildingName("Building Name");
+
+        Object[] addressClaims = VerifiableCredentialClaimsWriter.writeAddresses(addresses);
+
+        assertEquals(addresses.size(), addressClaims.length);
+        for (int i = 0; i < addresses.size(); i++) {
+            assertEquals(
+                    objectMapper.writeValueAsString(
+                            objectMapper.convertValue(addresses.get(i), ThirdPartyAddress.class)),
+                    objectMapper.writeValueAsString(addressClaims[i]));
+        }
+    }
+
+    @Test
+    void shouldWriteEvidenceAsTheObjectMapperConversionDid() throws JsonProcessingException {
+        FraudResultItem fraudResultItem =
+                new FraudResultItem(UUID.randomUUID(), List.of("A01"), 2, 1, 0);
+        fraudResultItem.setTransactionId(UUID.randomUUID().toString());
+        fraudResultItem.setPepTransactionId(UUID.randomUUID().toString());
+        fraudResultItem.setCheckDetails(
+                List.of(
+                        CheckType.MORTALITY_CHECK.name(),
+                        CheckType.IDENTITY_THEFT_CHECK.name(),
+                        CheckType.ACTIVITY_HISTORY_CHECK.name()));
+        fraudResultItem.setFailedCheckDetails(List.of(CheckType.IMPERSONATION_RISK_CHECK.name()));
+        fraudResultItem.setActivityFrom(LocalDate.of(2013, 12, 1).toString());
+
+        Evidence evidence = EvidenceHelper.fraudCheckResultItemToEvidence(fraudResultItem);
+        evidence.setDecisionScore(null);
+
+        Map<String, Object> evidenceClaim =
+                VerifiableCredentialClaimsWriter.writeEvidence(evidence);
+
+        assertEquals(objectMapper.convertValue(evidence, Map.class), evidenceClaim);
+        // Key order included
+        assertEquals(
+                objectMapper.writeValueAsString(objectMapper.convertValue(evidence, Map.class)),
+                objectMapper.writeValueAsString(evidenceClaim));
+    }
+
+    @Test
+    void shouldLeaveOutEvidenceValuesThatAreNotSet() {
+        FraudResultItem fraudResultItem = new FraudResultItem();
+        fraudResultItem.setIdentityFraudScore(1);
+        fraudResultItem.setContraIndicators(List.of());
+
+        Evidence evidence = EvidenceHelper.fraudCheckResultItemToEvidence(fraudResultItem);
+
+        assertEquals(
+                objectMapper.convertValue(evidence, Map.class),
+                VerifiableCredentialClaimsWriter.writeEvidence(evidence));
+    }
+}
@@ -0,0 +1,53 @@
+package uk.gov.di.ipv.cri.fraud.api.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.nimbusds.jose.JWSSigner;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import uk.gov.di.ipv.cri.fraud.library.service.ServiceFactory;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class VerifiableCredentialPrimerTest {
+
+    @Mock private ServiceFactory mockServiceFactory;
+    @Mock private JWSSigner mockKmsSigner;
+    @Mock private VerifiableCredentialService mockVerifiableCredentialService;
+
+    @Test
+    void shouldRunTheCredentialPathAndReturnTheDuration() {
+        when(mockServiceFactory.getObjectMapper())
+                .thenReturn(new ObjectMapper().registerModule(new JavaTimeModule()));
+
+        VerifiableCredentialService verifiableCredentialService =
+                new VerifiableCredentialService(mockServiceFactory, mockKmsSigner);
+
+        long primingDuration = new VerifiableCredentialPrimer(verifiableCredentialService).prime();
+
+        assertTrue(primingDuration >= 0);
+        // Priming signs with its own key, never the real signer
+        verifyNoInteractions(mockKmsSigner);
+    }
+
+    @Test
+    void shouldReturnMinusOneWhenPrimingFails() {
+        when(mockVerifiableCredentialService.convertAddresses(any()))
+                .thenThrow(new IllegalStateException("priming failure"));
+
+        VerifiableCredentialPrimer primer =
+                new VerifiableCredentialPrimer(mockVerifiableCredentialService);
+
+        assertEquals(-1, primer.prime());
+        verify(mockVerifiableCredentialService, atLeastOnce()).convertAddresses(any());
+    }
+}
@@ -56,7 +56,7 @@ class VerifiableCredentialServiceTest implements TestFixtures {
     private static final String UNIT_TEST_VC_KEYID = "UNIT_TEST_VC_KEYID";
     private static final String UNIT_TEST_VC_ISSUER = "https://review-f.account.gov.uk";
 
-    // Returned via the ServiceFactory
+    // Reads back the generated claims
     private final ObjectMapper realObjectMapper =
             new ObjectMapper().registerModule(new JavaTimeModule());
 
@@ -238,7 +238,6 @@ class VerifiableCredentialServiceTest implements TestFixtures {
     }
 
     private void mockServiceFactoryBehaviour() {
-        when(mockServiceFactory.getObjectMapper()).thenReturn(realObjectMapper);
         when(mockServiceFactory.getParameterStoreService()).thenReturn(mockParameterStoreService);
         when(mockServiceFactory.getCommonLibConfigurationService())
                 .thenReturn(mockCommonLibConfigurationService);
@@ -0,0 +1,27 @@
+package uk.gov.di.ipv.cri.fraud.library.domain;
+
+import uk.gov.di.ipv.cri.common.library.domain.personidentity.PersonIdentityDetailed;
+
+/**
+ * The session values a credential is built from, stored with the fraud result so the credential
+ * can be issued without reading the session's person identity. Evidence and ttl are the fraud
+ * result's own.
+ */
+public class CredentialProjection {
+
+    private final String subject;
+    private final PersonIdentityDetailed personIdentityDetailed;
+
+    public CredentialProjection(String subject, PersonIdentityDetailed personIdentityDetailed) {
+        this.subject = subject;
+        this.personIdentityDetailed = personIdentityDetailed;
+    }
+
+    public String getSubject() {
+        return subject;
+    }
+
+    public PersonIdentityDetailed getPersonIdentityDetailed() {
+        return personIdentityDetailed;
+    }
+}
@@ -13,12 +13,37 @@ public class Definitions {
             "lambda_issue_credential_completed_ok";
     public static final String LAMBDA_ISSUE_CREDENTIAL_COMPLETED_ERROR =
             "lambda_issue_credential_completed_error";
+    public static final String LAMBDA_CREDENTIAL_PRE_SIGNING_COMPLETED_OK =
+            "lambda_credential_pre_signing_completed_ok";
+    public static final String LAMBDA_CREDENTIAL_PRE_SIGNING_COMPLETED_ERROR =
+            "lambda_credential_pre_signing_completed_error";
+
+    // Pre-signed credential returned, or signed on demand as it was missing or not usable
+    public static final String ISSUE_CREDENTIAL_PRE_SIGNED_CREDENTIAL_USED =
+            "issue_credential_pre_signed_credential_used";
+    public static final String ISSUE_CREDENTIAL_PRE_SIGNED_CREDENTIAL_FALLBACK =
+            "issue_credential_pre_signed_credential_fallback";
+
+    // Credential built from the projection on the fraud result, or from the person identity
+    public static final String ISSUE_CREDENTIAL_PROJECTION_USED =
+            "issue_credential_projection_used";
+    public static final String ISSUE_CREDENTIAL_PROJECTION_FALLBACK =
+            "issue_credential_projection_fallback";
 
     // Runtime Capture of colds starts as custom metric for monitoring
     public static final String LAMBDA_FRAUD_CHECK_FUNCTION_INIT_DURATION =
             "lambda_fraud_check_function_init_duration";
     public static final String LAMBDA_ISSUE_CREDENTIAL_FUNCTION_INIT_DURATION =
             "lambda_issue_credential_function_init_duration";
+    public static final String LAMBDA_FRAUD_CHECK_CONNECTION_PREWARM_DURATION =
+            "lambda_fraud_check_connection_prewarm_duration";
+    public static final String LAMBDA_FRAUD_CHECK_FUNCTION_PRIMING_DURATION =
+            "lambda_fraud_check_function_priming_duration";
+    public static final String LAMBDA_ISSUE_CREDENTIAL_FUNCTION_PRIMING_DURATION =
+            "lambda_issue_credential_function_priming_duration";
+    // ServiceFactory per component build time (component name is appended)
+    public static final String LAMBDA_COMPONENT_INIT_DURATION_PREFIX =
+            "lambda_component_init_duration_";
 
     // PersonIdentityValidator
     public static final String PERSON_DETAILS_VALIDATION_PASS = "person_details_validation_pass";
@@ -32,6 +57,15 @@ public class Definitions {
     public static final String PEP_CHECK_REQUEST_SUCCEEDED = "pep_check_request_succeeded";
     public static final String PEP_CHECK_REQUEST_FAILED = "pep_check_request_failed";
 
+    // Speculative PEP Check (sent alongside the fraud check)
+    public static final String PEP_CHECK_SPECULATIVE_DISPATCHED =
+            "pep_check_speculative_dispatched";
+    public static final String PEP_CHECK_SPECULATIVE_USED = "pep_check_speculative_used";
+    public static final String PEP_CHECK_SPECULATIVE_WASTED = "pep_check_speculative_wasted";
+
+    // HttpRetryer - retry not sent as it could not complete before the lambda times out
+    public static final String HTTP_RETRY_SKIPPED_DEADLINE = "http_retry_skipped_deadline";
+
     // OverallScore (Score is appended)
     public static final String IDENTITY_CHECK_SCORE_PREFIX = "identity_check_score_";
 
@@ -39,6 +73,10 @@ public class Definitions {
     public static final String FRAUD_CHECK_CI_PREFIX = "fraud_check_ci_";
     public static final String PEP_CHECK_CI_PREFIX = "pep_check_ci_";
 
+    // Third party fraud codes with no contra indicator mapping (count of codes)
+    public static final String CONTRA_INDICATOR_UNMAPPED_FRAUD_CODES =
+            "contra_indicator_unmapped_fraud_codes";
+
     // Third Party Response Type Fraud
     public static final String THIRD_PARTY_FRAUD_RESPONSE_TYPE_INFO =
             "third_party_fraud_response_type_info";
@@ -28,6 +28,11 @@ public enum ThirdPartyAPIEndpointMetric {
     ///////////////////////////////////////////////////////////////////////////////////////////////
 
     TOKEN_REQUEST_REUSING_CACHED_TOKEN(TOKEN, "reusing_cached_token"),
+    TOKEN_REQUEST_L1_CACHE_HIT(TOKEN, "l1_cache_hit"),
+    TOKEN_REQUEST_L1_CACHE_MISS(TOKEN, "l1_cache_miss"),
+    TOKEN_REQUEST_REFRESH_AHEAD_STARTED(TOKEN, "refresh_ahead_started"),
+    TOKEN_REQUEST_REFRESH_AHEAD_LEASE_UNAVAILABLE(TOKEN, "refresh_ahead_lease_unavailable"),
+    TOKEN_REQUEST_REFRESH_AHEAD_ALREADY_REFRESHED(TOKEN, "refresh_ahead_already_refreshed"),
     TOKEN_REQUEST_CREATED(TOKEN, REQUEST_CREATED),
     TOKEN_REQUEST_SEND_OK(TOKEN, REQUEST_SEND_OK),
     TOKEN_REQUEST_SEND_ERROR(TOKEN, REQUEST_SEND_ERROR),
@@ -23,6 +23,12 @@ public class FraudResultItem {
     private List<String> checkDetails;
     private List<String> failedCheckDetails;
 
+    // Person identity and subject the credential is built from, see CredentialProjectionCodec
+    private String credentialProjection;
+
+    // Credential signed after the check completed, kept under the same ttl as the result
+    private String preSignedCredential;
+
     private long ttl;
 
     public FraudResultItem() {}
@@ -121,6 +127,22 @@ public class FraudResultItem {
         this.activityFrom = activityFrom;
     }
 
+    public String getCredentialProjection() {
+        return credentialProjection;
+    }
+
+    public void setCredentialProjection(String credentialProjection) {
+        this.credentialProjection = credentialProjection;
+    }
+
+    public String getPreSignedCredential() {
+        return preSignedCredential;
+    }
+
+    public void setPreSignedCredential(String preSignedCredential) {
+        this.preSignedCredential = preSignedCredential;
+    }
+
     public long getTtl() {
         return ttl;
     }
@@ -143,7 +165,9 @@ public class FraudResultItem {
                 && Objects.equals(pepTransactionId, that.pepTransactionId)
                 && Objects.equals(decisionScore, that.decisionScore)
                 && Objects.equals(checkDetails, that.checkDetails)
-                && Objects.equals(failedCheckDetails, that.failedCheckDetails);
+                && Objects.equals(failedCheckDetails, that.failedCheckDetails)
+                && Objects.equals(credentialProjection, that.credentialProjection)
+                && Objects.equals(preSignedCredential, that.preSignedCredential);
     }
 
     @Override
@@ -158,6 +182,8 @@ public class FraudResultItem {
                 pepTransactionId,
                 decisionScore,
                 checkDetails,
-                failedCheckDetails);
+                failedCheckDetails,
+                credentialProjection,
+                preSignedCredential);
     }
 }
@@ -0,0 +1,45 @@
+package uk.gov.di.ipv.cri.fraud.library.persistence.item;
+
+import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbAtomicCounter;
+import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbBean;
+import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbPartitionKey;
+import uk.gov.di.ipv.cri.common.library.annotations.ExcludeFromGeneratedCoverageReport;
+
+import java.util.UUID;
+
+/**
+ * The attempt count attribute of a session table item. Updating it with ignoreNulls writes only
+ * the counter, leaving the rest of the SessionItem as it is.
+ */
+@DynamoDbBean
+@ExcludeFromGeneratedCoverageReport
+public class SessionAttemptItem {
+    private UUID sessionId;
+
+    // Incremented by the enhanced client's AtomicCounterExtension, the first attempt counts as 1
+    private Long attemptCount;
+
+    public SessionAttemptItem() {}
+
+    public SessionAttemptItem(UUID sessionId) {
+        this.sessionId = sessionId;
+    }
+
+    @DynamoDbPartitionKey
+    public UUID getSessionId() {
+        return sessionId;
+    }
+
+    public void setSessionId(UUID sessionId) {
+        this.sessionId = sessionId;
+    }
+
+    @DynamoDbAtomicCounter(startValue = 1)
+    public Long getAttemptCount() {
+        return attemptCount;
+    }
+
+    public void setAttemptCount(Long attemptCount) {
+        this.attemptCount = attemptCount;
+    }
+}
@@ -0,0 +1,212 @@
+package uk.gov.di.ipv.cri.fraud.library.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import software.amazon.awssdk.core.exception.SdkException;
+import software.amazon.awssdk.services.sqs.SqsClient;
+import software.amazon.awssdk.services.sqs.model.BatchResultErrorEntry;
+import software.amazon.awssdk.services.sqs.model.SendMessageBatchRequest;
+import software.amazon.awssdk.services.sqs.model.SendMessageBatchRequestEntry;
+import software.amazon.awssdk.services.sqs.model.SendMessageBatchResponse;
+import uk.gov.di.ipv.cri.common.library.domain.AuditEventContext;
+import uk.gov.di.ipv.cri.common.library.domain.AuditEventType;
+import uk.gov.di.ipv.cri.common.library.exception.SqsException;
+import uk.gov.di.ipv.cri.common.library.service.AuditEventFactory;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Sends audit events to the TxMA queue in as few requests as possible. Events are built and
+ * serialised when they are dispatched, so the event timestamp and content are the same as with
+ * {@link uk.gov.di.ipv.cri.common.library.service.AuditService}, then held until the handler
+ * calls {@link #flush(long)}, which sends them together with SendMessageBatch.
+ *
+ * <p>Sending is not overlapped with the rest of the request. The authorization code is only
+ * issued once the check events are on the queue, and END is only sent once VC_ISSUED is, so the
+ * saving is the round trips of the events dispatched between two flushes sharing one request.
+ * Events are sent in the order they were dispatched, and a failure is reported by the flush as
+ * the {@link SqsException} the synchronous send would have thrown.
+ */
+public class AuditEventDispatcher {
+
+    private static final Logger LOGGER = LogManager.getLogger();
+
+    // SendMessageBatch API limits
+    static final int SEND_MESSAGE_BATCH_MAX_ENTRIES = 10;
+    static final int SEND_MESSAGE_BATCH_MAX_PAYLOAD_BYTES = 262_144;
+
+    private final SqsClient sqsClient;
+    private final String queueUrl;
+    private final ObjectMapper objectMapper;
+    private final AuditEventFactory auditEventFactory;
+
+    private final Object pendingLock = new Object();
+    private List<String> pendingMessageBodies = new ArrayList<>();
+
+    public AuditEventDispatcher(
+            SqsClient sqsClient,
+            String queueUrl,
+            ObjectMapper objectMapper,
+            AuditEventFactory auditEventFactory) {
+        this.sqsClient = sqsClient;
+        this.queueUrl = queueUrl;
+        this.objectMapper = objectMapper;
+        this.auditEventFactory = auditEventFactory;
+    }
+
+    public void dispatch(AuditEventType eventType, AuditEventContext context)
+            throws SqsException {
+        dispatch(eventType, context, null);
+    }
+
+    /**
+     * Holds the event until the next {@link #flush(long)}.
+     *
+     * @throws SqsException if the event could not be serialised, nothing is held
+     */
+    public <T> void dispatch(AuditEventType eventType, AuditEventContext context, T extensions)
+            throws SqsException {
+        String messageBody;
+        try {
+            messageBody =
+                    objectMapper.writeValueAsString(
+                            auditEventFactory.create(eventType.toString(), context, extensions));
+        } catch (JsonProcessingException e) {
+            throw new SqsException(e);
+        }
+
+        synchronized (pendingLock) {
+            pendingMessageBodies.add(messageBody);
+        }
+    }
+
+    /**
+     * Sends every event dispatched since the last flush, each request bounded by what is left of
+     * the timeout.
+     *
+     * @throws SqsException if an event failed to send or the timeout passed first. The events are
+     *     not held for a later flush.
+     */
+    public void flush(long timeoutMs) throws SqsException {
+        List<String> messageBodies;
+        synchronized (pendingLock) {
+            messageBodies = pendingMessageBodies;
+            pendingMessageBodies = new ArrayList<>();
+        }
+
+        if (messageBodies.isEmpty()) {
+            return;
+        }
+
+        long deadline = System.currentTimeMillis() + timeoutMs;
+
+        int unsent = 0;
+        try {
+            for (List<SendMessageBatchRequestEntry> batch : partition(messageBodies)) {
+                unsent += sendBatch(batch, deadline);
+            }
+        } catch (SdkException e) {
+            LOGGER.error("Audit event send failed - {}", e.getMessage());
+            throw new SqsException(e);
+        }
+
+        if (unsent > 0) {
+            String message = String.format("%d audit events failed to send", unsent);
+            LOGGER.error("Audit event send failed - {}", message);
+            throw new SqsException(new IllegalStateException(message));
+        }
+    }
+
+    /** As {@link #flush(long)} for paths already returning an error, a failure is only logged. */
+    public void flushQuietly(long timeoutMs) {
+        try {
+            flush(timeoutMs);
+        } catch (SqsException e) {
+            LOGGER.error("Audit events not confirmed sent - {}", e.getMessage());
+        }
+    }
+
+    /** @return the number of entries not sent */
+    private int sendBatch(List<SendMessageBatchRequestEntry> entries, long deadline) {
+        SendMessageBatchResponse response =
+                sqsClient.sendMessageBatch(sendMessageBatchRequest(entries, deadline));
+
+        if (response.failed().isEmpty()) {
+            return 0;
+        }
+
+        // Entries that failed on the SQS side are retried once, our own faults are not
+        List<String> retryIds = new ArrayList<>();
+        for (BatchResultErrorEntry failed : response.failed()) {
+            LOGGER.warn("Audit event {} failed to send - {}", failed.id(), failed.code());
+            if (Boolean.FALSE.equals(failed.senderFault())) {
+                retryIds.add(failed.id());
+            }
+        }
+
+        List<SendMessageBatchRequestEntry> retryEntries =
+                entries.stream().filter(entry -> retryIds.contains(entry.id())).toList();
+
+        int unsent = response.failed().size() - retryEntries.size();
+        if (!retryEntries.isEmpty()) {
+            SendMessageBatchResponse retryResponse =
+                    sqsClient.sendMessageBatch(sendMessageBatchRequest(retryEntries, deadline));
+
+            unsent += retryResponse.failed().size();
+        }
+
+        return unsent;
+    }
+
+    private SendMessageBatchRequest sendMessageBatchRequest(
+            List<SendMessageBatchRequestEntry> entries, long deadline) {
+        // At least a millisecond, so a spent budget times out rather than being unbounded
+        Duration apiCallTimeout =
+                Duration.ofMillis(Math.max(1, deadline - System.currentTimeMillis()));
+
+        return SendMessageBatchRequest.builder()
+                .queueUrl(queueUrl)
+                .entries(entries)
+                .overrideConfiguration(override -> override.apiCallTimeout(apiCallTimeout))
+                .build();
+    }
+
+    private static List<List<SendMessageBatchRequestEntry>> partition(List<String> messageBodies) {
+        List<List<SendMessageBatchRequestEntry>> batches = new ArrayList<>();
+
+        List<SendMessageBatchRequestEntry> batch = new ArrayList<>();
+        int batchPayloadBytes = 0;
+
+        for (String messageBody : messageBodies) {
+            int payloadBytes = messageBody.getBytes(StandardCharsets.UTF_8).length;
+
+            if (batch.size() == SEND_MESSAGE_BATCH_MAX_ENTRIES
+                    || (!batch.isEmpty()
+                            && batchPayloadBytes + payloadBytes
+                                    > SEND_MESSAGE_BATCH_MAX_PAYLOAD_BYTES)) {
+                batches.add(batch);
+                batch = new ArrayList<>();
+                batchPayloadBytes = 0;
+            }
+
+            // Ids only need to be unique within a batch
+            batch.add(
+                    SendMessageBatchRequestEntry.builder()
+                            .id(String.valueOf(batch.size()))
+                            .messageBody(messageBody)
+                            .build());
+            batchPayloadBytes += payloadBytes;
+        }
+
+        if (!batch.isEmpty()) {
+            batches.add(batch);
+        }
+
+        return batches;
+    }
+}
@@ -1,6 +1,8 @@
 package uk.gov.di.ipv.cri.fraud.library.service;
 
+import org.apache.http.client.config.RequestConfig;
 import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.Configurable;
 import org.apache.http.client.methods.HttpUriRequest;
 import org.apache.http.conn.ConnectTimeoutException;
 import org.apache.http.impl.client.CloseableHttpClient;
@@ -10,11 +12,15 @@ import uk.gov.di.ipv.cri.common.library.util.EventProbe;
 import uk.gov.di.ipv.cri.fraud.library.exception.OAuthErrorResponseException;
 import uk.gov.di.ipv.cri.fraud.library.util.HTTPReply;
 import uk.gov.di.ipv.cri.fraud.library.util.HTTPReplyHelper;
+import uk.gov.di.ipv.cri.fraud.library.util.InvocationDeadline;
+import uk.gov.di.ipv.cri.fraud.library.util.RetryBackOff;
 import uk.gov.di.ipv.cri.fraud.library.util.SleepHelper;
 
 import java.io.IOException;
 import java.net.SocketTimeoutException;
 
+import static uk.gov.di.ipv.cri.fraud.library.metrics.Definitions.HTTP_RETRY_SKIPPED_DEADLINE;
+
 public class HttpRetryer {
 
     private static final Logger LOGGER = LogManager.getLogger();
@@ -22,6 +28,7 @@ public class HttpRetryer {
     public static final long HTTP_RETRY_WAIT_TIME_LIMIT_MS = 12800L;
 
     private final SleepHelper sleepHelper;
+    private final RetryBackOff retryBackOff;
     private final CloseableHttpClient httpClient;
 
     private final int maxRetries;
@@ -29,12 +36,21 @@ public class HttpRetryer {
     private final EventProbe eventProbe;
 
     public HttpRetryer(CloseableHttpClient httpClient, EventProbe eventProbe, int maxRetries) {
+        this(httpClient, eventProbe, maxRetries, RetryBackOff.Jitter.FULL);
+    }
+
+    public HttpRetryer(
+            CloseableHttpClient httpClient,
+            EventProbe eventProbe,
+            int maxRetries,
+            RetryBackOff.Jitter jitter) {
         this.sleepHelper = new SleepHelper(HTTP_RETRY_WAIT_TIME_LIMIT_MS);
+        this.retryBackOff = new RetryBackOff(HTTP_RETRY_WAIT_TIME_LIMIT_MS, jitter);
         this.httpClient = httpClient;
         this.eventProbe = eventProbe;
         this.maxRetries = maxRetries;
 
-        LOGGER.info("Max retries configured as {}", maxRetries);
+        LOGGER.info("Max retries configured as {}, jitter {}", maxRetries, jitter);
     }
 
     public HTTPReply sendHTTPRequestRetryIfAllowed(
@@ -48,19 +64,25 @@ public class HttpRetryer {
         boolean retry = false;
         int statusCode = 0;
         HTTPReply reply = null;
+        long retryDelayMs = 0;
 
         do {
             if (retry) {
                 eventProbe.counterMetric(httpRetryStatusConfig.httpRetryerSendRetryMetric());
+
+                // Wait before sending the retry, the thread is parked not spinning
+                sleepHelper.sleepMilliseconds(retryDelayMs);
             }
 
-            // Wait before sending request (0ms for first try)
-            sleepHelper.busyWaitWithExponentialBackOff(tryCount);
+            // Delay to use if this attempt needs to be retried
+            long nextRetryDelayMs = retryBackOff.calculateDelayMs(tryCount + 1, retryDelayMs);
 
             try (CloseableHttpResponse httpResponse = httpClient.execute(request)) {
 
                 statusCode = httpResponse.getStatusLine().getStatusCode();
-                retry = httpRetryStatusConfig.shouldHttpClientRetry(statusCode);
+                retry =
+                        httpRetryStatusConfig.shouldHttpClientRetry(statusCode)
+                                && isRetryAllowed(tryCount, request, nextRetryDelayMs);
 
                 reply = HTTPReplyHelper.retrieveResponse(httpResponse, endpointName);
 
@@ -90,8 +112,12 @@ public class HttpRetryer {
                 }
 
                 // DT
-                retry = determineIfToRetry(tryCount, e, httpRetryStatusConfig);
+                retry =
+                        determineIfToRetry(
+                                tryCount, e, httpRetryStatusConfig, request, nextRetryDelayMs);
             }
+
+            retryDelayMs = nextRetryDelayMs;
         } while (retry && (tryCount++ < maxRetries));
 
         captureExitStatusMetrics(statusCode, tryCount, httpRetryStatusConfig);
@@ -102,11 +128,13 @@ public class HttpRetryer {
     private boolean determineIfToRetry(
             int tryCount,
             IOException caughtIOException,
-            HttpRetryStatusConfig httpRetryStatusConfig)
+            HttpRetryStatusConfig httpRetryStatusConfig,
+            HttpUriRequest request,
+            long nextRetryDelayMs)
             throws IOException {
 
         // For retries (tryCount>0) we want to rethrow only the last Exception
-        if (tryCount < maxRetries) {
+        if (isRetryAllowed(tryCount, request, nextRetryDelayMs)) {
 
             LOGGER.info(
                     "HTTPRequestRetry {} - totalRequests {}, retries {}, retrying {}",
@@ -137,6 +165,50 @@ public class HttpRetryer {
         }
     }
 
+    /**
+     * A retry is only allowed if retries remain and the wait plus the worst case duration of the
+     * request (from its RequestConfig timeouts) fits in the remaining invocation time.
+     */
+    private boolean isRetryAllowed(int tryCount, HttpUriRequest request, long retryDelayMs) {
+
+        if (tryCount >= maxRetries) {
+            return false;
+        }
+
+        long requiredTimeMs = retryDelayMs + calculateWorstCaseRequestDurationMs(request);
+        long remainingTimeMs = InvocationDeadline.getRemainingTimeMillis();
+
+        if (requiredTimeMs > remainingTimeMs) {
+            LOGGER.warn(
+                    "HTTPRequestRetry not retrying, retry needs up to {}ms but only {}ms remain",
+                    requiredTimeMs,
+                    remainingTimeMs);
+            eventProbe.counterMetric(HTTP_RETRY_SKIPPED_DEADLINE);
+
+            return false;
+        }
+
+        return true;
+    }
+
+    private long calculateWorstCaseRequestDurationMs(HttpUriRequest request) {
+
+        RequestConfig requestConfig =
+                (request instanceof Configurable)
+                        ? ((Configurable) request).getConfig()
+                        : null;
+
+        if (requestConfig == null) {
+            // Client defaults are used, no budget can be derived
+            return 0;
+        }
+
+        // Timeouts are -1 when undefined
+        return Math.max(requestConfig.getConnectionRequestTimeout(), 0)
+                + Math.max(requestConfig.getConnectTimeout(), 0)
+                + Math.max(requestConfig.getSocketTimeout(), 0);
+    }
+
     private void captureExitStatusMetrics(
             int lastStatusCode, int finalTryCount, HttpRetryStatusConfig httpRetryStatusConfig) {
         LOGGER.info("HTTPRequestRetry Exited lastStatusCode {}", lastStatusCode);
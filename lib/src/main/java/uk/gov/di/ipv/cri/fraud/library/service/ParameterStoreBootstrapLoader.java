@@ -0,0 +1,224 @@
+package uk.gov.di.ipv.cri.fraud.library.service;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import software.amazon.awssdk.auth.credentials.EnvironmentVariableCredentialsProvider;
+import software.amazon.awssdk.awscore.exception.AwsServiceException;
+import software.amazon.awssdk.core.client.config.ClientOverrideConfiguration;
+import software.amazon.awssdk.http.crt.AwsCrtHttpClient;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.ssm.SsmClient;
+import software.amazon.awssdk.services.ssm.model.GetParametersByPathRequest;
+import software.amazon.awssdk.services.ssm.model.GetParametersByPathResponse;
+import software.amazon.awssdk.services.ssm.model.GetParametersRequest;
+import software.amazon.awssdk.services.ssm.model.Parameter;
+import uk.gov.di.ipv.cri.fraud.library.service.parameterstore.ParameterPrefix;
+import uk.gov.di.ipv.cri.fraud.library.util.StopWatch;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Fetches every parameter a function declares up front, using GetParameters for names (in batches
+ * of ten) and GetParametersByPath for paths, with all requests in flight at once. The values are
+ * handed to the {@link ParameterStoreService}, which serves each one once, so cold start no longer
+ * grows by one round trip per parameter.
+ *
+ * <p>If the bootstrap fails nothing is preloaded and every parameter is fetched on demand as
+ * before. A request rejected by parameter store, such as a missing ssm:GetParameters permission, is
+ * logged as an error since every cold start would then pay for the failed requests.
+ */
+public class ParameterStoreBootstrapLoader {
+
+    private static final Logger LOGGER = LogManager.getLogger();
+
+    // GetParameters API limit
+    static final int GET_PARAMETERS_MAX_NAMES = 10;
+
+    private static final int MAX_CONCURRENT_REQUESTS = 8;
+
+    private static final Duration CONNECTION_TIMEOUT = Duration.ofSeconds(1);
+
+    // Bounds the cold start cost of the bootstrap, on demand reads still follow a timeout
+    private static final Duration API_CALL_TIMEOUT = Duration.ofSeconds(2);
+
+    private final SsmClient ssmClient;
+
+    private final Set<String> parameterNames = new LinkedHashSet<>();
+    private final Set<String> parameterPaths = new LinkedHashSet<>();
+
+    public ParameterStoreBootstrapLoader(SsmClient ssmClient) {
+        this.ssmClient = ssmClient;
+    }
+
+    public static ParameterStoreBootstrapLoader create() {
+        // Region, credentials and http client are set, as ClientProviderFactory sets them for its
+        // clients, to skip the SDK's provider chain and http client lookups
+        return new ParameterStoreBootstrapLoader(
+                SsmClient.builder()
+                        .region(Region.of(System.getenv("AWS_REGION")))
+                        .credentialsProvider(EnvironmentVariableCredentialsProvider.create())
+                        .httpClient(
+                                AwsCrtHttpClient.builder()
+                                        .connectionTimeout(CONNECTION_TIMEOUT)
+                                        .maxConcurrency(MAX_CONCURRENT_REQUESTS)
+                                        .build())
+                        .overrideConfiguration(
+                                ClientOverrideConfiguration.builder()
+                                        .apiCallTimeout(API_CALL_TIMEOUT)
+                                        .build())
+                        .build());
+    }
+
+    public ParameterStoreBootstrapLoader parameter(ParameterPrefix prefix, String parameterName) {
+        parameterNames.add(ParameterStoreService.formatParameterPath(prefix, parameterName));
+        return this;
+    }
+
+    /** Declares a path read recursively, as by ParameterStoreService.getAllParametersFromPath. */
+    public ParameterStoreBootstrapLoader parametersByPath(ParameterPrefix prefix, String path) {
+        parameterPaths.add(ParameterStoreService.formatParameterPath(prefix, path));
+        return this;
+    }
+
+    /**
+     * @return true if the declared parameters were preloaded, false if they are left to be fetched
+     *     on demand
+     */
+    public boolean load(ParameterStoreService parameterStoreService) {
+        List<List<String>> nameBatches = partition(new ArrayList<>(parameterNames));
+
+        int requestCount = nameBatches.size() + parameterPaths.size();
+        if (requestCount == 0) {
+            return false;
+        }
+
+        StopWatch stopWatch = new StopWatch();
+        stopWatch.start();
+
+        ExecutorService executor =
+                Executors.newFixedThreadPool(
+                        Math.min(requestCount, MAX_CONCURRENT_REQUESTS),
+                        runnable -> {
+                            Thread thread = new Thread(runnable, "parameter-bootstrap");
+                            thread.setDaemon(true);
+                            return thread;
+                        });
+
+        try {
+            List<CompletableFuture<Map<String, String>>> nameFutures = new ArrayList<>();
+            for (List<String> nameBatch : nameBatches) {
+                nameFutures.add(
+                        CompletableFuture.supplyAsync(() -> getParameters(nameBatch), executor));
+            }
+
+            Map<String, CompletableFuture<Map<String, String>>> pathFutures = new HashMap<>();
+            for (String parameterPath : parameterPaths) {
+                pathFutures.put(
+                        parameterPath,
+                        CompletableFuture.supplyAsync(
+                                () -> getParametersByPath(parameterPath), executor));
+            }
+
+            Map<String, String> parameters = new HashMap<>();
+            for (CompletableFuture<Map<String, String>> nameFuture : nameFutures) {
+                parameters.putAll(nameFuture.join());
+            }
+
+            Map<String, Map<String, String>> pathParameters = new HashMap<>();
+            for (Map.Entry<String, CompletableFuture<Map<String, String>>> pathFuture :
+                    pathFutures.entrySet()) {
+                pathParameters.put(pathFuture.getKey(), pathFuture.getValue().join());
+            }
+
+            parameterStoreService.preload(parameters, pathParameters);
+
+            LOGGER.info(
+                    "Parameter bootstrap loaded {}/{} parameters, {} paths, {} requests in {}ms",
+                    parameters.size(),
+                    parameterNames.size(),
+                    pathParameters.size(),
+                    requestCount,
+                    stopWatch.stop());
+
+            return true;
+        } catch (RuntimeException e) {
+            Throwable cause = e instanceof CompletionException ? e.getCause() : e;
+
+            if (cause instanceof AwsServiceException awsServiceException) {
+                // Rejected rather than unreachable, this will fail on every cold start
+                LOGGER.error(
+                        "Parameter bootstrap rejected, parameters will be loaded on demand - {} {}",
+                        awsServiceException.statusCode(),
+                        awsServiceException.getMessage());
+            } else {
+                LOGGER.warn(
+                        "Parameter bootstrap failed, parameters will be loaded on demand - {}",
+                        cause.getMessage());
+            }
+
+            return false;
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private Map<String, String> getParameters(List<String> names) {
+        Map<String, String> parameters = new HashMap<>();
+
+        // Names that do not exist come back as invalid and are left to fail on demand
+        for (Parameter parameter :
+                ssmClient
+                        .getParameters(GetParametersRequest.builder().names(names).build())
+                        .parameters()) {
+            parameters.put(parameter.name(), parameter.value());
+        }
+
+        return parameters;
+    }
+
+    private Map<String, String> getParametersByPath(String parameterPath) {
+        Map<String, String> parameters = new HashMap<>();
+
+        String nextToken = null;
+        do {
+            GetParametersByPathResponse response =
+                    ssmClient.getParametersByPath(
+                            GetParametersByPathRequest.builder()
+                                    .path(parameterPath)
+                                    .recursive(true)
+                                    .nextToken(nextToken)
+                                    .build());
+
+            // Keys are relative to the path, matching SSMProvider.getMultiple
+            for (Parameter parameter : response.parameters()) {
+                parameters.put(
+                        parameter.name().substring(parameterPath.length() + 1),
+                        parameter.value());
+            }
+
+            nextToken = response.nextToken();
+        } while (nextToken != null);
+
+        return parameters;
+    }
+
+    private static List<List<String>> partition(List<String> names) {
+        List<List<String>> batches = new ArrayList<>();
+
+        for (int i = 0; i < names.size(); i += GET_PARAMETERS_MAX_NAMES) {
+            batches.add(names.subList(i, Math.min(i + GET_PARAMETERS_MAX_NAMES, names.size())));
+        }
+
+        return batches;
+    }
+}
@@ -6,6 +6,7 @@ import software.amazon.lambda.powertools.parameters.SSMProvider;
 import uk.gov.di.ipv.cri.fraud.library.service.parameterstore.ParameterPrefix;
 
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class ParameterStoreService {
 
@@ -16,6 +17,12 @@ public class ParameterStoreService {
 
     private final SSMProvider ssmProvider;
 
+    // Fetched by ParameterStoreBootstrapLoader. Each value is served once, later reads go to the
+    // SSMProvider so updated values are still picked up.
+    private final Map<String, String> preloadedParameters = new ConcurrentHashMap<>();
+    private final Map<String, Map<String, String>> preloadedParameterPaths =
+            new ConcurrentHashMap<>();
+
     public ParameterStoreService(SSMProvider ssmProvider) {
 
         this.ssmProvider = ssmProvider;
@@ -23,8 +30,7 @@ public class ParameterStoreService {
 
     public String getParameterValue(ParameterPrefix prefix, String parameterName) {
 
-        String parameterPath =
-                String.format(PARAMETER_NAME_FORMAT, prefix.getPrefixValue(), parameterName);
+        String parameterPath = formatParameterPath(prefix, parameterName);
 
         LOGGER.info(
                 LOG_MESSAGE_FORMAT,
@@ -33,6 +39,11 @@ public class ParameterStoreService {
                 parameterName,
                 parameterPath);
 
+        String preloadedValue = preloadedParameters.remove(parameterPath);
+        if (preloadedValue != null) {
+            return preloadedValue;
+        }
+
         return ssmProvider.get(parameterPath);
     }
 
@@ -54,7 +65,7 @@ public class ParameterStoreService {
 
     public Map<String, String> getAllParametersFromPath(ParameterPrefix prefix, String path) {
 
-        String parametersPath = String.format(PARAMETER_NAME_FORMAT, prefix.getPrefixValue(), path);
+        String parametersPath = formatParameterPath(prefix, path);
 
         LOGGER.info(
                 LOG_MESSAGE_FORMAT,
@@ -63,6 +74,11 @@ public class ParameterStoreService {
                 path,
                 parametersPath);
 
+        Map<String, String> preloadedValues = preloadedParameterPaths.remove(parametersPath);
+        if (preloadedValues != null) {
+            return preloadedValues;
+        }
+
         return ssmProvider.recursive().getMultiple(parametersPath);
     }
 
@@ -81,4 +97,14 @@ public class ParameterStoreService {
 
         return ssmProvider.withDecryption().getMultiple(parametersPath);
     }
+
+    void preload(
+            Map<String, String> parameters, Map<String, Map<String, String>> parameterPaths) {
+        preloadedParameters.putAll(parameters);
+        preloadedParameterPaths.putAll(parameterPaths);
+    }
+
+    static String formatParameterPath(ParameterPrefix prefix, String parameterName) {
+        return String.format(PARAMETER_NAME_FORMAT, prefix.getPrefixValue(), parameterName);
+    }
 }
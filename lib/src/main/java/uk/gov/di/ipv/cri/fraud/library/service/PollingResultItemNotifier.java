@@ -0,0 +1,67 @@
+package uk.gov.di.ipv.cri.fraud.library.service;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import uk.gov.di.ipv.cri.fraud.library.util.SleepHelper;
+
+import java.util.UUID;
+
+/**
+ * Waits for a result by polling the result item table. The attempts run in separate lambda
+ * instances so the saved item is the only shared signal. Polling starts quickly, as most
+ * duplicates arrive just behind the original, then backs off to limit table reads.
+ */
+public class PollingResultItemNotifier<T> implements ResultItemNotifier<T> {
+
+    private static final Logger LOGGER = LogManager.getLogger();
+
+    public static final long INITIAL_POLLING_INTERVAL_MS = 50L;
+    public static final long MAX_POLLING_INTERVAL_MS = 1000L;
+
+    private final ResultItemStorageService<T> resultItemStorageService;
+    private final SleepHelper sleepHelper;
+
+    public PollingResultItemNotifier(ResultItemStorageService<T> resultItemStorageService) {
+        this(resultItemStorageService, new SleepHelper(MAX_POLLING_INTERVAL_MS));
+    }
+
+    public PollingResultItemNotifier(
+            ResultItemStorageService<T> resultItemStorageService, SleepHelper sleepHelper) {
+        this.resultItemStorageService = resultItemStorageService;
+        this.sleepHelper = sleepHelper;
+    }
+
+    @Override
+    public T awaitResultItem(UUID sessionId, long maxWaitDurationMs) {
+
+        long pollingIntervalMs = INITIAL_POLLING_INTERVAL_MS;
+        long waitedTotalMilliseconds = 0;
+
+        while (true) {
+            LOGGER.info("Searching for a completed result");
+            T resultItem = resultItemStorageService.getResultItem(sessionId);
+
+            if (resultItem != null) {
+                LOGGER.info("Completed result found after waiting {}ms", waitedTotalMilliseconds);
+                return resultItem;
+            }
+
+            long remainingWaitMs = maxWaitDurationMs - waitedTotalMilliseconds;
+            if (remainingWaitMs <= 0 || Thread.currentThread().isInterrupted()) {
+                LOGGER.info("No result found after waiting {}ms", waitedTotalMilliseconds);
+                return null;
+            }
+
+            long sleepMs = Math.min(pollingIntervalMs, remainingWaitMs);
+            LOGGER.info("No result found, waiting {}ms", sleepMs);
+            waitedTotalMilliseconds += sleepHelper.sleepMilliseconds(sleepMs);
+
+            pollingIntervalMs = Math.min(pollingIntervalMs * 2, MAX_POLLING_INTERVAL_MS);
+        }
+    }
+
+    @Override
+    public void notifyResultItemSaved(UUID sessionId, T resultItem) {
+        // Nothing to signal, waiting attempts will see the saved item on their next poll
+    }
+}
@@ -0,0 +1,27 @@
+package uk.gov.di.ipv.cri.fraud.library.service;
+
+import java.util.UUID;
+
+/**
+ * Lets a duplicate attempt wait for the result of a check already in progress for the same
+ * session, without spinning the CPU while it waits.
+ */
+public interface ResultItemNotifier<T> {
+
+    /**
+     * Waits until a result item is available for the session or the wait duration has passed.
+     *
+     * @param sessionId
+     * @param maxWaitDurationMs
+     * @return the result item, or null if one was not found in time
+     */
+    T awaitResultItem(UUID sessionId, long maxWaitDurationMs);
+
+    /**
+     * Called by the attempt that produced the result once it has been saved.
+     *
+     * @param sessionId
+     * @param resultItem
+     */
+    void notifyResultItemSaved(UUID sessionId, T resultItem);
+}
@@ -1,21 +1,33 @@
 package uk.gov.di.ipv.cri.fraud.library.service;
 
 import software.amazon.awssdk.enhanced.dynamodb.DynamoDbEnhancedClient;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbTable;
+import software.amazon.awssdk.enhanced.dynamodb.Expression;
+import software.amazon.awssdk.enhanced.dynamodb.TableSchema;
+import software.amazon.awssdk.enhanced.dynamodb.model.UpdateItemEnhancedRequest;
+import software.amazon.awssdk.services.dynamodb.model.ConditionalCheckFailedException;
 import uk.gov.di.ipv.cri.common.library.persistence.DataStore;
 
 import java.util.UUID;
 
 public class ResultItemStorageService<T> {
 
+    private final Class<T> resultItemClass;
     private final DataStore<T> resultItemDataStore;
+    // For the conditional partial updates DataStore does not offer
+    private final DynamoDbTable<T> resultItemTable;
 
     public ResultItemStorageService(
             String resultItemTableName,
             Class<T> resultItemClass,
             DynamoDbEnhancedClient dynamoDbEnhancedClient) {
 
+        this.resultItemClass = resultItemClass;
         this.resultItemDataStore =
                 new DataStore<>(resultItemTableName, resultItemClass, dynamoDbEnhancedClient);
+        this.resultItemTable =
+                dynamoDbEnhancedClient.table(
+                        resultItemTableName, TableSchema.fromBean(resultItemClass));
     }
 
     public T getResultItem(UUID sessionId) {
@@ -25,4 +37,25 @@ public class ResultItemStorageService<T> {
     public void saveResultItem(T resultItem) {
         resultItemDataStore.create(resultItem);
     }
+
+    /**
+     * Writes the non-null attributes of the item over the stored item, the other stored attributes
+     * are left as they are. Primitive attributes are always written.
+     *
+     * @return false if the stored item did not meet the condition, nothing is written
+     */
+    public boolean updateResultItem(T resultItem, Expression conditionExpression) {
+        try {
+            resultItemTable.updateItem(
+                    UpdateItemEnhancedRequest.builder(resultItemClass)
+                            .item(resultItem)
+                            .ignoreNulls(true)
+                            .conditionExpression(conditionExpression)
+                            .build());
+        } catch (ConditionalCheckFailedException e) {
+            return false;
+        }
+
+        return true;
+    }
 }
@@ -2,6 +2,11 @@ package uk.gov.di.ipv.cri.fraud.library.service;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbEnhancedClient;
+import software.amazon.awssdk.services.sqs.SqsClient;
+import software.amazon.lambda.powertools.parameters.SSMProvider;
 import uk.gov.di.ipv.cri.common.library.annotations.ExcludeFromGeneratedCoverageReport;
 import uk.gov.di.ipv.cri.common.library.service.AuditEventFactory;
 import uk.gov.di.ipv.cri.common.library.service.AuditService;
@@ -13,66 +18,279 @@ import uk.gov.di.ipv.cri.common.library.util.EventProbe;
 import uk.gov.di.ipv.cri.fraud.library.config.ParameterStoreParameters;
 import uk.gov.di.ipv.cri.fraud.library.persistence.item.FraudResultItem;
 import uk.gov.di.ipv.cri.fraud.library.service.parameterstore.ParameterPrefix;
+import uk.gov.di.ipv.cri.fraud.library.util.ComponentInitOrchestrator;
+import uk.gov.di.ipv.cri.fraud.library.util.JsonCodecRegistry;
+import uk.gov.di.ipv.cri.fraud.library.util.MemoizedSupplier;
 
 import java.time.Clock;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
 public class ServiceFactory {
 
+    private static final Logger LOGGER = LogManager.getLogger();
+
+    /**
+     * Services a function can ask to have built during init. Anything not in a function's eager
+     * set is built on first use, and never if the function does not use it.
+     */
+    public enum Component {
+        PARAMETER_STORE_SERVICE,
+        COMMON_LIB_CONFIGURATION_SERVICE,
+        SESSION_SERVICE,
+        AUDIT_SERVICE,
+        AUDIT_EVENT_DISPATCHER,
+        PERSON_IDENTITY_SERVICE,
+        RESULT_ITEM_STORAGE_SERVICE,
+        SESSION_COMPLETION_SERVICE,
+        SESSION_ATTEMPT_SERVICE,
+        JSON_CODEC_REGISTRY;
+
+        String getComponentName() {
+            return name().toLowerCase(Locale.ROOT);
+        }
+    }
+
+    private static final Set<Component> DYNAMODB_COMPONENTS =
+            EnumSet.of(
+                    Component.SESSION_SERVICE,
+                    Component.PERSON_IDENTITY_SERVICE,
+                    Component.RESULT_ITEM_STORAGE_SERVICE,
+                    Component.SESSION_COMPLETION_SERVICE,
+                    Component.SESSION_ATTEMPT_SERVICE);
+
     private final ObjectMapper objectMapper;
     private final EventProbe eventProbe;
 
     private final ClientProviderFactory clientProviderFactory;
-    private final ParameterStoreService parameterStoreService;
 
-    private final AuditService auditService;
-    private final SessionService sessionService;
+    private final MemoizedSupplier<JsonCodecRegistry> jsonCodecRegistry;
+    private final MemoizedSupplier<ParameterStoreService> parameterStoreService;
+
+    private final MemoizedSupplier<AuditService> auditService;
+    private final MemoizedSupplier<AuditEventDispatcher> auditEventDispatcher;
+    private final MemoizedSupplier<SessionService> sessionService;
 
-    private final PersonIdentityService personIdentityService;
+    private final MemoizedSupplier<PersonIdentityService> personIdentityService;
 
-    private final ResultItemStorageService<FraudResultItem> resultItemStorageService;
+    private final MemoizedSupplier<ResultItemStorageService<FraudResultItem>>
+            resultItemStorageService;
+    private final MemoizedSupplier<SessionCompletionService<FraudResultItem>>
+            sessionCompletionService;
+    private final MemoizedSupplier<SessionAttemptService> sessionAttemptService;
 
     // Common-Lib
-    private final ConfigurationService commonLibConfigurationService;
+    private final MemoizedSupplier<ConfigurationService> commonLibConfigurationService;
+
+    private final Map<Component, MemoizedSupplier<?>> components = new EnumMap<>(Component.class);
+
+    // Empty when the services were supplied rather than built here
+    private final Map<String, Long> componentInitDurations;
 
     @ExcludeFromGeneratedCoverageReport
     public ServiceFactory() {
+        this(EnumSet.allOf(Component.class), null);
+    }
+
+    /**
+     * @param eagerComponents the services built in parallel during init, the rest are built on
+     *     first use.
+     * @param parameterStoreBootstrapLoader the parameters the function reads during init, fetched
+     *     together before any service is created. null to fetch each one on demand.
+     */
+    @ExcludeFromGeneratedCoverageReport
+    public ServiceFactory(
+            Set<Component> eagerComponents,
+            ParameterStoreBootstrapLoader parameterStoreBootstrapLoader) {
         this.objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
         this.eventProbe = new EventProbe();
 
         this.clientProviderFactory = new ClientProviderFactory();
 
+        MemoizedSupplier<DynamoDbEnhancedClient> dynamoDbEnhancedClient =
+                MemoizedSupplier.of(clientProviderFactory::getDynamoDbEnhancedClient);
+        MemoizedSupplier<SqsClient> sqsClient =
+                MemoizedSupplier.of(clientProviderFactory::getSqsClient);
+
+        this.jsonCodecRegistry =
+                MemoizedSupplier.of(
+                        () -> new JsonCodecRegistry(objectMapper).register(FraudResultItem.class));
+
+        // The SSMProvider is not created on two threads at once
+        Object ssmProviderLock = new Object();
+
         this.parameterStoreService =
-                new ParameterStoreService(clientProviderFactory.getSSMProvider());
+                MemoizedSupplier.of(
+                        () -> {
+                            SSMProvider ssmProvider;
+                            synchronized (ssmProviderLock) {
+                                ssmProvider = clientProviderFactory.getSSMProvider();
+                            }
+
+                            return createParameterStoreService(
+                                    ssmProvider, parameterStoreBootstrapLoader);
+                        });
 
         this.commonLibConfigurationService =
-                new uk.gov.di.ipv.cri.common.library.service.ConfigurationService(
-                        clientProviderFactory.getSSMProvider(),
-                        clientProviderFactory.getSecretsProvider());
+                MemoizedSupplier.of(
+                        () -> {
+                            synchronized (ssmProviderLock) {
+                                return new ConfigurationService(
+                                        clientProviderFactory.getSSMProvider(),
+                                        clientProviderFactory.getSecretsProvider());
+                            }
+                        });
 
         this.sessionService =
-                new SessionService(
-                        commonLibConfigurationService,
-                        clientProviderFactory.getDynamoDbEnhancedClient());
+                MemoizedSupplier.of(
+                        () ->
+                                new SessionService(
+                                        commonLibConfigurationService.get(),
+                                        dynamoDbEnhancedClient.get()));
+
         this.auditService =
-                new AuditService(
-                        clientProviderFactory.getSqsClient(),
-                        commonLibConfigurationService,
-                        objectMapper,
-                        new AuditEventFactory(commonLibConfigurationService, Clock.systemUTC()));
+                MemoizedSupplier.of(
+                        () -> {
+                            ConfigurationService configurationService =
+                                    commonLibConfigurationService.get();
+
+                            return new AuditService(
+                                    sqsClient.get(),
+                                    configurationService,
+                                    objectMapper,
+                                    new AuditEventFactory(
+                                            configurationService, Clock.systemUTC()));
+                        });
+
+        this.auditEventDispatcher =
+                MemoizedSupplier.of(
+                        () ->
+                                new AuditEventDispatcher(
+                                        sqsClient.get(),
+                                        System.getenv("SQS_AUDIT_EVENT_QUEUE_URL"),
+                                        objectMapper,
+                                        new AuditEventFactory(
+                                                commonLibConfigurationService.get(),
+                                                Clock.systemUTC())));
+
         this.personIdentityService =
-                new PersonIdentityService(
-                        commonLibConfigurationService,
-                        clientProviderFactory.getDynamoDbEnhancedClient());
-
-        final String resultItemTableName =
-                parameterStoreService.getParameterValue(
-                        ParameterPrefix.STACK,
-                        ParameterStoreParameters.FRAUD_RESULT_ITEM_TABLE_NAME);
+                MemoizedSupplier.of(
+                        () ->
+                                new PersonIdentityService(
+                                        commonLibConfigurationService.get(),
+                                        dynamoDbEnhancedClient.get()));
+
+        // Read once for both services using the table
+        MemoizedSupplier<String> fraudResultItemTableName =
+                MemoizedSupplier.of(
+                        () ->
+                                parameterStoreService
+                                        .get()
+                                        .getParameterValue(
+                                                ParameterPrefix.STACK,
+                                                ParameterStoreParameters
+                                                        .FRAUD_RESULT_ITEM_TABLE_NAME));
+
         this.resultItemStorageService =
-                new ResultItemStorageService<>(
-                        resultItemTableName,
-                        FraudResultItem.class,
-                        clientProviderFactory.getDynamoDbEnhancedClient());
+                MemoizedSupplier.of(
+                        () ->
+                                new ResultItemStorageService<>(
+                                        fraudResultItemTableName.get(),
+                                        FraudResultItem.class,
+                                        dynamoDbEnhancedClient.get()));
+
+        this.sessionCompletionService =
+                MemoizedSupplier.of(
+                        () ->
+                                new SessionCompletionService<>(
+                                        commonLibConfigurationService.get(),
+                                        fraudResultItemTableName.get(),
+                                        FraudResultItem.class,
+                                        dynamoDbEnhancedClient.get()));
+
+        this.sessionAttemptService =
+                MemoizedSupplier.of(
+                        () ->
+                                new SessionAttemptService(
+                                        commonLibConfigurationService.get(),
+                                        dynamoDbEnhancedClient.get()));
+
+        registerComponents();
+
+        // Eager components and the clients they need are built in parallel. A component that
+        // needs another waits on it, so each one is only ever built once.
+        ComponentInitOrchestrator initOrchestrator = new ComponentInitOrchestrator();
+        try {
+            List<CompletableFuture<?>> eagerComponentFutures = new ArrayList<>();
+
+            if (eagerComponents.stream().anyMatch(DYNAMODB_COMPONENTS::contains)) {
+                eagerComponentFutures.add(initOrchestrator.submit(dynamoDbEnhancedClient));
+            }
+
+            if (eagerComponents.contains(Component.AUDIT_SERVICE)
+                    || eagerComponents.contains(Component.AUDIT_EVENT_DISPATCHER)) {
+                eagerComponentFutures.add(initOrchestrator.submit(sqsClient));
+            }
+
+            for (Component component : eagerComponents) {
+                eagerComponentFutures.add(initOrchestrator.submit(components.get(component)));
+            }
+
+            for (CompletableFuture<?> eagerComponentFuture : eagerComponentFutures) {
+                ComponentInitOrchestrator.join(eagerComponentFuture);
+            }
+        } finally {
+            initOrchestrator.shutdown();
+        }
+
+        // Includes components only built as a dependency of an eager one
+        Map<String, MemoizedSupplier<?>> initSuppliers = new LinkedHashMap<>();
+        initSuppliers.put("dynamodb_enhanced_client", dynamoDbEnhancedClient);
+        initSuppliers.put("sqs_client", sqsClient);
+        initSuppliers.put("fraud_result_item_table_name", fraudResultItemTableName);
+        components.forEach(
+                (component, supplier) -> initSuppliers.put(component.getComponentName(), supplier));
+
+        this.componentInitDurations = collectBuildDurations(initSuppliers);
+    }
+
+    private static Map<String, Long> collectBuildDurations(
+            Map<String, MemoizedSupplier<?>> initSuppliers) {
+        Map<String, Long> buildDurations = new LinkedHashMap<>();
+
+        initSuppliers.forEach(
+                (name, supplier) -> {
+                    long duration = supplier.getBuildDurationMillis();
+                    if (duration >= 0) {
+                        buildDurations.put(name, duration);
+                        LOGGER.info("Component {} init duration {}ms", name, duration);
+                    }
+                });
+
+        return Collections.unmodifiableMap(buildDurations);
+    }
+
+    private static ParameterStoreService createParameterStoreService(
+            SSMProvider ssmProvider, ParameterStoreBootstrapLoader parameterStoreBootstrapLoader) {
+        ParameterStoreService parameterStoreService = new ParameterStoreService(ssmProvider);
+
+        if (parameterStoreBootstrapLoader != null) {
+            parameterStoreBootstrapLoader
+                    .parameter(
+                            ParameterPrefix.STACK,
+                            ParameterStoreParameters.FRAUD_RESULT_ITEM_TABLE_NAME)
+                    .load(parameterStoreService);
+        }
+
+        return parameterStoreService;
     }
 
     ServiceFactory(
@@ -81,24 +299,53 @@ public class ServiceFactory {
             ParameterStoreService parameterStoreService,
             SessionService sessionService,
             AuditService auditService,
+            AuditEventDispatcher auditEventDispatcher,
             ResultItemStorageService<FraudResultItem> resultItemStorageService,
+            SessionCompletionService<FraudResultItem> sessionCompletionService,
+            SessionAttemptService sessionAttemptService,
             PersonIdentityService personIdentityService,
             ConfigurationService commonLibConfigurationService) {
         this.objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+        this.jsonCodecRegistry =
+                MemoizedSupplier.of(
+                        () -> new JsonCodecRegistry(objectMapper).register(FraudResultItem.class));
         this.eventProbe = eventProbe;
         this.clientProviderFactory = clientProviderFactory;
-        this.parameterStoreService = parameterStoreService;
-        this.sessionService = sessionService;
-        this.auditService = auditService;
-        this.resultItemStorageService = resultItemStorageService;
-        this.personIdentityService = personIdentityService;
-        this.commonLibConfigurationService = commonLibConfigurationService;
+        this.parameterStoreService = MemoizedSupplier.resolved(parameterStoreService);
+        this.sessionService = MemoizedSupplier.resolved(sessionService);
+        this.auditService = MemoizedSupplier.resolved(auditService);
+        this.auditEventDispatcher = MemoizedSupplier.resolved(auditEventDispatcher);
+        this.resultItemStorageService = MemoizedSupplier.resolved(resultItemStorageService);
+        this.sessionCompletionService = MemoizedSupplier.resolved(sessionCompletionService);
+        this.sessionAttemptService = MemoizedSupplier.resolved(sessionAttemptService);
+        this.personIdentityService = MemoizedSupplier.resolved(personIdentityService);
+        this.commonLibConfigurationService =
+                MemoizedSupplier.resolved(commonLibConfigurationService);
+        registerComponents();
+        this.componentInitDurations = Map.of();
+    }
+
+    private void registerComponents() {
+        components.put(Component.PARAMETER_STORE_SERVICE, parameterStoreService);
+        components.put(Component.COMMON_LIB_CONFIGURATION_SERVICE, commonLibConfigurationService);
+        components.put(Component.SESSION_SERVICE, sessionService);
+        components.put(Component.AUDIT_SERVICE, auditService);
+        components.put(Component.AUDIT_EVENT_DISPATCHER, auditEventDispatcher);
+        components.put(Component.PERSON_IDENTITY_SERVICE, personIdentityService);
+        components.put(Component.RESULT_ITEM_STORAGE_SERVICE, resultItemStorageService);
+        components.put(Component.SESSION_COMPLETION_SERVICE, sessionCompletionService);
+        components.put(Component.SESSION_ATTEMPT_SERVICE, sessionAttemptService);
+        components.put(Component.JSON_CODEC_REGISTRY, jsonCodecRegistry);
     }
 
     public ObjectMapper getObjectMapper() {
         return objectMapper;
     }
 
+    public JsonCodecRegistry getJsonCodecRegistry() {
+        return jsonCodecRegistry.get();
+    }
+
     public EventProbe getEventProbe() {
         return eventProbe;
     }
@@ -108,26 +355,52 @@ public class ServiceFactory {
     }
 
     public ParameterStoreService getParameterStoreService() {
-        return parameterStoreService;
+        return parameterStoreService.get();
     }
 
     public AuditService getAuditService() {
-        return auditService;
+        return auditService.get();
+    }
+
+    public AuditEventDispatcher getAuditEventDispatcher() {
+        return auditEventDispatcher.get();
     }
 
     public SessionService getSessionService() {
-        return sessionService;
+        return sessionService.get();
     }
 
     public PersonIdentityService getPersonIdentityService() {
-        return personIdentityService;
+        return personIdentityService.get();
     }
 
     public ConfigurationService getCommonLibConfigurationService() {
-        return commonLibConfigurationService;
+        return commonLibConfigurationService.get();
     }
 
     public ResultItemStorageService<FraudResultItem> getResultItemStorageService() {
-        return resultItemStorageService;
+        return resultItemStorageService.get();
+    }
+
+    public SessionCompletionService<FraudResultItem> getSessionCompletionService() {
+        return sessionCompletionService.get();
+    }
+
+    public SessionAttemptService getSessionAttemptService() {
+        return sessionAttemptService.get();
+    }
+
+    /** True once the component has been built, either during init or on first use. */
+    public boolean isResolved(Component component) {
+        return components.get(component).isResolved();
+    }
+
+    /**
+     * Time in ms spent building each component built during init, by component name. A
+     * component's time is its own work only, time spent building or waiting on a dependency is
+     * left out.
+     */
+    public Map<String, Long> getComponentInitDurations() {
+        return componentInitDurations;
     }
 }
@@ -0,0 +1,69 @@
+package uk.gov.di.ipv.cri.fraud.library.service;
+
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbEnhancedClient;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbTable;
+import software.amazon.awssdk.enhanced.dynamodb.Expression;
+import software.amazon.awssdk.enhanced.dynamodb.TableSchema;
+import software.amazon.awssdk.enhanced.dynamodb.model.UpdateItemEnhancedRequest;
+import software.amazon.awssdk.services.dynamodb.model.ConditionalCheckFailedException;
+import uk.gov.di.ipv.cri.common.library.exception.SessionNotFoundException;
+import uk.gov.di.ipv.cri.common.library.service.ConfigurationService;
+import uk.gov.di.ipv.cri.fraud.library.persistence.item.SessionAttemptItem;
+
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Counts check attempts on a session with an atomic DynamoDB counter. Unlike setting the count on
+ * the SessionItem and saving it with SessionService.updateSession, concurrent attempts can never
+ * read the same count, and only the counter is written.
+ */
+public class SessionAttemptService {
+
+    // Same common parameter SessionService reads its table name from
+    private static final String SESSION_TABLE_NAME_PARAMETER = "SessionTableName";
+
+    // Stops the update creating an item for an expired or deleted session
+    private static final Expression SESSION_EXISTS_CONDITION =
+            Expression.builder()
+                    .expression("attribute_exists(#sessionId)")
+                    .expressionNames(Map.of("#sessionId", "sessionId"))
+                    .build();
+
+    private final DynamoDbTable<SessionAttemptItem> sessionAttemptTable;
+
+    public SessionAttemptService(
+            ConfigurationService configurationService,
+            DynamoDbEnhancedClient dynamoDbEnhancedClient) {
+        this.sessionAttemptTable =
+                dynamoDbEnhancedClient.table(
+                        configurationService.getCommonParameterValue(
+                                SESSION_TABLE_NAME_PARAMETER),
+                        TableSchema.fromBean(SessionAttemptItem.class));
+    }
+
+    /**
+     * Adds one to the session attempt count in a single UpdateItem.
+     *
+     * @return the attempt count after this attempt was added
+     * @throws SessionNotFoundException if the session no longer exists, nothing is written
+     */
+    public int incrementAttemptCount(UUID sessionId) throws SessionNotFoundException {
+        UpdateItemEnhancedRequest<SessionAttemptItem> updateItemRequest =
+                UpdateItemEnhancedRequest.builder(SessionAttemptItem.class)
+                        .item(new SessionAttemptItem(sessionId))
+                        // Only the counter is written, other SessionItem attributes are kept
+                        .ignoreNulls(true)
+                        .conditionExpression(SESSION_EXISTS_CONDITION)
+                        .build();
+
+        SessionAttemptItem sessionAttemptItem;
+        try {
+            sessionAttemptItem = sessionAttemptTable.updateItem(updateItemRequest);
+        } catch (ConditionalCheckFailedException e) {
+            throw new SessionNotFoundException("Session not found");
+        }
+
+        return Math.toIntExact(sessionAttemptItem.getAttemptCount());
+    }
+}
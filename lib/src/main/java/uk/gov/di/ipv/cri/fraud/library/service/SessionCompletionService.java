@@ -0,0 +1,62 @@
+package uk.gov.di.ipv.cri.fraud.library.service;
+
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbEnhancedClient;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbTable;
+import software.amazon.awssdk.enhanced.dynamodb.TableSchema;
+import software.amazon.awssdk.enhanced.dynamodb.model.TransactWriteItemsEnhancedRequest;
+import uk.gov.di.ipv.cri.common.library.persistence.item.SessionItem;
+import uk.gov.di.ipv.cri.common.library.service.ConfigurationService;
+
+import java.util.UUID;
+
+/**
+ * Completes a check by giving the session its authorization code and saving the check result in
+ * one DynamoDB transaction. This replaces SessionService.createAuthorizationCode followed by
+ * ResultItemStorageService.saveResultItem, saving a round trip, and a session can never hold an
+ * authorization code without its result.
+ */
+public class SessionCompletionService<T> {
+
+    // Same common parameter SessionService reads its table name from
+    private static final String SESSION_TABLE_NAME_PARAMETER = "SessionTableName";
+
+    private final ConfigurationService configurationService;
+    private final DynamoDbEnhancedClient dynamoDbEnhancedClient;
+
+    private final DynamoDbTable<SessionItem> sessionTable;
+    private final DynamoDbTable<T> resultItemTable;
+
+    public SessionCompletionService(
+            ConfigurationService configurationService,
+            String resultItemTableName,
+            Class<T> resultItemClass,
+            DynamoDbEnhancedClient dynamoDbEnhancedClient) {
+        this.configurationService = configurationService;
+        this.dynamoDbEnhancedClient = dynamoDbEnhancedClient;
+
+        this.sessionTable =
+                dynamoDbEnhancedClient.table(
+                        configurationService.getCommonParameterValue(
+                                SESSION_TABLE_NAME_PARAMETER),
+                        TableSchema.fromBean(SessionItem.class));
+        this.resultItemTable =
+                dynamoDbEnhancedClient.table(
+                        resultItemTableName, TableSchema.fromBean(resultItemClass));
+    }
+
+    /**
+     * Sets a new authorization code on the session and writes it together with the result. If the
+     * transaction fails neither item is written.
+     */
+    public void completeSession(SessionItem sessionItem, T resultItem) {
+        sessionItem.setAuthorizationCode(UUID.randomUUID().toString());
+        sessionItem.setAuthorizationCodeExpiryDate(
+                configurationService.getAuthorizationCodeExpirationEpoch());
+
+        dynamoDbEnhancedClient.transactWriteItems(
+                TransactWriteItemsEnhancedRequest.builder()
+                        .addUpdateItem(sessionTable, sessionItem)
+                        .addPutItem(resultItemTable, resultItem)
+                        .build());
+    }
+}
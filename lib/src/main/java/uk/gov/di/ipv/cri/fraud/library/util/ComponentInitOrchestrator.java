@@ -0,0 +1,50 @@
+package uk.gov.di.ipv.cri.fraud.library.util;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+
+/**
+ * Builds init components on parallel threads. A component that needs another gets it through its
+ * {@link MemoizedSupplier}, which also records the component's own build time.
+ */
+public class ComponentInitOrchestrator {
+
+    private static final int MAX_CONCURRENT_COMPONENTS = 4;
+
+    private final ExecutorService executor;
+
+    public ComponentInitOrchestrator() {
+        this.executor =
+                Executors.newFixedThreadPool(
+                        MAX_CONCURRENT_COMPONENTS,
+                        runnable -> {
+                            Thread thread = new Thread(runnable, "component-init");
+                            thread.setDaemon(true);
+                            return thread;
+                        });
+    }
+
+    public <T> CompletableFuture<T> submit(Supplier<T> supplier) {
+        return CompletableFuture.supplyAsync(supplier, executor);
+    }
+
+    /** Waits for a component, rethrowing the original failure of it or a dependency. */
+    public static <T> T join(CompletableFuture<T> component) {
+        try {
+            return component.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+
+            throw e;
+        }
+    }
+
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,155 @@
+package uk.gov.di.ipv.cri.fraud.library.util;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import uk.gov.di.ipv.cri.common.library.domain.personidentity.Address;
+import uk.gov.di.ipv.cri.common.library.domain.personidentity.BirthDate;
+import uk.gov.di.ipv.cri.common.library.domain.personidentity.Name;
+import uk.gov.di.ipv.cri.common.library.domain.personidentity.NamePart;
+import uk.gov.di.ipv.cri.common.library.domain.personidentity.PersonIdentityDetailed;
+import uk.gov.di.ipv.cri.fraud.library.domain.CredentialProjection;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Writes a {@link CredentialProjection} to the JSON held on the fraud result and reads it back.
+ * Only what the credential subject is built from is kept: the name parts, birth dates and the
+ * address lines the credential shows.
+ *
+ * <p>The layout is written out field by field rather than left to the common-lib domain classes'
+ * own serialisation, so what is stored does not change with them.
+ */
+public class CredentialProjectionCodec {
+
+    private static final String SUBJECT = "subject";
+    private static final String NAMES = "names";
+    private static final String NAME_PARTS = "nameParts";
+    private static final String NAME_PART_TYPE = "type";
+    private static final String NAME_PART_VALUE = "value";
+    private static final String BIRTH_DATES = "birthDates";
+    private static final String ADDRESSES = "addresses";
+
+    private static final String SUB_BUILDING_NAME = "subBuildingName";
+    private static final String BUILDING_NUMBER = "buildingNumber";
+    private static final String BUILDING_NAME = "buildingName";
+    private static final String STREET_NAME = "streetName";
+    private static final String ADDRESS_LOCALITY = "addressLocality";
+    private static final String POSTAL_CODE = "postalCode";
+
+    private final ObjectMapper objectMapper;
+
+    public CredentialProjectionCodec(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    public String write(CredentialProjection credentialProjection) throws JsonProcessingException {
+        PersonIdentityDetailed personIdentityDetailed =
+                credentialProjection.getPersonIdentityDetailed();
+
+        ObjectNode projection = objectMapper.createObjectNode();
+        putIfNotNull(projection, SUBJECT, credentialProjection.getSubject());
+
+        if (personIdentityDetailed.getNames() != null) {
+            ArrayNode names = projection.putArray(NAMES);
+            for (Name name : personIdentityDetailed.getNames()) {
+                ArrayNode nameParts = names.addObject().putArray(NAME_PARTS);
+                for (NamePart namePart : name.getNameParts()) {
+                    ObjectNode namePartNode = nameParts.addObject();
+                    putIfNotNull(namePartNode, NAME_PART_TYPE, namePart.getType());
+                    putIfNotNull(namePartNode, NAME_PART_VALUE, namePart.getValue());
+                }
+            }
+        }
+
+        if (personIdentityDetailed.getBirthDates() != null) {
+            ArrayNode birthDates = projection.putArray(BIRTH_DATES);
+            for (BirthDate birthDate : personIdentityDetailed.getBirthDates()) {
+                birthDates.add(birthDate.getValue().toString());
+            }
+        }
+
+        if (personIdentityDetailed.getAddresses() != null) {
+            ArrayNode addresses = projection.putArray(ADDRESSES);
+            for (Address address : personIdentityDetailed.getAddresses()) {
+                ObjectNode addressNode = addresses.addObject();
+                putIfNotNull(addressNode, SUB_BUILDING_NAME, address.getSubBuildingName());
+                putIfNotNull(addressNode, BUILDING_NUMBER, address.getBuildingNumber());
+                putIfNotNull(addressNode, BUILDING_NAME, address.getBuildingName());
+                putIfNotNull(addressNode, STREET_NAME, address.getStreetName());
+                putIfNotNull(addressNode, ADDRESS_LOCALITY, address.getAddressLocality());
+                putIfNotNull(addressNode, POSTAL_CODE, address.getPostalCode());
+            }
+        }
+
+        return objectMapper.writeValueAsString(projection);
+    }
+
+    public CredentialProjection read(String json) throws JsonProcessingException {
+        JsonNode projection = objectMapper.readTree(json);
+
+        List<Name> names = readArray(projection.get(NAMES), CredentialProjectionCodec::readName);
+        List<BirthDate> birthDates =
+                readArray(projection.get(BIRTH_DATES), CredentialProjectionCodec::readBirthDate);
+        List<Address> addresses =
+                readArray(projection.get(ADDRESSES), CredentialProjectionCodec::readAddress);
+
+        return new CredentialProjection(
+                projection.path(SUBJECT).textValue(),
+                new PersonIdentityDetailed(names, birthDates, addresses));
+    }
+
+    private static Name readName(JsonNode nameNode) {
+        Name name = new Name();
+        name.setNameParts(
+                readArray(
+                        nameNode.get(NAME_PARTS),
+                        namePartNode -> {
+                            NamePart namePart = new NamePart();
+                            namePart.setType(namePartNode.path(NAME_PART_TYPE).textValue());
+                            namePart.setValue(namePartNode.path(NAME_PART_VALUE).textValue());
+                            return namePart;
+                        }));
+        return name;
+    }
+
+    private static BirthDate readBirthDate(JsonNode birthDateNode) {
+        BirthDate birthDate = new BirthDate();
+        birthDate.setValue(LocalDate.parse(birthDateNode.textValue()));
+        return birthDate;
+    }
+
+    private static Address readAddress(JsonNode addressNode) {
+        Address address = new Address();
+        address.setSubBuildingName(addressNode.path(SUB_BUILDING_NAME).textValue());
+        address.setBuildingNumber(addressNode.path(BUILDING_NUMBER).textValue());
+        address.setBuildingName(addressNode.path(BUILDING_NAME).textValue());
+        address.setStreetName(addressNode.path(STREET_NAME).textValue());
+        address.setAddressLocality(addressNode.path(ADDRESS_LOCALITY).textValue());
+        address.setPostalCode(addressNode.path(POSTAL_CODE).textValue());
+        return address;
+    }
+
+    private static <T> List<T> readArray(JsonNode arrayNode, Function<JsonNode, T> elementReader) {
+        if (arrayNode == null) {
+            return null;
+        }
+
+        List<T> values = new ArrayList<>(arrayNode.size());
+        for (JsonNode elementNode : arrayNode) {
+            values.add(elementReader.apply(elementNode));
+        }
+        return values;
+    }
+
+    private static void putIfNotNull(ObjectNode node, String fieldName, String value) {
+        if (value != null) {
+            node.put(fieldName, value);
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package uk.gov.di.ipv.cri.fraud.library.util;
+
+import lombok.experimental.UtilityClass;
+
+/**
+ * Holds the deadline of the current lambda invocation so code without access to the lambda
+ * Context (e.g. the HttpRetryer) can avoid starting work that cannot finish in time. A lambda
+ * instance only handles one invocation at a time, the handler sets this at the start of each.
+ */
+@UtilityClass
+public class InvocationDeadline {
+
+    // Time kept back for the handler to complete after its last remote call
+    public static final long SAFETY_MARGIN_MS = 1000L;
+
+    private static final long NO_DEADLINE = Long.MAX_VALUE;
+
+    private static volatile long deadlineEpochMs = NO_DEADLINE;
+
+    /**
+     * @param remainingTimeInMillis from Context.getRemainingTimeInMillis, values of zero or less
+     *     are treated as no deadline
+     */
+    public static void start(long remainingTimeInMillis) {
+        if (remainingTimeInMillis <= 0) {
+            deadlineEpochMs = NO_DEADLINE;
+            return;
+        }
+
+        deadlineEpochMs = System.currentTimeMillis() + remainingTimeInMillis - SAFETY_MARGIN_MS;
+    }
+
+    public static long getRemainingTimeMillis() {
+        long deadline = deadlineEpochMs;
+
+        if (deadline == NO_DEADLINE) {
+            return NO_DEADLINE;
+        }
+
+        return deadline - System.currentTimeMillis();
+    }
+
+    public static void clear() {
+        deadlineEpochMs = NO_DEADLINE;
+    }
+}
@@ -0,0 +1,61 @@
+package uk.gov.di.ipv.cri.fraud.library.util;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Holds an ObjectReader and ObjectWriter per DTO type, built once from the shared ObjectMapper.
+ * Readers and writers are immutable and resolve their root (de)serializer when created, so
+ * registering types during init moves the introspection cost out of the first request.
+ *
+ * <p>Types not registered are handled on first use and cached from then on.
+ */
+public class JsonCodecRegistry {
+
+    private final ObjectMapper objectMapper;
+
+    private final Map<Class<?>, ObjectReader> readers = new ConcurrentHashMap<>();
+    private final Map<Class<?>, ObjectWriter> writers = new ConcurrentHashMap<>();
+
+    public JsonCodecRegistry(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    public JsonCodecRegistry register(Class<?>... types) {
+        for (Class<?> type : types) {
+            readerFor(type);
+            writerFor(type);
+        }
+
+        return this;
+    }
+
+    public boolean isRegistered(Class<?> type) {
+        return readers.containsKey(type) && writers.containsKey(type);
+    }
+
+    public <T> T readValue(String json, Class<T> type) throws JsonProcessingException {
+        return readerFor(type).readValue(json);
+    }
+
+    public String writeValueAsString(Object value) throws JsonProcessingException {
+        if (value == null) {
+            return objectMapper.writeValueAsString(null);
+        }
+
+        return writerFor(value.getClass()).writeValueAsString(value);
+    }
+
+    private ObjectReader readerFor(Class<?> type) {
+        return readers.computeIfAbsent(type, objectMapper::readerFor);
+    }
+
+    private ObjectWriter writerFor(Class<?> type) {
+        return writers.computeIfAbsent(type, objectMapper::writerFor);
+    }
+}
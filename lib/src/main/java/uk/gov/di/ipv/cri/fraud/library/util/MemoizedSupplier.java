@@ -0,0 +1,89 @@
+package uk.gov.di.ipv.cri.fraud.library.util;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Supplier that builds its value on the first call to {@link #get()} and returns the same value
+ * from then on. Concurrent first calls block until the one building the value has finished, so
+ * the value is only ever built once. A failed build is not remembered and the next call retries.
+ *
+ * <p>The time the build took is recorded, less any time the build spent in the {@link #get()} of
+ * another memoized supplier, whether building it or waiting on another thread that was. A value
+ * built from others therefore only counts its own work.
+ */
+public final class MemoizedSupplier<T> implements Supplier<T> {
+
+    // Per thread total of time spent in get() calls, a build subtracts what its nested calls add
+    private static final ThreadLocal<long[]> TIME_IN_GET_NANOS =
+            ThreadLocal.withInitial(() -> new long[1]);
+
+    private Supplier<T> supplier;
+
+    private volatile boolean resolved;
+    private T value;
+
+    // -1 until built here, and for a value that was supplied already built
+    private volatile long buildDurationNanos = -1;
+
+    private MemoizedSupplier(Supplier<T> supplier, T value, boolean resolved) {
+        this.supplier = supplier;
+        this.value = value;
+        this.resolved = resolved;
+    }
+
+    public static <T> MemoizedSupplier<T> of(Supplier<T> supplier) {
+        return new MemoizedSupplier<>(supplier, null, false);
+    }
+
+    /** A supplier for a value that already exists. */
+    public static <T> MemoizedSupplier<T> resolved(T value) {
+        return new MemoizedSupplier<>(null, value, true);
+    }
+
+    @Override
+    public T get() {
+        if (!resolved) {
+            long[] timeInGetNanos = TIME_IN_GET_NANOS.get();
+            long timeInGetBeforeNanos = timeInGetNanos[0];
+            long getStartNanos = System.nanoTime();
+
+            try {
+                synchronized (this) {
+                    if (!resolved) {
+                        build(timeInGetNanos);
+                    }
+                }
+            } finally {
+                // Excluded from a build this call is nested in, including time spent blocked
+                timeInGetNanos[0] = timeInGetBeforeNanos + (System.nanoTime() - getStartNanos);
+            }
+        }
+
+        return value;
+    }
+
+    public boolean isResolved() {
+        return resolved;
+    }
+
+    /** @return the build time in ms less nested builds and waits, -1 if not built here */
+    public long getBuildDurationMillis() {
+        long durationNanos = buildDurationNanos;
+        return durationNanos < 0 ? -1 : TimeUnit.NANOSECONDS.toMillis(durationNanos);
+    }
+
+    private void build(long[] timeInGetNanos) {
+        long timeInGetAtBuildStartNanos = timeInGetNanos[0];
+        long buildStartNanos = System.nanoTime();
+
+        value = supplier.get();
+
+        buildDurationNanos =
+                (System.nanoTime() - buildStartNanos)
+                        - (timeInGetNanos[0] - timeInGetAtBuildStartNanos);
+        // Released so anything captured by the supplier can be collected
+        supplier = null;
+        resolved = true;
+    }
+}
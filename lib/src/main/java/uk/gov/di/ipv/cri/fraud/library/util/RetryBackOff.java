@@ -0,0 +1,75 @@
+package uk.gov.di.ipv.cri.fraud.library.util;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Calculates the delay before a retry. Jitter spreads retries from concurrent lambdas so they do
+ * not reach the remote api in lockstep.
+ *
+ * <p>See https://aws.amazon.com/blogs/architecture/exponential-backoff-and-jitter/
+ */
+public class RetryBackOff {
+
+    public enum Jitter {
+        // 100ms * 2^(n-1)
+        NONE,
+        // Random between 0 and 100ms * 2^(n-1)
+        FULL,
+        // Random between 100ms and 3 * the previous delay
+        DECORRELATED
+    }
+
+    public static final long BASE_DELAY_MS = 100L;
+
+    private final long maxDelayMs;
+    private final Jitter jitter;
+
+    public RetryBackOff(long maxDelayMs, Jitter jitter) {
+        this.maxDelayMs = maxDelayMs;
+        this.jitter = jitter;
+    }
+
+    /**
+     * @param callNumber starting from zero for the first call (no delay)
+     * @param previousDelayMs the delay used before the previous call, only used by DECORRELATED
+     * @return the delay in milliseconds, never more than maxDelayMs
+     */
+    public long calculateDelayMs(int callNumber, long previousDelayMs) {
+
+        if (callNumber <= 0) {
+            return 0;
+        }
+
+        long delayMs;
+
+        switch (jitter) {
+            case FULL:
+                delayMs = randomBetween(0, calculateExponentialDelayMs(callNumber));
+                break;
+            case DECORRELATED:
+                long upperBoundMs = Math.max(BASE_DELAY_MS, previousDelayMs) * 3;
+                delayMs = randomBetween(BASE_DELAY_MS, Math.min(upperBoundMs, maxDelayMs));
+                break;
+            case NONE:
+            default:
+                delayMs = calculateExponentialDelayMs(callNumber);
+                break;
+        }
+
+        return Math.min(delayMs, maxDelayMs);
+    }
+
+    private long calculateExponentialDelayMs(int callNumber) {
+        int power = Math.min(callNumber - 1, 30);
+
+        return (1L << power) * BASE_DELAY_MS;
+    }
+
+    private long randomBetween(long lowerMs, long upperMs) {
+        if (upperMs <= lowerMs) {
+            return lowerMs;
+        }
+
+        return ThreadLocalRandom.current().nextLong(lowerMs, upperMs + 1);
+    }
+}
@@ -14,62 +14,32 @@ public class SleepHelper {
     }
 
     /**
-     * Calculates a wait time based on number of calls - starting from zero for the first call.
-     * Using a busy wait
+     * Waits for the given time without spinning the CPU, the thread is parked until the time has
+     * elapsed. An interrupt ends the wait early and the interrupt flag is restored.
      *
-     * @param callNumber
-     * @return
+     * @param milliseconds
+     * @return the time actually waited
      */
-    public long busyWaitWithExponentialBackOff(int callNumber) {
-
-        long waitDuration = Math.min(calculateExponentialBackOffTimeMS(callNumber), maxSleepTimeMs);
-
-        long startTime = System.currentTimeMillis();
-        long futureTime = startTime + waitDuration;
-
-        LOGGER.info("busyWaitWithExponentialBackOff start time : {}", startTime);
-
-        while (System.currentTimeMillis() < futureTime) {
-            // Intended
-        }
-
-        long endTime = System.currentTimeMillis();
-        long timeWaited = (endTime - startTime);
-
-        LOGGER.info("busyWaitWithExponentialBackOff end time : {}", endTime);
-
-        return timeWaited;
-    }
-
-    public long busyWaitMilliseconds(int milliseconds) {
+    public long sleepMilliseconds(long milliseconds) {
 
         long waitDuration = Math.min(milliseconds, maxSleepTimeMs);
 
         long startTime = System.currentTimeMillis();
-        long futureTime = startTime + waitDuration;
 
-        LOGGER.info("busyWaitMilliseconds start time : {}", startTime);
+        LOGGER.debug("sleepMilliseconds start time : {}", startTime);
 
-        while (System.currentTimeMillis() < futureTime) {
-            // Intended
+        try {
+            Thread.sleep(Math.max(waitDuration, 0L));
+        } catch (InterruptedException e) {
+            LOGGER.warn("sleepMilliseconds interrupted");
+            Thread.currentThread().interrupt();
         }
 
         long endTime = System.currentTimeMillis();
         long timeWaited = (endTime - startTime);
 
-        LOGGER.info("busyWaitMilliseconds end time : {}", endTime);
+        LOGGER.debug("sleepMilliseconds end time : {}", endTime);
 
         return timeWaited;
     }
-
-    private long calculateExponentialBackOffTimeMS(int callNumber) {
-
-        if (callNumber == 0) {
-            return 0;
-        }
-
-        int power = callNumber - 1;
-
-        return ((long) Math.pow(2, power) * 100L);
-    }
 }
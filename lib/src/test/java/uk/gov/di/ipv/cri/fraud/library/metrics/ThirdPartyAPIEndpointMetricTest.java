@@ -70,6 +70,19 @@ class ThirdPartyAPIEndpointMetricTest {
         expectedMetricsCaptureList.add(
                 String.format(expectedFormat, TOKEN, "reusing_cached_token").toLowerCase());
 
+        // Add special case token in lambda cache metrics
+        expectedMetricsCaptureList.add(
+                String.format(expectedFormat, TOKEN, "l1_cache_hit").toLowerCase());
+        expectedMetricsCaptureList.add(
+                String.format(expectedFormat, TOKEN, "l1_cache_miss").toLowerCase());
+
+        // Add special case token refresh ahead metrics
+        expectedMetricsCaptureList.add(
+                String.format(expectedFormat, TOKEN, "refresh_ahead_started").toLowerCase());
+        expectedMetricsCaptureList.add(
+                String.format(expectedFormat, TOKEN, "refresh_ahead_lease_unavailable")
+                        .toLowerCase());
+
         // Add special case token status code alert metric
         expectedMetricsCaptureList.add(
                 String.format(expectedFormat, TOKEN, "status_code_alert_metric").toLowerCase());
@@ -0,0 +1,187 @@
+package uk.gov.di.ipv.cri.fraud.library.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import uk.gov.di.ipv.cri.common.library.domain.AuditEvent;
+import uk.gov.di.ipv.cri.common.library.domain.AuditEventContext;
+import uk.gov.di.ipv.cri.common.library.domain.AuditEventType;
+import uk.gov.di.ipv.cri.common.library.exception.SqsException;
+import uk.gov.di.ipv.cri.common.library.service.AuditEventFactory;
+import uk.gov.di.ipv.cri.fraud.library.LocalSqsClient;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class AuditEventDispatcherTest {
+
+    private static final String QUEUE_URL = "http://localhost/queue/audit";
+    private static final long FLUSH_TIMEOUT_MS = 5000;
+
+    @Mock private AuditEventFactory mockAuditEventFactory;
+    @Mock private AuditEventContext mockAuditEventContext;
+
+    private final ObjectMapper objectMapper =
+            new ObjectMapper().registerModule(new JavaTimeModule());
+
+    private LocalSqsClient localSqsClient;
+
+    @BeforeEach
+    void setUp() {
+        localSqsClient = new LocalSqsClient();
+
+        when(mockAuditEventFactory.create(anyString(), any(AuditEventContext.class), any()))
+                .thenAnswer(
+                        invocation ->
+                                new AuditEvent<>(
+                                        1L, 1000L, "PREFIX_" + invocation.getArgument(0), "TEST"));
+    }
+
+    @Test
+    void shouldSendDispatchedEventsInOrderInOneBatchWhenFlushed() throws Exception {
+        AuditEventDispatcher auditEventDispatcher = createDispatcher();
+
+        auditEventDispatcher.dispatch(AuditEventType.RESPONSE_RECEIVED, mockAuditEventContext);
+        auditEventDispatcher.dispatch(AuditEventType.REQUEST_SENT, mockAuditEventContext);
+
+        // Nothing is sent until the flush
+        assertEquals(List.of(), localSqsClient.getBatchSizes());
+
+        auditEventDispatcher.flush(FLUSH_TIMEOUT_MS);
+
+        assertEquals(List.of(2), localSqsClient.getBatchSizes());
+
+        List<String> messageBodies = localSqsClient.getMessageBodies(QUEUE_URL);
+        assertEquals(2, messageBodies.size());
+        assertTrue(messageBodies.get(0).contains("PREFIX_RESPONSE_RECEIVED"));
+        assertTrue(messageBodies.get(1).contains("PREFIX_REQUEST_SENT"));
+    }
+
+    @Test
+    void shouldOnlySendEventsDispatchedSinceTheLastFlush() throws Exception {
+        AuditEventDispatcher auditEventDispatcher = createDispatcher();
+
+        auditEventDispatcher.dispatch(AuditEventType.VC_ISSUED, mockAuditEventContext);
+        auditEventDispatcher.flush(FLUSH_TIMEOUT_MS);
+
+        auditEventDispatcher.dispatch(AuditEventType.END, mockAuditEventContext);
+        auditEventDispatcher.flush(FLUSH_TIMEOUT_MS);
+
+        // Nothing left to send
+        auditEventDispatcher.flush(FLUSH_TIMEOUT_MS);
+
+        assertEquals(List.of(1, 1), localSqsClient.getBatchSizes());
+
+        List<String> messageBodies = localSqsClient.getMessageBodies(QUEUE_URL);
+        assertTrue(messageBodies.get(0).contains("PREFIX_VC_ISSUED"));
+        assertTrue(messageBodies.get(1).contains("PREFIX_END"));
+    }
+
+    @Test
+    void shouldSplitPendingEventsIntoBatchesOfTen() throws Exception {
+        AuditEventDispatcher auditEventDispatcher = createDispatcher();
+
+        for (int i = 0; i < 12; i++) {
+            auditEventDispatcher.dispatch(AuditEventType.END, mockAuditEventContext);
+        }
+
+        auditEventDispatcher.flush(FLUSH_TIMEOUT_MS);
+
+        assertEquals(List.of(10, 2), localSqsClient.getBatchSizes());
+        assertEquals(12, localSqsClient.getMessageBodies(QUEUE_URL).size());
+    }
+
+    @Test
+    void shouldBoundEachSendByWhatIsLeftOfTheFlushTimeout() throws Exception {
+        AuditEventDispatcher auditEventDispatcher = createDispatcher();
+
+        for (int i = 0; i < 12; i++) {
+            auditEventDispatcher.dispatch(AuditEventType.END, mockAuditEventContext);
+        }
+
+        auditEventDispatcher.flush(FLUSH_TIMEOUT_MS);
+
+        List<Duration> apiCallTimeouts = localSqsClient.getApiCallTimeouts();
+        assertEquals(2, apiCallTimeouts.size());
+        for (Duration apiCallTimeout : apiCallTimeouts) {
+            assertNotNull(apiCallTimeout);
+            assertTrue(apiCallTimeout.toMillis() <= FLUSH_TIMEOUT_MS);
+        }
+    }
+
+    @Test
+    void shouldRetryEntriesThatFailedOnTheQueueSide() throws Exception {
+        AuditEventDispatcher auditEventDispatcher = createDispatcher();
+
+        localSqsClient.failNextEntries(1, false);
+        auditEventDispatcher.dispatch(AuditEventType.VC_ISSUED, mockAuditEventContext);
+
+        assertDoesNotThrow(() -> auditEventDispatcher.flush(FLUSH_TIMEOUT_MS));
+        assertEquals(List.of(1, 1), localSqsClient.getBatchSizes());
+        assertEquals(1, localSqsClient.getMessageBodies(QUEUE_URL).size());
+    }
+
+    @Test
+    void shouldReportEntriesThatFailedOnTheSenderSideWhenFlushed() throws Exception {
+        AuditEventDispatcher auditEventDispatcher = createDispatcher();
+
+        localSqsClient.failNextEntries(1, true);
+        auditEventDispatcher.dispatch(AuditEventType.VC_ISSUED, mockAuditEventContext);
+
+        assertThrows(SqsException.class, () -> auditEventDispatcher.flush(FLUSH_TIMEOUT_MS));
+        assertEquals(List.of(1), localSqsClient.getBatchSizes());
+    }
+
+    @Test
+    void shouldReportAFailedRequestOnlyToTheFlushSendingIt() throws Exception {
+        AuditEventDispatcher auditEventDispatcher = createDispatcher();
+
+        localSqsClient.failNextRequest(
+                software.amazon.awssdk.services.sqs.model.SqsException.builder()
+                        .message("queue failure")
+                        .build());
+        auditEventDispatcher.dispatch(AuditEventType.VC_ISSUED, mockAuditEventContext);
+
+        assertThrows(SqsException.class, () -> auditEventDispatcher.flush(FLUSH_TIMEOUT_MS));
+
+        // The failed events are not held, the next invocation only sends its own
+        auditEventDispatcher.dispatch(AuditEventType.END, mockAuditEventContext);
+        assertDoesNotThrow(() -> auditEventDispatcher.flush(FLUSH_TIMEOUT_MS));
+
+        List<String> messageBodies = localSqsClient.getMessageBodies(QUEUE_URL);
+        assertEquals(1, messageBodies.size());
+        assertTrue(messageBodies.get(0).contains("PREFIX_END"));
+    }
+
+    @Test
+    void shouldOnlyLogAFailedSendWhenFlushedQuietly() throws Exception {
+        AuditEventDispatcher auditEventDispatcher = createDispatcher();
+
+        localSqsClient.failNextRequest(
+                software.amazon.awssdk.services.sqs.model.SqsException.builder()
+                        .message("queue failure")
+                        .build());
+        auditEventDispatcher.dispatch(AuditEventType.VC_ISSUED, mockAuditEventContext);
+
+        assertDoesNotThrow(() -> auditEventDispatcher.flushQuietly(FLUSH_TIMEOUT_MS));
+    }
+
+    private AuditEventDispatcher createDispatcher() {
+        return new AuditEventDispatcher(
+                localSqsClient, QUEUE_URL, objectMapper, mockAuditEventFactory);
+    }
+}
@@ -1,9 +1,11 @@
 package uk.gov.di.ipv.cri.fraud.library.service;
 
+import org.apache.http.client.config.RequestConfig;
 import org.apache.http.client.methods.CloseableHttpResponse;
 import org.apache.http.client.methods.HttpPost;
 import org.apache.http.conn.ConnectTimeoutException;
 import org.apache.http.impl.client.CloseableHttpClient;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -15,7 +17,9 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import uk.gov.di.ipv.cri.common.library.util.EventProbe;
 import uk.gov.di.ipv.cri.fraud.library.HttpResponseFixtures;
 import uk.gov.di.ipv.cri.fraud.library.HttpRetryStatusConfigFixtures;
+import uk.gov.di.ipv.cri.fraud.library.config.HttpRequestConfig;
 import uk.gov.di.ipv.cri.fraud.library.exception.OAuthErrorResponseException;
+import uk.gov.di.ipv.cri.fraud.library.util.InvocationDeadline;
 
 import java.io.IOException;
 import java.net.SocketTimeoutException;
@@ -30,6 +34,7 @@ import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
+import static uk.gov.di.ipv.cri.fraud.library.metrics.Definitions.HTTP_RETRY_SKIPPED_DEADLINE;
 
 @ExtendWith(MockitoExtension.class)
 class HttpRetryerTest {
@@ -49,6 +54,11 @@ class HttpRetryerTest {
         httpRetryer = new HttpRetryer(mockHttpClient, mockEventProbe, TEST_MAX_RETRIES);
     }
 
+    @AfterEach
+    void tearDown() {
+        InvocationDeadline.clear();
+    }
+
     @ParameterizedTest
     @CsvSource({
         "200, false", // No Retry
@@ -201,4 +211,74 @@ class HttpRetryerTest {
         verify(mockHttpClient, times(2)).execute(any(HttpPost.class));
         verifyNoMoreInteractions(mockHttpClient);
     }
+
+    @Test
+    void shouldNotRetryStatusWhenRetryCannotCompleteBeforeInvocationDeadline()
+            throws IOException, OAuthErrorResponseException {
+
+        // 500ms remaining after the safety margin
+        InvocationDeadline.start(InvocationDeadline.SAFETY_MARGIN_MS + 500);
+
+        RequestConfig requestConfig = HttpRequestConfig.getCustomRequestConfig(100, 1000, 5000);
+        when(mockPostRequest.getConfig()).thenReturn(requestConfig);
+
+        CloseableHttpResponse retryableCloseableHttpResponse =
+                HttpResponseFixtures.createHttpResponse(500, null, "", false);
+        when(mockHttpClient.execute(any(HttpPost.class)))
+                .thenReturn(retryableCloseableHttpResponse);
+
+        HttpRetryStatusConfig testHttpRetryStatusConfig =
+                HttpRetryStatusConfigFixtures.generateTestReplyStatusConfig(
+                        TEST_RETRY_STATUS_CODES, TEST_SUCCESS_STATUS_CODES);
+        httpRetryer.sendHTTPRequestRetryIfAllowed(
+                mockPostRequest, testHttpRetryStatusConfig, "endpoint");
+
+        InOrder inOrderMockEventProbeSequence = inOrder(mockEventProbe);
+        inOrderMockEventProbeSequence
+                .verify(mockEventProbe)
+                .counterMetric(HTTP_RETRY_SKIPPED_DEADLINE);
+        inOrderMockEventProbeSequence
+                .verify(mockEventProbe)
+                .counterMetric(HttpRetryStatusConfigFixtures.TEST_HTTP_RETRYER_SEND_ERROR_METRIC);
+        verifyNoMoreInteractions(mockEventProbe);
+
+        verify(mockHttpClient, times(1)).execute(any(HttpPost.class));
+        verifyNoMoreInteractions(mockHttpClient);
+    }
+
+    @Test
+    void shouldRethrowRetryableExceptionWhenRetryCannotCompleteBeforeInvocationDeadline()
+            throws IOException {
+
+        // 500ms remaining after the safety margin
+        InvocationDeadline.start(InvocationDeadline.SAFETY_MARGIN_MS + 500);
+
+        RequestConfig requestConfig = HttpRequestConfig.getCustomRequestConfig(100, 1000, 5000);
+        when(mockPostRequest.getConfig()).thenReturn(requestConfig);
+
+        when(mockHttpClient.execute(any(HttpPost.class)))
+                .thenThrow(new SocketTimeoutException("TestSocketTimeoutException"));
+
+        HttpRetryStatusConfig testHttpRetryStatusConfig =
+                HttpRetryStatusConfigFixtures.generateTestReplyStatusConfig(
+                        TEST_RETRY_STATUS_CODES, TEST_SUCCESS_STATUS_CODES);
+
+        assertThrows(
+                SocketTimeoutException.class,
+                () ->
+                        httpRetryer.sendHTTPRequestRetryIfAllowed(
+                                mockPostRequest, testHttpRetryStatusConfig, "endpoint"));
+
+        InOrder inOrderMockEventProbeSequence = inOrder(mockEventProbe);
+        inOrderMockEventProbeSequence
+                .verify(mockEventProbe)
+                .counterMetric(HTTP_RETRY_SKIPPED_DEADLINE);
+        inOrderMockEventProbeSequence
+                .verify(mockEventProbe)
+                .counterMetric(HttpRetryStatusConfigFixtures.TEST_HTTP_RETRYER_SEND_FAIL_METRIC);
+        verifyNoMoreInteractions(mockEventProbe);
+
+        verify(mockHttpClient, times(1)).execute(any(HttpPost.class));
+        verifyNoMoreInteractions(mockHttpClient);
+    }
 }
@@ -0,0 +1,200 @@
+package uk.gov.di.ipv.cri.fraud.library.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import software.amazon.awssdk.awscore.exception.AwsErrorDetails;
+import software.amazon.awssdk.core.exception.SdkClientException;
+import software.amazon.awssdk.services.ssm.SsmClient;
+import software.amazon.awssdk.services.ssm.model.GetParametersByPathRequest;
+import software.amazon.awssdk.services.ssm.model.GetParametersByPathResponse;
+import software.amazon.awssdk.services.ssm.model.GetParametersRequest;
+import software.amazon.awssdk.services.ssm.model.GetParametersResponse;
+import software.amazon.awssdk.services.ssm.model.Parameter;
+import software.amazon.awssdk.services.ssm.model.SsmException;
+import software.amazon.lambda.powertools.parameters.SSMProvider;
+import uk.gov.di.ipv.cri.fraud.library.service.parameterstore.ParameterPrefix;
+import uk.org.webcompere.systemstubs.environment.EnvironmentVariables;
+import uk.org.webcompere.systemstubs.jupiter.SystemStub;
+import uk.org.webcompere.systemstubs.jupiter.SystemStubsExtension;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@ExtendWith(SystemStubsExtension.class)
+class ParameterStoreBootstrapLoaderTest {
+
+    @SystemStub private EnvironmentVariables environmentVariables = new EnvironmentVariables();
+
+    private static final String PARAMETER_0_FULL_NAME =
+            ParameterStoreService.formatParameterPath(ParameterPrefix.STACK, "Parameter0");
+    private static final String TEST_PATH_FULL_NAME =
+            ParameterStoreService.formatParameterPath(ParameterPrefix.STACK, "TestPath");
+
+    @Mock private SsmClient mockSsmClient;
+    @Mock private SSMProvider mockSSMProvider;
+
+    private ParameterStoreService parameterStoreService;
+
+    @BeforeEach
+    void setUp() {
+        environmentVariables.set("AWS_STACK_NAME", "cri-api-dev");
+
+        parameterStoreService = new ParameterStoreService(mockSSMProvider);
+    }
+
+    @Test
+    void shouldFetchNamesInBatchesAndServeEachPreloadedValueOnce() {
+        List<String> names =
+                IntStream.range(0, ParameterStoreBootstrapLoader.GET_PARAMETERS_MAX_NAMES + 1)
+                        .mapToObj(i -> "Parameter" + i)
+                        .toList();
+
+        when(mockSsmClient.getParameters(any(GetParametersRequest.class)))
+                .thenAnswer(
+                        invocation -> {
+                            GetParametersRequest request = invocation.getArgument(0);
+
+                            List<Parameter> parameters = new ArrayList<>();
+                            for (String name : request.names()) {
+                                parameters.add(
+                                        Parameter.builder()
+                                                .name(name)
+                                                .value(name + "-value")
+                                                .build());
+                            }
+
+                            return GetParametersResponse.builder().parameters(parameters).build();
+                        });
+
+        ParameterStoreBootstrapLoader parameterStoreBootstrapLoader =
+                new ParameterStoreBootstrapLoader(mockSsmClient);
+        names.forEach(name -> parameterStoreBootstrapLoader.parameter(ParameterPrefix.STACK, name));
+
+        assertTrue(parameterStoreBootstrapLoader.load(parameterStoreService));
+
+        ArgumentCaptor<GetParametersRequest> requestCaptor =
+                ArgumentCaptor.forClass(GetParametersRequest.class);
+        verify(mockSsmClient, times(2)).getParameters(requestCaptor.capture());
+        assertEquals(
+                names.size(),
+                requestCaptor.getAllValues().stream().mapToInt(r -> r.names().size()).sum());
+
+        assertEquals(
+                "Parameter0-value",
+                parameterStoreService.getParameterValue(ParameterPrefix.STACK, "Parameter0"));
+        verifyNoInteractions(mockSSMProvider);
+
+        // A second read goes to parameter store so later changes are seen
+        when(mockSSMProvider.get(PARAMETER_0_FULL_NAME)).thenReturn("updated-value");
+
+        assertEquals(
+                "updated-value",
+                parameterStoreService.getParameterValue(ParameterPrefix.STACK, "Parameter0"));
+    }
+
+    @Test
+    void shouldFetchPathsAcrossPagesWithKeysRelativeToThePath() {
+        when(mockSsmClient.getParametersByPath(any(GetParametersByPathRequest.class)))
+                .thenReturn(
+                        GetParametersByPathResponse.builder()
+                                .parameters(
+                                        Parameter.builder()
+                                                .name(TEST_PATH_FULL_NAME + "/key1")
+                                                .value("value1")
+                                                .build())
+                                .nextToken("page2")
+                                .build(),
+                        GetParametersByPathResponse.builder()
+                                .parameters(
+                                        Parameter.builder()
+                                                .name(TEST_PATH_FULL_NAME + "/nested/key2")
+                                                .value("value2")
+                                                .build())
+                                .build());
+
+        new ParameterStoreBootstrapLoader(mockSsmClient)
+                .parametersByPath(ParameterPrefix.STACK, "TestPath")
+                .load(parameterStoreService);
+
+        assertEquals(
+                Map.of("key1", "value1", "nested/key2", "value2"),
+                parameterStoreService.getAllParametersFromPath(ParameterPrefix.STACK, "TestPath"));
+        verifyNoInteractions(mockSSMProvider);
+
+        ArgumentCaptor<GetParametersByPathRequest> requestCaptor =
+                ArgumentCaptor.forClass(GetParametersByPathRequest.class);
+        verify(mockSsmClient, times(2)).getParametersByPath(requestCaptor.capture());
+        assertTrue(requestCaptor.getAllValues().get(0).recursive());
+        assertEquals("page2", requestCaptor.getAllValues().get(1).nextToken());
+    }
+
+    @Test
+    void shouldLeaveParametersToBeFetchedOnDemandWhenTheBootstrapFails() {
+        when(mockSsmClient.getParameters(any(GetParametersRequest.class)))
+                .thenThrow(SdkClientException.create("Unable to reach parameter store"));
+
+        boolean loaded =
+                new ParameterStoreBootstrapLoader(mockSsmClient)
+                        .parameter(ParameterPrefix.STACK, "Parameter0")
+                        .load(parameterStoreService);
+
+        assertFalse(loaded);
+
+        when(mockSSMProvider.get(PARAMETER_0_FULL_NAME)).thenReturn("on-demand-value");
+
+        assertEquals(
+                "on-demand-value",
+                parameterStoreService.getParameterValue(ParameterPrefix.STACK, "Parameter0"));
+    }
+
+    @Test
+    void shouldReportABatchDeniedByParameterStore() {
+        when(mockSsmClient.getParameters(any(GetParametersRequest.class)))
+                .thenThrow(
+                        SsmException.builder()
+                                .statusCode(400)
+                                .awsErrorDetails(
+                                        AwsErrorDetails.builder()
+                                                .errorCode("AccessDeniedException")
+                                                .build())
+                                .message("not authorized to perform: ssm:GetParameters")
+                                .build());
+
+        boolean loaded =
+                new ParameterStoreBootstrapLoader(mockSsmClient)
+                        .parameter(ParameterPrefix.STACK, "Parameter0")
+                        .load(parameterStoreService);
+
+        assertFalse(loaded);
+
+        // Still served, by the per parameter read the bootstrap was meant to replace
+        when(mockSSMProvider.get(PARAMETER_0_FULL_NAME)).thenReturn("on-demand-value");
+
+        assertEquals(
+                "on-demand-value",
+                parameterStoreService.getParameterValue(ParameterPrefix.STACK, "Parameter0"));
+    }
+
+    @Test
+    void shouldNotCallParameterStoreWhenNothingIsDeclared() {
+        assertFalse(new ParameterStoreBootstrapLoader(mockSsmClient).load(parameterStoreService));
+
+        verifyNoInteractions(mockSsmClient);
+    }
+}
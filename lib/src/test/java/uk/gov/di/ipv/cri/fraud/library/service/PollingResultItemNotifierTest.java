@@ -0,0 +1,87 @@
+package uk.gov.di.ipv.cri.fraud.library.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import uk.gov.di.ipv.cri.fraud.library.persistence.item.FraudResultItem;
+import uk.gov.di.ipv.cri.fraud.library.util.SleepHelper;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+import static uk.gov.di.ipv.cri.fraud.library.service.PollingResultItemNotifier.INITIAL_POLLING_INTERVAL_MS;
+import static uk.gov.di.ipv.cri.fraud.library.service.PollingResultItemNotifier.MAX_POLLING_INTERVAL_MS;
+
+@ExtendWith(MockitoExtension.class)
+class PollingResultItemNotifierTest {
+
+    @Mock private ResultItemStorageService<FraudResultItem> mockResultItemStorageService;
+    @Mock private SleepHelper mockSleepHelper;
+
+    private PollingResultItemNotifier<FraudResultItem> pollingResultItemNotifier;
+
+    @BeforeEach
+    void setUp() {
+        pollingResultItemNotifier =
+                new PollingResultItemNotifier<>(mockResultItemStorageService, mockSleepHelper);
+    }
+
+    @Test
+    void shouldReturnResultItemWithoutWaitingWhenAlreadySaved() {
+        UUID sessionId = UUID.randomUUID();
+        FraudResultItem fraudResultItem = new FraudResultItem();
+
+        when(mockResultItemStorageService.getResultItem(sessionId)).thenReturn(fraudResultItem);
+
+        assertEquals(fraudResultItem, pollingResultItemNotifier.awaitResultItem(sessionId, 1000));
+
+        verifyNoInteractions(mockSleepHelper);
+    }
+
+    @Test
+    void shouldBackOffBetweenPollsUntilResultItemIsSaved() {
+        UUID sessionId = UUID.randomUUID();
+        FraudResultItem fraudResultItem = new FraudResultItem();
+
+        when(mockResultItemStorageService.getResultItem(sessionId))
+                .thenReturn(null, null, null, fraudResultItem);
+        when(mockSleepHelper.sleepMilliseconds(anyLong()))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+
+        assertEquals(
+                fraudResultItem, pollingResultItemNotifier.awaitResultItem(sessionId, 10000));
+
+        InOrder inOrder = inOrder(mockSleepHelper);
+        inOrder.verify(mockSleepHelper).sleepMilliseconds(INITIAL_POLLING_INTERVAL_MS);
+        inOrder.verify(mockSleepHelper).sleepMilliseconds(INITIAL_POLLING_INTERVAL_MS * 2);
+        inOrder.verify(mockSleepHelper).sleepMilliseconds(INITIAL_POLLING_INTERVAL_MS * 4);
+        verify(mockResultItemStorageService, times(4)).getResultItem(sessionId);
+    }
+
+    @Test
+    void shouldReturnNullWhenResultItemNotSavedWithinMaxWait() {
+        UUID sessionId = UUID.randomUUID();
+        long maxWaitDurationMs = 5000;
+
+        when(mockSleepHelper.sleepMilliseconds(anyLong()))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+
+        assertNull(pollingResultItemNotifier.awaitResultItem(sessionId, maxWaitDurationMs));
+
+        // 50 + 100 + 200 + 400 + 800 + 1000 + 1000 + 1000 + 450 (remaining)
+        InOrder inOrder = inOrder(mockSleepHelper);
+        inOrder.verify(mockSleepHelper, times(3)).sleepMilliseconds(MAX_POLLING_INTERVAL_MS);
+        inOrder.verify(mockSleepHelper).sleepMilliseconds(450L);
+        verify(mockResultItemStorageService, times(10)).getResultItem(sessionId);
+    }
+}
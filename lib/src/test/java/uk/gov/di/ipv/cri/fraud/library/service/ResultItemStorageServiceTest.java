@@ -3,19 +3,27 @@ package uk.gov.di.ipv.cri.fraud.library.service;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import software.amazon.awssdk.enhanced.dynamodb.DynamoDbEnhancedClient;
 import software.amazon.awssdk.enhanced.dynamodb.DynamoDbTable;
+import software.amazon.awssdk.enhanced.dynamodb.Expression;
 import software.amazon.awssdk.enhanced.dynamodb.Key;
 import software.amazon.awssdk.enhanced.dynamodb.TableSchema;
+import software.amazon.awssdk.enhanced.dynamodb.model.UpdateItemEnhancedRequest;
+import software.amazon.awssdk.services.dynamodb.model.ConditionalCheckFailedException;
 import uk.gov.di.ipv.cri.fraud.library.persistence.item.FraudResultItem;
 
 import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -59,4 +67,33 @@ class DocumentCheckResultStorageServiceTest {
 
         assertEquals(testItem, returnedItem);
     }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void shouldUpdateOnlyTheSetAttributesWhenTheConditionIsMet() {
+        FraudResultItem testItem = new FraudResultItem();
+        Expression conditionExpression =
+                Expression.builder().expression("attribute_exists(sessionId)").build();
+
+        assertTrue(resultItemStorageService.updateResultItem(testItem, conditionExpression));
+
+        ArgumentCaptor<UpdateItemEnhancedRequest<FraudResultItem>> requestCaptor =
+                ArgumentCaptor.forClass(UpdateItemEnhancedRequest.class);
+        verify(mockDynamoDbTable).updateItem(requestCaptor.capture());
+
+        assertEquals(testItem, requestCaptor.getValue().item());
+        assertTrue(requestCaptor.getValue().ignoreNulls());
+        assertEquals(conditionExpression, requestCaptor.getValue().conditionExpression());
+    }
+
+    @Test
+    void shouldReturnFalseWhenTheUpdateConditionIsNotMet() {
+        when(mockDynamoDbTable.updateItem(any(UpdateItemEnhancedRequest.class)))
+                .thenThrow(ConditionalCheckFailedException.builder().build());
+
+        assertFalse(
+                resultItemStorageService.updateResultItem(
+                        new FraudResultItem(),
+                        Expression.builder().expression("attribute_exists(sessionId)").build()));
+    }
 }
@@ -13,12 +13,15 @@ import uk.gov.di.ipv.cri.common.library.service.SessionService;
 import uk.gov.di.ipv.cri.common.library.util.ClientProviderFactory;
 import uk.gov.di.ipv.cri.common.library.util.EventProbe;
 import uk.gov.di.ipv.cri.fraud.library.persistence.item.FraudResultItem;
+import uk.gov.di.ipv.cri.fraud.library.util.JsonCodecRegistry;
 import uk.org.webcompere.systemstubs.environment.EnvironmentVariables;
 import uk.org.webcompere.systemstubs.jupiter.SystemStub;
 import uk.org.webcompere.systemstubs.jupiter.SystemStubsExtension;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 @ExtendWith(MockitoExtension.class)
 @ExtendWith(SystemStubsExtension.class)
@@ -31,7 +34,10 @@ class ServiceFactoryTest {
     @Mock ParameterStoreService mockParameterStoreService;
     @Mock SessionService mockSessionService;
     @Mock AuditService mockAuditService;
+    @Mock AuditEventDispatcher mockAuditEventDispatcher;
     @Mock ResultItemStorageService<FraudResultItem> mockResultItemStorageService;
+    @Mock SessionCompletionService<FraudResultItem> mockSessionCompletionService;
+    @Mock SessionAttemptService mockSessionAttemptService;
     @Mock PersonIdentityService mockPersonIdentityService;
     @Mock ConfigurationService mockCommonLibConfigurationService;
 
@@ -49,7 +55,10 @@ class ServiceFactoryTest {
                         mockParameterStoreService,
                         mockSessionService,
                         mockAuditService,
+                        mockAuditEventDispatcher,
                         mockResultItemStorageService,
+                        mockSessionCompletionService,
+                        mockSessionAttemptService,
                         mockPersonIdentityService,
                         mockCommonLibConfigurationService);
     }
@@ -64,6 +73,20 @@ class ServiceFactoryTest {
         assertEquals(objectMapper, objectMapper2);
     }
 
+    @Test
+    void shouldReturnJsonCodecRegistry() {
+        assertFalse(serviceFactory.isResolved(ServiceFactory.Component.JSON_CODEC_REGISTRY));
+
+        JsonCodecRegistry jsonCodecRegistry = serviceFactory.getJsonCodecRegistry();
+        assertNotNull(jsonCodecRegistry);
+        assertTrue(jsonCodecRegistry.isRegistered(FraudResultItem.class));
+
+        JsonCodecRegistry jsonCodecRegistry2 = serviceFactory.getJsonCodecRegistry();
+        assertEquals(jsonCodecRegistry, jsonCodecRegistry2);
+
+        assertTrue(serviceFactory.isResolved(ServiceFactory.Component.JSON_CODEC_REGISTRY));
+    }
+
     @Test
     void shouldReturnEventProbe() {
         EventProbe eventProbe = serviceFactory.getEventProbe();
@@ -123,6 +146,15 @@ class ServiceFactoryTest {
         assertEquals(auditService, auditService2);
     }
 
+    @Test
+    void shouldReturnAuditEventDispatcher() {
+        AuditEventDispatcher auditEventDispatcher = serviceFactory.getAuditEventDispatcher();
+        assertNotNull(auditEventDispatcher);
+
+        AuditEventDispatcher auditEventDispatcher2 = serviceFactory.getAuditEventDispatcher();
+        assertEquals(auditEventDispatcher, auditEventDispatcher2);
+    }
+
     @Test
     void shouldReturnPersonIdentityService() {
         PersonIdentityService personIdentityService = serviceFactory.getPersonIdentityService();
@@ -143,4 +175,46 @@ class ServiceFactoryTest {
                 serviceFactory.getResultItemStorageService();
         assertEquals(resultItemStorageService1, resultItemStorageService2);
     }
+
+    @Test
+    void shouldReturnSessionCompletionService() {
+        SessionCompletionService<FraudResultItem> sessionCompletionService1 =
+                serviceFactory.getSessionCompletionService();
+        assertNotNull(sessionCompletionService1);
+
+        SessionCompletionService<FraudResultItem> sessionCompletionService2 =
+                serviceFactory.getSessionCompletionService();
+        assertEquals(sessionCompletionService1, sessionCompletionService2);
+    }
+
+    @Test
+    void shouldReturnSessionAttemptService() {
+        SessionAttemptService sessionAttemptService1 = serviceFactory.getSessionAttemptService();
+        assertNotNull(sessionAttemptService1);
+
+        SessionAttemptService sessionAttemptService2 = serviceFactory.getSessionAttemptService();
+        assertEquals(sessionAttemptService1, sessionAttemptService2);
+    }
+
+    @Test
+    void shouldTreatSuppliedServicesAsResolved() {
+        assertTrue(serviceFactory.isResolved(ServiceFactory.Component.PARAMETER_STORE_SERVICE));
+        assertTrue(
+                serviceFactory.isResolved(
+                        ServiceFactory.Component.COMMON_LIB_CONFIGURATION_SERVICE));
+        assertTrue(serviceFactory.isResolved(ServiceFactory.Component.SESSION_SERVICE));
+        assertTrue(serviceFactory.isResolved(ServiceFactory.Component.AUDIT_SERVICE));
+        assertTrue(serviceFactory.isResolved(ServiceFactory.Component.AUDIT_EVENT_DISPATCHER));
+        assertTrue(serviceFactory.isResolved(ServiceFactory.Component.PERSON_IDENTITY_SERVICE));
+        assertTrue(
+                serviceFactory.isResolved(ServiceFactory.Component.RESULT_ITEM_STORAGE_SERVICE));
+        assertTrue(
+                serviceFactory.isResolved(ServiceFactory.Component.SESSION_COMPLETION_SERVICE));
+        assertTrue(serviceFactory.isResolved(ServiceFactory.Component.SESSION_ATTEMPT_SERVICE));
+    }
+
+    @Test
+    void shouldReturnNoComponentInitDurationsWhenServicesAreSupplied() {
+        assertTrue(serviceFactory.getComponentInitDurations().isEmpty());
+    }
 }
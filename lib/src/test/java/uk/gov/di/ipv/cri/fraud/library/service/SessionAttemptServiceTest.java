@@ -0,0 +1,94 @@
+package uk.gov.di.ipv.cri.fraud.library.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbEnhancedClient;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.ConditionalCheckFailedException;
+import software.amazon.awssdk.services.dynamodb.model.UpdateItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.UpdateItemResponse;
+import uk.gov.di.ipv.cri.common.library.exception.SessionNotFoundException;
+import uk.gov.di.ipv.cri.common.library.service.ConfigurationService;
+
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class SessionAttemptServiceTest {
+
+    private static final String SESSION_TABLE_NAME = "session-table";
+
+    @Mock private DynamoDbClient mockDynamoDbClient;
+    @Mock private ConfigurationService mockConfigurationService;
+
+    private SessionAttemptService sessionAttemptService;
+
+    @BeforeEach
+    void setUp() {
+        when(mockConfigurationService.getCommonParameterValue("SessionTableName"))
+                .thenReturn(SESSION_TABLE_NAME);
+
+        DynamoDbEnhancedClient dynamoDbEnhancedClient =
+                DynamoDbEnhancedClient.builder().dynamoDbClient(mockDynamoDbClient).build();
+
+        sessionAttemptService =
+                new SessionAttemptService(mockConfigurationService, dynamoDbEnhancedClient);
+    }
+
+    @Test
+    void shouldReturnTheAttemptCountAfterTheAtomicIncrement() throws SessionNotFoundException {
+        UUID sessionId = UUID.randomUUID();
+
+        ArgumentCaptor<UpdateItemRequest> requestCaptor =
+                ArgumentCaptor.forClass(UpdateItemRequest.class);
+        when(mockDynamoDbClient.updateItem(requestCaptor.capture()))
+                .thenReturn(
+                        UpdateItemResponse.builder()
+                                .attributes(
+                                        Map.of(
+                                                "sessionId",
+                                                AttributeValue.fromS(sessionId.toString()),
+                                                "attemptCount",
+                                                AttributeValue.fromN("2")))
+                                .build());
+
+        assertEquals(2, sessionAttemptService.incrementAttemptCount(sessionId));
+
+        UpdateItemRequest updateItemRequest = requestCaptor.getValue();
+        assertEquals(SESSION_TABLE_NAME, updateItemRequest.tableName());
+        assertEquals(sessionId.toString(), updateItemRequest.key().get("sessionId").s());
+
+        // A single counter update, no other attribute is set or removed
+        assertTrue(updateItemRequest.updateExpression().contains("if_not_exists"));
+        assertFalse(updateItemRequest.updateExpression().contains("REMOVE"));
+        assertTrue(updateItemRequest.expressionAttributeNames().containsValue("attemptCount"));
+        assertEquals("attribute_exists(#sessionId)", updateItemRequest.conditionExpression());
+    }
+
+    @Test
+    void shouldThrowSessionNotFoundExceptionWhenTheSessionNoLongerExists() {
+        when(mockDynamoDbClient.updateItem(any(UpdateItemRequest.class)))
+                .thenThrow(
+                        ConditionalCheckFailedException.builder()
+                                .message("The conditional request failed")
+                                .build());
+
+        UUID sessionId = UUID.randomUUID();
+
+        assertThrows(
+                SessionNotFoundException.class,
+                () -> sessionAttemptService.incrementAttemptCount(sessionId));
+    }
+}
@@ -0,0 +1,105 @@
+package uk.gov.di.ipv.cri.fraud.library.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbEnhancedClient;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.TransactWriteItem;
+import software.amazon.awssdk.services.dynamodb.model.TransactWriteItemsRequest;
+import software.amazon.awssdk.services.dynamodb.model.TransactionCanceledException;
+import uk.gov.di.ipv.cri.common.library.persistence.item.SessionItem;
+import uk.gov.di.ipv.cri.common.library.service.ConfigurationService;
+import uk.gov.di.ipv.cri.fraud.library.persistence.item.FraudResultItem;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class SessionCompletionServiceTest {
+
+    private static final String SESSION_TABLE_NAME = "session-table";
+    private static final String RESULT_ITEM_TABLE_NAME = "result-item-table";
+    private static final long AUTHORIZATION_CODE_EXPIRY = 1000L;
+
+    @Mock private DynamoDbClient mockDynamoDbClient;
+    @Mock private ConfigurationService mockConfigurationService;
+
+    private SessionCompletionService<FraudResultItem> sessionCompletionService;
+
+    @BeforeEach
+    void setUp() {
+        when(mockConfigurationService.getCommonParameterValue("SessionTableName"))
+                .thenReturn(SESSION_TABLE_NAME);
+
+        DynamoDbEnhancedClient dynamoDbEnhancedClient =
+                DynamoDbEnhancedClient.builder().dynamoDbClient(mockDynamoDbClient).build();
+
+        sessionCompletionService =
+                new SessionCompletionService<>(
+                        mockConfigurationService,
+                        RESULT_ITEM_TABLE_NAME,
+                        FraudResultItem.class,
+                        dynamoDbEnhancedClient);
+    }
+
+    @Test
+    void shouldWriteTheSessionAuthorizationCodeAndResultItemInOneTransaction() {
+        when(mockConfigurationService.getAuthorizationCodeExpirationEpoch())
+                .thenReturn(AUTHORIZATION_CODE_EXPIRY);
+
+        UUID sessionId = UUID.randomUUID();
+        SessionItem sessionItem = new SessionItem();
+        sessionItem.setSessionId(sessionId);
+        FraudResultItem fraudResultItem = new FraudResultItem();
+        fraudResultItem.setSessionId(sessionId);
+
+        sessionCompletionService.completeSession(sessionItem, fraudResultItem);
+
+        assertNotNull(sessionItem.getAuthorizationCode());
+        assertEquals(AUTHORIZATION_CODE_EXPIRY, sessionItem.getAuthorizationCodeExpiryDate());
+
+        ArgumentCaptor<TransactWriteItemsRequest> requestCaptor =
+                ArgumentCaptor.forClass(TransactWriteItemsRequest.class);
+        verify(mockDynamoDbClient).transactWriteItems(requestCaptor.capture());
+
+        List<TransactWriteItem> transactItems = requestCaptor.getValue().transactItems();
+        assertEquals(2, transactItems.size());
+
+        assertEquals(SESSION_TABLE_NAME, transactItems.get(0).update().tableName());
+        assertEquals(
+                sessionId.toString(),
+                transactItems.get(0).update().key().get("sessionId").s());
+
+        assertEquals(RESULT_ITEM_TABLE_NAME, transactItems.get(1).put().tableName());
+        assertEquals(
+                sessionId.toString(), transactItems.get(1).put().item().get("sessionId").s());
+    }
+
+    @Test
+    void shouldThrowWhenTheTransactionIsCancelled() {
+        when(mockConfigurationService.getAuthorizationCodeExpirationEpoch())
+                .thenReturn(AUTHORIZATION_CODE_EXPIRY);
+        when(mockDynamoDbClient.transactWriteItems(any(TransactWriteItemsRequest.class)))
+                .thenThrow(TransactionCanceledException.builder().message("cancelled").build());
+
+        SessionItem sessionItem = new SessionItem();
+        sessionItem.setSessionId(UUID.randomUUID());
+        FraudResultItem fraudResultItem = new FraudResultItem();
+        fraudResultItem.setSessionId(sessionItem.getSessionId());
+
+        assertThrows(
+                TransactionCanceledException.class,
+                () -> sessionCompletionService.completeSession(sessionItem, fraudResultItem));
+    }
+}
@@ -0,0 +1,73 @@
+package uk.gov.di.ipv.cri.fraud.library.util;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ComponentInitOrchestratorTest {
+
+    private ComponentInitOrchestrator componentInitOrchestrator;
+
+    @BeforeEach
+    void setUp() {
+        componentInitOrchestrator = new ComponentInitOrchestrator();
+    }
+
+    @AfterEach
+    void tearDown() {
+        componentInitOrchestrator.shutdown();
+    }
+
+    @Test
+    void shouldBuildIndependentComponentsInParallel() {
+        // Each component only completes once the other has started
+        CountDownLatch bothStarted = new CountDownLatch(2);
+
+        CompletableFuture<String> first =
+                componentInitOrchestrator.submit(() -> awaitOther(bothStarted, "a"));
+        CompletableFuture<String> second =
+                componentInitOrchestrator.submit(() -> awaitOther(bothStarted, "b"));
+
+        assertEquals("a", ComponentInitOrchestrator.join(first));
+        assertEquals("b", ComponentInitOrchestrator.join(second));
+    }
+
+    @Test
+    void shouldRethrowTheOriginalFailure() {
+        IllegalStateException failure = new IllegalStateException("client build failed");
+
+        CompletableFuture<String> failing =
+                componentInitOrchestrator.submit(
+                        () -> {
+                            throw failure;
+                        });
+
+        IllegalStateException thrown =
+                assertThrows(
+                        IllegalStateException.class, () -> ComponentInitOrchestrator.join(failing));
+
+        assertEquals(failure, thrown);
+    }
+
+    private static String awaitOther(CountDownLatch bothStarted, String value) {
+        bothStarted.countDown();
+
+        try {
+            if (!bothStarted.await(5, TimeUnit.SECONDS)) {
+                throw new IllegalStateException("Components were not built in parallel");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+
+        return value;
+    }
+}
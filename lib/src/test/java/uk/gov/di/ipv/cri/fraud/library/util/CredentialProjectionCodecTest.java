@@ -0,0 +1,89 @@
+package uk.gov.di.ipv.cri.fraud.library.util;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import uk.gov.di.ipv.cri.common.library.domain.personidentity.Address;
+import uk.gov.di.ipv.cri.common.library.domain.personidentity.BirthDate;
+import uk.gov.di.ipv.cri.common.library.domain.personidentity.Name;
+import uk.gov.di.ipv.cri.common.library.domain.personidentity.NamePart;
+import uk.gov.di.ipv.cri.common.library.domain.personidentity.PersonIdentityDetailed;
+import uk.gov.di.ipv.cri.fraud.library.domain.CredentialProjection;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class CredentialProjectionCodecTest {
+
+    private final CredentialProjectionCodec credentialProjectionCodec =
+            new CredentialProjectionCodec(new ObjectMapper());
+
+    @Test
+    void shouldReadBackTheWrittenProjection() throws JsonProcessingException {
+        NamePart givenName = new NamePart();
+        givenName.setType("GivenName");
+        givenName.setValue("KENNETH");
+        NamePart familyName = new NamePart();
+        familyName.setType("FamilyName");
+        familyName.setValue("DECERQUEIRA");
+        Name name = new Name();
+        name.setNameParts(List.of(givenName, familyName));
+
+        BirthDate birthDate = new BirthDate();
+        birthDate.setValue(LocalDate.of(1965, 7, 8));
+
+        Address address = new Address();
+        address.setBuildingNumber("8");
+        address.setStreetName("HADLEY ROAD");
+        address.setAddressLocality("BATH");
+        address.setPostalCode("BA2 5AA");
+
+        String json =
+                credentialProjectionCodec.write(
+                        new CredentialProjection(
+                                "subject",
+                                new PersonIdentityDetailed(
+                                        List.of(name), List.of(birthDate), List.of(address))));
+
+        CredentialProjection credentialProjection = credentialProjectionCodec.read(json);
+        PersonIdentityDetailed personIdentityDetailed =
+                credentialProjection.getPersonIdentityDetailed();
+
+        assertEquals("subject", credentialProjection.getSubject());
+
+        List<NamePart> nameParts = personIdentityDetailed.getNames().get(0).getNameParts();
+        assertEquals(2, nameParts.size());
+        assertEquals("GivenName", nameParts.get(0).getType());
+        assertEquals("KENNETH", nameParts.get(0).getValue());
+        assertEquals("FamilyName", nameParts.get(1).getType());
+        assertEquals("DECERQUEIRA", nameParts.get(1).getValue());
+
+        assertEquals(
+                LocalDate.of(1965, 7, 8), personIdentityDetailed.getBirthDates().get(0).getValue());
+
+        Address readAddress = personIdentityDetailed.getAddresses().get(0);
+        assertEquals("8", readAddress.getBuildingNumber());
+        assertNull(readAddress.getBuildingName());
+        assertEquals("HADLEY ROAD", readAddress.getStreetName());
+        assertEquals("BATH", readAddress.getAddressLocality());
+        assertEquals("BA2 5AA", readAddress.getPostalCode());
+    }
+
+    @Test
+    void shouldReadMissingListsAsNull() throws JsonProcessingException {
+        String json =
+                credentialProjectionCodec.write(
+                        new CredentialProjection(
+                                "subject", new PersonIdentityDetailed(null, null, null)));
+
+        PersonIdentityDetailed personIdentityDetailed =
+                credentialProjectionCodec.read(json).getPersonIdentityDetailed();
+
+        assertNull(personIdentityDetailed.getNames());
+        assertNull(personIdentityDetailed.getBirthDates());
+        assertNull(personIdentityDetailed.getAddresses());
+    }
+}
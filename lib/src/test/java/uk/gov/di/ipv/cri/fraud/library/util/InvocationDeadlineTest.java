@@ -0,0 +1,43 @@
+package uk.gov.di.ipv.cri.fraud.library.util;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class InvocationDeadlineTest {
+
+    // A margin to account for processing speed/delays
+    private static final long EPSILON = 500L;
+
+    @AfterEach
+    void tearDown() {
+        InvocationDeadline.clear();
+    }
+
+    @Test
+    void shouldHaveNoDeadlineWhenNotStarted() {
+        assertEquals(Long.MAX_VALUE, InvocationDeadline.getRemainingTimeMillis());
+    }
+
+    @ParameterizedTest
+    @ValueSource(longs = {0, -1})
+    void shouldHaveNoDeadlineWhenRemainingTimeIsNotKnown(long remainingTimeInMillis) {
+        InvocationDeadline.start(remainingTimeInMillis);
+
+        assertEquals(Long.MAX_VALUE, InvocationDeadline.getRemainingTimeMillis());
+    }
+
+    @Test
+    void shouldReturnRemainingTimeLessSafetyMargin() {
+        InvocationDeadline.start(30000);
+
+        long remainingTime = InvocationDeadline.getRemainingTimeMillis();
+
+        assertEquals(30000 - InvocationDeadline.SAFETY_MARGIN_MS, remainingTime, EPSILON);
+        assertTrue(remainingTime <= 30000 - InvocationDeadline.SAFETY_MARGIN_MS);
+    }
+}
@@ -0,0 +1,80 @@
+package uk.gov.di.ipv.cri.fraud.library.util;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import uk.gov.di.ipv.cri.fraud.library.persistence.item.FraudResultItem;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class JsonCodecRegistryTest {
+
+    private ObjectMapper objectMapper;
+    private JsonCodecRegistry jsonCodecRegistry;
+
+    @BeforeEach
+    void setUp() {
+        objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+        jsonCodecRegistry = new JsonCodecRegistry(objectMapper);
+    }
+
+    @Test
+    void shouldRegisterTypesEagerly() {
+        assertFalse(jsonCodecRegistry.isRegistered(FraudResultItem.class));
+
+        JsonCodecRegistry returned = jsonCodecRegistry.register(FraudResultItem.class);
+
+        assertSame(jsonCodecRegistry, returned);
+        assertTrue(jsonCodecRegistry.isRegistered(FraudResultItem.class));
+    }
+
+    @Test
+    void shouldReadAndWriteTheSameAsTheObjectMapper() throws JsonProcessingException {
+        jsonCodecRegistry.register(FraudResultItem.class);
+
+        FraudResultItem fraudResultItem =
+                new FraudResultItem(UUID.randomUUID(), List.of("A01"), 2, 1, 0);
+
+        String expectedJson = objectMapper.writeValueAsString(fraudResultItem);
+        String actualJson = jsonCodecRegistry.writeValueAsString(fraudResultItem);
+
+        assertEquals(expectedJson, actualJson);
+
+        FraudResultItem readBack = jsonCodecRegistry.readValue(actualJson, FraudResultItem.class);
+
+        assertEquals(expectedJson, objectMapper.writeValueAsString(readBack));
+    }
+
+    @Test
+    void shouldCacheUnregisteredTypesOnFirstUse() throws JsonProcessingException {
+        assertEquals("[\"a\"]", jsonCodecRegistry.writeValueAsString(new String[] {"a"}));
+
+        // Only the writer has been used
+        assertFalse(jsonCodecRegistry.isRegistered(String[].class));
+
+        assertEquals("\"b\"", jsonCodecRegistry.writeValueAsString("b"));
+        assertEquals("b", jsonCodecRegistry.readValue("\"b\"", String.class));
+        assertTrue(jsonCodecRegistry.isRegistered(String.class));
+    }
+
+    @Test
+    void shouldWriteNullAsJsonNull() throws JsonProcessingException {
+        assertEquals("null", jsonCodecRegistry.writeValueAsString(null));
+    }
+
+    @Test
+    void shouldThrowJsonProcessingExceptionForInvalidJson() {
+        assertThrows(
+                JsonProcessingException.class,
+                () -> jsonCodecRegistry.readValue("}BAD JSON{", FraudResultItem.class));
+    }
+}
@@ -0,0 +1,152 @@
+package uk.gov.di.ipv.cri.fraud.library.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MemoizedSupplierTest {
+
+    @Test
+    void shouldNotBuildTheValueUntilFirstUse() {
+        AtomicInteger buildCount = new AtomicInteger();
+
+        MemoizedSupplier<Object> memoizedSupplier =
+                MemoizedSupplier.of(
+                        () -> {
+                            buildCount.incrementAndGet();
+                            return new Object();
+                        });
+
+        assertFalse(memoizedSupplier.isResolved());
+        assertEquals(0, buildCount.get());
+
+        Object value = memoizedSupplier.get();
+
+        assertTrue(memoizedSupplier.isResolved());
+        assertSame(value, memoizedSupplier.get());
+        assertEquals(1, buildCount.get());
+    }
+
+    @Test
+    void shouldBuildTheValueOnceForConcurrentFirstCalls() throws Exception {
+        AtomicInteger buildCount = new AtomicInteger();
+        CountDownLatch buildStarted = new CountDownLatch(1);
+        CountDownLatch releaseBuild = new CountDownLatch(1);
+
+        MemoizedSupplier<Object> memoizedSupplier =
+                MemoizedSupplier.of(
+                        () -> {
+                            buildCount.incrementAndGet();
+                            buildStarted.countDown();
+                            await(releaseBuild);
+                            return new Object();
+                        });
+
+        CompletableFuture<Object> first = CompletableFuture.supplyAsync(memoizedSupplier);
+        assertTrue(buildStarted.await(5, TimeUnit.SECONDS));
+        CompletableFuture<Object> second = CompletableFuture.supplyAsync(memoizedSupplier);
+
+        releaseBuild.countDown();
+
+        assertSame(first.get(5, TimeUnit.SECONDS), second.get(5, TimeUnit.SECONDS));
+        assertEquals(1, buildCount.get());
+    }
+
+    @Test
+    void shouldRetryTheBuildAfterAFailure() {
+        AtomicInteger buildCount = new AtomicInteger();
+
+        MemoizedSupplier<String> memoizedSupplier =
+                MemoizedSupplier.of(
+                        () -> {
+                            if (buildCount.incrementAndGet() == 1) {
+                                throw new IllegalStateException("build failure");
+                            }
+                            return "value";
+                        });
+
+        assertThrows(IllegalStateException.class, memoizedSupplier::get);
+        assertFalse(memoizedSupplier.isResolved());
+
+        assertEquals("value", memoizedSupplier.get());
+        assertEquals(2, buildCount.get());
+    }
+
+    @Test
+    void shouldRememberANullValue() {
+        AtomicInteger buildCount = new AtomicInteger();
+
+        MemoizedSupplier<Object> memoizedSupplier =
+                MemoizedSupplier.of(
+                        () -> {
+                            buildCount.incrementAndGet();
+                            return null;
+                        });
+
+        assertNull(memoizedSupplier.get());
+        assertNull(memoizedSupplier.get());
+        assertEquals(1, buildCount.get());
+    }
+
+    @Test
+    void shouldReturnAnAlreadyResolvedValue() {
+        Object value = new Object();
+
+        MemoizedSupplier<Object> memoizedSupplier = MemoizedSupplier.resolved(value);
+
+        assertTrue(memoizedSupplier.isResolved());
+        assertSame(value, memoizedSupplier.get());
+    }
+
+    @Test
+    void shouldRecordTheBuildTimeLessTheTimeSpentBuildingADependency() {
+        MemoizedSupplier<String> dependency =
+                MemoizedSupplier.of(
+                        () -> {
+                            sleep(100);
+                            return "dependency";
+                        });
+        MemoizedSupplier<String> dependent =
+                MemoizedSupplier.of(() -> dependency.get() + " dependent");
+
+        assertEquals(-1, dependent.getBuildDurationMillis());
+
+        assertEquals("dependency dependent", dependent.get());
+
+        assertTrue(dependency.getBuildDurationMillis() >= 100);
+        assertTrue(dependent.getBuildDurationMillis() < 100);
+    }
+
+    @Test
+    void shouldNotRecordABuildTimeForAnAlreadyResolvedValue() {
+        assertEquals(-1, MemoizedSupplier.resolved(new Object()).getBuildDurationMillis());
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
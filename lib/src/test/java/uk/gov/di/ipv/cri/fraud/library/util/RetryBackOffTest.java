@@ -0,0 +1,69 @@
+package uk.gov.di.ipv.cri.fraud.library.util;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static uk.gov.di.ipv.cri.fraud.library.util.RetryBackOff.BASE_DELAY_MS;
+
+class RetryBackOffTest {
+
+    private static final long MAX_TEST_DELAY = 6400L;
+
+    @ParameterizedTest
+    @EnumSource(RetryBackOff.Jitter.class)
+    void shouldNotDelayFirstCall(RetryBackOff.Jitter jitter) {
+        RetryBackOff retryBackOff = new RetryBackOff(MAX_TEST_DELAY, jitter);
+
+        assertEquals(0, retryBackOff.calculateDelayMs(0, 0));
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 2, 3, 4})
+    void shouldDelay2P100ForCallNWithoutJitter(int callNumber) {
+        RetryBackOff retryBackOff = new RetryBackOff(MAX_TEST_DELAY, RetryBackOff.Jitter.NONE);
+
+        long expectedDelay = (long) Math.pow(2, callNumber - 1) * BASE_DELAY_MS;
+
+        assertEquals(expectedDelay, retryBackOff.calculateDelayMs(callNumber, 0));
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 2, 3, 4})
+    void shouldDelayBetween0And2P100ForCallNWithFullJitter(int callNumber) {
+        RetryBackOff retryBackOff = new RetryBackOff(MAX_TEST_DELAY, RetryBackOff.Jitter.FULL);
+
+        long maxExpectedDelay = (long) Math.pow(2, callNumber - 1) * BASE_DELAY_MS;
+
+        for (int i = 0; i < 100; i++) {
+            long delay = retryBackOff.calculateDelayMs(callNumber, 0);
+            assertTrue(delay >= 0 && delay <= maxExpectedDelay);
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(longs = {0, 100, 500, 1000})
+    void shouldDelayBetweenBaseAnd3xPreviousDelayWithDecorrelatedJitter(long previousDelay) {
+        RetryBackOff retryBackOff =
+                new RetryBackOff(MAX_TEST_DELAY, RetryBackOff.Jitter.DECORRELATED);
+
+        long maxExpectedDelay = Math.max(BASE_DELAY_MS, previousDelay) * 3;
+
+        for (int i = 0; i < 100; i++) {
+            long delay = retryBackOff.calculateDelayMs(2, previousDelay);
+            assertTrue(delay >= BASE_DELAY_MS && delay <= maxExpectedDelay);
+        }
+    }
+
+    @ParameterizedTest
+    @EnumSource(RetryBackOff.Jitter.class)
+    void shouldNeverDelayMoreThanMaxDelay(RetryBackOff.Jitter jitter) {
+        RetryBackOff retryBackOff = new RetryBackOff(MAX_TEST_DELAY, jitter);
+
+        for (int i = 0; i < 100; i++) {
+            assertTrue(retryBackOff.calculateDelayMs(40, MAX_TEST_DELAY) <= MAX_TEST_DELAY);
+        }
+    }
+}
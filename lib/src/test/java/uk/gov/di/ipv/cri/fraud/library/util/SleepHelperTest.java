@@ -8,6 +8,7 @@ import org.junit.jupiter.params.provider.ValueSource;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 @ExtendWith(MockitoExtension.class)
 class SleepHelperTest {
@@ -26,41 +27,30 @@ class SleepHelperTest {
         sleepHelper = new SleepHelper(MAX_TEST_SLEEP);
     }
 
-    @Test
-    void shouldBusyWait0msWhenCalledOnce() {
-        long expectedWait = 0;
-
-        long waitTime = sleepHelper.busyWaitWithExponentialBackOff(0);
-
-        assertEquals(expectedWait, waitTime, EPSILON);
-    }
-
     @ParameterizedTest
-    @ValueSource(ints = {1, 2, 3})
-    void shouldBusyWait2P100ForCallN(int callNumber) {
-        long baseWaitTime = 100;
-        long power = callNumber - 1;
-
-        long expectedWait = (long) Math.pow(2, power) * baseWaitTime;
+    @ValueSource(ints = {250, 500, 750, 1000})
+    void shouldSleepNMilliseconds(int expectedWaitTime) {
 
-        long waitTime = sleepHelper.busyWaitWithExponentialBackOff(callNumber);
+        long waitTime = sleepHelper.sleepMilliseconds(expectedWaitTime);
 
-        assertEquals(expectedWait, waitTime, EPSILON);
+        assertEquals(expectedWaitTime, waitTime, EPSILON);
     }
 
     @Test
-    void shouldBusyWaitMaxTimeWhenWaitIsOverMaxSleep() {
-        long waitTime = sleepHelper.busyWaitWithExponentialBackOff(20);
+    void shouldSleepMaxTimeWhenSleepIsOverMaxSleep() {
+        long waitTime = sleepHelper.sleepMilliseconds(MAX_TEST_SLEEP * 2);
 
         assertEquals(MAX_TEST_SLEEP, waitTime, EPSILON);
     }
 
-    @ParameterizedTest
-    @ValueSource(ints = {250, 500, 750, 1000})
-    void shouldBusyWaitNMilliseconds(int expectedWaitTime) {
+    @Test
+    void shouldEndSleepEarlyAndKeepInterruptFlagWhenInterrupted() {
+        Thread.currentThread().interrupt();
 
-        long waitTime = sleepHelper.busyWaitMilliseconds(expectedWaitTime);
+        long waitTime = sleepHelper.sleepMilliseconds(1000);
 
-        assertEquals(expectedWaitTime, waitTime, EPSILON);
+        // Clears the flag for other tests
+        assertTrue(Thread.interrupted());
+        assertEquals(0, waitTime, EPSILON);
     }
 }
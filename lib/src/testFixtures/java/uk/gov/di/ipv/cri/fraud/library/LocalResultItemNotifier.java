@@ -0,0 +1,38 @@
+package uk.gov.di.ipv.cri.fraud.library;
+
+import uk.gov.di.ipv.cri.fraud.library.service.ResultItemNotifier;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/** In process stand-in for tests, waiters are released as soon as a result is notified. */
+public class LocalResultItemNotifier<T> implements ResultItemNotifier<T> {
+
+    private final Map<UUID, CompletableFuture<T>> results = new ConcurrentHashMap<>();
+
+    @Override
+    public T awaitResultItem(UUID sessionId, long maxWaitDurationMs) {
+        try {
+            return resultFor(sessionId).get(maxWaitDurationMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (ExecutionException | TimeoutException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public void notifyResultItemSaved(UUID sessionId, T resultItem) {
+        resultFor(sessionId).complete(resultItem);
+    }
+
+    private CompletableFuture<T> resultFor(UUID sessionId) {
+        return results.computeIfAbsent(sessionId, id -> new CompletableFuture<>());
+    }
+}
@@ -0,0 +1,135 @@
+package uk.gov.di.ipv.cri.fraud.library;
+
+import software.amazon.awssdk.awscore.AwsRequestOverrideConfiguration;
+import software.amazon.awssdk.services.sqs.SqsClient;
+import software.amazon.awssdk.services.sqs.model.BatchResultErrorEntry;
+import software.amazon.awssdk.services.sqs.model.SendMessageBatchRequest;
+import software.amazon.awssdk.services.sqs.model.SendMessageBatchRequestEntry;
+import software.amazon.awssdk.services.sqs.model.SendMessageBatchResponse;
+import software.amazon.awssdk.services.sqs.model.SendMessageBatchResultEntry;
+import software.amazon.awssdk.services.sqs.model.SendMessageRequest;
+import software.amazon.awssdk.services.sqs.model.SendMessageResponse;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * In process stand-in for SQS in tests. Messages are kept per queue in the order they were sent,
+ * the API call timeout of each batch request is recorded, and sends can be made to fail.
+ */
+public class LocalSqsClient implements SqsClient {
+
+    private final Map<String, List<String>> queues = new ConcurrentHashMap<>();
+    private final List<Integer> batchSizes = Collections.synchronizedList(new ArrayList<>());
+    private final List<Duration> apiCallTimeouts =
+            Collections.synchronizedList(new ArrayList<>());
+
+    private final AtomicInteger entriesToFail = new AtomicInteger();
+    private volatile boolean failedEntriesAreSenderFaults;
+
+    private final AtomicReference<RuntimeException> nextRequestFailure = new AtomicReference<>();
+
+    /** The next entries sent in a batch are reported back as failed. */
+    public void failNextEntries(int count, boolean senderFault) {
+        failedEntriesAreSenderFaults = senderFault;
+        entriesToFail.set(count);
+    }
+
+    /** The next request throws the exception. */
+    public void failNextRequest(RuntimeException exception) {
+        nextRequestFailure.set(exception);
+    }
+
+    public List<String> getMessageBodies(String queueUrl) {
+        return List.copyOf(queueFor(queueUrl));
+    }
+
+    /** Number of entries in each SendMessageBatch request, failed requests included. */
+    public List<Integer> getBatchSizes() {
+        synchronized (batchSizes) {
+            return List.copyOf(batchSizes);
+        }
+    }
+
+    /** API call timeout set on each SendMessageBatch request, null where none was set. */
+    public List<Duration> getApiCallTimeouts() {
+        synchronized (apiCallTimeouts) {
+            return new ArrayList<>(apiCallTimeouts);
+        }
+    }
+
+    @Override
+    public SendMessageResponse sendMessage(SendMessageRequest sendMessageRequest) {
+        throwIfFailing();
+
+        queueFor(sendMessageRequest.queueUrl()).add(sendMessageRequest.messageBody());
+
+        return SendMessageResponse.builder().messageId(UUID.randomUUID().toString()).build();
+    }
+
+    @Override
+    public SendMessageBatchResponse sendMessageBatch(
+            SendMessageBatchRequest sendMessageBatchRequest) {
+        batchSizes.add(sendMessageBatchRequest.entries().size());
+        apiCallTimeouts.add(
+                sendMessageBatchRequest
+                        .overrideConfiguration()
+                        .flatMap(AwsRequestOverrideConfiguration::apiCallTimeout)
+                        .orElse(null));
+        throwIfFailing();
+
+        List<String> queue = queueFor(sendMessageBatchRequest.queueUrl());
+
+        List<SendMessageBatchResultEntry> successful = new ArrayList<>();
+        List<BatchResultErrorEntry> failed = new ArrayList<>();
+
+        for (SendMessageBatchRequestEntry entry : sendMessageBatchRequest.entries()) {
+            if (entriesToFail.getAndUpdate(count -> Math.max(0, count - 1)) > 0) {
+                failed.add(
+                        BatchResultErrorEntry.builder()
+                                .id(entry.id())
+                                .code("InternalError")
+                                .senderFault(failedEntriesAreSenderFaults)
+                                .build());
+            } else {
+                queue.add(entry.messageBody());
+                successful.add(
+                        SendMessageBatchResultEntry.builder()
+                                .id(entry.id())
+                                .messageId(UUID.randomUUID().toString())
+                                .build());
+            }
+        }
+
+        return SendMessageBatchResponse.builder().successful(successful).failed(failed).build();
+    }
+
+    @Override
+    public String serviceName() {
+        return SERVICE_NAME;
+    }
+
+    @Override
+    public void close() {
+        // Nothing to release
+    }
+
+    private List<String> queueFor(String queueUrl) {
+        return queues.computeIfAbsent(
+                queueUrl, url -> Collections.synchronizedList(new ArrayList<>()));
+    }
+
+    private void throwIfFailing() {
+        RuntimeException failure = nextRequestFailure.getAndSet(null);
+        if (failure != null) {
+            throw failure;
+        }
+    }
+}